@@ -0,0 +1,58 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+import static org.openjdk.jmh.results.format.ResultFormatType.JSON;
+import static slash.common.system.Version.parseVersionFromManifest;
+
+/**
+ * Runs the benchmarks with the JMH command line options and writes the results as JSON
+ * to <code>benchmarks-&lt;version&gt;.json</code> unless told otherwise.
+ *
+ * @author Christian Pesch
+ */
+
+public class Benchmarks {
+    private static final Logger log = Logger.getLogger(Benchmarks.class.getName());
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue())
+            options.resultFormat(JSON);
+        if (!commandLineOptions.getResult().hasValue()) {
+            File result = new File("benchmarks-" + parseVersionFromManifest().getVersion() + ".json");
+            options.result(result.getAbsolutePath());
+            log.info("Writing benchmark results to " + result.getAbsolutePath());
+        }
+        new Runner(options.build()).run();
+    }
+}
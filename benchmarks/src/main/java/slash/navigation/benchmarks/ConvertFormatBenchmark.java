@@ -0,0 +1,68 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import slash.navigation.base.BaseNavigationFormat;
+import slash.navigation.base.BaseNavigationPosition;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatConverter;
+import slash.navigation.base.TrackGenerator;
+import slash.navigation.gpx.GpxRoute;
+
+import java.io.IOException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * Benchmarks {@link NavigationFormatConverter#asFormat(BaseRoute, NavigationFormat)} from GPX
+ * to the other format families.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConvertFormatBenchmark {
+    @Param({"KML", "NMEA", "CSV", "FIT", "EXCEL"})
+    private ReadFormatBenchmark.FormatFamily formatFamily;
+
+    @Param({"10000", "100000", "1000000"})
+    private int positionCount;
+
+    private GpxRoute route;
+
+    @Setup
+    public void setUp() {
+        route = new TrackGenerator(positionCount).createRoute();
+    }
+
+    @Benchmark
+    public BaseRoute<BaseNavigationPosition, BaseNavigationFormat> asFormat() throws IOException {
+        return NavigationFormatConverter.asFormat(route, formatFamily.getFormat());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Date;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static slash.common.type.CompactCalendar.createDateFormat;
+import static slash.common.type.CompactCalendar.fromMillis;
+
+/**
+ * Compares the {@link DateTimeCodec} with a {@link DateFormat} per value like the formats
+ * used to create.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateTimeBenchmark {
+    @Param({"ddMMyy HHmmss.SSS", "yyyy-MM-dd HH:mm:ss", "dd.MM.yyyy HH:mm", "dd MMMMM yyyy HH:mm:ss"})
+    private String pattern;
+
+    private String text;
+    private CompactCalendar time;
+
+    @Setup
+    public void setUp() {
+        time = fromMillis(1577882096789L);
+        text = DateTimeCodec.format(time, pattern);
+    }
+
+    @Benchmark
+    public CompactCalendar parseWithCodec() {
+        return DateTimeCodec.parse(text, pattern);
+    }
+
+    @Benchmark
+    public Date parseWithDateFormat() throws ParseException {
+        return createDateFormat(pattern).parse(text);
+    }
+
+    @Benchmark
+    public String formatWithCodec() {
+        return DateTimeCodec.format(time, pattern);
+    }
+
+    @Benchmark
+    public String formatWithDateFormat() {
+        return createDateFormat(pattern).format(time.getTime());
+    }
+}
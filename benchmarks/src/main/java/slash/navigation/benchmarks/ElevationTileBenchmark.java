@@ -0,0 +1,86 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import slash.navigation.hgt.ElevationTile;
+
+import java.io.*;
+import java.util.Random;
+
+import static java.io.File.createTempFile;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * Benchmarks {@link ElevationTile#getElevationFor(Double, Double)} on a generated SRTM3 tile.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ElevationTileBenchmark {
+    private static final int SRTM3_POSITIONS = 1201;
+    private static final int COORDINATE_COUNT = 1024;
+
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private ElevationTile tile;
+    private final double[] longitudes = new double[COORDINATE_COUNT];
+    private final double[] latitudes = new double[COORDINATE_COUNT];
+    private int index;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = createTempFile("benchmark-", ".hgt");
+        file.deleteOnExit();
+        Random random = new Random(SRTM3_POSITIONS);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int i = 0; i < SRTM3_POSITIONS * SRTM3_POSITIONS; i++)
+                output.writeShort(random.nextInt(2000));
+        }
+        randomAccessFile = new RandomAccessFile(file, "r");
+        tile = new ElevationTile(randomAccessFile);
+
+        for (int i = 0; i < COORDINATE_COUNT; i++) {
+            longitudes[i] = 9.0 + random.nextDouble();
+            latitudes[i] = 53.0 + random.nextDouble();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        randomAccessFile.close();
+        if (!file.delete())
+            file.deleteOnExit();
+    }
+
+    @Benchmark
+    public Double getElevationFor() throws IOException {
+        int i = index++ & (COORDINATE_COUNT - 1);
+        return tile.getElevationFor(longitudes[i], latitudes[i]);
+    }
+}
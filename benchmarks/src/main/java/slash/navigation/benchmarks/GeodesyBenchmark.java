@@ -0,0 +1,80 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import slash.navigation.base.RouteCalculations;
+import slash.navigation.base.TrackGenerator;
+import slash.navigation.common.Bearing;
+import slash.navigation.gpx.GpxPosition;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * Benchmarks {@link Bearing#calculateBearing(double, double, double, double)} and
+ * {@link RouteCalculations#getSignificantPositions(List, double)} along a track.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GeodesyBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int positionCount;
+
+    @Param({"5.0", "50.0"})
+    private double threshold;
+
+    private List<GpxPosition> positions;
+    private double[] longitudes, latitudes;
+
+    @Setup
+    public void setUp() {
+        positions = new TrackGenerator(positionCount).createPositions();
+        longitudes = new double[positionCount];
+        latitudes = new double[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            GpxPosition position = positions.get(i);
+            longitudes[i] = position.getLongitude();
+            latitudes[i] = position.getLatitude();
+        }
+    }
+
+    @Benchmark
+    public void calculateBearing(Blackhole blackhole) {
+        for (int i = 1; i < positionCount; i++)
+            blackhole.consume(Bearing.calculateBearing(longitudes[i - 1], latitudes[i - 1], longitudes[i], latitudes[i]));
+    }
+
+    @Benchmark
+    public int[] getSignificantPositions() {
+        return RouteCalculations.getSignificantPositions(positions, threshold);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import slash.navigation.base.TrackGenerator;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.converter.gui.models.PositionsModelImpl;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+/**
+ * Benchmarks edits of the {@link PositionsModelImpl}. Every benchmark leaves the
+ * positions as it found them.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class PositionsModelBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int positionCount;
+
+    private PositionsModelImpl model;
+    private int[] everyHundredthRow, reversal;
+
+    @Setup
+    public void setUp() {
+        model = new PositionsModelImpl();
+        model.setRoute(new TrackGenerator(positionCount).createRoute());
+
+        everyHundredthRow = new int[positionCount / 100];
+        for (int i = 0; i < everyHundredthRow.length; i++)
+            everyHundredthRow[i] = i * 100;
+        reversal = new int[positionCount];
+        for (int i = 0; i < positionCount; i++)
+            reversal[i] = positionCount - 1 - i;
+    }
+
+    @Benchmark
+    public void addAndRemoveInTheMiddle() {
+        int row = positionCount / 2;
+        model.add(row, 10.0, 53.5, 20.0, null, null, "Inserted");
+        model.remove(row, row + 1);
+    }
+
+    @Benchmark
+    public void removeAndAddEveryHundredth() {
+        List<NavigationPosition> removed = model.remove(everyHundredthRow, true);
+        model.add(everyHundredthRow, removed, true);
+    }
+
+    @Benchmark
+    public void permuteTwice() {
+        model.permute(reversal);
+        model.permute(reversal);
+    }
+
+    @Benchmark
+    public void revertTwice() {
+        model.revert();
+        model.revert();
+    }
+}
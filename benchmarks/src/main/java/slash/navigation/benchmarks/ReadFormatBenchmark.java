@@ -0,0 +1,107 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserResult;
+import slash.navigation.base.TrackGenerator;
+import slash.navigation.csv.CsvCommaFormat;
+import slash.navigation.excel.MicrosoftExcel2008Format;
+import slash.navigation.fit.FitFormat;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.kml.Kml22Format;
+import slash.navigation.nmea.NmeaFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.SingleShotTime;
+
+/**
+ * Benchmarks {@link NavigationFormatParser#read(File, List)} for the format families.
+ *
+ * The default sizes stop at a million positions; pass <code>-p positionCount=10000000</code>
+ * for the largest tracks.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ReadFormatBenchmark {
+    public enum FormatFamily {
+        GPX(new Gpx11Format()),
+        KML(new Kml22Format()),
+        NMEA(new NmeaFormat()),
+        CSV(new CsvCommaFormat()),
+        FIT(new FitFormat()),
+        EXCEL(new MicrosoftExcel2008Format());
+
+        private final NavigationFormat format;
+
+        FormatFamily(NavigationFormat format) {
+            this.format = format;
+        }
+
+        public NavigationFormat getFormat() {
+            return format;
+        }
+    }
+
+    @Param({"GPX", "KML", "NMEA", "CSV", "FIT", "EXCEL"})
+    private FormatFamily formatFamily;
+
+    @Param({"10000", "100000", "1000000"})
+    private int positionCount;
+
+    private NavigationFormatParser parser;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = new NavigationFormatParser(new NavigationFormatRegistry());
+        file = new TrackGenerator(positionCount).writeToTemporaryFile(formatFamily.getFormat());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (file != null && !file.delete())
+            file.deleteOnExit();
+    }
+
+    @Benchmark
+    public ParserResult read() throws IOException {
+        ParserResult result = parser.read(file, singletonList(formatFamily.getFormat()));
+        if (!result.isSuccessful())
+            throw new IllegalStateException("Could not read " + file + " as " + formatFamily);
+        return result;
+    }
+}
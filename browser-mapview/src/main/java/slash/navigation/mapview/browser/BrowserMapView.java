@@ -1858,10 +1858,12 @@ public abstract class BrowserMapView extends BaseMapView {
     private class PositionsModelListener implements TableModelListener {
         public void tableChanged(TableModelEvent e) {
             boolean insertOrDelete = e.getType() == INSERT || e.getType() == DELETE;
-            boolean allRowsChanged = isFirstToLastRow(e);
+            // rows removed or inserted at scattered indices are no loading of a file
+            boolean bulkChange = positionsModel.isBulkChange();
+            boolean allRowsChanged = isFirstToLastRow(e) && !bulkChange;
             // used to be limited to single rows which did work reliably but with usability problems
             // if (e.getFirstRow() == e.getLastRow() && insertOrDelete)
-            if (!allRowsChanged && insertOrDelete)
+            if ((!allRowsChanged && insertOrDelete) || bulkChange)
                 updateRouteButDontRecenter();
             else {
                 // ignored updates on columns not displayed
@@ -21,6 +21,7 @@
 package slash.navigation.gui.events;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import static java.lang.Integer.MAX_VALUE;
@@ -90,6 +91,18 @@ public class Range {
         return reverted;
     }
 
+    public static int[] asDistinctIncreasing(int[] indices) {
+        BitSet distinct = new BitSet();
+        for (int index : indices)
+            distinct.set(index);
+        return distinct.stream().toArray();
+    }
+
+    public static boolean isContinuous(int[] distinctIncreasingIndices) {
+        int length = distinctIncreasingIndices.length;
+        return length == 0 || distinctIncreasingIndices[length - 1] - distinctIncreasingIndices[0] == length - 1;
+    }
+
     public static int[] increment(int[] indices, int delta) {
         int[] incremented = new int[indices.length];
         for (int i = 0; i < indices.length; i++) {
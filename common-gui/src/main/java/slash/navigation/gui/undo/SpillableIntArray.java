@@ -0,0 +1,107 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gui.undo;
+
+import java.io.*;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+import static java.io.File.createTempFile;
+import static slash.common.io.Directories.getTemporaryDirectory;
+
+/**
+ * Holds an int array for an {@link SizedUndoableEdit} that is written to a temporary file
+ * if it is larger than the spill threshold.
+ *
+ * @author Christian Pesch
+ */
+
+public class SpillableIntArray {
+    private static final Logger log = Logger.getLogger(SpillableIntArray.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(SpillableIntArray.class);
+    private static final String SPILL_THRESHOLD_PREFERENCE = "undoSpillThreshold";
+    private static final int ARRAY_OVERHEAD = 16;
+
+    private int[] values;
+    private final int length;
+    private File file;
+
+    public SpillableIntArray(int[] values) {
+        this(values, preferences.getInt(SPILL_THRESHOLD_PREFERENCE, 1024 * 1024));
+    }
+
+    SpillableIntArray(int[] values, int spillThreshold) {
+        this.values = values;
+        this.length = values.length;
+        if (spillThreshold >= 0 && (long) length * 4 > spillThreshold)
+            spill();
+    }
+
+    private void spill() {
+        try {
+            File temp = createTempFile("undo", ".bin", getTemporaryDirectory());
+            temp.deleteOnExit();
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                for (int value : values)
+                    outputStream.writeInt(value);
+            }
+            this.file = temp;
+            this.values = null;
+        } catch (IOException e) {
+            log.warning("Cannot spill " + length + " undo values: " + e);
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    public int[] get() {
+        if (values != null)
+            return values;
+        if (file == null)
+            throw new IllegalStateException("Undo values have been discarded");
+
+        int[] result = new int[length];
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            for (int i = 0; i < length; i++)
+                result[i] = inputStream.readInt();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + length + " undo values from " + file, e);
+        }
+        return result;
+    }
+
+    public long getSize() {
+        return values != null ? ARRAY_OVERHEAD + (long) length * 4 : ARRAY_OVERHEAD;
+    }
+
+    public void discard() {
+        values = null;
+        if (file != null && file.exists() && !file.delete())
+            log.warning("Cannot delete undo file " + file);
+        file = null;
+    }
+}
@@ -25,6 +25,7 @@ import slash.navigation.gui.Application;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.EventListenerList;
 import javax.swing.undo.UndoableEdit;
+import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
 /**
@@ -34,12 +35,41 @@ import java.util.prefs.Preferences;
  */
 
 public class UndoManager {
+    private static final Logger log = Logger.getLogger(UndoManager.class.getName());
     private static final Preferences preferences = Preferences.userNodeForPackage(UndoManager.class);
-    private final javax.swing.undo.UndoManager delegate = new javax.swing.undo.UndoManager();
+    private static final String UNDO_LIMIT_PREFERENCE = "undoLimit";
+    private static final String UNDO_MEMORY_LIMIT_PREFERENCE = "undoMemoryLimit";
+    private static final long DEFAULT_EDIT_SIZE = 64;
+
+    private final BudgetUndoManager delegate = new BudgetUndoManager();
     private final EventListenerList listenerList = new EventListenerList();
+    private long memoryLimit;
 
     public UndoManager() {
-        delegate.setLimit(preferences.getInt("undoLimit", -1));
+        this(preferences.getLong(UNDO_MEMORY_LIMIT_PREFERENCE, 64 * 1024 * 1024));
+    }
+
+    public UndoManager(long memoryLimit) {
+        delegate.setLimit(preferences.getInt(UNDO_LIMIT_PREFERENCE, -1));
+        this.memoryLimit = memoryLimit;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        delegate.trimToMemoryLimit();
+        fireChanged();
+    }
+
+    public long getSize() {
+        return delegate.getSize();
+    }
+
+    public int getEditCount() {
+        return delegate.getEditCount();
     }
 
     public boolean canUndo() {
@@ -70,6 +100,7 @@ public class UndoManager {
 
     public void addEdit(UndoableEdit undoableEdit) {
         delegate.addEdit(undoableEdit);
+        delegate.trimToMemoryLimit();
         fireChanged();
     }
 
@@ -90,4 +121,38 @@ public class UndoManager {
     public void addChangeListener(ChangeListener l) {
         listenerList.add(ChangeListener.class, l);
     }
+
+    static long getSize(UndoableEdit edit) {
+        return edit instanceof SizedUndoableEdit ? ((SizedUndoableEdit) edit).getSize() : DEFAULT_EDIT_SIZE;
+    }
+
+    private class BudgetUndoManager extends javax.swing.undo.UndoManager {
+        synchronized long getSize() {
+            long size = 0;
+            for (UndoableEdit edit : edits)
+                size += UndoManager.getSize(edit);
+            return size;
+        }
+
+        synchronized int getEditCount() {
+            return edits.size();
+        }
+
+        synchronized void trimToMemoryLimit() {
+            if (memoryLimit < 0)
+                return;
+
+            long size = getSize();
+            int count = 0;
+            // keeps at least the latest edit even if it exceeds the limit on its own
+            while (size > memoryLimit && count < edits.size() - 1) {
+                size -= UndoManager.getSize(edits.get(count));
+                count++;
+            }
+            if (count > 0) {
+                trimEdits(0, count - 1);
+                log.fine("Discarded " + count + " oldest undo edits to stay within " + memoryLimit + " bytes");
+            }
+        }
+    }
 }
@@ -24,7 +24,7 @@ import org.junit.Test;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import static slash.common.TestCase.assertIntArrayEquals;
 import static slash.navigation.gui.events.Range.*;
 
@@ -35,6 +35,20 @@ public class RangeTest {
         assertIntArrayEquals(new int[]{0, 1}, asRange(0, 1));
     }
 
+    @Test
+    public void testAsDistinctIncreasing() {
+        assertIntArrayEquals(new int[0], asDistinctIncreasing(new int[0]));
+        assertIntArrayEquals(new int[]{0, 2, 3, 7}, asDistinctIncreasing(new int[]{7, 3, 0, 2, 3, 7}));
+    }
+
+    @Test
+    public void testIsContinuous() {
+        assertTrue(isContinuous(new int[0]));
+        assertTrue(isContinuous(new int[]{4}));
+        assertTrue(isContinuous(new int[]{4, 5, 6}));
+        assertFalse(isContinuous(new int[]{4, 6}));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testAsContinuousMonotonicallyIncreasingRanges() {
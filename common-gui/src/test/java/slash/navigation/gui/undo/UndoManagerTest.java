@@ -0,0 +1,107 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gui.undo;
+
+import org.junit.Test;
+
+import javax.swing.undo.AbstractUndoableEdit;
+
+import static org.junit.Assert.*;
+
+public class UndoManagerTest {
+
+    private static class Edit extends AbstractUndoableEdit implements SizedUndoableEdit {
+        private final long size;
+        private boolean dead;
+
+        Edit(long size) {
+            this.size = size;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void die() {
+            super.die();
+            dead = true;
+        }
+    }
+
+    @Test
+    public void testDiscardsOldestEditsAboveMemoryLimit() {
+        UndoManager undoManager = new UndoManager(1000);
+        Edit first = new Edit(400);
+        Edit second = new Edit(400);
+        Edit third = new Edit(400);
+        undoManager.addEdit(first);
+        undoManager.addEdit(second);
+        assertEquals(2, undoManager.getEditCount());
+        assertEquals(800, undoManager.getSize());
+
+        undoManager.addEdit(third);
+        assertEquals(2, undoManager.getEditCount());
+        assertEquals(800, undoManager.getSize());
+        assertTrue(first.dead);
+        assertFalse(second.dead);
+
+        undoManager.undo();
+        undoManager.undo();
+        assertFalse(undoManager.canUndo());
+        assertTrue(undoManager.canRedo());
+    }
+
+    @Test
+    public void testKeepsLatestEditAboveMemoryLimit() {
+        UndoManager undoManager = new UndoManager(100);
+        undoManager.addEdit(new Edit(50));
+        undoManager.addEdit(new Edit(500));
+        assertEquals(1, undoManager.getEditCount());
+        assertTrue(undoManager.canUndo());
+    }
+
+    @Test
+    public void testReduceMemoryLimit() {
+        UndoManager undoManager = new UndoManager(-1);
+        for (int i = 0; i < 10; i++)
+            undoManager.addEdit(new Edit(100));
+        assertEquals(10, undoManager.getEditCount());
+
+        undoManager.setMemoryLimit(250);
+        assertEquals(2, undoManager.getEditCount());
+    }
+
+    @Test
+    public void testSpillIntArray() {
+        int[] values = new int[]{5, 3, 1, 4, 2};
+        SpillableIntArray inMemory = new SpillableIntArray(values, 100);
+        assertFalse(inMemory.isSpilled());
+        assertSame(values, inMemory.get());
+
+        SpillableIntArray spilled = new SpillableIntArray(values, 8);
+        assertTrue(spilled.isSpilled());
+        assertEquals(5, spilled.length());
+        assertTrue(spilled.getSize() < inMemory.getSize());
+        assertArrayEquals(values, spilled.get());
+        spilled.discard();
+        assertFalse(spilled.isSpilled());
+    }
+}
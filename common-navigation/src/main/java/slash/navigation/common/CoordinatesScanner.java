@@ -0,0 +1,239 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import static java.lang.Double.NaN;
+import static java.util.Arrays.copyOf;
+import static java.lang.Double.isNaN;
+import static slash.common.io.Transfer.parseDouble;
+
+/**
+ * Scans KML coordinate tuples like <code>lon,lat[,ele] lon,lat[,ele]</code> and
+ * <code>gx:coord</code> triples like <code>lon lat ele</code> without regular expressions
+ * and intermediate strings.
+ *
+ * @author Christian Pesch
+ */
+
+public class CoordinatesScanner {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAXIMUM_EXACT_DIGITS = 15;
+
+    private CoordinatesScanner() {}
+
+    /**
+     * Receives the scanned tuples, missing values are passed as {@link Double#NaN}.
+     */
+    public interface TupleConsumer {
+        void accept(double longitude, double latitude, double elevation);
+    }
+
+    public static Double asDouble(double value) {
+        return isNaN(value) ? null : value;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isNumber(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'E' || c == 'e';
+    }
+
+    private static int skipWhitespace(CharSequence string, int index, int length) {
+        while (index < length && isWhitespace(string.charAt(index)))
+            index++;
+        return index;
+    }
+
+    private static int skipNumber(CharSequence string, int index, int length) {
+        while (index < length && isNumber(string.charAt(index)))
+            index++;
+        return index;
+    }
+
+    /**
+     * Scans tuples of comma separated longitude, latitude and an optional elevation which
+     * are separated by whitespace.
+     *
+     * @param coordinates the tuples to scan
+     * @param consumer    receives each tuple
+     * @return the number of tuples scanned
+     */
+    public static int scanPositions(CharSequence coordinates, TupleConsumer consumer) {
+        int length = coordinates.length();
+        double[] values = new double[3];
+        int count = 0;
+        int index = 0;
+        while (index < length) {
+            int tupleStart = index = skipWhitespace(coordinates, index, length);
+            if (index == length)
+                break;
+
+            int valueCount = 0;
+            while (true) {
+                int start = index;
+                index = skipNumber(coordinates, index, length);
+                values[valueCount++] = parseNumber(coordinates, start, index);
+                index = skipWhitespace(coordinates, index, length);
+                if (valueCount < 3 && index < length && coordinates.charAt(index) == ',') {
+                    index = skipWhitespace(coordinates, index + 1, length);
+                    continue;
+                }
+                break;
+            }
+
+            if (valueCount > 1) {
+                consumer.accept(values[0], values[1], valueCount > 2 ? values[2] : NaN);
+                count++;
+            } else if (index == tupleStart)
+                // skip garbage
+                index++;
+        }
+        return count;
+    }
+
+    /**
+     * Scans triples of longitude, latitude and elevation which are separated by
+     * whitespace or commas.
+     *
+     * @param coordinates the triples to scan
+     * @param consumer    receives each triple
+     * @return the number of triples scanned
+     */
+    public static int scanExtensionPositions(CharSequence coordinates, TupleConsumer consumer) {
+        int length = coordinates.length();
+        double[] values = new double[3];
+        int valueCount = 0;
+        int count = 0;
+        int index = 0;
+        while (index < length) {
+            char c = coordinates.charAt(index);
+            if (!isNumber(c)) {
+                index++;
+                continue;
+            }
+
+            int start = index;
+            index = skipNumber(coordinates, index, length);
+            values[valueCount++] = parseNumber(coordinates, start, index);
+            if (valueCount == 3) {
+                consumer.accept(values[0], values[1], values[2]);
+                valueCount = 0;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scans tuples like {@link #scanPositions(CharSequence, TupleConsumer)} into an array.
+     *
+     * @param coordinates the tuples to scan
+     * @return longitude, latitude and elevation of each tuple, {@link Double#NaN} for missing values
+     */
+    public static double[] scanPositionsToArray(CharSequence coordinates) {
+        final double[][] result = new double[][]{new double[3 * 16]};
+        final int[] size = new int[1];
+        scanPositions(coordinates, (longitude, latitude, elevation) -> {
+            if (size[0] + 3 > result[0].length)
+                result[0] = copyOf(result[0], result[0].length * 2);
+            result[0][size[0]++] = longitude;
+            result[0][size[0]++] = latitude;
+            result[0][size[0]++] = elevation;
+        });
+        return copyOf(result[0], size[0]);
+    }
+
+    /**
+     * Parses a decimal number exactly if it has at most 15 significant digits and a
+     * small exponent, otherwise with {@link Double#parseDouble(String)}.
+     */
+    static double parseNumber(CharSequence string, int start, int end) {
+        if (start == end)
+            return NaN;
+
+        int index = start;
+        char c = string.charAt(index);
+        boolean negative = c == '-';
+        if (negative || c == '+')
+            index++;
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false, dot = false;
+        for (; index < end; index++) {
+            c = string.charAt(index);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (digits < MAXIMUM_EXACT_DIGITS + 1) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0)
+                        digits++;
+                    if (dot)
+                        exponent--;
+                } else
+                    // too many digits for the exact path
+                    return parseSlowly(string, start, end);
+            } else if (c == '.' && !dot)
+                dot = true;
+            else
+                break;
+        }
+
+        if (index < end) {
+            if ((c != 'E' && c != 'e') || !anyDigit)
+                return parseSlowly(string, start, end);
+            index++;
+            boolean negativeExponent = false;
+            if (index < end && (string.charAt(index) == '-' || string.charAt(index) == '+')) {
+                negativeExponent = string.charAt(index) == '-';
+                index++;
+            }
+            int exponentStart = index, value = 0;
+            for (; index < end; index++) {
+                c = string.charAt(index);
+                if (c < '0' || c > '9' || index - exponentStart > 3)
+                    return parseSlowly(string, start, end);
+                value = value * 10 + (c - '0');
+            }
+            if (index == exponentStart)
+                return parseSlowly(string, start, end);
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (!anyDigit || digits > MAXIMUM_EXACT_DIGITS || exponent < -22 || exponent > 22)
+            return parseSlowly(string, start, end);
+
+        double result = mantissa;
+        result = exponent < 0 ? result / POWERS_OF_TEN[-exponent] : result * POWERS_OF_TEN[exponent];
+        return negative ? -result : result;
+    }
+
+    private static double parseSlowly(CharSequence string, int start, int end) {
+        Double result = parseDouble(string.subSequence(start, end).toString());
+        return result != null ? result : NaN;
+    }
+}
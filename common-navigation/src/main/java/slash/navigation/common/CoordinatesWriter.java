@@ -0,0 +1,76 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Math.abs;
+import static slash.common.io.Transfer.formatDoubleAsString;
+import static slash.common.io.Transfer.roundFraction;
+import static slash.navigation.common.NavigationConversion.getElevationMaximumFractionDigits;
+import static slash.navigation.common.NavigationConversion.getPositionMaximumFractionDigits;
+import static slash.navigation.common.NavigationConversion.isReduceDecimalPlaceToReasonablePrecision;
+
+/**
+ * Writes coordinate tuples like {@link NavigationConversion#formatPositionAsString(Double)}
+ * and {@link NavigationConversion#formatElevationAsString(Double)} but reads the
+ * preferences only once and avoids the {@link java.text.NumberFormat} for common values.
+ *
+ * @author Christian Pesch
+ */
+
+public class CoordinatesWriter {
+    private final boolean reduceDecimalPlaces;
+    private final int positionFractionDigits, elevationFractionDigits;
+
+    public CoordinatesWriter() {
+        this.reduceDecimalPlaces = isReduceDecimalPlaceToReasonablePrecision();
+        this.positionFractionDigits = getPositionMaximumFractionDigits();
+        this.elevationFractionDigits = getElevationMaximumFractionDigits();
+    }
+
+    public StringBuilder append(StringBuilder buffer, Double longitude, Double latitude, Double elevation, char separator) {
+        appendDouble(buffer, longitude, positionFractionDigits);
+        buffer.append(separator);
+        appendDouble(buffer, latitude, positionFractionDigits);
+        buffer.append(separator);
+        appendDouble(buffer, elevation, elevationFractionDigits);
+        return buffer;
+    }
+
+    public String format(Double longitude, Double latitude, Double elevation, char separator) {
+        return append(new StringBuilder(32), longitude, latitude, elevation, separator).toString();
+    }
+
+    private void appendDouble(StringBuilder buffer, Double aDouble, int maximumFractionCount) {
+        if (aDouble == null || isNaN(aDouble)) {
+            buffer.append("0.0");
+            return;
+        }
+
+        double value = reduceDecimalPlaces ? roundFraction(aDouble, maximumFractionCount) : aDouble;
+        double absolute = abs(value);
+        // in this range Double#toString() renders the same shortest digits as the NumberFormat
+        if (value == 0.0 || (absolute >= 1e-3 && absolute < 1e7))
+            buffer.append(value);
+        else
+            buffer.append(formatDoubleAsString(value));
+    }
+}
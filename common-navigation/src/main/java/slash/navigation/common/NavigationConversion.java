@@ -304,10 +304,18 @@ public class NavigationConversion {
         return (long) floor(altitude);
     }
 
-    private static boolean isReduceDecimalPlaceToReasonablePrecision() {
+    static boolean isReduceDecimalPlaceToReasonablePrecision() {
         return preferences.getBoolean("reduceDecimalPlacesToReasonablePrecision", true);
     }
 
+    static int getPositionMaximumFractionDigits() {
+        return preferences.getInt(POSITION_MAXIMUM_FRACTION_DIGITS, 7);
+    }
+
+    static int getElevationMaximumFractionDigits() {
+        return preferences.getInt(ELEVATION_MAXIMUM_FRACTION_DIGITS, 1);
+    }
+
     public static Double formatDouble(Double aDouble, int maximumFractionCount) {
         if (aDouble == null)
             return null;
@@ -331,12 +339,12 @@ public class NavigationConversion {
     }
 
     public static String formatPositionAsString(Double longitudeOrLatitude) {
-        int maximumFractionDigits = preferences.getInt(POSITION_MAXIMUM_FRACTION_DIGITS, 7);
+        int maximumFractionDigits = getPositionMaximumFractionDigits();
         return formatDoubleAsString(longitudeOrLatitude, maximumFractionDigits);
     }
 
     public static String formatElevationAsString(Double elevation) {
-        int maximumFractionDigits = preferences.getInt(ELEVATION_MAXIMUM_FRACTION_DIGITS, 1);
+        int maximumFractionDigits = getElevationMaximumFractionDigits();
         return formatDoubleAsString(elevation, maximumFractionDigits);
     }
 
@@ -25,6 +25,9 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.parseDouble;
+import static slash.navigation.common.CoordinatesScanner.asDouble;
+import static slash.navigation.common.CoordinatesScanner.scanExtensionPositions;
+import static slash.navigation.common.CoordinatesScanner.scanPositions;
 import static slash.common.io.Transfer.trim;
 
 /**
@@ -36,8 +39,6 @@ import static slash.common.io.Transfer.trim;
 public class PositionParser {
     private static final String NUMBER = "[[-|+]|\\d|\\.|E]";
     private static final Pattern POSITION_PATTERN = Pattern.compile("(\\s*" + NUMBER + "*\\s*),(\\s*" + NUMBER + "*\\s*)(,\\s*" + NUMBER + "+\\s*)?\\s*");
-    private static final String SEPARATOR = "[\\s|,]+";
-    private static final Pattern EXTENSION_POSITION_PATTERN = Pattern.compile("\\s*(" + NUMBER + "+)" + SEPARATOR + "(" + NUMBER + "+)" + SEPARATOR + "(" + NUMBER + "+)\\s*");
 
     public static boolean isPosition(String coordinates) {
         Matcher matcher = POSITION_PATTERN.matcher(coordinates);
@@ -57,23 +58,16 @@ public class PositionParser {
     }
 
     public static List<NavigationPosition> parsePositions(String listOfCoordinates) {
-        List<NavigationPosition> result = new ArrayList<>();
-        Matcher matcher = POSITION_PATTERN.matcher(listOfCoordinates);
-        while (matcher.find()) {
-            result.add(parsePosition(matcher.group(0), null));
-        }
+        final List<NavigationPosition> result = new ArrayList<>();
+        scanPositions(listOfCoordinates, (longitude, latitude, elevation) ->
+                result.add(new SimpleNavigationPosition(asDouble(longitude), asDouble(latitude), asDouble(elevation), null)));
         return result;
     }
 
     public static List<NavigationPosition> parseExtensionPositions(String listOfCoordinates) {
-        List<NavigationPosition> result = new ArrayList<>();
-        Matcher matcher = EXTENSION_POSITION_PATTERN.matcher(listOfCoordinates);
-        while (matcher.find()) {
-            String longitude = matcher.group(1);
-            String latitude = matcher.group(2);
-            String elevation = matcher.group(3);
-            result.add(new SimpleNavigationPosition(parseDouble(longitude), parseDouble(latitude), parseDouble(elevation), null));
-        }
+        final List<NavigationPosition> result = new ArrayList<>();
+        scanExtensionPositions(listOfCoordinates, (longitude, latitude, elevation) ->
+                result.add(new SimpleNavigationPosition(asDouble(longitude), asDouble(latitude), asDouble(elevation), null)));
         return result;
     }
 }
@@ -0,0 +1,86 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.Double.NaN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.common.CoordinatesScanner.parseNumber;
+import static slash.navigation.common.CoordinatesScanner.scanPositionsToArray;
+import static slash.navigation.common.NavigationConversion.formatElevationAsString;
+import static slash.navigation.common.NavigationConversion.formatPositionAsString;
+
+public class CoordinatesTest {
+
+    private double parse(String string) {
+        return parseNumber(string, 0, string.length());
+    }
+
+    @Test
+    public void testParseNumber() {
+        assertEquals(0.0, parse("0"), 0.0);
+        assertEquals(-12.5, parse("-12.5"), 0.0);
+        assertEquals(12.5, parse("+12.5"), 0.0);
+        assertEquals(0.1E-4, parse("0.1E-4"), 0.0);
+        assertEquals(1.5e3, parse("1.5e3"), 0.0);
+        assertEquals(123.456789012345678, parse("123.456789012345678"), 0.0);
+        assertEquals(NaN, parse(""), 0.0);
+    }
+
+    @Test
+    public void testParseNumberIsExact() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * 360.0;
+            String string = Double.toString(value);
+            assertEquals(string, Double.parseDouble(string), parse(string), 0.0);
+            String rounded = formatPositionAsString(value);
+            assertEquals(rounded, Double.parseDouble(rounded), parse(rounded), 0.0);
+        }
+    }
+
+    @Test
+    public void testScanPositionsToArray() {
+        assertArrayEquals(new double[]{1.1, 2.2, 3.3, 4.4, 5.5, 6.6, NaN, NaN, 0.0},
+                scanPositionsToArray(" 1.1,2.2,3.3\n\t4.4 , 5.5 , 6.6 ,,0 "), 0.0);
+        assertArrayEquals(new double[0], scanPositionsToArray("  "), 0.0);
+        assertArrayEquals(new double[]{1.0, 2.0, NaN}, scanPositionsToArray("x 1,2"), 0.0);
+    }
+
+    @Test
+    public void testWriterMatchesNavigationConversion() {
+        CoordinatesWriter writer = new CoordinatesWriter();
+        Random random = new Random(4711);
+        Double[] specials = new Double[]{null, NaN, 0.0, -0.0, 1.0, -1.0, 1e-4, 1e-3, 9999999.99, 1e7, 1e12, 123456789.123};
+        for (int i = 0; i < 10000 + specials.length; i++) {
+            Double longitude = i < specials.length ? specials[i] : Double.valueOf((random.nextDouble() - 0.5) * 360.0);
+            Double latitude = i < specials.length ? specials[specials.length - 1 - i] : Double.valueOf((random.nextDouble() - 0.5) * 180.0);
+            Double elevation = i < specials.length ? specials[i] : Double.valueOf(random.nextDouble() * Math.pow(10, random.nextInt(8)));
+            String expected = formatPositionAsString(longitude) + "," + formatPositionAsString(latitude) + "," +
+                    formatElevationAsString(elevation);
+            assertEquals(expected, writer.format(longitude, latitude, elevation, ','));
+        }
+    }
+}
@@ -23,12 +23,10 @@ import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableModel;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
-import static slash.common.io.Transfer.toArray;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
+import static javax.swing.event.TableModelEvent.*;
 
 /**
  * Acts as a {@link TableModel} that filters {@link E}s
@@ -39,7 +37,9 @@ import static slash.common.io.Transfer.toArray;
 public class FilteringTableModel<E> extends AbstractTableModel {
     private final TableModel delegate;
     private FilterPredicate<E> predicate;
-    private Map<Integer, Integer> mapping;
+    // the sorted delegate rows of the included elements, index is the filtered row
+    private int[] mapping = new int[0];
+    private int mappingCount;
 
     public FilteringTableModel(TableModel delegate, FilterPredicate<E> predicate) {
         this.delegate = delegate;
@@ -47,37 +47,161 @@ public class FilteringTableModel<E> extends AbstractTableModel {
         initializeMapping();
         delegate.addTableModelListener(new TableModelListener() {
             public void tableChanged(TableModelEvent e) {
-                initializeMapping();
-                fireTableDataChanged();
+                handleDelegateChange(e);
             }
         });
     }
 
     private void initializeMapping() {
-        mapping = new HashMap<>();
-        for (int i = 0, c = delegate.getRowCount(); i < c; i++) {
-            @SuppressWarnings("unchecked")
-            E element = (E) delegate.getValueAt(i, 0);
-            if (predicate.shouldInclude(element)) {
-                int mappedRow = mapping.size();
-                mapping.put(mappedRow, i);
+        int rowCount = delegate.getRowCount();
+        int[] result = new int[rowCount];
+        int count = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (shouldInclude(i))
+                result[count++] = i;
+        }
+        mapping = result;
+        mappingCount = count;
+    }
+
+    private boolean shouldInclude(int delegateRow) {
+        @SuppressWarnings("unchecked")
+        E element = (E) delegate.getValueAt(delegateRow, 0);
+        return predicate.shouldInclude(element);
+    }
+
+    private void handleDelegateChange(TableModelEvent e) {
+        int firstRow = e.getFirstRow();
+        int lastRow = e.getLastRow();
+        if (firstRow < 0 || lastRow == Integer.MAX_VALUE || lastRow < firstRow) {
+            initializeMapping();
+            fireTableDataChanged();
+            return;
+        }
+
+        switch (e.getType()) {
+            case INSERT:
+                handleInsert(firstRow, lastRow);
+                break;
+            case DELETE:
+                handleDelete(firstRow, lastRow);
+                break;
+            default:
+                if (lastRow >= delegate.getRowCount()) {
+                    initializeMapping();
+                    fireTableDataChanged();
+                } else
+                    handleUpdate(firstRow, lastRow, e.getColumn());
+        }
+    }
+
+    private void handleInsert(int firstRow, int lastRow) {
+        int insertedCount = lastRow - firstRow + 1;
+        int index = lowerBound(firstRow);
+        for (int i = index; i < mappingCount; i++)
+            mapping[i] += insertedCount;
+
+        int[] included = new int[insertedCount];
+        int includedCount = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (shouldInclude(row))
+                included[includedCount++] = row;
+        }
+        if (includedCount == 0)
+            return;
+
+        ensureCapacity(mappingCount + includedCount);
+        arraycopy(mapping, index, mapping, index + includedCount, mappingCount - index);
+        arraycopy(included, 0, mapping, index, includedCount);
+        mappingCount += includedCount;
+        fireTableRowsInserted(index, index + includedCount - 1);
+    }
+
+    private void handleDelete(int firstRow, int lastRow) {
+        int deletedCount = lastRow - firstRow + 1;
+        int firstIndex = lowerBound(firstRow);
+        int lastIndex = lowerBound(lastRow + 1);
+        int removedCount = lastIndex - firstIndex;
+        arraycopy(mapping, lastIndex, mapping, firstIndex, mappingCount - lastIndex);
+        mappingCount -= removedCount;
+        for (int i = firstIndex; i < mappingCount; i++)
+            mapping[i] -= deletedCount;
+
+        if (removedCount > 0)
+            fireTableRowsDeleted(firstIndex, lastIndex - 1);
+    }
+
+    private void handleUpdate(int firstRow, int lastRow, int column) {
+        // coalesces updates of consecutive filtered rows into a single event
+        int updateFirst = -1, updateLast = -1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            int index = lowerBound(row);
+            boolean contained = index < mappingCount && mapping[index] == row;
+            boolean included = shouldInclude(row);
+
+            if (included && contained) {
+                if (updateLast != index - 1) {
+                    fireUpdated(updateFirst, updateLast, column);
+                    updateFirst = index;
+                }
+                updateLast = index;
+                continue;
             }
+
+            fireUpdated(updateFirst, updateLast, column);
+            updateFirst = updateLast = -1;
+
+            if (included) {
+                ensureCapacity(mappingCount + 1);
+                arraycopy(mapping, index, mapping, index + 1, mappingCount - index);
+                mapping[index] = row;
+                mappingCount++;
+                fireTableRowsInserted(index, index);
+            } else if (contained) {
+                arraycopy(mapping, index + 1, mapping, index, mappingCount - index - 1);
+                mappingCount--;
+                fireTableRowsDeleted(index, index);
+            }
+        }
+        fireUpdated(updateFirst, updateLast, column);
+    }
+
+    private void fireUpdated(int firstIndex, int lastIndex, int column) {
+        if (firstIndex == -1)
+            return;
+        fireTableChanged(new TableModelEvent(this, firstIndex, lastIndex, column, UPDATE));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > mapping.length)
+            mapping = copyOf(mapping, Math.max(capacity, mapping.length + (mapping.length >> 1) + 1));
+    }
+
+    private int lowerBound(int delegateRow) {
+        int low = 0, high = mappingCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mapping[middle] < delegateRow)
+                low = middle + 1;
+            else
+                high = middle;
         }
+        return low;
     }
 
     protected int mapRow(int rowIndex) {
-        Integer integer = mapping.get(rowIndex);
-        return integer != null ? integer : -1;
+        return rowIndex >= 0 && rowIndex < mappingCount ? mapping[rowIndex] : -1;
     }
 
     public int[] mapRows(int[] rowIndices) {
-        List<Integer> result = new ArrayList<>();
+        int[] result = new int[rowIndices.length];
+        int count = 0;
         for (int rowIndex : rowIndices) {
             int mappedRow = mapRow(rowIndex);
             if (mappedRow != -1)
-                result.add(mappedRow);
+                result[count++] = mappedRow;
         }
-        return toArray(result);
+        return count == result.length ? result : copyOf(result, count);
     }
 
     protected TableModel getDelegate() {
@@ -91,7 +215,7 @@ public class FilteringTableModel<E> extends AbstractTableModel {
     }
 
     public int getRowCount() {
-        return mapping.size();
+        return mappingCount;
     }
 
     public int getColumnCount() {
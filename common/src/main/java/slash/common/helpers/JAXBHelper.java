@@ -21,11 +21,16 @@
 package slash.common.helpers;
 
 import javax.xml.bind.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.asList;
 import static javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT;
 
@@ -36,54 +41,140 @@ import static javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT;
  */
 
 public class JAXBHelper {
+    private static final Logger log = Logger.getLogger(JAXBHelper.class.getName());
     private static final Preferences preferences = Preferences.userNodeForPackage(JAXBHelper.class);
     private static final String HEADER_LINE = "\n<!-- Generated by Christian Peschs RouteConverter. See https://www.routeconverter.com -->\n";
     private static final String JAXB_IMPL_HEADER = "com.sun.xml.internal.bind.xmlHeaders";
+    private static final String PRE_WARM_CONTEXTS_PREFERENCE = "preWarmContexts";
+    private static final String RECENT_CONTEXTS_PREFERENCE = "recentContexts";
+    private static final String RECENT_CONTEXT_SEPARATOR = ";";
+    private static final String CLASS_SEPARATOR = ",";
+    private static final int MAXIMUM_RECENT_CONTEXTS = 8;
 
-    private static Map<List<Class<?>>, JAXBContext> classesToContext = new HashMap<>();
-    private static boolean cacheContexts;
+    private static final Map<List<Class<?>>, JAXBContext> classesToContext = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<JAXBContext, Marshaller>> marshallers = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Map<JAXBContext, Unmarshaller>> unmarshallers = ThreadLocal.withInitial(HashMap::new);
 
-    public static void setCacheContexts(boolean cacheContexts) {
-        JAXBHelper.cacheContexts = cacheContexts;
+    public static JAXBContext newContext(Class<?>... classes) {
+        return getContext(true, classes);
     }
 
-    public static JAXBContext newContext(Class<?>... classes) {
+    private static JAXBContext getContext(boolean rememberAsRecent, Class<?>... classes) {
         List<Class<?>> key = asList(classes);
         JAXBContext context = classesToContext.get(key);
         if (context == null) {
             try {
+                long start = currentTimeMillis();
                 context = JAXBContext.newInstance(classes);
-                if (cacheContexts)
-                    classesToContext.put(key, context);
+                log.fine(format("Created JAXB context for %s in %d ms", key, currentTimeMillis() - start));
             } catch (JAXBException e) {
                 throw new RuntimeException(e);
             }
+
+            JAXBContext previous = classesToContext.putIfAbsent(key, context);
+            if (previous != null)
+                context = previous;
+            else if (rememberAsRecent)
+                rememberRecentContext(classes);
         }
         return context;
     }
 
     public static Marshaller newMarshaller(JAXBContext context) {
-        Marshaller result;
+        Map<JAXBContext, Marshaller> map = marshallers.get();
+        Marshaller result = map.get(context);
         try {
-            result = context.createMarshaller();
+            if (result == null) {
+                result = context.createMarshaller();
+                try {
+                    result.setProperty(JAXB_IMPL_HEADER, HEADER_LINE);
+                } catch (PropertyException e) {
+                    // intentionally left empty
+                }
+                map.put(context, result);
+            }
             result.setProperty(JAXB_FORMATTED_OUTPUT, preferences.getBoolean("prettyPrintXml", true));
         } catch (JAXBException e) {
             throw new RuntimeException(e);
         }
+        return result;
+    }
 
-        try {
-            result.setProperty(JAXB_IMPL_HEADER, HEADER_LINE);
-        } catch (PropertyException e) {
-            // intentionally left empty
+    public static Unmarshaller newUnmarshaller(JAXBContext context) {
+        Map<JAXBContext, Unmarshaller> map = unmarshallers.get();
+        Unmarshaller result = map.get(context);
+        if (result == null) {
+            try {
+                result = context.createUnmarshaller();
+            } catch (JAXBException e) {
+                throw new RuntimeException(e);
+            }
+            map.put(context, result);
         }
         return result;
     }
 
-    public static Unmarshaller newUnmarshaller(JAXBContext context) {
-        try {
-            return context.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw new RuntimeException(e);
+    // pre-warming of the recently used contexts
+
+    public static boolean isPreWarmContexts() {
+        return preferences.getBoolean(PRE_WARM_CONTEXTS_PREFERENCE, false);
+    }
+
+    public static void setPreWarmContexts(boolean preWarmContexts) {
+        preferences.putBoolean(PRE_WARM_CONTEXTS_PREFERENCE, preWarmContexts);
+    }
+
+    static List<String> getRecentContexts() {
+        List<String> result = new ArrayList<>();
+        for (String classNames : preferences.get(RECENT_CONTEXTS_PREFERENCE, "").split(RECENT_CONTEXT_SEPARATOR)) {
+            if (classNames.length() > 0)
+                result.add(classNames);
         }
+        return result;
+    }
+
+    private static synchronized void rememberRecentContext(Class<?>... classes) {
+        StringBuilder buffer = new StringBuilder();
+        for (Class<?> clazz : classes) {
+            if (buffer.length() > 0)
+                buffer.append(CLASS_SEPARATOR);
+            buffer.append(clazz.getName());
+        }
+        String classNames = buffer.toString();
+
+        List<String> recentContexts = getRecentContexts();
+        recentContexts.remove(classNames);
+        recentContexts.add(0, classNames);
+        while (recentContexts.size() > MAXIMUM_RECENT_CONTEXTS)
+            recentContexts.remove(recentContexts.size() - 1);
+        preferences.put(RECENT_CONTEXTS_PREFERENCE, String.join(RECENT_CONTEXT_SEPARATOR, recentContexts));
+    }
+
+    public static void preWarmContexts() {
+        if (isPreWarmContexts())
+            preWarmRecentContexts();
+    }
+
+    public static void preWarmRecentContexts() {
+        final List<String> recentContexts = getRecentContexts();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                long start = currentTimeMillis();
+                for (String classNames : recentContexts) {
+                    try {
+                        List<Class<?>> classes = new ArrayList<>();
+                        for (String className : classNames.split(CLASS_SEPARATOR))
+                            classes.add(Class.forName(className, true, JAXBHelper.class.getClassLoader()));
+                        getContext(false, classes.toArray(new Class<?>[0]));
+                    } catch (Exception e) {
+                        log.warning(format("Could not pre-warm JAXB context for %s: %s", classNames, e));
+                    }
+                }
+                log.info(format("Pre-warmed %d JAXB contexts in %d ms", recentContexts.size(), currentTimeMillis() - start));
+            }
+        }, "JAXBContextPreWarmer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
     }
 }
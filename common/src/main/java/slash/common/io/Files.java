@@ -240,7 +240,7 @@ public class Files {
         return result.toString();
     }
 
-    static String calculateConvertFileName(File file, int index, int maximum, String extension, int fileNameLength) {
+    public static String calculateConvertFileName(File file, int index, int maximum, String extension, int fileNameLength) {
         String name = file.getName();
         name = removeExtension(name);
         name = name.substring(0, min(name.length(), fileNameLength));
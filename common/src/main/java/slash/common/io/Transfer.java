@@ -33,6 +33,8 @@ import java.net.URLEncoder;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -45,8 +47,11 @@ import static java.text.DateFormat.MEDIUM;
 import static java.text.DateFormat.SHORT;
 import static java.util.Calendar.*;
 import static java.util.Locale.US;
+import static javax.xml.datatype.DatatypeConstants.FIELD_UNDEFINED;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.DateTimeCodec.NOT_PARSEABLE;
+import static slash.common.type.DateTimeCodec.toMillis;
 
 /**
  * Provides value transfer functionality.
@@ -179,18 +184,18 @@ public class Transfer {
         return aBoolean == null || aBoolean;
     }
 
-    private static final NumberFormat DECIMAL_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-
-    static {
-        DECIMAL_NUMBER_FORMAT.setGroupingUsed(false);
-        DECIMAL_NUMBER_FORMAT.setMinimumFractionDigits(1);
-        DECIMAL_NUMBER_FORMAT.setMaximumFractionDigits(20);
-    }
+    private static final ThreadLocal<NumberFormat> DECIMAL_NUMBER_FORMAT = ThreadLocal.withInitial(() -> {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(US);
+        numberFormat.setGroupingUsed(false);
+        numberFormat.setMinimumFractionDigits(1);
+        numberFormat.setMaximumFractionDigits(20);
+        return numberFormat;
+    });
 
     public static String formatDoubleAsString(Double aDouble) {
         if (aDouble == null || isNaN(aDouble))
             return "0.0";
-        return DECIMAL_NUMBER_FORMAT.format(aDouble);
+        return DECIMAL_NUMBER_FORMAT.get().format(aDouble);
     }
 
     public static String formatDoubleAsString(Double aDouble, int exactFractionCount) {
@@ -407,17 +412,36 @@ public class Transfer {
     public static CompactCalendar parseXMLTime(XMLGregorianCalendar calendar) {
         if (calendar == null)
             return null;
+        // compute the time from the fields instead of creating a GregorianCalendar;
+        // like toGregorianCalendar(UTC, ...) the fields are taken as UTC regardless of the time zone
+        int year = calendar.getYear();
+        if (year != FIELD_UNDEFINED && calendar.getEon() == null) {
+            long millis = toMillis(year, defined(calendar.getMonth(), 1), defined(calendar.getDay(), 1),
+                    defined(calendar.getHour(), 0) * 3600000L + defined(calendar.getMinute(), 0) * 60000L +
+                            defined(calendar.getSecond(), 0) * 1000L + defined(calendar.getMillisecond(), 0));
+            if (millis != NOT_PARSEABLE)
+                return fromMillis(millis);
+        }
         GregorianCalendar gregorianCalendar = calendar.toGregorianCalendar(UTC, null, null);
         return fromMillis(gregorianCalendar.getTimeInMillis());
     }
 
-    private static DatatypeFactory datatypeFactory;
+    private static int defined(int value, int defaultValue) {
+        return value != FIELD_UNDEFINED ? value : defaultValue;
+    }
 
-    private static synchronized DatatypeFactory getDataTypeFactory() throws DatatypeConfigurationException {
-        if (datatypeFactory == null) {
-            datatypeFactory = DatatypeFactory.newInstance();
+    private static class DatatypeFactoryHolder {
+        // the factories of the JDK create new instances and are safe to share between threads
+        private static final DatatypeFactory INSTANCE = createDatatypeFactory();
+
+        private static DatatypeFactory createDatatypeFactory() {
+            try {
+                return DatatypeFactory.newInstance();
+            } catch (DatatypeConfigurationException e) {
+                log.severe("Cannot create datatype factory: " + e);
+                return null;
+            }
         }
-        return datatypeFactory;
     }
 
     public static XMLGregorianCalendar formatXMLTime(CompactCalendar time) {
@@ -425,17 +449,21 @@ public class Transfer {
     }
 
     public static XMLGregorianCalendar formatXMLTime(CompactCalendar time, boolean reduceTimeToSecondPrecision) {
-        if (time == null)
+        DatatypeFactory datatypeFactory = DatatypeFactoryHolder.INSTANCE;
+        if (time == null || datatypeFactory == null)
             return null;
-        try {
-            GregorianCalendar gregorianCalendar = toUTC(time.getCalendar());
-            XMLGregorianCalendar result = getDataTypeFactory().newXMLGregorianCalendar(gregorianCalendar);
-            if (reduceTimeToSecondPrecision)
-                result.setFractionalSecond(null);
-            return result;
-        } catch (DatatypeConfigurationException e) {
-            return null;
-        }
+
+        XMLGregorianCalendar result;
+        long millis = time.getTimeInMillis();
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(floorDiv(millis, 1000), (int) floorMod(millis, 1000) * 1000000, ZoneOffset.UTC);
+        if ("UTC".equals(time.getTimeZoneId()) && dateTime.getYear() >= 1600)
+            result = datatypeFactory.newXMLGregorianCalendar(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                    dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1000000, 0);
+        else
+            result = datatypeFactory.newXMLGregorianCalendar(toUTC(time.getCalendar()));
+        if (reduceTimeToSecondPrecision)
+            result.setFractionalSecond(null);
+        return result;
     }
 
     @SuppressWarnings("MagicConstant")
@@ -0,0 +1,98 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.metrics;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.sort;
+
+/**
+ * Records the distribution of values. Count, sum, minimum and maximum cover all values
+ * while the percentiles are computed from the last {@link #SAMPLE_SIZE} values.
+ *
+ * @author Christian Pesch
+ */
+
+public class Histogram implements HistogramMXBean {
+    static final int SAMPLE_SIZE = 1024;
+
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private long count, sum, minimum = Long.MAX_VALUE, maximum = Long.MIN_VALUE;
+
+    public synchronized void update(long value) {
+        samples[(int) (count % SAMPLE_SIZE)] = value;
+        count++;
+        sum += value;
+        minimum = min(minimum, value);
+        maximum = max(maximum, value);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    public synchronized long getMin() {
+        return count > 0 ? minimum : 0;
+    }
+
+    public synchronized long getMax() {
+        return count > 0 ? maximum : 0;
+    }
+
+    public synchronized double getMean() {
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    public synchronized long getPercentile(double quantile) {
+        int size = (int) min(count, SAMPLE_SIZE);
+        if (size == 0)
+            return 0;
+
+        long[] sorted = copyOf(samples, size);
+        sort(sorted);
+        int index = (int) ceil(quantile * size) - 1;
+        return sorted[max(0, min(index, size - 1))];
+    }
+
+    public long getMedian() {
+        return getPercentile(0.5);
+    }
+
+    public long get95thPercentile() {
+        return getPercentile(0.95);
+    }
+
+    public long get99thPercentile() {
+        return getPercentile(0.99);
+    }
+
+    public String toString() {
+        return format("count=%d min=%d max=%d mean=%.1f median=%d p95=%d p99=%d",
+                getCount(), getMin(), getMax(), getMean(), getMedian(), get95thPercentile(), get99thPercentile());
+    }
+}
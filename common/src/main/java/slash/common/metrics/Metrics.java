@@ -0,0 +1,162 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+import static java.lang.String.format;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.management.ObjectName.quote;
+import static slash.common.helpers.ThreadHelper.createDaemonScheduledExecutor;
+
+/**
+ * A registry for the {@link Counter}s, {@link Histogram}s and {@link Timer}s of the hot paths
+ * which registers them as MXBeans and dumps them periodically to the log.
+ *
+ * @author Christian Pesch
+ */
+
+public class Metrics {
+    private static final Logger log = Logger.getLogger(Metrics.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(Metrics.class);
+    private static final String LOG_INTERVAL_PREFERENCE = "logInterval";
+    private static final String DOMAIN = "slash.common.metrics";
+
+    private static Metrics instance;
+
+    private final MBeanServer server;
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+    private ScheduledExecutorService logger;
+
+    Metrics(MBeanServer server) {
+        this.server = server;
+    }
+
+    public static synchronized Metrics getInstance() {
+        if (instance == null)
+            instance = new Metrics(getPlatformMBeanServer());
+        return instance;
+    }
+
+    public static Counter counter(String name) {
+        return getInstance().getCounter(name);
+    }
+
+    public static Histogram histogram(String name) {
+        return getInstance().getHistogram(name);
+    }
+
+    public static Timer timer(String name) {
+        return getInstance().getTimer(name);
+    }
+
+    public Counter getCounter(String name) {
+        return get(name, Counter.class);
+    }
+
+    public Histogram getHistogram(String name) {
+        return get(name, Histogram.class);
+    }
+
+    public Timer getTimer(String name) {
+        return get(name, Timer.class);
+    }
+
+    private <T> T get(String name, Class<T> type) {
+        Object metric = metrics.get(name);
+        if (metric == null)
+            metric = register(name, type);
+        if (!type.isInstance(metric))
+            throw new IllegalArgumentException(format("Metric %s is a %s and not a %s", name,
+                    metric.getClass().getSimpleName(), type.getSimpleName()));
+        return type.cast(metric);
+    }
+
+    private synchronized Object register(String name, Class<?> type) {
+        Object metric = metrics.get(name);
+        if (metric != null)
+            return metric;
+
+        try {
+            metric = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(format("Cannot create %s for %s", type.getSimpleName(), name), e);
+        }
+        metrics.put(name, metric);
+
+        if (server != null) {
+            try {
+                server.registerMBean(metric, new ObjectName(DOMAIN + ":type=" + type.getSimpleName() + ",name=" + quote(name)));
+            } catch (JMException e) {
+                log.warning(format("Cannot register %s %s with JMX: %s", type.getSimpleName(), name, e));
+            }
+        }
+        return metric;
+    }
+
+    public SortedMap<String, Object> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    public void logMetrics() {
+        for (Map.Entry<String, Object> entry : getMetrics().entrySet()) {
+            Object metric = entry.getValue();
+            log.info(format("%s %s: %s", metric.getClass().getSimpleName(), entry.getKey(), metric));
+        }
+    }
+
+    public static long getLogIntervalPreference() {
+        return preferences.getLong(LOG_INTERVAL_PREFERENCE, 15 * 60);
+    }
+
+    public synchronized void startLogging() {
+        long interval = getLogIntervalPreference();
+        if (logger != null || interval <= 0)
+            return;
+
+        logger = createDaemonScheduledExecutor("MetricsLogger");
+        logger.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                logMetrics();
+            }
+        }, interval, interval, SECONDS);
+        log.info(format("Logging metrics every %d seconds", interval));
+    }
+
+    public synchronized void stopLogging() {
+        if (logger == null)
+            return;
+
+        logger.shutdownNow();
+        logger = null;
+        logMetrics();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records the distribution of durations like parsing, routing or downloading.
+ *
+ * @author Christian Pesch
+ */
+
+public class Timer implements TimerMXBean {
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+    private final Histogram nanoseconds = new Histogram();
+
+    public void update(long duration, TimeUnit unit) {
+        nanoseconds.update(unit.toNanos(duration));
+    }
+
+    public Context time() {
+        return new Context();
+    }
+
+    public long getCount() {
+        return nanoseconds.getCount();
+    }
+
+    private static double toMilliseconds(double nanoseconds) {
+        return nanoseconds / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    public double getTotalMilliseconds() {
+        return toMilliseconds(nanoseconds.getSum());
+    }
+
+    public double getMinMilliseconds() {
+        return toMilliseconds(nanoseconds.getMin());
+    }
+
+    public double getMaxMilliseconds() {
+        return toMilliseconds(nanoseconds.getMax());
+    }
+
+    public double getMeanMilliseconds() {
+        return toMilliseconds(nanoseconds.getMean());
+    }
+
+    public double getMedianMilliseconds() {
+        return toMilliseconds(nanoseconds.getMedian());
+    }
+
+    public double get95thPercentileMilliseconds() {
+        return toMilliseconds(nanoseconds.get95thPercentile());
+    }
+
+    public double get99thPercentileMilliseconds() {
+        return toMilliseconds(nanoseconds.get99thPercentile());
+    }
+
+    public String toString() {
+        return format("count=%d total=%.1fms min=%.1fms max=%.1fms mean=%.1fms median=%.1fms p95=%.1fms p99=%.1fms",
+                getCount(), getTotalMilliseconds(), getMinMilliseconds(), getMaxMilliseconds(), getMeanMilliseconds(),
+                getMedianMilliseconds(), get95thPercentileMilliseconds(), get99thPercentileMilliseconds());
+    }
+
+    /**
+     * Measures the time from its creation until it is stopped or closed.
+     */
+    public class Context implements AutoCloseable {
+        private final long start = nanoTime();
+        private boolean stopped;
+
+        public long stop() {
+            long elapsed = nanoTime() - start;
+            if (!stopped) {
+                stopped = true;
+                update(elapsed, NANOSECONDS);
+            }
+            return elapsed;
+        }
+
+        public void close() {
+            stop();
+        }
+    }
+}
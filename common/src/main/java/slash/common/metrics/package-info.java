@@ -0,0 +1,5 @@
+/**
+ * Lightweight counters, timers and histograms for the hot paths that are
+ * exposed via <a href="https://docs.oracle.com/javase/8/docs/technotes/guides/jmx/">JMX</a> and the log.
+ */
+package slash.common.metrics;
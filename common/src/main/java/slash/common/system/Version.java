@@ -20,14 +20,14 @@
 
 package slash.common.system;
 
+import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
+
 import java.text.DateFormat;
-import java.text.ParseException;
-import java.util.Date;
 import java.util.Scanner;
 
 import static java.text.DateFormat.LONG;
 import static slash.common.type.CompactCalendar.UTC;
-import static slash.common.type.CompactCalendar.createDateFormat;
 
 /**
  * Provides Java and RouteConverter versions.
@@ -125,13 +125,11 @@ public class Version {
 
     public String getDate() {
         if (date != null) {
-            try {
+            CompactCalendar parsed = DateTimeCodec.parse(date, BUILD_DATE_FORMAT);
+            if (parsed != null) {
                 DateFormat format = DateFormat.getDateInstance(LONG);
                 format.setTimeZone(UTC);
-                Date java = createDateFormat(BUILD_DATE_FORMAT).parse(date);
-                return format.format(java);
-            } catch (ParseException e) {
-                // intentionally ignored
+                return format.format(parsed.getTime());
             }
         }
         return "?";
@@ -21,7 +21,6 @@
 package slash.common.type;
 
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.logging.Logger;
@@ -61,14 +60,10 @@ public class CompactCalendar {
     public static CompactCalendar parseDate(String dateString, String dateFormatString) {
         if (dateString == null)
             return null;
-        try {
-            DateFormat dateFormat = createDateFormat(dateFormatString);
-            Date parsed = dateFormat.parse(dateString);
-            return fromDate(parsed);
-        } catch (ParseException e) {
+        CompactCalendar result = DateTimeCodec.parse(dateString, dateFormatString);
+        if (result == null)
             log.severe("Could not parse '" + dateString + "' with format '" + dateFormatString + "'");
-        }
-        return null;
+        return result;
     }
 
     public static CompactCalendar fromMillisAndTimeZone(long timeInMillis, String timeZoneId) {
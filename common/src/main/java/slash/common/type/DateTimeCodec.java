@@ -0,0 +1,447 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.type;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.lang.System.currentTimeMillis;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoField.*;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+
+/**
+ * Parses and formats {@link CompactCalendar}s in UTC with patterns in the syntax of
+ * {@link SimpleDateFormat} and with its lenient results.
+ *
+ * Every pattern is compiled once. Texts which match a fixed-width numeric pattern like
+ * <code>ddMMyy HHmmss.SSS</code> or <code>yyyy-MM-dd HH:mm:ss</code> are parsed and formatted
+ * arithmetically and other numeric patterns are formatted with a shared {@link DateTimeFormatter}.
+ * Everything else is handled by a {@link SimpleDateFormat} per thread, which keeps its leniency
+ * for texts with leading spaces, shorter or longer fields and signed years.
+ *
+ * @author Christian Pesch
+ */
+
+public final class DateTimeCodec {
+    public static final long NOT_PARSEABLE = Long.MIN_VALUE;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    private static final long CENTURY_START_VALIDITY = 60 * 60 * 1000L;
+    private static final int MINIMUM_GREGORIAN_YEAR = 1600;
+    private static final int MAXIMUM_FIXED_WIDTH_YEAR = 9999;
+
+    private static final Map<String, CompiledPattern> patterns = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, DateFormat>> dateFormats = ThreadLocal.withInitial(HashMap::new);
+
+    private static long centuryStartCalculatedAt = NOT_PARSEABLE;
+    private static long centuryStart;
+    private static int centuryStartYear;
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Parses the given text with the given pattern.
+     *
+     * @return the time in UTC or <code>null</code> if the text cannot be parsed
+     */
+    public static CompactCalendar parse(String text, String pattern) {
+        long millis = parseMillis(text, pattern);
+        return millis != NOT_PARSEABLE ? fromMillis(millis) : null;
+    }
+
+    /**
+     * Parses the given text with the given pattern.
+     *
+     * @return the milliseconds since the epoch in UTC or {@link #NOT_PARSEABLE} if the text cannot be parsed
+     */
+    public static long parseMillis(String text, String pattern) {
+        if (text == null)
+            return NOT_PARSEABLE;
+        return getPattern(pattern).parse(text);
+    }
+
+    /**
+     * Formats the given time in UTC with the given pattern.
+     */
+    public static String format(CompactCalendar time, String pattern) {
+        return getPattern(pattern).format(time.getTimeInMillis());
+    }
+
+    /**
+     * Parses <code>yyyy-MM-ddTHH:mm:ss[.SSS](Z|+hh:mm|-hh:mm)</code> arithmetically
+     * and everything else {@link ISO8601#parseDate(String)} understands with it.
+     *
+     * @return the time in the time zone of the text or <code>null</code> if the text cannot be parsed
+     */
+    public static CompactCalendar parseISO8601(String text) {
+        if (text == null)
+            return null;
+        CompactCalendar result = parseFixedWidthISO8601(text);
+        if (result != null)
+            return result;
+        Calendar calendar = ISO8601.parseDate(text);
+        return calendar != null ? CompactCalendar.fromCalendar(calendar) : null;
+    }
+
+    private static CompactCalendar parseFixedWidthISO8601(String text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' ||
+                text.charAt(13) != ':' || text.charAt(16) != ':')
+            return null;
+        int year = parseDigits(text, 0, 4), month = parseDigits(text, 5, 7), day = parseDigits(text, 8, 10),
+                hour = parseDigits(text, 11, 13), minute = parseDigits(text, 14, 16), second = parseDigits(text, 17, 19);
+        // ISO8601 rejects values out of range instead of rolling them over
+        if (year < MINIMUM_GREGORIAN_YEAR || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) ||
+                hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+            return null;
+
+        int index = 19, millisecond = 0;
+        if (text.charAt(index) == '.') {
+            int digits = 0;
+            while (++index < length && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+                if (digits++ < 3)
+                    millisecond = millisecond * 10 + text.charAt(index) - '0';
+                else
+                    return null;
+            }
+            if (digits == 0)
+                return null;
+            for (; digits < 3; digits++)
+                millisecond *= 10;
+        }
+
+        long millis = daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * 3600000L + minute * 60000L + second * 1000L + millisecond;
+        if (index == length - 1 && text.charAt(index) == 'Z')
+            return fromMillis(millis);
+        if (index == length - 6 && (text.charAt(index) == '+' || text.charAt(index) == '-') && text.charAt(index + 3) == ':') {
+            int offsetHours = parseDigits(text, index + 1, index + 3), offsetMinutes = parseDigits(text, index + 4, index + 6);
+            if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59)
+                return null;
+            long offset = (offsetHours * 60L + offsetMinutes) * 60000L;
+            return fromMillisAndTimeZone(text.charAt(index) == '+' ? millis - offset : millis + offset,
+                    "GMT" + text.substring(index));
+        }
+        return null;
+    }
+
+    /**
+     * Computes the milliseconds since the epoch for the given date in UTC and the milliseconds
+     * of the day, lenient like a {@link GregorianCalendar}: month 0 is December of the previous
+     * year, day 0 the last day of the previous month.
+     *
+     * @return the milliseconds or {@link #NOT_PARSEABLE} for dates before the Gregorian calendar
+     */
+    public static long toMillis(long year, long month, long day, long millisOfDay) {
+        long months = year * 12L + month - 1;
+        long normalizedYear = floorDiv(months, 12);
+        // GregorianCalendar switches to the Julian calendar before 1582
+        if (normalizedYear < MINIMUM_GREGORIAN_YEAR)
+            return NOT_PARSEABLE;
+        int normalizedMonth = (int) floorMod(months, 12) + 1;
+        long days = daysFromCivil(normalizedYear, normalizedMonth, 1) + day - 1;
+        return days * MILLIS_PER_DAY + millisOfDay;
+    }
+
+    /**
+     * Like {@link #toMillis(long, long, long, long)} for a two digit year which is resolved within the
+     * century that starts 80 years ago as {@link SimpleDateFormat} does.
+     */
+    public static long toMillisWithTwoDigitYear(int twoDigitYear, long month, long day, long millisOfDay) {
+        int startYear = getCenturyStartYear();
+        int ambiguousYear = startYear % 100;
+        int resolvedYear = (startYear / 100) * 100 + twoDigitYear + (twoDigitYear < ambiguousYear ? 100 : 0);
+        long result = toMillis(resolvedYear, month, day, millisOfDay);
+        if (twoDigitYear == ambiguousYear && result != NOT_PARSEABLE && result < centuryStart)
+            result = toMillis(resolvedYear + 100, month, day, millisOfDay);
+        return result;
+    }
+
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return month == 2 ? (IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private static synchronized int getCenturyStartYear() {
+        long now = currentTimeMillis();
+        if (centuryStartCalculatedAt == NOT_PARSEABLE || now - centuryStartCalculatedAt > CENTURY_START_VALIDITY) {
+            Calendar calendar = new GregorianCalendar(CompactCalendar.UTC);
+            calendar.setTimeInMillis(now);
+            calendar.add(Calendar.YEAR, -80);
+            centuryStart = calendar.getTimeInMillis();
+            centuryStartYear = calendar.get(Calendar.YEAR);
+            centuryStartCalculatedAt = now;
+        }
+        return centuryStartYear;
+    }
+
+    private static int parseDigits(CharSequence string, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static CompiledPattern getPattern(String pattern) {
+        CompiledPattern result = patterns.get(pattern);
+        if (result == null) {
+            result = new CompiledPattern(pattern);
+            patterns.put(pattern, result);
+        }
+        return result;
+    }
+
+    private static DateFormat getDateFormat(String pattern) {
+        Map<String, DateFormat> formats = dateFormats.get();
+        DateFormat result = formats.get(pattern);
+        if (result == null) {
+            result = CompactCalendar.createDateFormat(pattern);
+            formats.put(pattern, result);
+        }
+        return result;
+    }
+
+    private static class Field {
+        final char letter;
+        final int offset, width;
+
+        Field(char letter, int offset, int width) {
+            this.letter = letter;
+            this.offset = offset;
+            this.width = width;
+        }
+    }
+
+    private static class CompiledPattern {
+        private final String pattern;
+        // the numeric fields if every field has a fixed width, otherwise null
+        private final List<Field> fixedWidthFields;
+        // null if the pattern contains text fields
+        private final DateTimeFormatter formatter;
+
+        CompiledPattern(String pattern) {
+            this.pattern = pattern;
+            List<Field> fields = new ArrayList<>();
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            boolean numeric = true, fixedWidth = true;
+
+            for (int i = 0; i < pattern.length() && numeric; ) {
+                char c = pattern.charAt(i);
+                int count = 1;
+                while (i + count < pattern.length() && pattern.charAt(i + count) == c)
+                    count++;
+
+                if (c == '\'' || (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') && !appendField(builder, c, count))
+                    numeric = false;
+                else if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') {
+                    fields.add(new Field(c, i, count));
+                    fixedWidth &= isFixedWidth(c, count);
+                } else
+                    for (int j = 0; j < count; j++)
+                        builder.appendLiteral(c);
+                i += count;
+            }
+
+            if (numeric) {
+                this.formatter = builder.toFormatter().withChronology(IsoChronology.INSTANCE);
+                this.fixedWidthFields = fixedWidth ? fields : null;
+            } else {
+                this.formatter = null;
+                this.fixedWidthFields = null;
+            }
+        }
+
+        private static boolean appendField(DateTimeFormatterBuilder builder, char letter, int count) {
+            switch (letter) {
+                case 'y':
+                    if (count == 2)
+                        builder.appendValueReduced(YEAR, 2, 2, LocalDate.ofEpochDay(0).withYear(getCenturyStartYear()));
+                    else
+                        builder.appendValue(YEAR, count, 19, SignStyle.NORMAL);
+                    return true;
+                case 'M':
+                    return count <= 2 && appendValue(builder, MONTH_OF_YEAR, count);
+                case 'd':
+                    return appendValue(builder, DAY_OF_MONTH, count);
+                case 'H':
+                    return appendValue(builder, HOUR_OF_DAY, count);
+                case 'm':
+                    return appendValue(builder, MINUTE_OF_HOUR, count);
+                case 's':
+                    return appendValue(builder, SECOND_OF_MINUTE, count);
+                case 'S':
+                    // SimpleDateFormat takes the digits as milliseconds, not as a fraction of the second
+                    return appendValue(builder, MILLI_OF_SECOND, count);
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean appendValue(DateTimeFormatterBuilder builder, ChronoField field, int count) {
+            if (count == 1)
+                builder.appendValue(field);
+            else
+                builder.appendValue(field, count);
+            return true;
+        }
+
+        private static boolean isFixedWidth(char letter, int count) {
+            return letter == 'y' ? count == 2 || count == 4 : letter == 'S' ? count == 3 : count == 2;
+        }
+
+        long parse(String text) {
+            if (fixedWidthFields != null && text.length() == pattern.length()) {
+                long millis = parseFixedWidth(text);
+                if (millis != NOT_PARSEABLE)
+                    return millis;
+            }
+
+            // the rules of SimpleDateFormat for abutting fields of varying width are hard to match
+            try {
+                Date date = getDateFormat(pattern).parse(text);
+                return date.getTime();
+            } catch (ParseException e) {
+                return NOT_PARSEABLE;
+            }
+        }
+
+        private long parseFixedWidth(String text) {
+            int fieldIndex = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                if (fieldIndex < fixedWidthFields.size() && fixedWidthFields.get(fieldIndex).offset == i) {
+                    i += fixedWidthFields.get(fieldIndex++).width - 1;
+                    continue;
+                }
+                if (text.charAt(i) != pattern.charAt(i))
+                    return NOT_PARSEABLE;
+            }
+
+            int year = 1970, month = 1, day = 1, hour = 0, minute = 0, second = 0, millisecond = 0;
+            boolean twoDigitYear = false;
+            for (Field field : fixedWidthFields) {
+                int value = parseDigits(text, field.offset, field.offset + field.width);
+                if (value < 0)
+                    return NOT_PARSEABLE;
+                switch (field.letter) {
+                    case 'y':
+                        year = value;
+                        twoDigitYear = field.width == 2;
+                        break;
+                    case 'M':
+                        month = value;
+                        break;
+                    case 'd':
+                        day = value;
+                        break;
+                    case 'H':
+                        hour = value;
+                        break;
+                    case 'm':
+                        minute = value;
+                        break;
+                    case 's':
+                        second = value;
+                        break;
+                    case 'S':
+                        millisecond = value;
+                        break;
+                }
+            }
+
+            long millisOfDay = hour * 3600000L + minute * 60000L + second * 1000L + millisecond;
+            return twoDigitYear ? toMillisWithTwoDigitYear(year, month, day, millisOfDay) :
+                    toMillis(year, month, day, millisOfDay);
+        }
+
+        String format(long millis) {
+            if (formatter == null)
+                return getDateFormat(pattern).format(new Date(millis));
+
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(floorDiv(millis, 1000), (int) floorMod(millis, 1000) * 1000000, UTC);
+            if (fixedWidthFields == null || dateTime.getYear() < MINIMUM_GREGORIAN_YEAR || dateTime.getYear() > MAXIMUM_FIXED_WIDTH_YEAR)
+                return formatter.format(dateTime);
+
+            char[] result = pattern.toCharArray();
+            for (Field field : fixedWidthFields) {
+                int value;
+                switch (field.letter) {
+                    case 'y':
+                        value = field.width == 2 ? dateTime.getYear() % 100 : dateTime.getYear();
+                        break;
+                    case 'M':
+                        value = dateTime.getMonthValue();
+                        break;
+                    case 'd':
+                        value = dateTime.getDayOfMonth();
+                        break;
+                    case 'H':
+                        value = dateTime.getHour();
+                        break;
+                    case 'm':
+                        value = dateTime.getMinute();
+                        break;
+                    case 's':
+                        value = dateTime.getSecond();
+                        break;
+                    default:
+                        value = dateTime.getNano() / 1000000;
+                        break;
+                }
+                for (int i = field.offset + field.width - 1; i >= field.offset; i--) {
+                    result[i] = (char) ('0' + value % 10);
+                    value /= 10;
+                }
+            }
+            return new String(result);
+        }
+    }
+}
@@ -20,12 +20,14 @@
 
 package slash.common.type;
 
-import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.TimeZone;
 
 import static java.lang.Character.isDigit;
 import static java.lang.Integer.parseInt;
+import static java.lang.Math.floorDiv;
 import static java.util.Calendar.*;
 import static java.util.GregorianCalendar.AD;
 import static java.util.GregorianCalendar.BC;
@@ -60,9 +62,7 @@ import static slash.common.type.CompactCalendar.UTC;
  */
 
 public final class ISO8601 {
-    private static final DecimalFormat XX_FORMAT = new DecimalFormat("00");
-    private static final DecimalFormat XXX_FORMAT = new DecimalFormat("000");
-    private static final DecimalFormat XXXX_FORMAT = new DecimalFormat("0000");
+    private static final int MINIMUM_GREGORIAN_YEAR = 1600;
 
     /**
      * Parses an ISO8601-compliant date/time string.
@@ -224,6 +224,14 @@ public final class ISO8601 {
         if (calendar == null) {
             throw new IllegalArgumentException("argument can not be null");
         }
+        long millis = calendar.getTimeInMillis();
+        if ("UTC".equals(calendar.getTimeZoneId())) {
+            // avoid the Calendar for UTC, which is used by almost all positions
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(floorDiv(millis, 1000), 0, ZoneOffset.UTC);
+            if (dateTime.getYear() >= MINIMUM_GREGORIAN_YEAR)
+                return formatDate(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                        dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), -1, "Z");
+        }
         return formatDate(calendar.getCalendar(), false);
     }
 
@@ -250,6 +258,23 @@ public final class ISO8601 {
             year = 0 - year + 1;
         }
 
+        String timeZone;
+        if (calendar.getTimeZone().equals(UTC))
+            timeZone = "Z";
+        else {
+            int offsetHours = calendar.getTimeZone().getRawOffset() / 1000 / 3600;
+            int offsetMinutes = calendar.getTimeZone().getRawOffset() / 1000 / 60 - offsetHours * 60;
+            StringBuilder buffer = new StringBuilder("+");
+            appendPadded(buffer, offsetHours, 2);
+            buffer.append(':');
+            appendPadded(buffer, offsetMinutes, 2);
+            timeZone = buffer.toString();
+        }
+        return formatDate(year, calendar.get(MONTH) + 1, calendar.get(DAY_OF_MONTH), calendar.get(HOUR_OF_DAY),
+                calendar.get(MINUTE), calendar.get(SECOND), includeMilliseconds ? calendar.get(MILLISECOND) : -1, timeZone);
+    }
+
+    private static String formatDate(int year, int month, int day, int hour, int minute, int second, int millisecond, String timeZone) {
         /*
          * the format of the date/time string is:
          * YYYY-MM-DDThh:mm:ss
@@ -257,39 +282,41 @@ public final class ISO8601 {
          * note that we cannot use java.text.SimpleDateFormat for
          * formatting because it can't handle years <= 0 and TZD's
          */
-        StringBuilder buffer = new StringBuilder();
+        StringBuilder buffer = new StringBuilder(30);
         // year ([-]YYYY)
-        buffer.append(XXXX_FORMAT.format(year));
+        appendPadded(buffer, year, 4);
         buffer.append('-');
         // month (MM)
-        buffer.append(XX_FORMAT.format(calendar.get(MONTH) + 1));
+        appendPadded(buffer, month, 2);
         buffer.append('-');
         // day (DD)
-        buffer.append(XX_FORMAT.format(calendar.get(DAY_OF_MONTH)));
+        appendPadded(buffer, day, 2);
         buffer.append('T');
         // hour (hh)
-        buffer.append(XX_FORMAT.format(calendar.get(HOUR_OF_DAY)));
+        appendPadded(buffer, hour, 2);
         buffer.append(':');
         // minute (mm)
-        buffer.append(XX_FORMAT.format(calendar.get(MINUTE)));
+        appendPadded(buffer, minute, 2);
         buffer.append(':');
         // second (ss)
-        buffer.append(XX_FORMAT.format(calendar.get(SECOND)));
-        if (includeMilliseconds) {
+        appendPadded(buffer, second, 2);
+        if (millisecond >= 0) {
             // millisecond (SSS)
             buffer.append('.');
-            buffer.append(XXX_FORMAT.format(calendar.get(MILLISECOND)));
-        }
-        if (calendar.getTimeZone().equals(UTC))
-            buffer.append('Z');
-        else {
-            buffer.append('+');
-            int offsetHours = calendar.getTimeZone().getRawOffset() / 1000 / 3600;
-            int offsetMinutes = calendar.getTimeZone().getRawOffset() / 1000 / 60 - offsetHours * 60;
-            buffer.append(XX_FORMAT.format(offsetHours));
-            buffer.append(':');
-            buffer.append(XX_FORMAT.format(offsetMinutes));
+            appendPadded(buffer, millisecond, 3);
         }
+        buffer.append(timeZone);
         return buffer.toString();
     }
+
+    private static void appendPadded(StringBuilder buffer, int value, int width) {
+        if (value < 0) {
+            buffer.append('-');
+            value = -value;
+        }
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++)
+            buffer.append('0');
+        buffer.append(digits);
+    }
 }
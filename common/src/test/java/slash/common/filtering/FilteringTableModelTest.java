@@ -0,0 +1,123 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.common.filtering;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static javax.swing.event.TableModelEvent.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FilteringTableModelTest {
+    private DefaultTableModel delegate;
+    private FilteringTableModel<Integer> model;
+    private final List<TableModelEvent> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        delegate = new DefaultTableModel(0, 1);
+        for (int i = 0; i < 10; i++)
+            delegate.addRow(new Object[]{i});
+        model = new FilteringTableModel<>(delegate, new FilterPredicate<Integer>() {
+            public String getName() {
+                return "even";
+            }
+
+            public boolean shouldInclude(Integer element) {
+                return element % 2 == 0;
+            }
+        });
+        model.addTableModelListener(new TableModelListener() {
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    private void assertMapping(int... delegateRows) {
+        assertEquals(delegateRows.length, model.getRowCount());
+        for (int i = 0; i < delegateRows.length; i++)
+            assertEquals(delegateRows[i], model.mapRow(i));
+    }
+
+    private void assertEvent(int index, int type, int firstRow, int lastRow) {
+        TableModelEvent event = events.get(index);
+        assertEquals(type, event.getType());
+        assertEquals(firstRow, event.getFirstRow());
+        assertEquals(lastRow, event.getLastRow());
+    }
+
+    @Test
+    public void testInitialMapping() {
+        assertMapping(0, 2, 4, 6, 8);
+        assertEquals(-1, model.mapRow(5));
+        assertArrayEquals(new int[]{2, 8}, model.mapRows(new int[]{1, 7, 4}));
+    }
+
+    @Test
+    public void testInsert() {
+        delegate.insertRow(3, new Object[]{12});
+        delegate.insertRow(3, new Object[]{13});
+
+        assertMapping(0, 2, 4, 6, 8, 10);
+        assertEquals(1, events.size());
+        assertEvent(0, INSERT, 2, 2);
+    }
+
+    @Test
+    public void testDelete() {
+        delegate.removeRow(4);
+        delegate.removeRow(4);
+
+        assertMapping(0, 2, 4, 6);
+        assertEquals(1, events.size());
+        assertEvent(0, DELETE, 2, 2);
+    }
+
+    @Test
+    public void testUpdate() {
+        delegate.setValueAt(20, 2, 0);
+        delegate.setValueAt(21, 4, 0);
+        delegate.setValueAt(22, 5, 0);
+
+        assertMapping(0, 2, 5, 6, 8);
+        assertEquals(3, events.size());
+        assertEvent(0, UPDATE, 1, 1);
+        assertEvent(1, DELETE, 2, 2);
+        assertEvent(2, INSERT, 2, 2);
+    }
+
+    @Test
+    public void testDataChanged() {
+        delegate.setValueAt(1, 0, 0);
+        delegate.fireTableDataChanged();
+
+        assertMapping(2, 4, 6, 8);
+        assertEquals(2, events.size());
+        assertEvent(1, UPDATE, 0, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.prefs.Preferences;
+
+import static org.junit.Assert.*;
+import static slash.common.helpers.JAXBHelper.*;
+
+public class JAXBHelperTest {
+    private static final Preferences preferences = Preferences.userNodeForPackage(JAXBHelper.class);
+    private static final String RECENT_CONTEXTS_PREFERENCE = "recentContexts";
+    private String recentContexts;
+
+    @XmlRootElement
+    public static class Sample {
+        public String name;
+    }
+
+    @XmlRootElement
+    public static class Recent {
+        public String name;
+    }
+
+    @Before
+    public void setUp() {
+        // creating contexts remembers them in the user preferences
+        recentContexts = preferences.get(RECENT_CONTEXTS_PREFERENCE, null);
+    }
+
+    @After
+    public void tearDown() {
+        if (recentContexts != null)
+            preferences.put(RECENT_CONTEXTS_PREFERENCE, recentContexts);
+        else
+            preferences.remove(RECENT_CONTEXTS_PREFERENCE);
+    }
+
+    @Test
+    public void testContextIsCached() {
+        assertSame(newContext(Sample.class), newContext(Sample.class));
+    }
+
+    @Test
+    public void testRemembersRecentContext() {
+        newContext(Recent.class);
+        assertEquals(Recent.class.getName(), getRecentContexts().get(0));
+    }
+
+    @Test
+    public void testMarshallersArePooledPerThread() throws Exception {
+        JAXBContext context = newContext(Sample.class);
+        Unmarshaller unmarshaller = newUnmarshaller(context);
+        Marshaller marshaller = newMarshaller(context);
+        assertSame(unmarshaller, newUnmarshaller(context));
+        assertSame(marshaller, newMarshaller(context));
+
+        final AtomicReference<Unmarshaller> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(newUnmarshaller(context)));
+        thread.start();
+        thread.join();
+        assertNotNull(other.get());
+        assertNotSame(unmarshaller, other.get());
+    }
+
+    @Test
+    public void testPooledMarshallersAreReusable() throws Exception {
+        JAXBContext context = newContext(Sample.class);
+        for (int i = 0; i < 3; i++) {
+            Sample sample = new Sample();
+            sample.name = "sample" + i;
+            StringWriter writer = new StringWriter();
+            newMarshaller(context).marshal(sample, writer);
+            Sample read = (Sample) newUnmarshaller(context).unmarshal(new StringReader(writer.toString()));
+            assertEquals("sample" + i, read.name);
+        }
+    }
+}
@@ -21,11 +21,18 @@
 package slash.common.io;
 
 import org.junit.Test;
+import slash.common.type.CompactCalendar;
+
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static slash.common.TestCase.assertDoubleEquals;
 import static slash.common.io.Transfer.*;
+import static slash.common.type.CompactCalendar.UTC;
+import static slash.common.type.CompactCalendar.fromMillis;
 
 public class TransferTest {
     @Test
@@ -132,4 +139,29 @@ public class TransferTest {
         assertEquals(expected, encodeFileName(original));
         assertEquals(original, decodeUri(expected));
     }
-}
\ No newline at end of file
+
+    private void assertParseXMLTime(String lexical) throws Exception {
+        XMLGregorianCalendar calendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(lexical);
+        assertEquals(lexical, calendar.toGregorianCalendar(UTC, null, null).getTimeInMillis(), parseXMLTime(calendar).getTimeInMillis());
+    }
+
+    @Test
+    public void testParseXMLTime() throws Exception {
+        assertParseXMLTime("2018-01-21T19:35:44Z");
+        assertParseXMLTime("2018-01-21T19:35:44.033Z");
+        assertParseXMLTime("2018-01-21T19:35:44.1234+02:00");
+        assertParseXMLTime("2018-01-21T19:35:44");
+        assertParseXMLTime("2018-01-21");
+        assertParseXMLTime("1066-10-14T09:00:00Z");
+        assertNull(parseXMLTime(null));
+    }
+
+    @Test
+    public void testFormatXMLTime() {
+        CompactCalendar time = fromMillis(1516563344033L);
+        assertEquals("2018-01-21T19:35:44.033Z", formatXMLTime(time, false).toXMLFormat());
+        assertEquals("2018-01-21T19:35:44Z", formatXMLTime(time, true).toXMLFormat());
+        assertEquals(time, parseXMLTime(formatXMLTime(time, false)));
+        assertNull(formatXMLTime(null, false));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+    @Test
+    public void testCounter() {
+        Counter counter = new Counter();
+        counter.increment();
+        counter.increment(41);
+        assertEquals(42, counter.getCount());
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMedian());
+
+        for (int i = 1; i <= 100; i++)
+            histogram.update(i);
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.0);
+        assertEquals(50, histogram.getMedian());
+        assertEquals(95, histogram.get95thPercentile());
+        assertEquals(99, histogram.get99thPercentile());
+    }
+
+    @Test
+    public void testHistogramPercentilesOfLastSamples() {
+        Histogram histogram = new Histogram();
+        histogram.update(1000000);
+        for (int i = 0; i < Histogram.SAMPLE_SIZE; i++)
+            histogram.update(1);
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(1, histogram.get99thPercentile());
+    }
+
+    @Test
+    public void testTimer() {
+        Timer timer = new Timer();
+        timer.update(2, MILLISECONDS);
+        timer.update(4, MILLISECONDS);
+        assertEquals(2, timer.getCount());
+        assertEquals(6.0, timer.getTotalMilliseconds(), 0.0);
+        assertEquals(3.0, timer.getMeanMilliseconds(), 0.0);
+
+        Timer.Context context = timer.time();
+        context.stop();
+        context.close();
+        assertEquals(3, timer.getCount());
+    }
+
+    @Test
+    public void testRegistersMetricsOnce() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        Metrics metrics = new Metrics(server);
+        Counter counter = metrics.getCounter("format.detect.attempts");
+        assertSame(counter, metrics.getCounter("format.detect.attempts"));
+        counter.increment(3);
+
+        ObjectName name = new ObjectName("slash.common.metrics:type=Counter,name=" + ObjectName.quote("format.detect.attempts"));
+        assertTrue(server.isRegistered(name));
+        assertEquals(3L, server.getAttribute(name, "Count"));
+
+        metrics.getTimer("routing.BRouter").update(1, MILLISECONDS);
+        assertEquals(2, metrics.getMetrics().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMetricOfOtherType() {
+        Metrics metrics = new Metrics(null);
+        metrics.getCounter("download.bytes");
+        metrics.getTimer("download.bytes");
+    }
+}
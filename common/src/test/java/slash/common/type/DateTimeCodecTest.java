@@ -0,0 +1,119 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.type;
+
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.type.CompactCalendar.createDateFormat;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.DateTimeCodec.format;
+import static slash.common.type.DateTimeCodec.parse;
+import static slash.common.type.DateTimeCodec.parseISO8601;
+
+public class DateTimeCodecTest {
+    private void assertParsedLikeSimpleDateFormat(String text, String pattern) throws ParseException {
+        DateFormat dateFormat = createDateFormat(pattern);
+        assertEquals(text + " with " + pattern, dateFormat.parse(text).getTime(), parse(text, pattern).getTimeInMillis());
+    }
+
+    @Test
+    public void testParseLikeSimpleDateFormat() throws ParseException {
+        assertParsedLikeSimpleDateFormat("160607 130441", "ddMMyy HHmmss");
+        assertParsedLikeSimpleDateFormat("160607 130441.890", "ddMMyy HHmmss.SSS");
+        assertParsedLikeSimpleDateFormat("160607 130441.89", "ddMMyy HHmmss.SSS");
+        assertParsedLikeSimpleDateFormat("16062007 130441", "ddMMyyyy HHmmss");
+        assertParsedLikeSimpleDateFormat("130441", "HHmmss");
+        assertParsedLikeSimpleDateFormat("13:04:41.5", "HH:mm:ss.SSS");
+        assertParsedLikeSimpleDateFormat("21.01.18 19:35:44", "dd.MM.yy HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("1.1.18 9:35:44", "dd.MM.yy HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("21.01.18 19:35", "dd.MM.yy HH:mm");
+        assertParsedLikeSimpleDateFormat("21.01.18 19:35:44", "dd.MM.yy HH:mm");
+        assertParsedLikeSimpleDateFormat("2018/01/21 19:35:44", "yyyy/MM/dd HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("2018:01:21 19:35:44", "yyyy:MM:dd HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("20180121 193544", "yyyyMMdd HHmmss");
+        assertParsedLikeSimpleDateFormat("180121", "yyMMdd");
+        assertParsedLikeSimpleDateFormat("990121", "yyMMdd");
+        assertParsedLikeSimpleDateFormat("21-January-18 19:35:44", "dd-MMMMM-yy HH:mm:ss");
+    }
+
+    @Test
+    public void testParseLenientLikeSimpleDateFormat() throws ParseException {
+        assertParsedLikeSimpleDateFormat("320118 246061", "ddMMyy HHmmss");
+        assertParsedLikeSimpleDateFormat("001318 000000", "ddMMyy HHmmss");
+        assertParsedLikeSimpleDateFormat("31.02.2018 10:00:00", "dd.MM.yyyy HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("  01.02.07 03:04:05", "dd.MM.yy HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("30441", "HHmmss");
+        assertParsedLikeSimpleDateFormat("13044", "HHmmss");
+        assertParsedLikeSimpleDateFormat("130441.", "HHmmss");
+        assertParsedLikeSimpleDateFormat("13044.5", "HHmmss.SSS");
+        assertParsedLikeSimpleDateFormat("2007616 130441", "yyyyMMdd HHmmss");
+        assertParsedLikeSimpleDateFormat("-2007-06-16", "yyyy-MM-dd");
+        assertParsedLikeSimpleDateFormat("-5-01-01 00:00:00", "yyyy-MM-dd HH:mm:ss");
+        assertParsedLikeSimpleDateFormat("0100-01-01 00:00:00", "yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Test
+    public void testParseFailures() {
+        assertNull(parse(null, "HHmmss"));
+        assertNull(parse("", "HHmmss"));
+        assertNull(parse("ab0441", "HHmmss"));
+        assertNull(parse("2018-01-21", "dd.MM.yy HH:mm:ss"));
+        assertNull(parse("21-Nonsense-18 19:35:44", "dd-MMMMM-yy HH:mm:ss"));
+    }
+
+    private void assertFormattedLikeSimpleDateFormat(long millis, String pattern) {
+        assertEquals(createDateFormat(pattern).format(millis), format(fromMillis(millis), pattern));
+    }
+
+    @Test
+    public void testFormatLikeSimpleDateFormat() {
+        long[] times = {0, 1516563344033L, 946684799999L, -86400000L * 365 * 30, 253402300799999L + 1000};
+        String[] patterns = {"HHmmss.SSS", "ddMMyy", "dd.MM.yy HH:mm:ss", "yyyy-MM-dd HH:mm:ss", "HH:mm",
+                "yyyy", "MM", "dd", "d.M.yyyy H:m:s.S", "dd-MMMMM-yy HH:mm:ss"};
+        for (long time : times)
+            for (String pattern : patterns)
+                assertFormattedLikeSimpleDateFormat(time, pattern);
+    }
+
+    private void assertISO8601(String text) {
+        CompactCalendar expected = CompactCalendar.fromCalendar(ISO8601.parseDate(text));
+        assertEquals(text, expected, parseISO8601(text));
+    }
+
+    @Test
+    public void testParseISO8601() {
+        assertISO8601("2018-01-21T19:35:44Z");
+        assertISO8601("2018-01-21T19:35:44.033Z");
+        assertISO8601("2018-01-21T19:35:44.5Z");
+        assertISO8601("2018-01-21T19:35:44+01:00");
+        assertISO8601("2018-01-21T19:35:44.123-05:30");
+        assertISO8601("-0001-01-21T19:35:44Z");
+        assertNull(parseISO8601("2018-02-30T19:35:44Z"));
+        assertNull(parseISO8601("2018-01-21T24:35:44Z"));
+        assertNull(parseISO8601("2018-01-21 19:35:44"));
+        assertNull(parseISO8601(null));
+    }
+}
@@ -20,6 +20,8 @@
 
 package slash.navigation.datasources;
 
+import slash.navigation.datasources.helpers.BoundingBoxIndex;
+
 import java.util.List;
 
 /**
@@ -40,6 +42,8 @@ public interface DataSource {
     List<Map> getMaps();
     List<Theme> getThemes();
 
+    BoundingBoxIndex<File> getFileIndex();
+
     Downloadable getDownloadable(String uri);
     Fragment<Downloadable> getFragment(String key);
 
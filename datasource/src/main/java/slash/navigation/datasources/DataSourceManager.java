@@ -21,6 +21,7 @@
 package slash.navigation.datasources;
 
 import slash.navigation.datasources.helpers.DataSourceService;
+import slash.navigation.datasources.helpers.DataSourceSnapshot;
 import slash.navigation.download.Action;
 import slash.navigation.download.Download;
 import slash.navigation.download.DownloadManager;
@@ -56,6 +57,7 @@ public class DataSourceManager {
     public static final String FORMAT_XML = "?format=xml";
     private static final String DOT_XML = ".xml";
     public static final String DOT_ZIP = ".zip";
+    private static final String DOT_SNAPSHOT = ".snapshot";
 
     private final DownloadManager downloadManager;
     private DataSourceService dataSourceService = new DataSourceService();
@@ -78,13 +80,31 @@ public class DataSourceManager {
     }
 
     public void initialize(String editionId, java.io.File directory) throws IOException, JAXBException {
+        // an outdated snapshot is replaced by update() once the XML has been parsed again
+        DataSourceService snapshot = DataSourceSnapshot.load(getSnapshotFile(editionId, directory));
+        if (snapshot != null) {
+            this.dataSourceService = snapshot;
+            return;
+        }
+
         java.io.File file = new File(directory, editionId + DOT_XML);
         log.info(format("Initializing edition '%s' from %s", editionId, file));
+        loadEditionAndDataSources(editionId, file, directory);
+    }
+
+    private java.io.File getSnapshotFile(String editionId, java.io.File directory) {
+        return new java.io.File(directory, editionId + DOT_SNAPSHOT);
+    }
+
+    private void loadEditionAndDataSources(String editionId, java.io.File file, java.io.File directory) throws IOException, JAXBException {
         Edition anEdition = loadEdition(file);
         if(anEdition == null)
             return;
 
-        loadDataSources(anEdition.getDataSources(), directory);
+        List<java.io.File> sources = new ArrayList<>();
+        sources.add(file);
+        sources.addAll(loadDataSources(anEdition.getDataSources(), directory));
+        DataSourceSnapshot.save(getSnapshotFile(editionId, directory), sources, dataSourceService);
     }
 
     private Edition loadEdition(java.io.File file) throws IOException, JAXBException {
@@ -98,7 +118,7 @@ public class DataSourceManager {
         return editions.size() > 0 ? editions.get(0) : null;
     }
 
-    private void loadDataSources(List<DataSource> dataSources, java.io.File dataSourceDirectory) throws IOException, JAXBException {
+    private List<java.io.File> loadDataSources(List<DataSource> dataSources, java.io.File dataSourceDirectory) throws IOException, JAXBException {
         long start = currentTimeMillis();
 
         List<File> dataSourceFiles = new ArrayList<>();
@@ -123,6 +143,7 @@ public class DataSourceManager {
         File[] dataSourceFilesArray = dataSourceFiles.toArray(new File[0]);
         log.info(format("Initialized %d data source files %s from %s in %d milliseconds",
                 dataSourceFilesArray.length, printArrayToDialogString(dataSourceFilesArray, false), dataSourceDirectory, (end - start)));
+        return dataSourceFiles;
     }
 
     public void update(String editionId, String url, java.io.File directory) throws IOException, JAXBException {
@@ -134,7 +155,10 @@ public class DataSourceManager {
             return;
 
         downloadDataSources(anEdition.getDataSources(), directory);
-        loadDataSources(anEdition.getDataSources(), directory);
+        if (DataSourceSnapshot.isValid(getSnapshotFile(editionId, directory)))
+            log.info(format("Edition '%s' and its data sources are unchanged", editionId));
+        else
+            loadEditionAndDataSources(editionId, file, directory);
 
         updateQueueFromDataSources();
     }
@@ -0,0 +1,256 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.datasources.helpers;
+
+import slash.navigation.common.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.cos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+
+/**
+ * A static spatial index over {@link BoundingBox}es that answers containment,
+ * intersection and nearest queries.
+ *
+ * The index is a R-tree packed with the sort-tile-recursive algorithm. Items
+ * without a bounding box are not indexed.
+ *
+ * @author Christian Pesch
+ */
+
+public class BoundingBoxIndex<T> {
+    private static final int NODE_CAPACITY = 16;
+    private static final int MIN_LONGITUDE = 0, MIN_LATITUDE = 1, MAX_LONGITUDE = 2, MAX_LATITUDE = 3;
+
+    private final List<T> items = new ArrayList<>();
+    /* levels[0] holds the bounds of the items, levels[n] the bounds of the nodes
+       that group NODE_CAPACITY consecutive entries of levels[n - 1] */
+    private final List<double[]> levels = new ArrayList<>();
+
+    public BoundingBoxIndex(Collection<T> items, Function<T, BoundingBox> toBoundingBox) {
+        List<Entry<T>> entries = new ArrayList<>();
+        for (T item : items) {
+            BoundingBox boundingBox = toBoundingBox.apply(item);
+            if (boundingBox == null || boundingBox.getNorthEast() == null || boundingBox.getSouthWest() == null)
+                continue;
+            entries.add(new Entry<>(item, boundingBox));
+        }
+
+        sortTileRecursive(entries);
+
+        double[] bounds = new double[entries.size() * 4];
+        for (int i = 0; i < entries.size(); i++) {
+            Entry<T> entry = entries.get(i);
+            this.items.add(entry.item);
+            bounds[i * 4 + MIN_LONGITUDE] = entry.minLongitude;
+            bounds[i * 4 + MIN_LATITUDE] = entry.minLatitude;
+            bounds[i * 4 + MAX_LONGITUDE] = entry.maxLongitude;
+            bounds[i * 4 + MAX_LATITUDE] = entry.maxLatitude;
+        }
+        levels.add(bounds);
+
+        while (bounds.length > 4) {
+            bounds = groupBounds(bounds);
+            levels.add(bounds);
+        }
+    }
+
+    private static <T> void sortTileRecursive(List<Entry<T>> entries) {
+        entries.sort(Comparator.comparingDouble(Entry::getCenterLongitude));
+        int nodeCount = (int) ceil(entries.size() / (double) NODE_CAPACITY);
+        int sliceSize = (int) ceil(sqrt(nodeCount)) * NODE_CAPACITY;
+        for (int i = 0; i < entries.size(); i += sliceSize)
+            entries.subList(i, min(i + sliceSize, entries.size())).sort(Comparator.comparingDouble(Entry::getCenterLatitude));
+    }
+
+    private static double[] groupBounds(double[] children) {
+        int childCount = children.length / 4;
+        int nodeCount = (childCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        double[] result = new double[nodeCount * 4];
+        for (int node = 0; node < nodeCount; node++) {
+            double minLongitude = Double.MAX_VALUE, minLatitude = Double.MAX_VALUE,
+                    maxLongitude = -Double.MAX_VALUE, maxLatitude = -Double.MAX_VALUE;
+            for (int child = node * NODE_CAPACITY; child < min((node + 1) * NODE_CAPACITY, childCount); child++) {
+                minLongitude = min(minLongitude, children[child * 4 + MIN_LONGITUDE]);
+                minLatitude = min(minLatitude, children[child * 4 + MIN_LATITUDE]);
+                maxLongitude = max(maxLongitude, children[child * 4 + MAX_LONGITUDE]);
+                maxLatitude = max(maxLatitude, children[child * 4 + MAX_LATITUDE]);
+            }
+            result[node * 4 + MIN_LONGITUDE] = minLongitude;
+            result[node * 4 + MIN_LATITUDE] = minLatitude;
+            result[node * 4 + MAX_LONGITUDE] = maxLongitude;
+            result[node * 4 + MAX_LATITUDE] = maxLatitude;
+        }
+        return result;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns the items whose bounding box contains the given bounding box.
+     */
+    public List<T> getContaining(BoundingBox boundingBox) {
+        return query(new Query(boundingBox) {
+            boolean matches(double[] bounds, int index) {
+                return bounds[index * 4 + MIN_LONGITUDE] <= minLongitude && bounds[index * 4 + MAX_LONGITUDE] >= maxLongitude &&
+                        bounds[index * 4 + MIN_LATITUDE] <= minLatitude && bounds[index * 4 + MAX_LATITUDE] >= maxLatitude;
+            }
+        });
+    }
+
+    /**
+     * Returns the items whose bounding box intersects the given bounding box
+     * with an area, i.e. touching edges do not count.
+     */
+    public List<T> getIntersecting(BoundingBox boundingBox) {
+        return query(new Query(boundingBox) {
+            boolean matches(double[] bounds, int index) {
+                return bounds[index * 4 + MIN_LONGITUDE] < maxLongitude && bounds[index * 4 + MAX_LONGITUDE] > minLongitude &&
+                        bounds[index * 4 + MIN_LATITUDE] < maxLatitude && bounds[index * 4 + MAX_LATITUDE] > minLatitude;
+            }
+        });
+    }
+
+    private List<T> query(Query query) {
+        List<T> result = new ArrayList<>();
+        int topLevel = levels.size() - 1;
+        int topCount = levels.get(topLevel).length / 4;
+        for (int index = 0; index < topCount; index++)
+            query(query, topLevel, index, result);
+        return result;
+    }
+
+    private void query(Query query, int level, int index, List<T> result) {
+        // containment of a child implies containment resp. intersection of its parent
+        if (!query.matches(levels.get(level), index))
+            return;
+        if (level == 0) {
+            result.add(items.get(index));
+            return;
+        }
+        int childCount = levels.get(level - 1).length / 4;
+        for (int child = index * NODE_CAPACITY; child < min((index + 1) * NODE_CAPACITY, childCount); child++)
+            query(query, level - 1, child, result);
+    }
+
+    /**
+     * Returns up to count items ordered by the distance of their bounding box
+     * to the given position, items containing the position first.
+     */
+    public List<T> getNearest(double longitude, double latitude, int count) {
+        List<T> result = new ArrayList<>();
+        if (items.isEmpty())
+            return result;
+
+        double longitudeScale = cos(toRadians(latitude));
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        int topLevel = levels.size() - 1;
+        double[] topBounds = levels.get(topLevel);
+        for (int index = 0; index < topBounds.length / 4; index++)
+            queue.add(new Candidate(topLevel, index, distance(topBounds, index, longitude, latitude, longitudeScale)));
+
+        while (!queue.isEmpty() && result.size() < count) {
+            Candidate candidate = queue.poll();
+            if (candidate.level == 0) {
+                result.add(items.get(candidate.index));
+                continue;
+            }
+            double[] childBounds = levels.get(candidate.level - 1);
+            int childCount = childBounds.length / 4;
+            for (int child = candidate.index * NODE_CAPACITY; child < min((candidate.index + 1) * NODE_CAPACITY, childCount); child++)
+                queue.add(new Candidate(candidate.level - 1, child, distance(childBounds, child, longitude, latitude, longitudeScale)));
+        }
+        return result;
+    }
+
+    private static double distance(double[] bounds, int index, double longitude, double latitude, double longitudeScale) {
+        double longitudeDelta = max(max(bounds[index * 4 + MIN_LONGITUDE] - longitude, 0.0), longitude - bounds[index * 4 + MAX_LONGITUDE]);
+        double latitudeDelta = max(max(bounds[index * 4 + MIN_LATITUDE] - latitude, 0.0), latitude - bounds[index * 4 + MAX_LATITUDE]);
+        longitudeDelta *= longitudeScale;
+        return longitudeDelta * longitudeDelta + latitudeDelta * latitudeDelta;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", levels=" + levels.size() + "]";
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final double minLongitude, minLatitude, maxLongitude, maxLatitude;
+
+        private Entry(T item, BoundingBox boundingBox) {
+            this.item = item;
+            this.minLongitude = boundingBox.getSouthWest().getLongitude();
+            this.minLatitude = boundingBox.getSouthWest().getLatitude();
+            this.maxLongitude = boundingBox.getNorthEast().getLongitude();
+            this.maxLatitude = boundingBox.getNorthEast().getLatitude();
+        }
+
+        private double getCenterLongitude() {
+            return (minLongitude + maxLongitude) / 2;
+        }
+
+        private double getCenterLatitude() {
+            return (minLatitude + maxLatitude) / 2;
+        }
+    }
+
+    private static abstract class Query {
+        final double minLongitude, minLatitude, maxLongitude, maxLatitude;
+
+        Query(BoundingBox boundingBox) {
+            this.minLongitude = boundingBox.getSouthWest().getLongitude();
+            this.minLatitude = boundingBox.getSouthWest().getLatitude();
+            this.maxLongitude = boundingBox.getNorthEast().getLongitude();
+            this.maxLatitude = boundingBox.getNorthEast().getLatitude();
+        }
+
+        abstract boolean matches(double[] bounds, int index);
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        private final int level, index;
+        private final double distance;
+
+        private Candidate(int level, int index, double distance) {
+            this.level = level;
+            this.index = index;
+            this.distance = distance;
+        }
+
+        public int compareTo(Candidate other) {
+            int result = Double.compare(distance, other.distance);
+            // prefer items over nodes with the same distance
+            return result != 0 ? result : Integer.compare(level, other.level);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.datasources.helpers;
+
+import slash.navigation.datasources.DataSource;
+import slash.navigation.datasources.Edition;
+import slash.navigation.datasources.binding.*;
+import slash.navigation.datasources.impl.DataSourceImpl;
+import slash.navigation.datasources.impl.EditionImpl;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Stores the {@link DataSource}s and {@link Edition}s of a {@link DataSourceService} in a
+ * compact binary snapshot together with the modification times of the XML files they
+ * have been loaded from. The files, maps and themes of a data source are decoded from
+ * the snapshot when they are accessed for the first time.
+ *
+ * @author Christian Pesch
+ */
+
+public class DataSourceSnapshot {
+    private static final Logger log = Logger.getLogger(DataSourceSnapshot.class.getName());
+    private static final int MAGIC = 0x52434453;
+    private static final int VERSION = 1;
+
+    private DataSourceSnapshot() {
+    }
+
+    /**
+     * @return <code>true</code> if the snapshot exists and all the XML files it has been
+     * created from are unchanged
+     */
+    public static boolean isValid(File snapshot) {
+        if (!snapshot.exists())
+            return false;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            return readSources(input);
+        } catch (IOException e) {
+            log.warning(format("Cannot validate data source snapshot %s: %s", snapshot, e));
+            return false;
+        }
+    }
+
+    /**
+     * @return the loaded data sources or <code>null</code> if the snapshot does not exist or cannot be read
+     */
+    public static DataSourceService load(File snapshot) {
+        if (!snapshot.exists())
+            return null;
+
+        long start = currentTimeMillis();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            boolean valid = readSources(input);
+            CatalogType catalogType = new ObjectFactory().createCatalogType();
+            int dataSourceCount = input.readInt();
+            for (int i = 0; i < dataSourceCount; i++)
+                catalogType.getDatasource().add(readDataSource(input));
+            int editionCount = input.readInt();
+            for (int i = 0; i < editionCount; i++)
+                catalogType.getEdition().add(readEdition(input));
+
+            DataSourceService result = new DataSourceService();
+            result.load(catalogType);
+            log.info(format("Loaded %s data source snapshot %s with %d data sources in %d milliseconds",
+                    valid ? "valid" : "outdated", snapshot, dataSourceCount, currentTimeMillis() - start));
+            return result;
+        } catch (IOException e) {
+            log.warning(format("Cannot load data source snapshot %s: %s", snapshot, e));
+            return null;
+        }
+    }
+
+    /**
+     * Stores the data sources of the service for the given XML files.
+     */
+    public static void save(File snapshot, List<File> sources, DataSourceService service) {
+        long start = currentTimeMillis();
+        File temp = new File(snapshot.getPath() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(sources.size());
+                for (File source : sources) {
+                    output.writeUTF(source.getPath());
+                    output.writeLong(source.lastModified());
+                    output.writeLong(source.length());
+                }
+
+                List<DataSource> dataSources = service.getDataSources();
+                output.writeInt(dataSources.size());
+                for (DataSource dataSource : dataSources)
+                    writeDataSource(output, ((DataSourceImpl) dataSource).getDatasourceType());
+                List<Edition> editions = service.getEditions();
+                output.writeInt(editions.size());
+                for (Edition edition : editions)
+                    writeEdition(output, ((EditionImpl) edition).getEditionType());
+            }
+            if (snapshot.exists() && !snapshot.delete())
+                throw new IOException("Cannot delete " + snapshot);
+            if (!temp.renameTo(snapshot))
+                throw new IOException("Cannot rename " + temp + " to " + snapshot);
+            log.info(format("Saved data source snapshot %s in %d milliseconds", snapshot, currentTimeMillis() - start));
+        } catch (IOException e) {
+            log.warning(format("Cannot save data source snapshot %s: %s", snapshot, e));
+            if (temp.exists() && !temp.delete())
+                log.warning(format("Cannot delete %s", temp));
+        }
+    }
+
+    private static boolean readSources(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC)
+            throw new IOException("Not a data source snapshot");
+        if (input.readInt() != VERSION)
+            throw new IOException("Unsupported data source snapshot version");
+
+        boolean valid = true;
+        int sourceCount = input.readInt();
+        for (int i = 0; i < sourceCount; i++) {
+            File source = new File(input.readUTF());
+            long lastModified = input.readLong();
+            long length = input.readLong();
+            if (source.lastModified() != lastModified || source.length() != length)
+                valid = false;
+        }
+        return valid;
+    }
+
+    // writing
+
+    private static void writeString(DataOutput output, String string) throws IOException {
+        output.writeBoolean(string != null);
+        if (string != null)
+            output.writeUTF(string);
+    }
+
+    private static void writeDataSourceAttributes(DataOutput output, DatasourceType datasourceType) throws IOException {
+        writeString(output, datasourceType.getId());
+        writeString(output, datasourceType.getName());
+        writeString(output, datasourceType.getHref());
+        writeString(output, datasourceType.getBaseUrl());
+        writeString(output, datasourceType.getDirectory());
+        writeString(output, datasourceType.getAction() != null ? datasourceType.getAction().value() : null);
+    }
+
+    private static void writeDataSource(DataOutputStream output, DatasourceType datasourceType) throws IOException {
+        writeDataSourceAttributes(output, datasourceType);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream content = new DataOutputStream(buffer);
+        List<FileType> files = datasourceType.getFile();
+        content.writeInt(files.size());
+        for (FileType fileType : files) {
+            writeDownloadable(content, fileType);
+            writeBoundingBox(content, fileType.getBoundingBox());
+        }
+        List<MapType> maps = datasourceType.getMap();
+        content.writeInt(maps.size());
+        for (MapType mapType : maps) {
+            writeDownloadable(content, mapType);
+            writeBoundingBox(content, mapType.getBoundingBox());
+        }
+        List<ThemeType> themes = datasourceType.getTheme();
+        content.writeInt(themes.size());
+        for (ThemeType themeType : themes) {
+            writeDownloadable(content, themeType);
+            writeString(content, themeType.getImageUrl());
+        }
+        content.flush();
+
+        output.writeInt(buffer.size());
+        buffer.writeTo(output);
+    }
+
+    private static void writeDownloadable(DataOutput output, DownloadableType downloadableType) throws IOException {
+        writeString(output, downloadableType.getUri());
+        writeChecksums(output, downloadableType.getChecksum());
+        List<FragmentType> fragments = downloadableType.getFragment();
+        output.writeInt(fragments.size());
+        for (FragmentType fragmentType : fragments) {
+            writeString(output, fragmentType.getKey());
+            writeChecksums(output, fragmentType.getChecksum());
+        }
+    }
+
+    private static void writeChecksums(DataOutput output, List<ChecksumType> checksums) throws IOException {
+        output.writeInt(checksums.size());
+        for (ChecksumType checksumType : checksums) {
+            writeString(output, checksumType.getLastModified() != null ? checksumType.getLastModified().toXMLFormat() : null);
+            output.writeBoolean(checksumType.getContentLength() != null);
+            if (checksumType.getContentLength() != null)
+                output.writeLong(checksumType.getContentLength());
+            writeString(output, checksumType.getSha1());
+        }
+    }
+
+    private static void writeBoundingBox(DataOutput output, BoundingBoxType boundingBoxType) throws IOException {
+        output.writeBoolean(boundingBoxType != null);
+        if (boundingBoxType == null)
+            return;
+        writePosition(output, boundingBoxType.getNorthEast());
+        writePosition(output, boundingBoxType.getSouthWest());
+    }
+
+    private static void writePosition(DataOutput output, PositionType positionType) throws IOException {
+        output.writeBoolean(positionType != null);
+        if (positionType == null)
+            return;
+        output.writeDouble(positionType.getLongitude());
+        output.writeDouble(positionType.getLatitude());
+    }
+
+    private static void writeEdition(DataOutputStream output, EditionType editionType) throws IOException {
+        writeString(output, editionType.getId());
+        writeString(output, editionType.getName());
+        writeString(output, editionType.getHref());
+        List<DatasourceType> dataSources = editionType.getDatasource();
+        output.writeInt(dataSources.size());
+        for (DatasourceType datasourceType : dataSources)
+            writeDataSource(output, datasourceType);
+    }
+
+    // reading
+
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static DatasourceType readDataSource(DataInputStream input) throws IOException {
+        LazyDatasourceType datasourceType = new LazyDatasourceType();
+        datasourceType.setId(readString(input));
+        datasourceType.setName(readString(input));
+        datasourceType.setHref(readString(input));
+        datasourceType.setBaseUrl(readString(input));
+        datasourceType.setDirectory(readString(input));
+        String action = readString(input);
+        datasourceType.setAction(action != null ? ActionType.fromValue(action) : null);
+
+        byte[] content = new byte[input.readInt()];
+        input.readFully(content);
+        datasourceType.content = content;
+        return datasourceType;
+    }
+
+    private static EditionType readEdition(DataInputStream input) throws IOException {
+        EditionType editionType = new ObjectFactory().createEditionType();
+        editionType.setId(readString(input));
+        editionType.setName(readString(input));
+        editionType.setHref(readString(input));
+        int dataSourceCount = input.readInt();
+        for (int i = 0; i < dataSourceCount; i++)
+            editionType.getDatasource().add(readDataSource(input));
+        return editionType;
+    }
+
+    private static void readDownloadable(DataInput input, DownloadableType downloadableType,
+                                         DatatypeFactory datatypeFactory) throws IOException {
+        downloadableType.setUri(readString(input));
+        readChecksums(input, downloadableType.getChecksum(), datatypeFactory);
+        int fragmentCount = input.readInt();
+        for (int i = 0; i < fragmentCount; i++) {
+            FragmentType fragmentType = new FragmentType();
+            fragmentType.setKey(readString(input));
+            readChecksums(input, fragmentType.getChecksum(), datatypeFactory);
+            downloadableType.getFragment().add(fragmentType);
+        }
+    }
+
+    private static void readChecksums(DataInput input, List<ChecksumType> checksums,
+                                      DatatypeFactory datatypeFactory) throws IOException {
+        int checksumCount = input.readInt();
+        for (int i = 0; i < checksumCount; i++) {
+            ChecksumType checksumType = new ChecksumType();
+            String lastModified = readString(input);
+            if (lastModified != null)
+                checksumType.setLastModified(datatypeFactory.newXMLGregorianCalendar(lastModified));
+            if (input.readBoolean())
+                checksumType.setContentLength(input.readLong());
+            checksumType.setSha1(readString(input));
+            checksums.add(checksumType);
+        }
+    }
+
+    private static BoundingBoxType readBoundingBox(DataInput input) throws IOException {
+        if (!input.readBoolean())
+            return null;
+        BoundingBoxType boundingBoxType = new BoundingBoxType();
+        boundingBoxType.setNorthEast(readPosition(input));
+        boundingBoxType.setSouthWest(readPosition(input));
+        return boundingBoxType;
+    }
+
+    private static PositionType readPosition(DataInput input) throws IOException {
+        if (!input.readBoolean())
+            return null;
+        PositionType positionType = new PositionType();
+        positionType.setLongitude(input.readDouble());
+        positionType.setLatitude(input.readDouble());
+        return positionType;
+    }
+
+    /**
+     * A {@link DatasourceType} that decodes its files, maps and themes on first access.
+     */
+    private static class LazyDatasourceType extends DatasourceType {
+        private byte[] content;
+
+        private synchronized void materialize() {
+            if (content == null)
+                return;
+
+            byte[] bytes = content;
+            content = null;
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                DatatypeFactory datatypeFactory = DatatypeFactory.newInstance();
+                List<FileType> files = new ArrayList<>();
+                int fileCount = input.readInt();
+                for (int i = 0; i < fileCount; i++) {
+                    FileType fileType = new FileType();
+                    readDownloadable(input, fileType, datatypeFactory);
+                    fileType.setBoundingBox(readBoundingBox(input));
+                    files.add(fileType);
+                }
+                List<MapType> maps = new ArrayList<>();
+                int mapCount = input.readInt();
+                for (int i = 0; i < mapCount; i++) {
+                    MapType mapType = new MapType();
+                    readDownloadable(input, mapType, datatypeFactory);
+                    mapType.setBoundingBox(readBoundingBox(input));
+                    maps.add(mapType);
+                }
+                List<ThemeType> themes = new ArrayList<>();
+                int themeCount = input.readInt();
+                for (int i = 0; i < themeCount; i++) {
+                    ThemeType themeType = new ThemeType();
+                    readDownloadable(input, themeType, datatypeFactory);
+                    themeType.setImageUrl(readString(input));
+                    themes.add(themeType);
+                }
+                this.file = files;
+                this.map = maps;
+                this.theme = themes;
+            } catch (IOException | DatatypeConfigurationException e) {
+                throw new IllegalStateException(format("Cannot decode data source %s from snapshot: %s", getId(), e), e);
+            }
+        }
+
+        public List<FileType> getFile() {
+            materialize();
+            return super.getFile();
+        }
+
+        public List<MapType> getMap() {
+            materialize();
+            return super.getMap();
+        }
+
+        public List<ThemeType> getTheme() {
+            materialize();
+            return super.getTheme();
+        }
+    }
+}
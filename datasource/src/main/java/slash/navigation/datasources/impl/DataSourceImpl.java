@@ -24,6 +24,7 @@ import slash.navigation.datasources.binding.DatasourceType;
 import slash.navigation.datasources.binding.FileType;
 import slash.navigation.datasources.binding.MapType;
 import slash.navigation.datasources.binding.ThemeType;
+import slash.navigation.datasources.helpers.BoundingBoxIndex;
 import slash.navigation.download.Checksum;
 
 import java.util.ArrayList;
@@ -41,11 +42,16 @@ public class DataSourceImpl implements DataSource {
     private boolean initialized;
     private final java.util.Map<String, Downloadable> downloadableMap = new HashMap<>();
     private final java.util.Map<String, Fragment<Downloadable>> fragmentMap = new HashMap<>();
+    private BoundingBoxIndex<File> fileIndex;
 
     public DataSourceImpl(DatasourceType datasourceType) {
         this.datasourceType = datasourceType;
     }
 
+    public DatasourceType getDatasourceType() {
+        return datasourceType;
+    }
+
     private void putDownloadables(List<? extends Downloadable> downloadables) {
         for (Downloadable downloadable : downloadables) {
             downloadableMap.put(downloadable.getUri(), downloadable);
@@ -110,6 +116,12 @@ public class DataSourceImpl implements DataSource {
         return result;
     }
 
+    public synchronized BoundingBoxIndex<File> getFileIndex() {
+        if (fileIndex == null)
+            fileIndex = new BoundingBoxIndex<>(getFiles(), File::getBoundingBox);
+        return fileIndex;
+    }
+
     public Downloadable getDownloadable(String uri) {
         initialize();
         return downloadableMap.get(uri);
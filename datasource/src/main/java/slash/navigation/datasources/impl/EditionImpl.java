@@ -40,6 +40,10 @@ public class EditionImpl implements Edition {
         this.editionType = editionType;
     }
 
+    public EditionType getEditionType() {
+        return editionType;
+    }
+
     public String getId() {
         return editionType.getId();
     }
@@ -0,0 +1,118 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.datasources.helpers;
+
+import org.junit.Test;
+import slash.navigation.common.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoundingBoxIndexTest {
+    private static final BoundingBox EUROPE = new BoundingBox(40.0, 72.0, -25.0, 34.0);
+    private static final BoundingBox GERMANY = new BoundingBox(15.1, 55.1, 5.8, 47.2);
+    private static final BoundingBox HAMBURG = new BoundingBox(10.4, 53.8, 9.6, 53.3);
+    private static final BoundingBox BAVARIA = new BoundingBox(13.9, 50.6, 8.9, 47.2);
+    private static final BoundingBox AUSTRALIA = new BoundingBox(154.0, -10.0, 112.0, -44.0);
+
+    private BoundingBoxIndex<BoundingBox> createIndex(BoundingBox... boundingBoxes) {
+        return new BoundingBoxIndex<>(asList(boundingBoxes), boundingBox -> boundingBox);
+    }
+
+    @Test
+    public void testEmpty() {
+        BoundingBoxIndex<BoundingBox> index = createIndex();
+        assertEquals(0, index.size());
+        assertEquals(emptyList(), index.getContaining(HAMBURG));
+        assertEquals(emptyList(), index.getIntersecting(HAMBURG));
+        assertEquals(emptyList(), index.getNearest(10.0, 53.5, 1));
+    }
+
+    @Test
+    public void testIgnoresMissingBoundingBoxes() {
+        BoundingBoxIndex<String> index = new BoundingBoxIndex<>(asList("a", "b"), item -> item.equals("a") ? HAMBURG : null);
+        assertEquals(1, index.size());
+        assertEquals(asList("a"), index.getContaining(new BoundingBox(10.0, 53.5, 9.9, 53.4)));
+    }
+
+    @Test
+    public void testContaining() {
+        BoundingBoxIndex<BoundingBox> index = createIndex(EUROPE, GERMANY, HAMBURG, BAVARIA, AUSTRALIA);
+        assertEquals(new HashSet<>(asList(EUROPE, GERMANY, HAMBURG)),
+                new HashSet<>(index.getContaining(new BoundingBox(10.0, 53.5, 9.9, 53.4))));
+        assertEquals(new HashSet<>(asList(EUROPE, GERMANY)),
+                new HashSet<>(index.getContaining(new BoundingBox(11.0, 53.5, 9.9, 48.0))));
+        assertEquals(asList(AUSTRALIA), index.getContaining(new BoundingBox(150.0, -30.0, 140.0, -35.0)));
+        assertEquals(emptyList(), index.getContaining(new BoundingBox(-70.0, 45.0, -75.0, 40.0)));
+    }
+
+    @Test
+    public void testIntersecting() {
+        BoundingBoxIndex<BoundingBox> index = createIndex(EUROPE, GERMANY, HAMBURG, BAVARIA, AUSTRALIA);
+        assertEquals(new HashSet<>(asList(EUROPE, GERMANY, HAMBURG, BAVARIA)),
+                new HashSet<>(index.getIntersecting(new BoundingBox(10.0, 54.0, 9.0, 48.0))));
+        assertEquals(emptyList(), index.getIntersecting(new BoundingBox(-70.0, 45.0, -75.0, 40.0)));
+    }
+
+    @Test
+    public void testNearest() {
+        BoundingBoxIndex<BoundingBox> index = createIndex(HAMBURG, BAVARIA, AUSTRALIA);
+        assertEquals(asList(HAMBURG), index.getNearest(10.0, 53.5, 1));
+        assertEquals(asList(BAVARIA, HAMBURG), index.getNearest(12.0, 46.0, 2));
+        assertEquals(asList(AUSTRALIA, BAVARIA, HAMBURG), index.getNearest(130.0, -20.0, 5));
+    }
+
+    @Test
+    public void testLargeIndexMatchesLinearScan() {
+        Random random = new Random(4711);
+        List<BoundingBox> boundingBoxes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            double longitude = random.nextDouble() * 350.0 - 175.0;
+            double latitude = random.nextDouble() * 170.0 - 85.0;
+            double size = random.nextDouble() * 5.0;
+            boundingBoxes.add(new BoundingBox(longitude + size, latitude + size, longitude, latitude));
+        }
+        BoundingBoxIndex<BoundingBox> index = new BoundingBoxIndex<>(boundingBoxes, boundingBox -> boundingBox);
+
+        for (int i = 0; i < 100; i++) {
+            double longitude = random.nextDouble() * 350.0 - 175.0;
+            double latitude = random.nextDouble() * 170.0 - 85.0;
+            BoundingBox query = new BoundingBox(longitude + 0.1, latitude + 0.1, longitude, latitude);
+
+            List<BoundingBox> expected = new ArrayList<>();
+            for (BoundingBox boundingBox : boundingBoxes)
+                if (boundingBox.contains(query))
+                    expected.add(boundingBox);
+            assertEquals(new HashSet<>(expected), new HashSet<>(index.getContaining(query)));
+
+            List<BoundingBox> nearest = index.getNearest(longitude, latitude, 1);
+            assertEquals(1, nearest.size());
+            if (!expected.isEmpty())
+                assertTrue(nearest.get(0).contains(query.getSouthWest()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.datasources.helpers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.datasources.DataSource;
+import slash.navigation.datasources.Downloadable;
+import slash.navigation.datasources.File;
+import slash.navigation.datasources.Fragment;
+import slash.navigation.datasources.Map;
+import slash.navigation.datasources.Theme;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static slash.common.io.InputOutput.copyAndClose;
+
+public class DataSourceSnapshotTest {
+    private java.io.File source, snapshot;
+    private DataSourceService service;
+
+    @Before
+    public void setUp() throws Exception {
+        source = createTempFile("datasources", ".xml");
+        snapshot = createTempFile("datasources", ".snapshot");
+        try (InputStream inputStream = DataSourceService.class.getResourceAsStream("/slash/navigation/datasources/testdatasources.xml")) {
+            copyAndClose(inputStream, new FileOutputStream(source));
+        }
+        service = new DataSourceService();
+        try (InputStream inputStream = new java.io.FileInputStream(source)) {
+            service.load(inputStream);
+        }
+        DataSourceSnapshot.save(snapshot, singletonList(source), service);
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(source.delete());
+        assertTrue(snapshot.delete());
+    }
+
+    private void assertDownloadablesEquals(List<? extends Downloadable> expected, List<? extends Downloadable> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Downloadable expectedDownloadable = expected.get(i), actualDownloadable = actual.get(i);
+            assertEquals(expectedDownloadable.getUri(), actualDownloadable.getUri());
+            assertEquals(expectedDownloadable.getChecksums().size(), actualDownloadable.getChecksums().size());
+            assertEquals(expectedDownloadable.getLatestChecksum().getLastModified(), actualDownloadable.getLatestChecksum().getLastModified());
+            assertEquals(expectedDownloadable.getLatestChecksum().getContentLength(), actualDownloadable.getLatestChecksum().getContentLength());
+            assertEquals(expectedDownloadable.getLatestChecksum().getSHA1(), actualDownloadable.getLatestChecksum().getSHA1());
+
+            List<Fragment<Downloadable>> expectedFragments = expectedDownloadable.getFragments(), actualFragments = actualDownloadable.getFragments();
+            assertEquals(expectedFragments.size(), actualFragments.size());
+            for (int j = 0; j < expectedFragments.size(); j++) {
+                assertEquals(expectedFragments.get(j).getKey(), actualFragments.get(j).getKey());
+                assertEquals(expectedFragments.get(j).getLatestChecksum().getSHA1(), actualFragments.get(j).getLatestChecksum().getSHA1());
+            }
+        }
+    }
+
+    @Test
+    public void testLoadSnapshot() {
+        assertTrue(DataSourceSnapshot.isValid(snapshot));
+        DataSourceService loaded = DataSourceSnapshot.load(snapshot);
+        assertNotNull(loaded);
+
+        assertEquals(service.getEditions().size(), loaded.getEditions().size());
+        List<DataSource> expected = service.getDataSources(), actual = loaded.getDataSources();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DataSource expectedDataSource = expected.get(i), actualDataSource = actual.get(i);
+            assertEquals(expectedDataSource.getId(), actualDataSource.getId());
+            assertEquals(expectedDataSource.getName(), actualDataSource.getName());
+            assertEquals(expectedDataSource.getBaseUrl(), actualDataSource.getBaseUrl());
+            assertEquals(expectedDataSource.getDirectory(), actualDataSource.getDirectory());
+
+            List<File> expectedFiles = expectedDataSource.getFiles(), actualFiles = actualDataSource.getFiles();
+            assertDownloadablesEquals(expectedFiles, actualFiles);
+            for (int j = 0; j < expectedFiles.size(); j++)
+                assertEquals(expectedFiles.get(j).getBoundingBox(), actualFiles.get(j).getBoundingBox());
+            List<Map> expectedMaps = expectedDataSource.getMaps(), actualMaps = actualDataSource.getMaps();
+            assertDownloadablesEquals(expectedMaps, actualMaps);
+            List<Theme> expectedThemes = expectedDataSource.getThemes(), actualThemes = actualDataSource.getThemes();
+            assertDownloadablesEquals(expectedThemes, actualThemes);
+            for (int j = 0; j < expectedThemes.size(); j++)
+                assertEquals(expectedThemes.get(j).getImageUrl(), actualThemes.get(j).getImageUrl());
+        }
+    }
+
+    @Test
+    public void testSnapshotIsOutdatedWhenSourceChanges() throws IOException {
+        assertTrue(source.setLastModified(source.lastModified() - 10000));
+        assertFalse(DataSourceSnapshot.isValid(snapshot));
+        // an outdated snapshot can still be loaded until the XML has been parsed again
+        assertNotNull(DataSourceSnapshot.load(snapshot));
+    }
+}
@@ -33,12 +33,18 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.logging.Logger;
 
 import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.logging.Logger.getLogger;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Files.setLastModified;
+import static slash.common.metrics.Metrics.counter;
+import static slash.common.metrics.Metrics.histogram;
+import static slash.common.metrics.Metrics.timer;
 import static slash.navigation.download.State.*;
 
 /**
@@ -69,6 +75,17 @@ public class GetPerformer implements ActionPerformer {
                 checksum.getContentLength() > getDownload().getTempFile().length();
     }
 
+    private void transfer(InputStream inputStream, OutputStream outputStream, long startByte, Long expectingBytes) throws IOException {
+        long start = nanoTime();
+        long bytes = new Copier(getModelUpdater()).copyAndClose(inputStream, outputStream, startByte, expectingBytes) - startByte;
+        long elapsed = nanoTime() - start;
+
+        counter("download.bytes").increment(bytes);
+        timer("download.transfer").update(elapsed, NANOSECONDS);
+        if (elapsed > 0)
+            histogram("download.bytesPerSecond").update((long) (bytes * 1000000000.0 / elapsed));
+    }
+
     private Result resume() throws IOException {
         downloadExecutor.updateState(Resuming);
 
@@ -83,7 +100,7 @@ public class GetPerformer implements ActionPerformer {
         log.info(format("Resume from %s returned with status code %s", getDownload().getUrl(), get.getStatusCode()));
         if (get.isPartialContent()) {
             getModelUpdater().expectingBytes(contentLength != null ? contentLength : get.getContentLength() != null ? get.getContentLength() : 0);
-            new Copier(getModelUpdater()).copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile(), true), fileSize, contentLength);
+            transfer(inputStream, new FileOutputStream(getDownload().getTempFile(), true), fileSize, contentLength);
             return new Result(true);
         }
         return new Result(false);
@@ -107,7 +124,7 @@ public class GetPerformer implements ActionPerformer {
                 contentLength = get.getContentLength();
             if (contentLength != null)
                 getModelUpdater().expectingBytes(contentLength);
-            new Copier(getModelUpdater()).copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile()), 0, contentLength);
+            transfer(inputStream, new FileOutputStream(getDownload().getTempFile()), 0, contentLength);
             getDownload().setETag(get.getETag());
             return new Result(true, get.getLastModified());
         }
@@ -19,6 +19,7 @@
 */
 package slash.navigation.download.queue;
 
+import slash.common.type.CompactCalendar;
 import slash.navigation.download.*;
 import slash.navigation.download.queue.binding.*;
 
@@ -26,10 +27,14 @@ import javax.xml.bind.JAXBException;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Logger;
 
+import static java.io.File.createTempFile;
+import static java.lang.String.format;
 import static slash.common.helpers.ExceptionHelper.printStackTrace;
 import static slash.common.io.Transfer.formatXMLTime;
 import static slash.common.io.Transfer.parseXMLTime;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
 import static slash.navigation.download.queue.QueueUtil.marshal;
 import static slash.navigation.download.queue.QueueUtil.unmarshal;
 
@@ -40,11 +45,25 @@ import static slash.navigation.download.queue.QueueUtil.unmarshal;
  */
 
 public class QueuePersister {
+    private static final Logger log = Logger.getLogger(QueuePersister.class.getName());
+    private static final int MAGIC = 0x52435151;
+    private static final int VERSION = 1;
+    private static final String DOT_SNAPSHOT = ".snapshot";
 
     public List<Download> load(File file) throws IOException {
         if (!file.exists())
             return null;
 
+        List<Download> downloads = loadSnapshot(file);
+        if (downloads != null)
+            return downloads;
+
+        downloads = loadXml(file);
+        saveSnapshot(file, downloads);
+        return downloads;
+    }
+
+    private List<Download> loadXml(File file) throws IOException {
         QueueType queueType;
         try (InputStream inputStream = new FileInputStream(file)) {
             queueType = unmarshal(inputStream);
@@ -89,6 +108,136 @@ public class QueuePersister {
         } catch (JAXBException e) {
             throw new IOException("Cannot marshall " + file + ": " + e + "\n" + printStackTrace(e), e);
         }
+        saveSnapshot(file, downloads);
+    }
+
+    // the snapshot is a binary copy of the queue that is valid as long as the XML is unchanged
+
+    private File getSnapshotFile(File file) {
+        return new File(file.getPath() + DOT_SNAPSHOT);
+    }
+
+    private List<Download> loadSnapshot(File file) {
+        File snapshot = getSnapshotFile(file);
+        if (!snapshot.exists())
+            return null;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION)
+                return null;
+            if (input.readLong() != file.lastModified() || input.readLong() != file.length())
+                return null;
+
+            int count = input.readInt();
+            List<Download> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                result.add(readDownload(input));
+            return result;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warning(format("Cannot load download queue snapshot %s: %s", snapshot, e));
+            return null;
+        }
+    }
+
+    private void saveSnapshot(File file, List<Download> downloads) {
+        File snapshot = getSnapshotFile(file);
+        File temp = null;
+        try {
+            temp = createTempFile(snapshot.getName(), ".tmp", snapshot.getParentFile());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(file.lastModified());
+                output.writeLong(file.length());
+
+                List<Download> valid = new ArrayList<>(downloads.size());
+                for (Download download : downloads) {
+                    if (download != null)
+                        valid.add(download);
+                }
+                output.writeInt(valid.size());
+                for (Download download : valid)
+                    writeDownload(output, download);
+            }
+            if (snapshot.exists() && !snapshot.delete())
+                throw new IOException("Cannot delete " + snapshot);
+            if (!temp.renameTo(snapshot))
+                throw new IOException("Cannot rename " + temp + " to " + snapshot);
+        } catch (IOException e) {
+            log.warning(format("Cannot save download queue snapshot %s: %s", snapshot, e));
+            if (temp != null && temp.exists() && !temp.delete())
+                log.warning(format("Cannot delete %s", temp));
+        }
+    }
+
+    private static void writeString(DataOutput output, String string) throws IOException {
+        output.writeBoolean(string != null);
+        if (string != null)
+            output.writeUTF(string);
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private void writeDownload(DataOutput output, Download download) throws IOException {
+        writeString(output, download.getDescription());
+        writeString(output, download.getUrl());
+        output.writeUTF(download.getAction().name());
+        writeFileAndChecksum(output, download.getFile());
+        List<FileAndChecksum> fragments = download.getFragments();
+        output.writeInt(fragments != null ? fragments.size() : 0);
+        if (fragments != null)
+            for (FileAndChecksum fragment : fragments)
+                writeFileAndChecksum(output, fragment);
+        writeString(output, download.getETag());
+        output.writeUTF(download.getState().name());
+        output.writeUTF(download.getTempFile().getPath());
+    }
+
+    private Download readDownload(DataInput input) throws IOException {
+        String description = readString(input);
+        String url = readString(input);
+        Action action = Action.valueOf(input.readUTF());
+        FileAndChecksum file = readFileAndChecksum(input);
+        int fragmentCount = input.readInt();
+        List<FileAndChecksum> fragments = new ArrayList<>(fragmentCount);
+        for (int i = 0; i < fragmentCount; i++)
+            fragments.add(readFileAndChecksum(input));
+        String eTag = readString(input);
+        State state = State.valueOf(input.readUTF());
+        File tempFile = new File(input.readUTF());
+        return new Download(description, url, action, file, fragments, eTag, state, tempFile);
+    }
+
+    private void writeFileAndChecksum(DataOutput output, FileAndChecksum fileAndChecksum) throws IOException {
+        output.writeUTF(fileAndChecksum.getFile().getPath());
+        Checksum checksum = fileAndChecksum.getExpectedChecksum();
+        output.writeBoolean(checksum != null);
+        if (checksum == null)
+            return;
+
+        CompactCalendar lastModified = checksum.getLastModified();
+        output.writeBoolean(lastModified != null);
+        if (lastModified != null) {
+            output.writeLong(lastModified.getTimeInMillis());
+            output.writeUTF(lastModified.getTimeZoneId());
+        }
+        output.writeBoolean(checksum.getContentLength() != null);
+        if (checksum.getContentLength() != null)
+            output.writeLong(checksum.getContentLength());
+        writeString(output, checksum.getSHA1());
+    }
+
+    private FileAndChecksum readFileAndChecksum(DataInput input) throws IOException {
+        File file = new File(input.readUTF());
+        if (!input.readBoolean())
+            return new FileAndChecksum(file, null);
+
+        CompactCalendar lastModified = input.readBoolean() ? fromMillisAndTimeZone(input.readLong(), input.readUTF()) : null;
+        Long contentLength = input.readBoolean() ? input.readLong() : null;
+        String sha1 = readString(input);
+        return new FileAndChecksum(file, new Checksum(lastModified, contentLength, sha1));
     }
 
     private QueueType asQueueType(List<Download> downloads) {
@@ -8,12 +8,15 @@ import slash.navigation.download.Download;
 import slash.navigation.download.FileAndChecksum;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import static java.io.File.createTempFile;
 import static java.util.Arrays.asList;
+import static slash.common.io.InputOutput.copyAndClose;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static slash.common.type.CompactCalendar.now;
@@ -37,6 +40,9 @@ public class QueuePersisterIT {
     public void tearDown() {
         if (queueFile.exists())
             assertTrue(queueFile.delete());
+        File snapshotFile = new File(queueFile.getPath() + ".snapshot");
+        if (snapshotFile.exists())
+            assertTrue(snapshotFile.delete());
         if (tempFile.exists())
             assertTrue(tempFile.delete());
         if (fileTarget.exists())
@@ -67,6 +73,29 @@ public class QueuePersisterIT {
         assertEquals(downloads, result);
     }
 
+    @Test
+    public void testLoadIgnoresOutdatedSnapshot() throws IOException {
+        List<Download> downloads = new ArrayList<>();
+        downloads.add(new Download("description", "url", Flatten, new FileAndChecksum(fileTarget, createChecksum()),
+                null, "etag", Downloading, tempFile));
+        persister.save(queueFile, downloads);
+        File snapshotFile = new File(queueFile.getPath() + ".snapshot");
+        assertTrue(snapshotFile.exists());
+
+        // change the XML behind the back of the snapshot
+        File otherFile = createTempFile("otherFile", ".xml");
+        try {
+            new QueuePersister().save(otherFile, new ArrayList<Download>());
+            copyAndClose(new FileInputStream(otherFile), new FileOutputStream(queueFile));
+        } finally {
+            assertTrue(otherFile.delete());
+            assertTrue(new File(otherFile.getPath() + ".snapshot").delete());
+        }
+
+        List<Download> result = persister.load(queueFile);
+        assertEquals(new ArrayList<Download>(), result);
+    }
+
     private Checksum createChecksum() {
         return new Checksum(now(), 4711L, "sha1");
     }
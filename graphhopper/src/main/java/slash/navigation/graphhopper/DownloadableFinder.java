@@ -43,7 +43,6 @@ public class DownloadableFinder {
     private static final Logger log = Logger.getLogger(DownloadableFinder.class.getName());
     private final DataSource dataSource;
     private final java.io.File directory;
-    private boolean wroteMessageAboutMissingBoundingBox = false;
 
     public DownloadableFinder(DataSource dataSource, java.io.File directory) {
         this.dataSource = dataSource;
@@ -64,25 +63,15 @@ public class DownloadableFinder {
 
     private List<DownloadableDescriptor> getDownloadDescriptorsFor(BoundingBox routeBoundingBox) {
         List<DownloadableDescriptor> descriptors = new ArrayList<>();
-        for (File file : dataSource.getFiles()) {
+        // files without a bounding box are not part of the index
+        for (File file : dataSource.getFileIndex().getContaining(routeBoundingBox)) {
             BoundingBox fileBoundingBox = file.getBoundingBox();
-            if (fileBoundingBox == null) {
-                if (!wroteMessageAboutMissingBoundingBox) {
-                    log.fine(format("File %s doesn't have a bounding box. Ignoring it.", file));
-                    wroteMessageAboutMissingBoundingBox = true;
-                }
-                continue;
-            }
-            if (!fileBoundingBox.contains(routeBoundingBox))
-                continue;
-
             Double distance = calculateBearing(fileBoundingBox.getCenter().getLongitude(), fileBoundingBox.getCenter().getLatitude(),
                     routeBoundingBox.getCenter().getLongitude(), routeBoundingBox.getCenter().getLatitude()).getDistance();
             boolean existsFile = existsFile(file);
             boolean existsGraphDirectory = existsGraph(file);
             descriptors.add(new DownloadableDescriptor(file, distance, fileBoundingBox, existsFile, existsGraphDirectory));
         }
-
         return descriptors.stream()
                 .filter(DownloadableDescriptor::hasValidBoundingBox)
                 .sorted()
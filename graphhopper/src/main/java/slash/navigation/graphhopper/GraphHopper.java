@@ -49,9 +49,11 @@ import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Files.printArrayToDialogString;
+import static slash.common.metrics.Metrics.timer;
 import static slash.common.io.Transfer.trim;
 import static slash.navigation.graphhopper.PbfUtil.lookupGraphDirectory;
 import static slash.navigation.routing.RoutingResult.Validity.*;
@@ -286,6 +288,7 @@ public class GraphHopper extends BaseRoutingService {
             counter.stop();
 
             long end = currentTimeMillis();
+            timer("routing." + getName() + ".initialize").update(end - start, MILLISECONDS);
             log.info(format("Initializing from %s took %d milliseconds", graphDirectory, end - start));
         }
     }
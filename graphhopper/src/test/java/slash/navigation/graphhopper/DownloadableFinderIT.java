@@ -25,6 +25,7 @@ import org.junit.Test;
 import slash.navigation.common.BoundingBox;
 import slash.navigation.datasources.DataSource;
 import slash.navigation.datasources.Downloadable;
+import slash.navigation.datasources.helpers.BoundingBoxIndex;
 
 import java.io.File;
 import java.io.IOException;
@@ -73,6 +74,8 @@ public class DownloadableFinderIT {
         when(small.getBoundingBox()).thenReturn(new BoundingBox(0.4, 0.2, -0.2, -0.2));
         when(small.getUri()).thenReturn(SMALL_URI);
         when(dataSource.getFiles()).thenReturn(singletonList(small));
+        BoundingBoxIndex<slash.navigation.datasources.File> fileIndex = new BoundingBoxIndex<>(singletonList(small), slash.navigation.datasources.File::getBoundingBox);
+        when(dataSource.getFileIndex()).thenReturn(fileIndex);
         finder = new DownloadableFinder(dataSource, temporaryDirectory);
 
         Collection<Downloadable> downloadables = finder.getDownloadablesFor(singletonList(new BoundingBox(0.1, 0.1, -0.1, -0.1)));
@@ -92,6 +95,8 @@ public class DownloadableFinderIT {
         when(large.getBoundingBox()).thenReturn(new BoundingBox(2.0, 2.0, -2.0, -2.0));
         when(large.getUri()).thenReturn(LARGE_URI);
         when(dataSource.getFiles()).thenReturn(asList(large, medium, small));
+        BoundingBoxIndex<slash.navigation.datasources.File> fileIndex = new BoundingBoxIndex<>(asList(large, medium, small), slash.navigation.datasources.File::getBoundingBox);
+        when(dataSource.getFileIndex()).thenReturn(fileIndex);
         finder = new DownloadableFinder(dataSource, temporaryDirectory);
 
         List<Downloadable> downloadables = finder.getDownloadablesFor(new BoundingBox(0.1, 0.1, -0.1, -0.1));
@@ -111,6 +116,8 @@ public class DownloadableFinderIT {
         when(large.getBoundingBox()).thenReturn(new BoundingBox(3.0, 3.0, -2.0, -2.0));
         when(large.getUri()).thenReturn(LARGE_URI);
         when(dataSource.getFiles()).thenReturn(asList(medium, small, large));
+        BoundingBoxIndex<slash.navigation.datasources.File> fileIndex = new BoundingBoxIndex<>(asList(medium, small, large), slash.navigation.datasources.File::getBoundingBox);
+        when(dataSource.getFileIndex()).thenReturn(fileIndex);
         assertTrue(new File(temporaryDirectory, LARGE_URI).createNewFile());
         finder = new DownloadableFinder(dataSource, temporaryDirectory);
 
@@ -128,6 +135,8 @@ public class DownloadableFinderIT {
         when(medium.getBoundingBox()).thenReturn(new BoundingBox(1.0, 1.0, -1.0, -1.0));
         when(medium.getUri()).thenReturn(MEDIUM_URI);
         when(dataSource.getFiles()).thenReturn(asList(medium, small));
+        BoundingBoxIndex<slash.navigation.datasources.File> fileIndex = new BoundingBoxIndex<>(asList(medium, small), slash.navigation.datasources.File::getBoundingBox);
+        when(dataSource.getFileIndex()).thenReturn(fileIndex);
         assertTrue(new File(temporaryDirectory, SMALL_URI).createNewFile());
         finder = new DownloadableFinder(dataSource, temporaryDirectory);
 
@@ -27,6 +27,7 @@ import slash.navigation.common.NavigationPosition;
 import slash.navigation.common.SimpleNavigationPosition;
 import slash.navigation.datasources.DataSource;
 import slash.navigation.datasources.Downloadable;
+import slash.navigation.datasources.helpers.BoundingBoxIndex;
 import slash.navigation.download.Action;
 import slash.navigation.download.DownloadManager;
 import slash.navigation.routing.DownloadFuture;
@@ -65,6 +66,8 @@ public class GraphHopperIT {
         when(file.getBoundingBox()).thenReturn(new BoundingBox(10.33637, 53.7465, 9.613465, 53.38581));
         when(file.getUri()).thenReturn(URI);
         when(dataSource.getFiles()).thenReturn(singletonList(file));
+        BoundingBoxIndex<slash.navigation.datasources.File> fileIndex = new BoundingBoxIndex<>(singletonList(file), slash.navigation.datasources.File::getBoundingBox);
+        when(dataSource.getFileIndex()).thenReturn(fileIndex);
         hopper = new GraphHopper(new DownloadManager(createTempFile("queueFile", ".xml")));
         hopper.setDataSource(dataSource);
         DownloadFuture future = hopper.downloadRoutingDataFor(asList(new LongitudeAndLatitude(10.33637, 53.7465),
@@ -24,6 +24,7 @@ import slash.navigation.common.LongitudeAndLatitude;
 import slash.navigation.datasources.DataSource;
 import slash.navigation.datasources.Downloadable;
 import slash.navigation.datasources.Fragment;
+import slash.navigation.datasources.helpers.BoundingBoxIndex;
 import slash.navigation.download.Action;
 import slash.navigation.download.Download;
 import slash.navigation.download.DownloadManager;
@@ -34,11 +35,15 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.*;
 import java.util.prefs.Preferences;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Files.removeExtension;
+import static slash.common.metrics.Metrics.counter;
 
 /**
  * Encapsulates access to HGT files.
@@ -51,10 +56,12 @@ public class HgtFiles implements ElevationService {
     private static final String DIRECTORY_PREFERENCE = "directory";
     private static final String BASE_URL_PREFERENCE = "baseUrl";
     private static final String DOT_HGT = ".hgt";
+    private static final Pattern FRAGMENT_KEY_PATTERN = Pattern.compile("([NS])(\\d{2})([EW])(\\d{3})\\" + DOT_HGT);
 
     private final Map<java.io.File, RandomAccessFile> randomAccessFileCache = new HashMap<>();
     private final DataSource dataSource;
     private final DownloadManager downloadManager;
+    private BoundingBoxIndex<Fragment<Downloadable>> fragmentIndex;
 
     public HgtFiles(DataSource dataSource, DownloadManager downloadManager) {
         this.dataSource = dataSource;
@@ -108,14 +115,18 @@ public class HgtFiles implements ElevationService {
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
         java.io.File file = createFile(createFileKey(longitude, latitude));
-        if (!file.exists())
+        if (!file.exists()) {
+            counter("elevation.tiles.missing").increment();
             return null;
+        }
 
         RandomAccessFile randomAccessFile = randomAccessFileCache.get(file);
         if (randomAccessFile == null) {
+            counter("elevation.tiles.cache.misses").increment();
             randomAccessFile = new RandomAccessFile(file, "r");
             randomAccessFileCache.put(file, randomAccessFile);
-        }
+        } else
+            counter("elevation.tiles.cache.hits").increment();
         return new ElevationTile(randomAccessFile).getElevationFor(longitude, latitude);
     }
 
@@ -169,24 +180,32 @@ public class HgtFiles implements ElevationService {
                 new FileAndChecksum(getDirectory(), downloadable.getLatestChecksum()), fragments);
     }
 
-    private Collection<Fragment<Downloadable>> getDownloadablesFor(BoundingBox boundingBox) {
-        Collection<Fragment<Downloadable>> result = new HashSet<>();
-
-        double longitude = boundingBox.getSouthWest().getLongitude();
-        while (longitude < boundingBox.getNorthEast().getLongitude()) {
-
-            double latitude = boundingBox.getSouthWest().getLatitude();
-            while (latitude < boundingBox.getNorthEast().getLatitude()) {
-                String key = createFileKey(longitude, latitude);
-                Fragment<Downloadable> fragment = dataSource.getFragment(key);
-                if (fragment != null)
-                    result.add(fragment);
-                latitude += 1.0;
+    BoundingBox createFragmentBoundingBox(String key) {
+        Matcher matcher = FRAGMENT_KEY_PATTERN.matcher(key);
+        if (!matcher.matches())
+            return null;
+        int latitude = parseInt(matcher.group(2)) * ("S".equals(matcher.group(1)) ? -1 : 1);
+        int longitude = parseInt(matcher.group(4)) * ("W".equals(matcher.group(3)) ? -1 : 1);
+        return new BoundingBox(longitude + 1.0, latitude + 1.0, (double) longitude, (double) latitude);
+    }
+
+    private synchronized BoundingBoxIndex<Fragment<Downloadable>> getFragmentIndex() {
+        if (fragmentIndex == null) {
+            List<Fragment<Downloadable>> fragments = new ArrayList<>();
+            for (Downloadable downloadable : dataSource.getFiles()) {
+                for (Fragment<Downloadable> fragment : downloadable.getFragments()) {
+                    // ignore fragment keys without extension which are reported by old RouteConverter releases
+                    if (fragment.getKey().endsWith(DOT_HGT))
+                        fragments.add(fragment);
+                }
             }
-
-            longitude += 1.0;
+            fragmentIndex = new BoundingBoxIndex<>(fragments, fragment -> createFragmentBoundingBox(fragment.getKey()));
         }
-        return result;
+        return fragmentIndex;
+    }
+
+    private Collection<Fragment<Downloadable>> getDownloadablesFor(BoundingBox boundingBox) {
+        return new HashSet<>(getFragmentIndex().getIntersecting(boundingBox));
     }
 
     private Collection<Fragment<Downloadable>> getDownloadablesFor(List<BoundingBox> boundingBoxes) {
@@ -1,9 +1,11 @@
 package slash.navigation.hgt;
 
 import org.junit.Test;
+import slash.navigation.common.BoundingBox;
 import slash.navigation.download.DownloadManager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class HgtFilesTest {
     private HgtFiles files = new HgtFiles(null, new DownloadManager(null));
@@ -21,4 +23,13 @@ public class HgtFilesTest {
         assertEquals("N42E000.hgt", files.createFileKey(0.15052, 42.42091));
         assertEquals("N42W001.hgt", files.createFileKey(-0.55289, 42.55803));
     }
+
+    @Test
+    public void createFragmentBoundingBox() {
+        assertEquals(new BoundingBox(1.0, 42.0, 0.0, 41.0), files.createFragmentBoundingBox("N41E000.hgt"));
+        assertEquals(new BoundingBox(0.0, 43.0, -1.0, 42.0), files.createFragmentBoundingBox("N42W001.hgt"));
+        assertEquals(new BoundingBox(-70.0, -33.0, -71.0, -34.0), files.createFragmentBoundingBox("S34W071.hgt"));
+        assertEquals(files.createFragmentBoundingBox(files.createFileKey(-0.55289, 42.55803)), files.createFragmentBoundingBox("N42W001.hgt"));
+        assertNull(files.createFragmentBoundingBox("N42W001"));
+    }
 }
@@ -21,6 +21,7 @@ package slash.navigation.maps.mapsforge;
 
 import org.mapsforge.map.rendertheme.ExternalRenderTheme;
 import slash.common.filtering.FilteringTableModel;
+import slash.navigation.common.BoundingBox;
 import slash.navigation.datasources.DataSource;
 import slash.navigation.datasources.DataSourceManager;
 import slash.navigation.datasources.Downloadable;
@@ -28,6 +29,7 @@ import slash.navigation.download.Download;
 import slash.navigation.maps.item.ItemModel;
 import slash.navigation.maps.item.ItemTableModel;
 import slash.navigation.maps.mapsforge.helpers.ActiveTileMapPredicate;
+import slash.navigation.maps.mapsforge.helpers.BoundingBoxCache;
 import slash.navigation.maps.mapsforge.helpers.ThemeForMapMediator;
 import slash.navigation.maps.mapsforge.helpers.TileServerToTileMapMediator;
 import slash.navigation.maps.mapsforge.impl.MapFilesService;
@@ -45,19 +47,28 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
 import static java.util.Arrays.sort;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.mapsforge.map.rendertheme.InternalRenderTheme.DEFAULT;
 import static org.mapsforge.map.rendertheme.InternalRenderTheme.OSMARENDER;
+import static slash.common.helpers.ThreadHelper.createDaemonThreadPool;
 import static slash.common.helpers.ThreadHelper.invokeInAwtEventQueue;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Files.collectFiles;
 import static slash.common.io.Files.printArrayToDialogString;
+import static slash.common.metrics.Metrics.counter;
+import static slash.common.metrics.Metrics.timer;
 import static slash.navigation.maps.mapsforge.helpers.MapUtil.extractBoundingBox;
 import static slash.navigation.maps.mapsforge.helpers.MapUtil.removePrefix;
 import static slash.navigation.maps.mapsforge.models.OpenStreetMap.OPENSTREETMAP_URL;
@@ -79,8 +90,11 @@ public class MapsforgeMapManager {
     private static final String DEFAULT_URL = "http://wiki.openstreetmap.org/wiki/Default";
     private static final String OSMARENDER_URL = "http://wiki.openstreetmap.org/wiki/Osmarender";
     private static final String DOT_MAP = ".map";
+    private static final int PUBLISH_BATCH_SIZE = 50;
 
     private final DataSourceManager dataSourceManager;
+    private final BoundingBoxCache boundingBoxCache = new BoundingBoxCache(new File(getApplicationDirectory(), "mapsforge-boundingboxes.properties"));
+    private ExecutorService scanExecutor;
     private ItemTableModel<TileMap> availableOnlineMapsModel = new TileMapTableModel();
     private ItemTableModel<LocalMap> availableOfflineMapsModel = new ItemTableModel<>(1);
     private JoinedTableModel<LocalMap> availableMapsModel = new JoinedTableModel<>(availableOfflineMapsModel,
@@ -122,6 +136,12 @@ public class MapsforgeMapManager {
     }
 
     public void dispose() {
+        synchronized (this) {
+            if (scanExecutor != null) {
+                scanExecutor.shutdownNow();
+                scanExecutor = null;
+            }
+        }
         themeForMapMediator.dispose();
         themeForMapMediator = null;
         tileServerToTileMapMediator.dispose();
@@ -209,28 +229,74 @@ public class MapsforgeMapManager {
             throw new FileNotFoundException("cannot read file: " + file.getAbsolutePath());
     }
 
+    private synchronized ExecutorService getScanExecutor() {
+        if (scanExecutor == null)
+            scanExecutor = createDaemonThreadPool("MapScanner", getRuntime().availableProcessors());
+        return scanExecutor;
+    }
+
     public synchronized void scanMaps() throws IOException {
         invokeInAwtEventQueue(() -> availableOfflineMapsModel.clear());
 
         long start = currentTimeMillis();
 
         final File mapsDirectory = getMapsDirectory();
-        List<File> mapFiles = collectFiles(mapsDirectory, DOT_MAP);
-        File[] mapFilesArray = mapFiles.toArray(new File[0]);
-        for (final File file : mapFilesArray) {
+        List<File> mapFiles = new ArrayList<>();
+        for (File file : collectFiles(mapsDirectory, DOT_MAP)) {
             // avoid directory with world.map
-            if(file.getParent().endsWith("routeconverter"))
+            if (file.getParent().endsWith("routeconverter"))
                 continue;
 
             checkFile(file);
-            invokeInAwtEventQueue(() ->
-                availableOfflineMapsModel.addOrUpdateItem(new VectorMap(removePrefix(mapsDirectory, file), file.toURI().toString(), extractBoundingBox(file), file, retrieveCopyrightText("OpenStreetMap")))
-            );
+            mapFiles.add(file);
         }
 
+        boundingBoxCache.load();
+
+        List<Future<VectorMap>> futures = new ArrayList<>();
+        for (final File file : mapFiles)
+            futures.add(getScanExecutor().submit(() -> {
+                BoundingBox boundingBox = boundingBoxCache.getBoundingBox(file);
+                if (boundingBox == null) {
+                    counter("maps.boundingBoxes.cache.misses").increment();
+                    boundingBox = extractBoundingBox(file);
+                    boundingBoxCache.putBoundingBox(file, boundingBox);
+                } else
+                    counter("maps.boundingBoxes.cache.hits").increment();
+                return new VectorMap(removePrefix(mapsDirectory, file), file.toURI().toString(), boundingBox, file, retrieveCopyrightText("OpenStreetMap"));
+            }));
+
+        List<VectorMap> batch = new ArrayList<>();
+        for (Future<VectorMap> future : futures) {
+            try {
+                batch.add(future.get());
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+                throw new IOException("Interrupted while scanning maps", e);
+            } catch (ExecutionException e) {
+                log.warning(format("Could not scan map: %s", e.getCause()));
+            }
+
+            if (batch.size() >= PUBLISH_BATCH_SIZE) {
+                publishMaps(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        publishMaps(batch);
+
+        boundingBoxCache.retainAll(mapFiles);
+        boundingBoxCache.store();
+
         long end = currentTimeMillis();
+        timer("maps.scanMaps").update(end - start, MILLISECONDS);
         log.info(format("Collected %d map files %s from %s in %d milliseconds",
-                mapFilesArray.length, printArrayToDialogString(mapFilesArray, false), mapsDirectory, (end - start)));
+                mapFiles.size(), printArrayToDialogString(mapFiles.toArray(new File[0]), false), mapsDirectory, (end - start)));
+    }
+
+    private void publishMaps(final List<VectorMap> maps) {
+        if (maps.isEmpty())
+            return;
+        invokeInAwtEventQueue(() -> availableOfflineMapsModel.addOrUpdateItems(new ArrayList<>(maps)));
     }
 
     public synchronized void scanThemes() throws IOException {
@@ -253,6 +319,7 @@ public class MapsforgeMapManager {
         }
 
         long end = currentTimeMillis();
+        timer("maps.scanThemes").update(end - start, MILLISECONDS);
         log.info(format("Collected %d theme files %s from %s in %d milliseconds",
                 themeFilesArray.length, printArrayToDialogString(themeFilesArray,false), themesDirectory, (end - start)));
     }
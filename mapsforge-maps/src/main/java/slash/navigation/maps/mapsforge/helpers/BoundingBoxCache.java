@@ -0,0 +1,153 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.maps.mapsforge.helpers;
+
+import slash.navigation.common.BoundingBox;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+
+/**
+ * Caches the {@link BoundingBox}es of mapsforge map files across restarts.
+ * An entry is valid as long as size and modification time of the file do not change.
+ *
+ * @author Christian Pesch
+ */
+
+public class BoundingBoxCache {
+    private static final Logger log = Logger.getLogger(BoundingBoxCache.class.getName());
+    private static final String SEPARATOR = ",";
+
+    private final File cacheFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    public BoundingBoxCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    public BoundingBox getBoundingBox(File file) {
+        Entry entry = entries.get(file.getAbsolutePath());
+        if (entry != null && entry.length == file.length() && entry.lastModified == file.lastModified())
+            return entry.boundingBox;
+        return null;
+    }
+
+    public void putBoundingBox(File file, BoundingBox boundingBox) {
+        if (boundingBox == null)
+            return;
+        entries.put(file.getAbsolutePath(), new Entry(file.length(), file.lastModified(), boundingBox));
+        modified = true;
+    }
+
+    public void retainAll(Iterable<File> files) {
+        Map<String, Entry> retained = new ConcurrentHashMap<>();
+        for (File file : files) {
+            String key = file.getAbsolutePath();
+            Entry entry = entries.get(key);
+            if (entry != null)
+                retained.put(key, entry);
+        }
+        if (retained.size() != entries.size()) {
+            entries.keySet().retainAll(retained.keySet());
+            modified = true;
+        }
+    }
+
+    public void load() {
+        if (!cacheFile.exists())
+            return;
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(cacheFile)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            log.warning(format("Cannot load bounding box cache %s: %s", cacheFile, e));
+            return;
+        }
+
+        for (String key : properties.stringPropertyNames()) {
+            Entry entry = parseEntry(properties.getProperty(key));
+            if (entry != null)
+                entries.put(key, entry);
+        }
+        modified = false;
+        log.info(format("Loaded %d bounding boxes from %s", entries.size(), cacheFile));
+    }
+
+    public void store() {
+        if (!modified)
+            return;
+
+        Properties properties = new Properties();
+        for (Map.Entry<String, Entry> entry : entries.entrySet())
+            properties.setProperty(entry.getKey(), formatEntry(entry.getValue()));
+
+        try (OutputStream outputStream = new FileOutputStream(cacheFile)) {
+            properties.store(outputStream, "mapsforge map bounding boxes");
+            modified = false;
+        } catch (IOException e) {
+            log.warning(format("Cannot store bounding box cache %s: %s", cacheFile, e));
+        }
+    }
+
+    private static Entry parseEntry(String value) {
+        String[] values = value.split(SEPARATOR);
+        if (values.length != 6)
+            return null;
+        try {
+            return new Entry(parseLong(values[0]), parseLong(values[1]),
+                    new BoundingBox(parseDouble(values[3]), parseDouble(values[2]), parseDouble(values[5]), parseDouble(values[4])));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String formatEntry(Entry entry) {
+        BoundingBox boundingBox = entry.boundingBox;
+        return entry.length + SEPARATOR + entry.lastModified + SEPARATOR +
+                boundingBox.getNorthEast().getLatitude() + SEPARATOR + boundingBox.getNorthEast().getLongitude() + SEPARATOR +
+                boundingBox.getSouthWest().getLatitude() + SEPARATOR + boundingBox.getSouthWest().getLongitude();
+    }
+
+    private static class Entry {
+        private final long length;
+        private final long lastModified;
+        private final BoundingBox boundingBox;
+
+        private Entry(long length, long lastModified, BoundingBox boundingBox) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.boundingBox = boundingBox;
+        }
+    }
+}
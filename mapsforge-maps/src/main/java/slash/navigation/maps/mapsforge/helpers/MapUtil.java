@@ -22,14 +22,19 @@ package slash.navigation.maps.mapsforge.helpers;
 import org.mapsforge.map.reader.MapFile;
 import slash.navigation.common.BoundingBox;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import static java.io.File.createTempFile;
 import static java.io.File.separator;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static slash.common.io.Files.writePartialFile;
 
 /**
@@ -40,6 +45,8 @@ import static slash.common.io.Files.writePartialFile;
 
 public class MapUtil {
     private static final Logger log = Logger.getLogger(MapUtil.class.getName());
+    private static final byte[] MAGIC_BYTES = "mapsforge binary OSM".getBytes(US_ASCII);
+    private static final double MICRODEGREES = 1000000.0;
 
     public static BoundingBox toBoundingBox(org.mapsforge.core.model.BoundingBox boundingBox) {
         return new BoundingBox(
@@ -51,6 +58,47 @@ public class MapUtil {
     }
 
     public static BoundingBox extractBoundingBox(File file) {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            BoundingBox boundingBox = extractBoundingBoxFromHeader(inputStream);
+            if (boundingBox != null)
+                return boundingBox;
+        } catch (IOException e) {
+            log.fine(format("Could not read mapsforge header from %s: %s", file, e));
+        }
+        return extractBoundingBoxFromMapFile(file);
+    }
+
+    /**
+     * Reads the bounding box from the fixed size part of the mapsforge file header
+     * without opening the map file with its index and caches.
+     *
+     * @param inputStream the stream positioned at the start of the map file
+     * @return the bounding box or null if the stream does not start with a mapsforge header
+     * @throws IOException if reading the header fails
+     */
+    static BoundingBox extractBoundingBoxFromHeader(InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, 64));
+        byte[] magicBytes = new byte[MAGIC_BYTES.length];
+        dataInputStream.readFully(magicBytes);
+        if (!Arrays.equals(magicBytes, MAGIC_BYTES))
+            return null;
+
+        // remaining header size, file version, file size, date of creation
+        dataInputStream.readInt();
+        dataInputStream.readInt();
+        dataInputStream.readLong();
+        dataInputStream.readLong();
+
+        double minLatitude = dataInputStream.readInt() / MICRODEGREES;
+        double minLongitude = dataInputStream.readInt() / MICRODEGREES;
+        double maxLatitude = dataInputStream.readInt() / MICRODEGREES;
+        double maxLongitude = dataInputStream.readInt() / MICRODEGREES;
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude)
+            return null;
+        return new BoundingBox(maxLongitude, maxLatitude, minLongitude, minLatitude);
+    }
+
+    private static BoundingBox extractBoundingBoxFromMapFile(File file) {
         try {
             MapFile mapFile = new MapFile(file);
             org.mapsforge.core.model.BoundingBox boundingBox = mapFile.boundingBox();
@@ -64,6 +112,14 @@ public class MapUtil {
 
     public static BoundingBox extractBoundingBox(InputStream inputStream, long fileSize) {
         try {
+            if (inputStream.markSupported()) {
+                inputStream.mark(64);
+                BoundingBox boundingBox = extractBoundingBoxFromHeader(inputStream);
+                if (boundingBox != null)
+                    return boundingBox;
+                inputStream.reset();
+            }
+
             File file = createTempFile("partialmap", ".map");
             writePartialFile(inputStream, fileSize, file);
             BoundingBox result = extractBoundingBox(file);
@@ -0,0 +1,71 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.maps.mapsforge.helpers;
+
+import org.junit.Test;
+import slash.navigation.common.BoundingBox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.navigation.maps.mapsforge.helpers.MapUtil.extractBoundingBoxFromHeader;
+
+public class MapUtilTest {
+
+    private byte[] createHeader(String magic, int minLatitude, int minLongitude, int maxLatitude, int maxLongitude) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.write(magic.getBytes(US_ASCII));
+        dataOutputStream.writeInt(100);
+        dataOutputStream.writeInt(5);
+        dataOutputStream.writeLong(123456789L);
+        dataOutputStream.writeLong(1577836800000L);
+        dataOutputStream.writeInt(minLatitude);
+        dataOutputStream.writeInt(minLongitude);
+        dataOutputStream.writeInt(maxLatitude);
+        dataOutputStream.writeInt(maxLongitude);
+        dataOutputStream.writeInt(4096);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void testExtractBoundingBoxFromHeader() throws IOException {
+        byte[] header = createHeader("mapsforge binary OSM", 47270000, 5860000, 55060000, 15040000);
+        BoundingBox boundingBox = extractBoundingBoxFromHeader(new ByteArrayInputStream(header));
+        assertEquals(new BoundingBox(15.04, 55.06, 5.86, 47.27), boundingBox);
+    }
+
+    @Test
+    public void testExtractBoundingBoxFromHeaderWithWrongMagic() throws IOException {
+        byte[] header = createHeader("mapsforge binary XXX", 47270000, 5860000, 55060000, 15040000);
+        assertNull(extractBoundingBoxFromHeader(new ByteArrayInputStream(header)));
+    }
+
+    @Test
+    public void testExtractBoundingBoxFromHeaderWithInvalidBoundingBox() throws IOException {
+        byte[] header = createHeader("mapsforge binary OSM", 55060000, 5860000, 47270000, 15040000);
+        assertNull(extractBoundingBoxFromHeader(new ByteArrayInputStream(header)));
+    }
+}
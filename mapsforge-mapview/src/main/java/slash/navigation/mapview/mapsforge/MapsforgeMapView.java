@@ -62,6 +62,11 @@ import slash.navigation.maps.mapsforge.models.TileServerMapSource;
 import slash.navigation.maps.tileserver.TileServer;
 import slash.navigation.mapview.BaseMapView;
 import slash.navigation.mapview.MapViewCallback;
+import slash.navigation.mapview.mapsforge.cache.PersistentTileCache;
+import slash.navigation.mapview.mapsforge.cache.RevalidatingTileDownloadLayer;
+import slash.navigation.mapview.mapsforge.cache.TilePrefetcher;
+import slash.navigation.mapview.mapsforge.cache.TileRevalidator;
+import slash.navigation.mapview.mapsforge.cache.TileStore;
 import slash.navigation.mapview.mapsforge.helpers.MapViewCoordinateDisplayer;
 import slash.navigation.mapview.mapsforge.helpers.MapViewMoverAndZoomer;
 import slash.navigation.mapview.mapsforge.helpers.MapViewPopupMenu;
@@ -80,6 +85,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
@@ -99,8 +105,10 @@ import static org.mapsforge.core.util.LatLongUtils.zoomForBounds;
 import static org.mapsforge.core.util.MercatorProjection.calculateGroundResolution;
 import static org.mapsforge.core.util.MercatorProjection.getMapSize;
 import static org.mapsforge.map.scalebar.DefaultMapScaleBar.ScaleBarMode.SINGLE;
+import static slash.common.helpers.ThreadHelper.createDaemonThreadPool;
 import static slash.common.helpers.ThreadHelper.createSingleThreadExecutor;
 import static slash.common.helpers.ThreadHelper.invokeInAwtEventQueue;
+import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Directories.getTemporaryDirectory;
 import static slash.common.io.Transfer.encodeUri;
 import static slash.navigation.base.RouteCharacteristics.Route;
@@ -134,6 +142,8 @@ public class MapsforgeMapView extends BaseMapView {
     private static final String READ_BUFFER_SIZE_PREFERENCE = "readBufferSize";
     private static final String FIRST_LEVEL_TILE_CACHE_SIZE_PREFERENCE = "firstLevelTileCacheSize";
     private static final String SECOND_LEVEL_TILE_CACHE_SIZE_PREFERENCE = "secondLevelTileCacheSize";
+    private static final String PERSISTENT_TILE_CACHE_SIZE_PREFERENCE = "persistentTileCacheSize";
+    private static final String PREFETCH_TILE_ZOOM_LEVELS_PREFERENCE = "prefetchTileZoomLevels";
     private static final String DEVICE_SCALE_FACTOR = "mapScaleFactor";
     private static final int SCROLL_DIFF_IN_PIXEL = 100;
     private static final int MINIMUM_VISIBLE_BORDER_IN_PIXEL = 20;
@@ -174,6 +184,12 @@ public class MapsforgeMapView extends BaseMapView {
     private EventMapUpdater routeUpdater, trackUpdater, waypointUpdater;
     private RouteRenderer routeRenderer;
     private UpdateDecoupler updateDecoupler;
+    private TileStore tileStore;
+    private TileRevalidator tileRevalidator;
+    private boolean tileStoreFailed;
+    private ExecutorService prefetchExecutor;
+    private Future<?> prefetchFuture;
+    private BaseRoute prefetchedRoute;
 
     // initialization
 
@@ -531,11 +547,42 @@ public class MapsforgeMapView extends BaseMapView {
     }
 
     private TileDownloadLayer createTileDownloadLayer(TileSource tileSource, String cacheId) {
+        TileStore tileStore = getTileStore();
+        if (tileStore != null)
+            return new RevalidatingTileDownloadLayer(createFirstLevelTileCache(), new PersistentTileCache(tileStore, cacheId, GRAPHIC_FACTORY),
+                    getTileRevalidator(), cacheId, mapView.getModel().mapViewPosition, tileSource, GRAPHIC_FACTORY);
         return new TileDownloadLayer(createTileCache(cacheId), mapView.getModel().mapViewPosition, tileSource, GRAPHIC_FACTORY);
     }
 
+    private synchronized TileStore getTileStore() {
+        // do not retry a store that is used by another process
+        if (tileStore == null && !tileStoreFailed) {
+            long maximumBytes = preferences.getLong(PERSISTENT_TILE_CACHE_SIZE_PREFERENCE, 512) * 1024 * 1024;
+            try {
+                tileStore = new TileStore(getApplicationDirectory("tiles"), maximumBytes);
+                tileRevalidator = new TileRevalidator(tileStore);
+            } catch (IOException e) {
+                log.warning("Cannot open persistent tile cache: " + e);
+                tileStoreFailed = true;
+            }
+        }
+        return tileStore;
+    }
+
+    private synchronized TileRevalidator getTileRevalidator() {
+        return tileRevalidator;
+    }
+
+    private TileCache createFirstLevelTileCache() {
+        return new InMemoryTileCache(preferences.getInt(FIRST_LEVEL_TILE_CACHE_SIZE_PREFERENCE, 256));
+    }
+
     private TileCache createTileCache(String cacheId) {
-        TileCache firstLevelTileCache = new InMemoryTileCache(preferences.getInt(FIRST_LEVEL_TILE_CACHE_SIZE_PREFERENCE, 256));
+        TileCache firstLevelTileCache = createFirstLevelTileCache();
+        TileStore tileStore = getTileStore();
+        if (tileStore != null)
+            return new TwoLevelTileCache(firstLevelTileCache, new PersistentTileCache(tileStore, cacheId, GRAPHIC_FACTORY));
+
         File cacheDirectory = new File(getTemporaryDirectory(), encodeUri(cacheId));
         TileCache secondLevelTileCache = new FileSystemTileCache(preferences.getInt(SECOND_LEVEL_TILE_CACHE_SIZE_PREFERENCE, 2048), cacheDirectory, GRAPHIC_FACTORY);
         return new TwoLevelTileCache(firstLevelTileCache, secondLevelTileCache);
@@ -602,7 +649,7 @@ public class MapsforgeMapView extends BaseMapView {
             TileServer tileServer = mapViewCallback.getTileServerMapManager().getAppliedOverlaysModel().getItem(i);
             TileServerMapSource mapSource = new TileServerMapSource(tileServer);
             mapSource.setAlpha(true);
-            TileDownloadLayer overlay = new TileDownloadLayer(createTileCache(tileServer.getId()), mapView.getModel().mapViewPosition, mapSource, GRAPHIC_FACTORY);
+            TileDownloadLayer overlay = createTileDownloadLayer(mapSource, tileServer.getId());
             overlaysLayer.layers.add(overlay);
             overlay.setDisplayModel(mapView.getModel().displayModel);
             overlay.start();
@@ -706,6 +753,75 @@ public class MapsforgeMapView extends BaseMapView {
         preferences.putInt(CENTER_ZOOM_PREFERENCE, zoom);
 
         mapView.destroyAll();
+
+        synchronized (this) {
+            if (prefetchExecutor != null) {
+                prefetchExecutor.shutdownNow();
+                prefetchExecutor = null;
+            }
+            if (tileRevalidator != null) {
+                tileRevalidator.dispose();
+                tileRevalidator = null;
+            }
+            if (tileStore != null) {
+                tileStore.close();
+                tileStore = null;
+            }
+        }
+    }
+
+    private byte[] getPrefetchTileZoomLevels() {
+        String preference = preferences.get(PREFETCH_TILE_ZOOM_LEVELS_PREFERENCE, "");
+        List<Byte> zoomLevels = new ArrayList<>();
+        for (String zoomLevel : preference.split(",")) {
+            try {
+                if (!zoomLevel.trim().isEmpty())
+                    zoomLevels.add(Byte.parseByte(zoomLevel.trim()));
+            } catch (NumberFormatException e) {
+                log.warning(format("Ignoring invalid prefetch zoom level '%s'", zoomLevel));
+            }
+        }
+        byte[] result = new byte[zoomLevels.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = zoomLevels.get(i);
+        return result;
+    }
+
+    private synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null)
+            prefetchExecutor = createDaemonThreadPool("TilePrefetcher", 1);
+        return prefetchExecutor;
+    }
+
+    private void prefetchTilesAfterLoading() {
+        // only a newly loaded route is prefetched, not every change of all of its rows
+        BaseRoute route = positionsModel.getRoute();
+        if (route == null || route == prefetchedRoute)
+            return;
+        prefetchedRoute = route;
+
+        byte[] zoomLevels = getPrefetchTileZoomLevels();
+        if (zoomLevels.length == 0)
+            return;
+
+        if (prefetchFuture != null)
+            prefetchFuture.cancel(true);
+        List<NavigationPosition> positions = new ArrayList<>(route.getPositions());
+        prefetchFuture = getPrefetchExecutor().submit(() -> prefetchTiles(positions, zoomLevels));
+    }
+
+    /**
+     * Downloads the tiles of the displayed online map along the given positions
+     * for the given zoom levels into the persistent tile cache.
+     *
+     * @return the number of tiles that have been downloaded
+     */
+    public int prefetchTiles(List<NavigationPosition> positions, byte... zoomLevels) {
+        LocalMap map = getMapManager().getDisplayedMapModel().getItem();
+        TileStore tileStore = getTileStore();
+        if (map == null || map.isVector() || tileStore == null)
+            return 0;
+        return new TilePrefetcher(tileStore).prefetch(map.getUrl(), map.getTileSource(), positions, getTileSize(), 1, zoomLevels);
     }
 
     public Component getComponent() {
@@ -1255,6 +1371,12 @@ public class MapsforgeMapView extends BaseMapView {
                             e.getColumn() == ALL_COLUMNS))
                         return;
 
+                    // rows removed or inserted at scattered indices are no loading of a file
+                    if (positionsModel.isBulkChange()) {
+                        updateDecoupler.replaceRoute();
+                        break;
+                    }
+
                     boolean allRowsChanged = isFirstToLastRow(e);
                     if(allRowsChanged)
                         updateDecoupler.replaceRoute();
@@ -1264,6 +1386,8 @@ public class MapsforgeMapView extends BaseMapView {
                     // center and zoom if a file was just loaded
                     if (allRowsChanged && showAllPositionsAfterLoading.getBoolean())
                         centerAndZoom(getMapBoundingBox(), getRouteBoundingBox(), true, true);
+                    if (allRowsChanged)
+                        prefetchTilesAfterLoading();
                     break;
                 default:
                     throw new IllegalArgumentException("Event type " + e.getType() + " is not supported");
@@ -0,0 +1,136 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import org.mapsforge.core.graphics.CorruptedInputStreamException;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.layer.cache.TileCache;
+import org.mapsforge.map.layer.queue.Job;
+import org.mapsforge.map.model.common.Observable;
+import org.mapsforge.map.model.common.Observer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link TileCache} that stores the tiles of one layer in a shared {@link TileStore}.
+ * Destroying the cache keeps the tiles for the next session.
+ *
+ * @author Christian Pesch
+ */
+
+public class PersistentTileCache implements TileCache {
+    private static final Logger log = Logger.getLogger(PersistentTileCache.class.getName());
+    private static final int AVERAGE_TILE_BYTES = 16 * 1024;
+
+    private final TileStore tileStore;
+    private final String cacheId;
+    private final GraphicFactory graphicFactory;
+    private final Observable observable = new Observable();
+
+    public PersistentTileCache(TileStore tileStore, String cacheId, GraphicFactory graphicFactory) {
+        this.tileStore = tileStore;
+        this.cacheId = cacheId;
+        this.graphicFactory = graphicFactory;
+    }
+
+    public static String createKey(String cacheId, Tile tile, boolean hasAlpha) {
+        return cacheId + "/" + tile.zoomLevel + "/" + tile.tileX + "/" + tile.tileY + (hasAlpha ? "/alpha" : "");
+    }
+
+    private String createKey(Job job) {
+        return createKey(cacheId, job.tile, job.hasAlpha);
+    }
+
+    public boolean containsKey(Job job) {
+        return tileStore.contains(createKey(job));
+    }
+
+    public TileBitmap get(Job job) {
+        String key = createKey(job);
+        byte[] bytes = tileStore.get(key);
+        if (bytes == null)
+            return null;
+
+        try {
+            TileBitmap bitmap = graphicFactory.createTileBitmap(new ByteArrayInputStream(bytes), job.tile.tileSize, job.hasAlpha);
+            bitmap.setTimestamp(tileStore.getTimestamp(key));
+            return bitmap;
+        } catch (CorruptedInputStreamException | IOException e) {
+            log.warning(format("Removing corrupted tile %s: %s", key, e));
+            tileStore.remove(key);
+            return null;
+        }
+    }
+
+    public TileBitmap getImmediately(Job job) {
+        return get(job);
+    }
+
+    public void put(Job job, TileBitmap bitmap) {
+        if (job == null || bitmap == null)
+            throw new IllegalArgumentException("Job and bitmap must not be null");
+
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(AVERAGE_TILE_BYTES);
+            bitmap.compress(outputStream);
+            // mapsforge does not expose the ETag of its downloads, the first revalidation records it
+            tileStore.put(createKey(job), outputStream.toByteArray(), null);
+        } catch (IOException e) {
+            log.warning(format("Cannot store tile %s: %s", createKey(job), e));
+        }
+        observable.notifyObservers();
+    }
+
+    public int getCapacity() {
+        return (int) Math.min(tileStore.getMaximumBytes() / AVERAGE_TILE_BYTES, Integer.MAX_VALUE);
+    }
+
+    public int getCapacityFirstLevel() {
+        return getCapacity();
+    }
+
+    public void purge() {
+        tileStore.removeAll(cacheId + "/");
+    }
+
+    public void setWorkingSet(Set<Job> workingSet) {
+        // the store evicts by least recent use
+    }
+
+    public void destroy() {
+        // the tiles remain in the store for the next session
+    }
+
+    public void addObserver(Observer observer) {
+        observable.addObserver(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observable.removeObserver(observer);
+    }
+}
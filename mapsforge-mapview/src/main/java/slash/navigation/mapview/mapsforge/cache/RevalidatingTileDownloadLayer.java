@@ -0,0 +1,93 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.layer.cache.TileCache;
+import org.mapsforge.map.layer.cache.TwoLevelTileCache;
+import org.mapsforge.map.layer.download.DownloadJob;
+import org.mapsforge.map.layer.download.TileDownloadLayer;
+import org.mapsforge.map.layer.download.tilesource.TileSource;
+import org.mapsforge.map.model.IMapViewPosition;
+
+import java.net.MalformedURLException;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static slash.navigation.mapview.mapsforge.cache.PersistentTileCache.createKey;
+
+/**
+ * A {@link TileDownloadLayer} on top of a {@link PersistentTileCache} that revalidates
+ * stale tiles with their ETag through a {@link TileRevalidator} instead of leaving them
+ * stale forever since the persistent cache always contains them.
+ *
+ * @author Christian Pesch
+ */
+
+public class RevalidatingTileDownloadLayer extends TileDownloadLayer {
+    private static final Logger log = Logger.getLogger(RevalidatingTileDownloadLayer.class.getName());
+
+    private final TileCache firstLevelTileCache;
+    private final PersistentTileCache secondLevelTileCache;
+    private final TileRevalidator revalidator;
+    private final String cacheId;
+    private final TileSource tileSource;
+
+    public RevalidatingTileDownloadLayer(TileCache firstLevelTileCache, PersistentTileCache secondLevelTileCache,
+                                         TileRevalidator revalidator, String cacheId,
+                                         IMapViewPosition mapViewPosition, TileSource tileSource,
+                                         GraphicFactory graphicFactory) {
+        super(new TwoLevelTileCache(firstLevelTileCache, secondLevelTileCache), mapViewPosition, tileSource, graphicFactory);
+        this.firstLevelTileCache = firstLevelTileCache;
+        this.secondLevelTileCache = secondLevelTileCache;
+        this.revalidator = revalidator;
+        this.cacheId = cacheId;
+        this.tileSource = tileSource;
+    }
+
+    protected boolean isTileStale(Tile tile, TileBitmap bitmap) {
+        if (!super.isTileStale(tile, bitmap))
+            return false;
+
+        DownloadJob job = createJob(tile);
+        try {
+            revalidator.revalidate(createKey(cacheId, tile, job.hasAlpha), tileSource.getTileUrl(tile), tileSource,
+                    downloaded -> {
+                        if (downloaded) {
+                            TileBitmap revalidated = secondLevelTileCache.get(job);
+                            if (revalidated != null) {
+                                firstLevelTileCache.put(job, revalidated);
+                                revalidated.decrementRefCount();
+                            }
+                            requestRedraw();
+                        } else
+                            bitmap.setTimestamp(currentTimeMillis());
+                    });
+        } catch (MalformedURLException e) {
+            log.warning(format("Cannot revalidate tile %s: %s", tile, e));
+            bitmap.setTimestamp(currentTimeMillis());
+        }
+        // the stored tile is displayed until the revalidation is complete
+        return false;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.layer.download.tilesource.TileSource;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.rest.Get;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static org.mapsforge.core.util.MercatorProjection.LATITUDE_MAX;
+import static org.mapsforge.core.util.MercatorProjection.LATITUDE_MIN;
+import static org.mapsforge.core.util.MercatorProjection.latitudeToPixelY;
+import static org.mapsforge.core.util.MercatorProjection.longitudeToPixelX;
+import static slash.common.io.InputOutput.readBytes;
+import static slash.navigation.mapview.mapsforge.cache.PersistentTileCache.createKey;
+
+/**
+ * Downloads the tiles along a corridor of positions into a {@link TileStore}
+ * and revalidates existing tiles with their ETag.
+ *
+ * @author Christian Pesch
+ */
+
+public class TilePrefetcher {
+    private static final Logger log = Logger.getLogger(TilePrefetcher.class.getName());
+
+    private final TileStore tileStore;
+
+    public TilePrefetcher(TileStore tileStore) {
+        this.tileStore = tileStore;
+    }
+
+    /**
+     * Computes the tiles that cover the polyline of the given positions plus
+     * the given number of neighbour tiles on each side.
+     */
+    public Set<Tile> getTilesFor(List<? extends NavigationPosition> positions, byte zoomLevel, int tileSize, int radiusInTiles) {
+        Set<Tile> result = new LinkedHashSet<>();
+        int maximumTile = (1 << zoomLevel) - 1;
+        double previousX = Double.NaN, previousY = Double.NaN;
+
+        for (NavigationPosition position : positions) {
+            if (!position.hasCoordinates())
+                continue;
+
+            double latitude = Math.min(Math.max(position.getLatitude(), LATITUDE_MIN), LATITUDE_MAX);
+            double x = longitudeToPixelX(position.getLongitude(), zoomLevel, tileSize);
+            double y = latitudeToPixelY(latitude, zoomLevel, tileSize);
+
+            // sample the segment from the previous position at half a tile
+            int steps = Double.isNaN(previousX) ? 0 : (int) ceil(max(abs(x - previousX), abs(y - previousY)) / (tileSize / 2.0));
+            for (int step = 0; step <= steps; step++) {
+                double sampleX = steps == 0 ? x : previousX + (x - previousX) * step / steps;
+                double sampleY = steps == 0 ? y : previousY + (y - previousY) * step / steps;
+                int tileX = (int) (sampleX / tileSize);
+                int tileY = (int) (sampleY / tileSize);
+
+                for (int dx = -radiusInTiles; dx <= radiusInTiles; dx++) {
+                    for (int dy = -radiusInTiles; dy <= radiusInTiles; dy++) {
+                        int neighbourX = tileX + dx, neighbourY = tileY + dy;
+                        if (neighbourX < 0 || neighbourY < 0 || neighbourX > maximumTile || neighbourY > maximumTile)
+                            continue;
+                        result.add(new Tile(neighbourX, neighbourY, zoomLevel, tileSize));
+                    }
+                }
+            }
+
+            previousX = x;
+            previousY = y;
+        }
+        return result;
+    }
+
+    /**
+     * Downloads the missing and revalidates the stale tiles of the given {@link TileSource}
+     * along the corridor for the given zoom levels.
+     *
+     * @return the number of tiles that have been downloaded
+     */
+    public int prefetch(String cacheId, TileSource tileSource, List<? extends NavigationPosition> positions,
+                        int tileSize, int radiusInTiles, byte... zoomLevels) {
+        long start = currentTimeMillis();
+        int downloaded = 0, revalidated = 0, tiles = 0;
+
+        for (byte zoomLevel : zoomLevels) {
+            if (zoomLevel < tileSource.getZoomLevelMin() || zoomLevel > tileSource.getZoomLevelMax())
+                continue;
+
+            for (Tile tile : getTilesFor(positions, zoomLevel, tileSize, radiusInTiles)) {
+                if (Thread.currentThread().isInterrupted())
+                    return downloaded;
+
+                tiles++;
+                String key = createKey(cacheId, tile, tileSource.hasAlpha());
+                boolean cached = tileStore.contains(key);
+                if (cached && !isStale(key, tileSource))
+                    continue;
+
+                try {
+                    if (fetch(key, tileSource.getTileUrl(tile), tileSource))
+                        downloaded++;
+                    else if (cached)
+                        revalidated++;
+                } catch (IOException e) {
+                    log.warning(format("Cannot prefetch tile %s: %s", tile, e));
+                }
+            }
+        }
+
+        long end = currentTimeMillis();
+        log.info(format("Prefetched %d tiles, downloaded %d and revalidated %d for %s in %d milliseconds",
+                tiles, downloaded, revalidated, cacheId, (end - start)));
+        return downloaded;
+    }
+
+    private boolean isStale(String key, TileSource tileSource) {
+        return tileStore.getTimestamp(key) + tileSource.getDefaultTimeToLive() < currentTimeMillis();
+    }
+
+    boolean fetch(String key, URL url, TileSource tileSource) throws IOException {
+        Get get = new Get(url.toExternalForm());
+        if (tileSource.getUserAgent() != null)
+            get.setUserAgent(tileSource.getUserAgent());
+        String eTag = tileStore.getETag(key);
+        if (eTag != null)
+            get.setIfNoneMatch(eTag);
+
+        try {
+            InputStream inputStream = get.executeAsStream();
+            if (get.isNotModified()) {
+                tileStore.touch(key);
+                return false;
+            }
+            if (!get.isOk() || inputStream == null)
+                throw new IOException(format("Cannot download tile from %s: %d", url, get.getStatusCode()));
+
+            tileStore.put(key, readBytes(inputStream), get.getETag());
+            return true;
+        } finally {
+            get.release();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import org.mapsforge.map.layer.download.tilesource.TileSource;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static slash.common.helpers.ThreadHelper.createDaemonThreadPool;
+
+/**
+ * Revalidates stale tiles of a {@link TileStore} in the background with a conditional
+ * request for their ETag and stores the tile and ETag of the response.
+ *
+ * @author Christian Pesch
+ */
+
+public class TileRevalidator {
+    private static final Logger log = Logger.getLogger(TileRevalidator.class.getName());
+
+    private final TilePrefetcher prefetcher;
+    private final ExecutorService executor = createDaemonThreadPool("TileRevalidator", 2);
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public TileRevalidator(TileStore tileStore) {
+        this.prefetcher = new TilePrefetcher(tileStore);
+    }
+
+    /**
+     * Revalidates the tile with the given key unless it is already pending.
+     *
+     * @param callback called with true if a new tile has been downloaded and
+     *                 with false if the stored tile is still valid or cannot be revalidated
+     */
+    public void revalidate(String key, URL url, TileSource tileSource, Consumer<Boolean> callback) {
+        if (!pending.add(key))
+            return;
+
+        try {
+            executor.execute(() -> {
+                boolean downloaded = false;
+                try {
+                    downloaded = prefetcher.fetch(key, url, tileSource);
+                } catch (IOException e) {
+                    log.fine(format("Cannot revalidate tile %s: %s", key, e));
+                } finally {
+                    pending.remove(key);
+                }
+                callback.accept(downloaded);
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+        }
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,631 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.*;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.Files.move;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A persistent store for tiles that is shared across sessions and layers.
+ *
+ * Tiles are appended to pack files of limited size. An in-memory index maps keys to
+ * the position of the tile in the pack files. It is written to disk when the store is
+ * opened and closed and every change in between is appended to a journal, so that a
+ * crash of the application neither loses tiles nor brings back removed ones. The pack
+ * files and the index are forced to disk at every checkpoint, changes journaled since
+ * then may be lost if the operating system crashes. If the index is missing, it is
+ * rebuilt by scanning the pack files.
+ *
+ * A lock file keeps other processes from opening the same store.
+ *
+ * The store is budgeted in bytes and evicts the least recently used tiles. Pack files
+ * without live tiles are deleted, pack files with a low share of live tiles are compacted.
+ *
+ * @author Christian Pesch
+ */
+
+public class TileStore {
+    private static final Logger log = Logger.getLogger(TileStore.class.getName());
+    private static final int RECORD_MAGIC = 0x544c4531;
+    private static final int INDEX_VERSION = 1;
+    private static final String PACK_PREFIX = "tiles-";
+    private static final String PACK_SUFFIX = ".pack";
+    private static final String INDEX_FILE = "tiles.index";
+    private static final String JOURNAL_FILE = "tiles.journal";
+    private static final String LOCK_FILE = "tiles.lock";
+    private static final long DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+    private static final int MINIMUM_JOURNAL_RECORDS = 10000;
+    private static final byte JOURNAL_PUT = 1;
+    private static final byte JOURNAL_REMOVE = 2;
+    private static final byte JOURNAL_TOUCH = 3;
+
+    private final File directory;
+    private final long maximumBytes;
+    private final long segmentSize;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(1024, 0.75f, true);
+    private final SortedMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment currentSegment;
+    private long liveBytes;
+    private RandomAccessFile lockFile;
+    private FileLock lock;
+    private RandomAccessFile journal;
+    private int journalRecords;
+
+    public TileStore(File directory, long maximumBytes) throws IOException {
+        this(directory, maximumBytes, DEFAULT_SEGMENT_SIZE);
+    }
+
+    TileStore(File directory, long maximumBytes, long segmentSize) throws IOException {
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.segmentSize = segmentSize;
+        open();
+    }
+
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    public synchronized long getSize() {
+        return liveBytes;
+    }
+
+    public synchronized int getCount() {
+        return index.size();
+    }
+
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public synchronized byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null)
+            return null;
+        try {
+            return segments.get(entry.segment).read(entry.offset, entry.length);
+        } catch (IOException e) {
+            log.warning(format("Cannot read tile %s: %s", key, e));
+            removeEntry(key);
+            return null;
+        }
+    }
+
+    public synchronized long getTimestamp(String key) {
+        Entry entry = index.get(key);
+        return entry != null ? entry.timestamp : 0;
+    }
+
+    public synchronized String getETag(String key) {
+        Entry entry = index.get(key);
+        return entry != null ? entry.eTag : null;
+    }
+
+    /**
+     * Marks a tile as fresh, i.e. after a successful revalidation.
+     */
+    public synchronized void touch(String key) {
+        Entry entry = index.get(key);
+        if (entry == null)
+            return;
+
+        entry.timestamp = currentTimeMillis();
+        try {
+            journalTouch(key, entry.timestamp);
+        } catch (IOException e) {
+            log.warning(format("Cannot journal tile %s: %s", key, e));
+        }
+    }
+
+    public synchronized void put(String key, byte[] data, String eTag) {
+        try {
+            if (currentSegment.length >= segmentSize) {
+                Segment previous = currentSegment;
+                currentSegment = createSegment(segments.lastKey() + 1);
+                if (previous.liveBytes == 0)
+                    deleteSegment(previous);
+            }
+
+            long timestamp = currentTimeMillis();
+            long offset = currentSegment.append(key, eTag, timestamp, data);
+            removeEntry(key);
+            Entry entry = new Entry(currentSegment.number, offset, data.length, timestamp, eTag);
+            index.put(key, entry);
+            currentSegment.liveBytes += data.length;
+            liveBytes += data.length;
+            journalPut(key, entry);
+
+            evict();
+            compact();
+            checkpointIfJournalIsLarge();
+        } catch (IOException e) {
+            log.warning(format("Cannot write tile %s: %s", key, e));
+        }
+    }
+
+    public synchronized void remove(String key) {
+        removeEntry(key);
+        checkpointIfJournalIsLarge();
+    }
+
+    public synchronized void removeAll(String keyPrefix) {
+        for (String key : new ArrayList<>(index.keySet())) {
+            if (key.startsWith(keyPrefix))
+                removeEntry(key);
+        }
+        checkpointIfJournalIsLarge();
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = index.remove(key);
+        if (entry == null)
+            return;
+
+        try {
+            journalRemove(key);
+        } catch (IOException e) {
+            log.warning(format("Cannot journal tile %s: %s", key, e));
+        }
+
+        liveBytes -= entry.length;
+        Segment segment = segments.get(entry.segment);
+        segment.liveBytes -= entry.length;
+        if (segment.liveBytes == 0 && segment != currentSegment)
+            deleteSegment(segment);
+    }
+
+    private void evict() {
+        while (liveBytes > maximumBytes && !index.isEmpty()) {
+            String eldest = index.keySet().iterator().next();
+            removeEntry(eldest);
+        }
+    }
+
+    private long getPackBytes() {
+        long result = 0;
+        for (Segment segment : segments.values())
+            result += segment.length;
+        return result;
+    }
+
+    private void compact() throws IOException {
+        while (getPackBytes() > 2 * maximumBytes + segmentSize) {
+            Segment sparsest = null;
+            for (Segment segment : segments.values()) {
+                if (segment == currentSegment)
+                    continue;
+                if (sparsest == null || segment.liveBytes * sparsest.length < sparsest.liveBytes * segment.length)
+                    sparsest = segment;
+            }
+            if (sparsest == null)
+                return;
+
+            // replacing the values keeps the least recently used order
+            for (Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                if (entry.segment != sparsest.number)
+                    continue;
+
+                byte[] data = sparsest.read(entry.offset, entry.length);
+                long offset = currentSegment.append(mapEntry.getKey(), entry.eTag, entry.timestamp, data);
+                Entry moved = new Entry(currentSegment.number, offset, data.length, entry.timestamp, entry.eTag);
+                mapEntry.setValue(moved);
+                journalPut(mapEntry.getKey(), moved);
+                currentSegment.liveBytes += data.length;
+                sparsest.liveBytes -= data.length;
+            }
+            deleteSegment(sparsest);
+        }
+    }
+
+    private void lock() throws IOException {
+        lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+        try {
+            lock = lockFile.getChannel().tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockFile.close();
+            lockFile = null;
+            throw new IOException(format("Tile store %s is used by another process", directory));
+        }
+    }
+
+    private void unlock() {
+        try {
+            if (lock != null)
+                lock.release();
+            if (lockFile != null)
+                lockFile.close();
+        } catch (IOException e) {
+            log.warning(format("Cannot unlock tile store %s: %s", directory, e));
+        }
+        lock = null;
+        lockFile = null;
+    }
+
+    private void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException(format("Cannot create tile store directory %s", directory));
+        lock();
+        try {
+            load();
+        } catch (IOException e) {
+            if (journal != null)
+                journal.close();
+            journal = null;
+            for (Segment segment : segments.values())
+                segment.close();
+            segments.clear();
+            unlock();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PACK_PREFIX) && name.endsWith(PACK_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String number = file.getName().substring(PACK_PREFIX.length(), file.getName().length() - PACK_SUFFIX.length());
+                try {
+                    int segmentNumber = Integer.parseInt(number);
+                    segments.put(segmentNumber, new Segment(segmentNumber, file));
+                } catch (NumberFormatException e) {
+                    log.warning(format("Ignoring unknown pack file %s", file));
+                }
+            }
+        }
+
+        if (!readIndex(new File(directory, INDEX_FILE)))
+            scanSegments();
+        replayJournal(new File(directory, JOURNAL_FILE));
+
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment.liveBytes == 0)
+                deleteSegment(segment);
+        }
+        currentSegment = createSegment(segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        journal = new RandomAccessFile(new File(directory, JOURNAL_FILE), "rw");
+        evict();
+        checkpoint();
+        log.info(format("Opened tile store %s with %d tiles and %d bytes", directory, index.size(), liveBytes));
+    }
+
+    private boolean readIndex(File indexFile) {
+        if (!indexFile.exists())
+            return false;
+
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (inputStream.readInt() != INDEX_VERSION)
+                return false;
+
+            int count = inputStream.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = inputStream.readUTF();
+                int segmentNumber = inputStream.readInt();
+                long offset = inputStream.readLong();
+                int length = inputStream.readInt();
+                long timestamp = inputStream.readLong();
+                String eTag = inputStream.readUTF();
+                Segment segment = segments.get(segmentNumber);
+                if (segment == null || offset + length > segment.length)
+                    continue;
+                addEntry(key, new Entry(segmentNumber, offset, length, timestamp, eTag.isEmpty() ? null : eTag));
+            }
+            return true;
+        } catch (IOException e) {
+            log.warning(format("Cannot read tile store index %s: %s", indexFile, e));
+            index.clear();
+            liveBytes = 0;
+            for (Segment segment : segments.values())
+                segment.liveBytes = 0;
+            return false;
+        }
+    }
+
+    private void scanSegments() throws IOException {
+        for (Segment segment : segments.values())
+            segment.scan(this);
+    }
+
+    private void replayJournal(File journalFile) {
+        if (!journalFile.exists())
+            return;
+
+        int records = 0;
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            while (true) {
+                byte type = inputStream.readByte();
+                String key = inputStream.readUTF();
+                if (type == JOURNAL_PUT) {
+                    int segmentNumber = inputStream.readInt();
+                    long offset = inputStream.readLong();
+                    int length = inputStream.readInt();
+                    long timestamp = inputStream.readLong();
+                    String eTag = inputStream.readUTF();
+                    Segment segment = segments.get(segmentNumber);
+                    if (segment != null && offset + length <= segment.length)
+                        addEntry(key, new Entry(segmentNumber, offset, length, timestamp, eTag.isEmpty() ? null : eTag));
+                } else if (type == JOURNAL_REMOVE) {
+                    dropEntry(key);
+                } else if (type == JOURNAL_TOUCH) {
+                    long timestamp = inputStream.readLong();
+                    Entry entry = index.get(key);
+                    if (entry != null)
+                        entry.timestamp = timestamp;
+                } else
+                    break;
+                records++;
+            }
+        } catch (EOFException e) {
+            // the last record may be truncated by a crash
+        } catch (IOException e) {
+            log.warning(format("Cannot read tile store journal %s: %s", journalFile, e));
+        }
+        if (records > 0)
+            log.info(format("Replayed %d records from tile store journal %s", records, journalFile));
+    }
+
+    private void dropEntry(String key) {
+        Entry entry = index.remove(key);
+        if (entry == null)
+            return;
+        liveBytes -= entry.length;
+        segments.get(entry.segment).liveBytes -= entry.length;
+    }
+
+    private void appendToJournal(ByteArrayOutputStream buffer) throws IOException {
+        if (journal == null)
+            return;
+        journal.seek(journal.length());
+        journal.write(buffer.toByteArray());
+        journalRecords++;
+    }
+
+    private void journalPut(String key, Entry entry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream outputStream = new DataOutputStream(buffer);
+        outputStream.writeByte(JOURNAL_PUT);
+        outputStream.writeUTF(key);
+        outputStream.writeInt(entry.segment);
+        outputStream.writeLong(entry.offset);
+        outputStream.writeInt(entry.length);
+        outputStream.writeLong(entry.timestamp);
+        outputStream.writeUTF(entry.eTag != null ? entry.eTag : "");
+        appendToJournal(buffer);
+    }
+
+    private void journalRemove(String key) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream outputStream = new DataOutputStream(buffer);
+        outputStream.writeByte(JOURNAL_REMOVE);
+        outputStream.writeUTF(key);
+        appendToJournal(buffer);
+    }
+
+    private void journalTouch(String key, long timestamp) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream outputStream = new DataOutputStream(buffer);
+        outputStream.writeByte(JOURNAL_TOUCH);
+        outputStream.writeUTF(key);
+        outputStream.writeLong(timestamp);
+        appendToJournal(buffer);
+    }
+
+    /**
+     * Forces the pack files to disk, writes the index and empties the journal. Replaying
+     * a journal that outlived a crash after the index was written leads to the same index again.
+     */
+    private void checkpoint() throws IOException {
+        // the index must not refer to tiles that are not on disk yet
+        for (Segment segment : segments.values())
+            segment.force();
+        writeIndex();
+        if (journal != null)
+            journal.setLength(0);
+        journalRecords = 0;
+    }
+
+    private void checkpointIfJournalIsLarge() {
+        if (journalRecords < Math.max(MINIMUM_JOURNAL_RECORDS, index.size()))
+            return;
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            log.warning(format("Cannot write tile store index: %s", e));
+        }
+    }
+
+    private void addEntry(String key, Entry entry) {
+        Entry previous = index.put(key, entry);
+        if (previous != null) {
+            liveBytes -= previous.length;
+            segments.get(previous.segment).liveBytes -= previous.length;
+        }
+        liveBytes += entry.length;
+        segments.get(entry.segment).liveBytes += entry.length;
+    }
+
+    private void writeIndex() throws IOException {
+        File indexFile = new File(directory, INDEX_FILE);
+        File temporaryFile = new File(directory, INDEX_FILE + ".tmp");
+        FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile);
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(fileOutputStream))) {
+            outputStream.writeInt(INDEX_VERSION);
+            outputStream.writeInt(index.size());
+            // in access order to restore the least recently used order
+            for (Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                outputStream.writeUTF(mapEntry.getKey());
+                outputStream.writeInt(entry.segment);
+                outputStream.writeLong(entry.offset);
+                outputStream.writeInt(entry.length);
+                outputStream.writeLong(entry.timestamp);
+                outputStream.writeUTF(entry.eTag != null ? entry.eTag : "");
+            }
+            outputStream.flush();
+            // the index has to be on disk before it replaces the previous one
+            fileOutputStream.getChannel().force(true);
+        }
+        move(temporaryFile.toPath(), indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private Segment createSegment(int number) throws IOException {
+        Segment segment = new Segment(number, new File(directory, PACK_PREFIX + number + PACK_SUFFIX));
+        segments.put(number, segment);
+        return segment;
+    }
+
+    private void deleteSegment(Segment segment) {
+        segment.close();
+        segments.remove(segment.number);
+        if (segment.file.exists() && !segment.file.delete())
+            log.warning(format("Cannot delete pack file %s", segment.file));
+    }
+
+    public synchronized void close() {
+        if (lock == null)
+            return;
+
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            log.warning(format("Cannot write tile store index: %s", e));
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warning(format("Cannot close tile store journal: %s", e));
+        }
+        journal = null;
+        for (Segment segment : segments.values())
+            segment.close();
+        segments.clear();
+        index.clear();
+        liveBytes = 0;
+        unlock();
+    }
+
+    private static class Entry {
+        private final int segment;
+        private final long offset;
+        private final int length;
+        private long timestamp;
+        private final String eTag;
+
+        private Entry(int segment, long offset, int length, long timestamp, String eTag) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+            this.eTag = eTag;
+        }
+    }
+
+    private static class Segment {
+        private final int number;
+        private final File file;
+        private final RandomAccessFile randomAccessFile;
+        private long length;
+        private long liveBytes;
+
+        private Segment(int number, File file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.randomAccessFile = new RandomAccessFile(file, "rw");
+            this.length = randomAccessFile.length();
+        }
+
+        private long append(String key, String eTag, long timestamp, byte[] data) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length + 128);
+            DataOutputStream outputStream = new DataOutputStream(buffer);
+            outputStream.writeInt(RECORD_MAGIC);
+            outputStream.writeUTF(key);
+            outputStream.writeUTF(eTag != null ? eTag : "");
+            outputStream.writeLong(timestamp);
+            outputStream.writeInt(data.length);
+            long dataOffset = length + buffer.size();
+            outputStream.write(data);
+
+            randomAccessFile.seek(length);
+            randomAccessFile.write(buffer.toByteArray());
+            length += buffer.size();
+            return dataOffset;
+        }
+
+        private byte[] read(long offset, int count) throws IOException {
+            byte[] result = new byte[count];
+            randomAccessFile.seek(offset);
+            randomAccessFile.readFully(result);
+            return result;
+        }
+
+        private void scan(TileStore store) throws IOException {
+            long position = 0;
+            randomAccessFile.seek(0);
+            try {
+                while (position < length) {
+                    if (randomAccessFile.readInt() != RECORD_MAGIC)
+                        break;
+                    String key = randomAccessFile.readUTF();
+                    String eTag = randomAccessFile.readUTF();
+                    long timestamp = randomAccessFile.readLong();
+                    int count = randomAccessFile.readInt();
+                    long dataOffset = randomAccessFile.getFilePointer();
+                    if (count < 0 || dataOffset + count > length)
+                        break;
+                    randomAccessFile.seek(dataOffset + count);
+                    store.addEntry(key, new Entry(number, dataOffset, count, timestamp, eTag.isEmpty() ? null : eTag));
+                    position = dataOffset + count;
+                }
+            } catch (EOFException e) {
+                // truncated record at the end of the pack file
+            }
+
+            if (position < length) {
+                log.warning(format("Truncating pack file %s from %d to %d bytes", file, length, position));
+                randomAccessFile.setLength(position);
+                length = position;
+            }
+        }
+
+        private void force() throws IOException {
+            randomAccessFile.getChannel().force(false);
+        }
+
+        private void close() {
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                log.warning(format("Cannot close pack file %s: %s", file, e));
+            }
+        }
+    }
+}
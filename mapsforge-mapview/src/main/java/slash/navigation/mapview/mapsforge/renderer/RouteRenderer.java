@@ -271,7 +271,7 @@ public class RouteRenderer {
                     return new RoutingResult(null, null, Invalid);
             }
 
-            result = routingService.getRouteBetween(pairWithLayer.getFirst(), pairWithLayer.getSecond(), mapViewCallback.getTravelMode());
+            result = mapViewCallback.getRouteBetween(routingService, pairWithLayer.getFirst(), pairWithLayer.getSecond(), mapViewCallback.getTravelMode());
             if (result.getValidity().equals(PointNotFound)) {
                 if(routingService.isDownload()) {
                     if (future.hasNextDownload()) {
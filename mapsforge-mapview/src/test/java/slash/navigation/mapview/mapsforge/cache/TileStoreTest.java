@@ -0,0 +1,217 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapsforge.core.model.Tile;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.common.SimpleNavigationPosition;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import static java.io.File.createTempFile;
+import static java.nio.file.Files.copy;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mapsforge.core.util.MercatorProjection.latitudeToTileY;
+import static org.mapsforge.core.util.MercatorProjection.longitudeToTileX;
+import static slash.common.io.Files.recursiveDelete;
+
+public class TileStoreTest {
+    private File directory;
+    private TileStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = createTempFile("tilestore", "");
+        assertTrue(directory.delete());
+        store = new TileStore(directory, 1000, 300);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        recursiveDelete(directory);
+    }
+
+    private byte[] createTile(int size, int value) {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; i++)
+            result[i] = (byte) (value + i);
+        return result;
+    }
+
+    @Test
+    public void testPutAndGet() {
+        store.put("a/1/2/3", createTile(100, 1), "etag-a");
+        store.put("b/1/2/3", createTile(50, 2), null);
+
+        assertArrayEquals(createTile(100, 1), store.get("a/1/2/3"));
+        assertArrayEquals(createTile(50, 2), store.get("b/1/2/3"));
+        assertNull(store.get("c/1/2/3"));
+        assertEquals("etag-a", store.getETag("a/1/2/3"));
+        assertNull(store.getETag("b/1/2/3"));
+        assertEquals(150, store.getSize());
+        assertEquals(2, store.getCount());
+    }
+
+    @Test
+    public void testReplace() {
+        store.put("a/1/2/3", createTile(100, 1), null);
+        store.put("a/1/2/3", createTile(80, 3), "etag");
+        assertArrayEquals(createTile(80, 3), store.get("a/1/2/3"));
+        assertEquals(80, store.getSize());
+        assertEquals(1, store.getCount());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        for (int i = 0; i < 10; i++)
+            store.put("a/" + i, createTile(100, i), null);
+        // touch the first tile to make it the most recently used
+        assertNotNull(store.get("a/0"));
+        store.put("a/10", createTile(100, 10), null);
+
+        assertTrue(store.getSize() <= 1000);
+        assertTrue(store.contains("a/0"));
+        assertFalse(store.contains("a/1"));
+        assertTrue(store.contains("a/10"));
+    }
+
+    @Test
+    public void testCompactsAndKeepsLiveTiles() {
+        for (int i = 0; i < 100; i++)
+            store.put("a/" + (i % 5), createTile(100, i), null);
+
+        for (int i = 0; i < 5; i++)
+            assertArrayEquals(createTile(100, 95 + i), store.get("a/" + i));
+        File[] packFiles = directory.listFiles((dir, name) -> name.endsWith(".pack"));
+        assertNotNull(packFiles);
+        long packBytes = 0;
+        for (File packFile : packFiles)
+            packBytes += packFile.length();
+        assertTrue(packBytes < 4000);
+    }
+
+    @Test
+    public void testRemoveAll() {
+        store.put("a/1", createTile(10, 1), null);
+        store.put("a/2", createTile(10, 2), null);
+        store.put("b/1", createTile(10, 3), null);
+        store.removeAll("a/");
+        assertFalse(store.contains("a/1"));
+        assertFalse(store.contains("a/2"));
+        assertTrue(store.contains("b/1"));
+    }
+
+    @Test
+    public void testReopenWithIndex() throws IOException {
+        store.put("a/1", createTile(100, 1), "etag");
+        store.put("a/2", createTile(100, 2), null);
+        store.close();
+
+        store = new TileStore(directory, 1000, 300);
+        assertArrayEquals(createTile(100, 1), store.get("a/1"));
+        assertArrayEquals(createTile(100, 2), store.get("a/2"));
+        assertEquals("etag", store.getETag("a/1"));
+        assertEquals(200, store.getSize());
+    }
+
+    @Test
+    public void testReopenWithoutIndex() throws IOException {
+        store.put("a/1", createTile(100, 1), "etag");
+        store.put("a/1", createTile(100, 3), "etag2");
+        store.put("a/2", createTile(100, 2), null);
+        store.close();
+        assertTrue(new File(directory, "tiles.index").delete());
+
+        store = new TileStore(directory, 1000, 300);
+        assertArrayEquals(createTile(100, 3), store.get("a/1"));
+        assertArrayEquals(createTile(100, 2), store.get("a/2"));
+        assertEquals("etag2", store.getETag("a/1"));
+        assertEquals(200, store.getSize());
+    }
+
+    @Test
+    public void testLockedByAnotherStore() throws IOException {
+        try {
+            new TileStore(directory, 1000, 300);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("used by another process"));
+        }
+
+        store.put("a/1", createTile(100, 1), null);
+        assertArrayEquals(createTile(100, 1), store.get("a/1"));
+    }
+
+    @Test
+    public void testRecoversFromJournalAfterCrash() throws IOException {
+        store.put("a/1", createTile(100, 1), "etag");
+        store.put("a/2", createTile(100, 2), null);
+        store.put("a/3", createTile(100, 3), null);
+        store.remove("a/2");
+        store.put("a/3", createTile(100, 4), "etag2");
+
+        // copy the files of the open store as a crash would leave them behind
+        File crashed = createTempFile("tilestore", "");
+        assertTrue(crashed.delete());
+        assertTrue(crashed.mkdirs());
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        for (File file : files)
+            copy(file.toPath(), new File(crashed, file.getName()).toPath());
+
+        TileStore recovered = new TileStore(crashed, 1000, 300);
+        try {
+            assertArrayEquals(createTile(100, 1), recovered.get("a/1"));
+            assertFalse(recovered.contains("a/2"));
+            assertArrayEquals(createTile(100, 4), recovered.get("a/3"));
+            assertEquals("etag", recovered.getETag("a/1"));
+            assertEquals("etag2", recovered.getETag("a/3"));
+            assertEquals(200, recovered.getSize());
+        } finally {
+            recovered.close();
+            recursiveDelete(crashed);
+        }
+    }
+
+    @Test
+    public void testTilesForCorridor() {
+        TilePrefetcher prefetcher = new TilePrefetcher(store);
+        NavigationPosition hamburg = new SimpleNavigationPosition(10.0, 53.55);
+        NavigationPosition berlin = new SimpleNavigationPosition(13.4, 52.52);
+
+        Set<Tile> single = prefetcher.getTilesFor(asList(hamburg), (byte) 10, 256, 1);
+        assertEquals(9, single.size());
+
+        byte zoom = 10;
+        Set<Tile> corridor = prefetcher.getTilesFor(asList(hamburg, berlin), zoom, 256, 0);
+        int hamburgX = longitudeToTileX(10.0, zoom), berlinX = longitudeToTileX(13.4, zoom);
+        assertTrue(corridor.contains(new Tile(hamburgX, latitudeToTileY(53.55, zoom), zoom, 256)));
+        assertTrue(corridor.contains(new Tile(berlinX, latitudeToTileY(52.52, zoom), zoom, 256)));
+        // without gaps between the two positions
+        assertTrue(corridor.size() >= berlinX - hamburgX + 1);
+    }
+}
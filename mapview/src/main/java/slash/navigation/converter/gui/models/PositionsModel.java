@@ -75,5 +75,6 @@ public interface PositionsModel extends TableModel {
     void bottom(int[] rowIndices);
 
     boolean isContinousRange();
+    boolean isBulkChange();
     void fireTableRowsUpdated(int firstIndex, int lastIndex, int columnIndex);
 }
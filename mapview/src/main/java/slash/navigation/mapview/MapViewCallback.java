@@ -20,8 +20,10 @@
 
 package slash.navigation.mapview;
 
+import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.models.FixMapModeModel;
 import slash.navigation.maps.tileserver.TileServerMapManager;
+import slash.navigation.routing.RoutingResult;
 import slash.navigation.routing.RoutingService;
 import slash.navigation.routing.TravelMode;
 
@@ -38,6 +40,7 @@ public interface MapViewCallback {
     void startBrowser(String url);
 
     RoutingService getRoutingService();
+    RoutingResult getRouteBetween(RoutingService service, NavigationPosition from, NavigationPosition to, TravelMode travelMode);
     TravelMode getTravelMode();
     boolean isAvoidFerries();
     boolean isAvoidHighways();
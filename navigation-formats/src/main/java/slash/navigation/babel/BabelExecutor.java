@@ -0,0 +1,261 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.babel;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static slash.common.io.Files.generateChecksum;
+import static slash.common.io.InputOutput.readBytes;
+import static slash.common.system.Platform.isMac;
+
+/**
+ * Executes GPSBabel processes with data piped over stdin and stdout, limits the
+ * number of concurrently running processes and remembers which content a format
+ * cannot read.
+ *
+ * @author Christian Pesch
+ */
+
+public class BabelExecutor {
+    private static final Logger log = Logger.getLogger(BabelExecutor.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(BabelExecutor.class);
+    private static final String MAXIMUM_CONCURRENT_PROCESSES_PREFERENCE = "maximumConcurrentProcesses";
+    private static final int MAXIMUM_UNREADABLE_ENTRIES = 256;
+
+    private static BabelExecutor instance;
+
+    private final Semaphore processes;
+    private final ExecutorService pumps;
+    private final Map<String, Boolean> unreadable = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAXIMUM_UNREADABLE_ENTRIES;
+        }
+    };
+    private final AtomicLong invocationCount = new AtomicLong(0);
+    private final AtomicLong invocationMillis = new AtomicLong(0);
+
+    BabelExecutor(int maximumConcurrentProcesses) {
+        this.processes = new Semaphore(maximumConcurrentProcesses, true);
+        final AtomicInteger number = new AtomicInteger(1);
+        this.pumps = newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, format("BabelStreamPumper-%d", number.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized BabelExecutor getInstance() {
+        if (instance == null)
+            instance = new BabelExecutor(getMaximumConcurrentProcessesPreference());
+        return instance;
+    }
+
+    public static int getMaximumConcurrentProcessesPreference() {
+        return Math.max(1, preferences.getInt(MAXIMUM_CONCURRENT_PROCESSES_PREFERENCE, getRuntime().availableProcessors()));
+    }
+
+    public static void setMaximumConcurrentProcessesPreference(int maximumConcurrentProcesses) {
+        preferences.putInt(MAXIMUM_CONCURRENT_PROCESSES_PREFERENCE, maximumConcurrentProcesses);
+    }
+
+    public long getInvocationCount() {
+        return invocationCount.get();
+    }
+
+    public long getInvocationMillis() {
+        return invocationMillis.get();
+    }
+
+    // negative cache for content a format cannot read
+
+    static String createContentKey(String formatName, byte[] content) throws IOException {
+        return formatName + "/" + generateChecksum(new ByteArrayInputStream(content));
+    }
+
+    public boolean isUnreadable(String contentKey) {
+        synchronized (unreadable) {
+            return unreadable.containsKey(contentKey);
+        }
+    }
+
+    public void setUnreadable(String contentKey) {
+        synchronized (unreadable) {
+            unreadable.put(contentKey, Boolean.TRUE);
+        }
+    }
+
+    // execution
+
+    public Invocation execute(String babel, List<String> args, byte[] input, int timeout) throws IOException {
+        long start = currentTimeMillis();
+        try {
+            processes.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(format("Interrupted while waiting to execute '%s'", args));
+        }
+
+        long started = currentTimeMillis();
+        try {
+            Invocation invocation = run(babel, args, input, timeout);
+            invocation.waitMillis = started - start;
+            invocation.executionMillis = currentTimeMillis() - started;
+            invocationCount.incrementAndGet();
+            invocationMillis.addAndGet(invocation.executionMillis);
+            log.info(format("Executed '%s' with exit value %d in %d ms after waiting %d ms for a process, piped %d bytes in and %d bytes out",
+                    args, invocation.getExitValue(), invocation.getExecutionMillis(), invocation.getWaitMillis(),
+                    input != null ? input.length : 0, invocation.getOutput().length));
+            return invocation;
+        } finally {
+            processes.release();
+        }
+    }
+
+    Invocation run(String babel, List<String> args, final byte[] input, int timeout) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(args);
+        // help Mac gpsbabel find its QtCore library
+        if (isMac()) {
+            File directory = new File(babel).getParentFile();
+            if (directory != null)
+                builder.directory(directory);
+        }
+
+        final Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            throw new BabelException("Cannot execute '" + args + "'", babel, e);
+        }
+
+        Future<Void> stdin = pumps.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                try (OutputStream outputStream = process.getOutputStream()) {
+                    if (input != null)
+                        outputStream.write(input);
+                }
+                return null;
+            }
+        });
+        Future<byte[]> stdout = pumps.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return readBytes(process.getInputStream());
+            }
+        });
+        Future<byte[]> stderr = pumps.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                return readBytes(process.getErrorStream());
+            }
+        });
+
+        Invocation invocation = new Invocation();
+        try {
+            if (!process.waitFor(timeout, MILLISECONDS)) {
+                log.warning(format("gpsbabel process '%s' didn't terminate after %d ms; destroying it", args, timeout));
+                invocation.timedOut = true;
+                process.destroyForcibly();
+                process.waitFor();
+            }
+            invocation.exitValue = process.exitValue();
+            invocation.output = get(stdout, "stdout");
+            invocation.errorOutput = get(stderr, "stderr");
+            getQuietly(stdin, "stdin");
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw new InterruptedIOException(format("Interrupted while executing '%s'", args));
+        }
+
+        if (invocation.getErrorOutput().length > 0)
+            log.fine(format("Read %d bytes of error output from '%s': '%s'", invocation.getErrorOutput().length,
+                    args, new String(invocation.getErrorOutput()).trim()));
+        return invocation;
+    }
+
+    private byte[] get(Future<byte[]> future, String streamName) throws InterruptedException {
+        byte[] result = getQuietly(future, streamName);
+        return result != null ? result : new byte[0];
+    }
+
+    private <T> T getQuietly(Future<T> future, String streamName) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // gpsbabel closes stdin early when it rejects the input
+            log.fine(format("Could not pump %s of gpsbabel process: %s", streamName, e.getCause()));
+            return null;
+        }
+    }
+
+    public static class Invocation {
+        private int exitValue = -1;
+        private boolean timedOut;
+        private byte[] output = new byte[0];
+        private byte[] errorOutput = new byte[0];
+        private long waitMillis, executionMillis;
+
+        public int getExitValue() {
+            return exitValue;
+        }
+
+        public boolean isSuccessful() {
+            return exitValue == 0 && !timedOut;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public byte[] getOutput() {
+            return output;
+        }
+
+        public byte[] getErrorOutput() {
+            return errorOutput;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        public long getExecutionMillis() {
+            return executionMillis;
+        }
+    }
+}
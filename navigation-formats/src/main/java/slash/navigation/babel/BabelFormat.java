@@ -20,6 +20,7 @@
 
 package slash.navigation.babel;
 
+import slash.navigation.babel.BabelExecutor.Invocation;
 import slash.navigation.base.BaseNavigationFormat;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.ParserContextImpl;
@@ -36,14 +37,14 @@ import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
 import static java.io.File.createTempFile;
-import static java.lang.Thread.sleep;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Directories.getTemporaryDirectory;
-import static slash.common.io.InputOutput.DEFAULT_BUFFER_SIZE;
 import static slash.common.io.InputOutput.copyAndClose;
+import static slash.common.io.InputOutput.readBytes;
 import static slash.common.system.Platform.*;
+import static slash.navigation.babel.BabelExecutor.createContentKey;
 import static slash.navigation.base.RouteCharacteristics.*;
 
 /**
@@ -59,6 +60,7 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
     private static final String BABEL_INTERFACE_FORMAT_NAME = "gpx";
     private static final String[] ROUTE_WAYPOINTS_TRACKS = new String[]{"-r", "-w", "-t"};
     private static final String USR_BIN_GPSBABEL = "/usr/bin/gpsbabel";
+    private static final String STANDARD_STREAM = "-";
     private Gpx10Format gpxFormat;
 
     private Gpx10Format getGpxFormat() {
@@ -117,201 +119,53 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
         return new GpxRoute(new Gpx10Format(), characteristics, name, null, (List<GpxPosition>) positions);
     }
 
-    // stream
+    // execution
 
-    private Process execute(String babel, String sourceFormat, String targetFormat, String[] globalFlags) throws IOException {
-        List<String> args = new ArrayList<>();
-        args.add(babel);
-        args.addAll(asList(globalFlags));
-        args.addAll(asList("-i", sourceFormat, "-f", "-",
-                "-o", targetFormat, "-F", "-"));
-        log.info("Executing '" + args + "'");
-
-        args = considerShellScriptForBabel(babel, args);
-
-        try {
-            return Runtime.getRuntime().exec(args.toArray(new String[0]));
-        } catch (IOException e) {
-            throw new BabelException("Cannot execute '" + args + "'", babel, e);
-        }
-    }
-
-    private Thread observeProcess(final Process process, final int commandExecutionTimeout) {
-        return new Thread(new Runnable() {
-            public void run() {
-                try {
-                    sleep(commandExecutionTimeout);
-                } catch (InterruptedException e) {
-                    // intentionally left empty
-                }
-                try {
-                    int exitValue = process.exitValue();
-                    log.fine("gpsbabel process terminated with exit value " + exitValue);
-                } catch (IllegalThreadStateException itse) {
-                    log.warning("gpsbabel process for format " + getFormatName() + " didn't terminate after " + commandExecutionTimeout + "ms; destroying it");
-                    process.destroy();
-                }
-            }
-        }, "BabelObserver");
-    }
-
-    private void pumpStream(final InputStream input, final OutputStream output, final String streamName, final boolean closeOutput) {
-        new Thread(new Runnable() {
-            public void run() {
-                try {
-                    try {
-                        byte buffer[] = new byte[DEFAULT_BUFFER_SIZE];
-                        int count = 0;
-                        while (count >= 0) {
-                            count = input.read(buffer);
-                            if (count > 0) {
-                                output.write(buffer, 0, count);
-                                String output = new String(buffer).trim();
-                                log.fine("Read " + count + " bytes of " + streamName + " from gpsbabel process: '" + output + "'");
-                            }
-                        }
-                    } finally {
-                        input.close();
-                        if (closeOutput)
-                            output.close();
-                    }
-                } catch (IOException e) {
-                    log.fine("Could not pump " + streamName + " of gpsbabel process: " + e);
-                }
-            }
-        }, "BabelStreamPumper-" + streamName).start();
-    }
-
-    private Process startBabel(InputStream source, String sourceFormat, String[] commandLineFlags) throws IOException {
-        String babel = findBabel();
-        Process process = execute(babel, sourceFormat, BABEL_INTERFACE_FORMAT_NAME, commandLineFlags);
-        pumpStream(source, process.getOutputStream(), "input", true);
-        pumpStream(process.getErrorStream(), System.err, "error", false);
-        return process;
-    }
-
-    private void readStream(InputStream source, ParserContext<GpxRoute> context) throws IOException {
-        Process process = startBabel(source, getFormatName(), getGlobalOptions());
-        Thread observer = observeProcess(process, getReadCommandExecutionTimeoutPreference());
-        observer.start();
-        InputStream target = process.getInputStream();
-        getGpxFormat().read(target, context);
-        observer.interrupt();
-        target.close();
-    }
-
-    // temp file
-
-    private String escapeFilePathWithSpaces(String filePath) {
-        if (isLinux() || isMac()) {
-            filePath = "\"" + filePath + "\"";
-        }
-        return filePath;
-    }
-
-    private boolean startBabel(File source, String sourceFormat,
-                               File target, String targetFormat,
-                               String[] globalFlags, String formatFlags,
-                               int timeout) throws IOException {
+    private Invocation execute(String sourceFormat, String source, String targetFormat, String target,
+                               byte[] input, int timeout) throws IOException {
         String babel = findBabel();
         List<String> args = new ArrayList<>();
         args.add(babel);
-        args.addAll(asList(globalFlags));
-        args.addAll(asList("-i", sourceFormat,
-                "-f", escapeFilePathWithSpaces(source.getAbsolutePath()),
-                "-o", escapeFilePathWithSpaces(targetFormat + formatFlags),
-                "-F", escapeFilePathWithSpaces(target.getAbsolutePath())));
-        log.info("Executing '" + args + "'");
-
-        args = considerShellScriptForBabel(babel, args);
-
-        int exitValue = execute(babel, args, timeout);
-        log.fine("Executed '" + args + "' with exit value: " + exitValue + " target exists: " + target.exists());
-        return exitValue == 0;
+        args.addAll(asList(getGlobalOptions()));
+        args.addAll(asList("-i", sourceFormat, "-f", source, "-o", targetFormat, "-F", target));
+        return BabelExecutor.getInstance().execute(babel, args, input, timeout);
     }
 
-    private static final int COMMAND_EXECUTION_RECHECK_INTERVAL = 250;
+    private Invocation convertToGpx(byte[] content) throws IOException {
+        int timeout = getReadCommandExecutionTimeoutPreference();
+        if (isStreamingCapable())
+            return execute(getFormatName(), STANDARD_STREAM, BABEL_INTERFACE_FORMAT_NAME, STANDARD_STREAM, content, timeout);
 
-    private int execute(String babelPath, List<String> args, int timeout) throws IOException {
-        Process process;
+        // gpsbabel cannot read this format from stdin
+        File sourceFile = null;
         try {
-            process = Runtime.getRuntime().exec(args.toArray(new String[0]));
-        } catch (IOException e) {
-            throw new BabelException("Cannot execute '" + args + "'", babelPath, e);
-        }
-
-        InputStream inputStream = new BufferedInputStream(process.getInputStream());
-        InputStream errorStream = new BufferedInputStream(process.getErrorStream());
-
-        boolean hasExitValue = false;
-        int exitValue = -1;
-
-        while (!hasExitValue) {
-            try {
-                while (inputStream.available() > 0 || errorStream.available() > 0) {
-                    readStream(inputStream, "input");
-                    readStream(errorStream, "error");
-                }
-            } catch (IOException e) {
-                log.severe("Couldn't read response: " + e);
-            }
-
-            try {
-                exitValue = process.exitValue();
-                hasExitValue = true;
-            } catch (IllegalThreadStateException e) {
-                try {
-                    sleep(COMMAND_EXECUTION_RECHECK_INTERVAL);
-                    timeout = timeout - COMMAND_EXECUTION_RECHECK_INTERVAL;
-                    if (timeout < 0 && timeout >= -COMMAND_EXECUTION_RECHECK_INTERVAL) {
-                        log.severe("Command doesn't terminate. Shutting down args...");
-                        process.destroy();
-                    } else if (timeout < 0) {
-                        log.severe("Command still doesn't terminate");
-                        sleep(COMMAND_EXECUTION_RECHECK_INTERVAL);
-                    }
-                } catch (InterruptedException e1) {
-                    // doesn't matter
-                }
-            }
-        }
-
-        try {
-            readStream(inputStream, "input");
-            readStream(errorStream, "error");
-        } catch (IOException e) {
-            log.severe("Couldn't read final response: " + e);
+            sourceFile = createTempFile("babel-read-source", "." + getFormatName(), getTemporaryDirectory());
+            copyAndClose(new ByteArrayInputStream(content), new FileOutputStream(sourceFile));
+            return execute(getFormatName(), sourceFile.getAbsolutePath(), BABEL_INTERFACE_FORMAT_NAME, STANDARD_STREAM, null, timeout);
+        } finally {
+            delete(sourceFile);
         }
-
-        log.info("Executed '" + process.toString() + "' with exit value: " + exitValue);
-        return exitValue;
     }
 
-    private void readStream(InputStream inputStream, String streamName) throws IOException {
-        byte buffer[] = new byte[DEFAULT_BUFFER_SIZE];
-        int count = 0;
-        while (inputStream.available() > 0 && count < buffer.length) {
-            buffer[count++] = (byte) inputStream.read();
+    private byte[] convertFromGpx(byte[] gpx, GpxRoute route) throws IOException {
+        int timeout = getWriteCommandExecutionTimeOutPreference();
+        String targetFormat = getFormatName() + getFormatOptions(route);
+        if (isStreamingCapable()) {
+            Invocation invocation = execute(BABEL_INTERFACE_FORMAT_NAME, STANDARD_STREAM, targetFormat, STANDARD_STREAM, gpx, timeout);
+            if (!invocation.isSuccessful())
+                throw new IOException("Could not convert " + BABEL_INTERFACE_FORMAT_NAME + " to " + targetFormat);
+            return invocation.getOutput();
         }
-        String output = new String(buffer).trim();
-        log.fine("Read " + count + " bytes of " + streamName + " output: '" + output + "'");
-    }
 
-    private void readFile(InputStream source, ParserContext<GpxRoute> context) throws IOException {
-        File sourceFile = null, targetFile = null;
+        // gpsbabel cannot write this format to stdout
+        File targetFile = null;
         try {
-            sourceFile = createTempFile("babel-read-source", "." + getFormatName(), getTemporaryDirectory());
-            copyAndClose(source, new FileOutputStream(sourceFile));
-            targetFile = createTempFile("babel-read-target", "." + BABEL_INTERFACE_FORMAT_NAME, getTemporaryDirectory());
-            boolean successful = startBabel(sourceFile, getFormatName(), targetFile, BABEL_INTERFACE_FORMAT_NAME, getGlobalOptions(), "", getReadCommandExecutionTimeoutPreference());
-            if (successful) {
-                try (InputStream target = new IllegalCharacterFilterInputStream(new FileInputStream(targetFile))) {
-                    getGpxFormat().read(target, context);
-                    log.fine("Successfully converted " + sourceFile + " to " + targetFile);
-                }
-            }
+            targetFile = createTempFile("babel-write-target", getExtension(), getTemporaryDirectory());
+            Invocation invocation = execute(BABEL_INTERFACE_FORMAT_NAME, STANDARD_STREAM, targetFormat, targetFile.getAbsolutePath(), gpx, timeout);
+            if (!invocation.isSuccessful())
+                throw new IOException("Could not convert " + BABEL_INTERFACE_FORMAT_NAME + " to " + targetFile);
+            return readBytes(new FileInputStream(targetFile));
         } finally {
-            delete(sourceFile);
             delete(targetFile);
         }
     }
@@ -364,34 +218,6 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
         return babelFile != null ? babelFile.getCanonicalPath() : "gpsbabel";
     }
 
-    private List<String> considerShellScriptForBabel(String babel, List<String> args) throws IOException {
-        if (isLinux() || isMac()) {
-            File shellScript = createShellScript(babel, args);
-            args = asList("/bin/sh", shellScript.getAbsolutePath());
-        }
-        return args;
-    }
-
-    private File createShellScript(String babelPath, List<String> args) throws IOException {
-        File temp = createTempFile("gpsbabel", ".sh", getTemporaryDirectory());
-        temp.deleteOnExit();
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
-            writer.write("#!/bin/sh");
-            writer.newLine();
-            // help Mac gpsbabel find its QtCore library
-            if (isMac()) {
-                writer.write("cd `dirname \"" + babelPath + "\"`");
-                writer.newLine();
-            }
-            for (String arg : args) {
-                writer.write(arg);
-                writer.write(" ");
-            }
-            writer.newLine();
-        }
-        return temp;
-    }
-
     // filter/sanitizing after reading
 
     private List<GpxRoute> filterValidRoutes(List<GpxRoute> routes) {
@@ -424,17 +250,28 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
 
 
     public void read(InputStream source, ParserContext<GpxRoute> context) throws IOException {
+        byte[] content = readBytes(source);
+        String contentKey = createContentKey(getFormatName(), content);
+        BabelExecutor executor = BabelExecutor.getInstance();
+        if (executor.isUnreadable(contentKey)) {
+            log.fine("Skipping " + getName() + " since it could not read the same content before");
+            return;
+        }
+
+        Invocation invocation = convertToGpx(content);
         ParserContext<GpxRoute> gpxContext = new ParserContextImpl<>();
-        if (isStreamingCapable()) {
-            readStream(source, gpxContext);
-        } else {
-            readFile(source, gpxContext);
+        if (invocation.isSuccessful() && invocation.getOutput().length > 0) {
+            try (InputStream target = new IllegalCharacterFilterInputStream(new ByteArrayInputStream(invocation.getOutput()))) {
+                getGpxFormat().read(target, gpxContext);
+            }
         }
+
         List<GpxRoute> result = filterValidRoutes(gpxContext.getRoutes());
         if (result != null && result.size() > 0) {
             context.appendRoutes(result);
             log.fine("Successfully converted " + getName() + " to " + BABEL_INTERFACE_FORMAT_NAME);
-        }
+        } else if (!invocation.isTimedOut())
+            executor.setUnreadable(contentKey);
     }
 
     protected List<GpxRoute> modifyBeforeWriting(List<GpxRoute> routes) {
@@ -442,41 +279,21 @@ public abstract class BabelFormat extends BaseNavigationFormat<GpxRoute> {
     }
 
     public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) throws IOException {
-        File sourceFile = null, targetFile = null;
-        try {
-            sourceFile = createTempFile("babel-write-source", "." + BABEL_INTERFACE_FORMAT_NAME, getTemporaryDirectory());
-            GpxRoute write = modifyBeforeWriting(singletonList(route)).get(0);
-            getGpxFormat().write(write, new FileOutputStream(sourceFile), startIndex, endIndex, getBabelCharacteristics());
-            targetFile = createTempFile("babel-write-target", getExtension(), getTemporaryDirectory());
-
-            boolean successful = startBabel(sourceFile, BABEL_INTERFACE_FORMAT_NAME, targetFile, getFormatName(), getGlobalOptions(), getFormatOptions(route), getWriteCommandExecutionTimeOutPreference());
-            if (!successful)
-                throw new IOException("Could not convert " + sourceFile + " to " + targetFile);
+        ByteArrayOutputStream gpx = new ByteArrayOutputStream();
+        GpxRoute write = modifyBeforeWriting(singletonList(route)).get(0);
+        getGpxFormat().write(write, gpx, startIndex, endIndex, getBabelCharacteristics());
 
-            copyAndClose(new FileInputStream(targetFile), target);
-            log.info("Successfully converted " + sourceFile + " to " + targetFile);
-        } finally {
-            delete(sourceFile);
-            delete(targetFile);
-        }
+        byte[] result = convertFromGpx(gpx.toByteArray(), route);
+        copyAndClose(new ByteArrayInputStream(result), target);
+        log.info("Successfully converted " + BABEL_INTERFACE_FORMAT_NAME + " to " + getName());
     }
 
     public void write(List<GpxRoute> routes, OutputStream target) throws IOException {
-        File sourceFile = null, targetFile = null;
-        try {
-            sourceFile = createTempFile("babel-write-all-source", "." + BABEL_INTERFACE_FORMAT_NAME, getTemporaryDirectory());
-            getGpxFormat().write(modifyBeforeWriting(routes), new FileOutputStream(sourceFile));
-            targetFile = createTempFile("babel-write-all-target", getExtension(), getTemporaryDirectory());
-
-            boolean successful = startBabel(sourceFile, BABEL_INTERFACE_FORMAT_NAME, targetFile, getFormatName(), getGlobalOptions(), getFormatOptions(routes.get(0)), getWriteCommandExecutionTimeOutPreference());
-            if (!successful)
-                throw new IOException("Could not convert " + sourceFile + " to " + targetFile);
+        ByteArrayOutputStream gpx = new ByteArrayOutputStream();
+        getGpxFormat().write(modifyBeforeWriting(routes), gpx);
 
-            copyAndClose(new FileInputStream(targetFile), target);
-            log.info("Successfully converted " + sourceFile + " to " + targetFile);
-        } finally {
-            delete(sourceFile);
-            delete(targetFile);
-        }
+        byte[] result = convertFromGpx(gpx.toByteArray(), routes.get(0));
+        copyAndClose(new ByteArrayInputStream(result), target);
+        log.info("Successfully converted " + BABEL_INTERFACE_FORMAT_NAME + " to " + getName());
     }
 }
@@ -85,7 +85,6 @@ import java.util.*;
 
 import static java.lang.Double.MAX_VALUE;
 import static java.lang.Math.*;
-import static java.util.Arrays.asList;
 import static java.util.Arrays.binarySearch;
 import static slash.common.io.Transfer.*;
 import static slash.common.type.CompactCalendar.*;
@@ -160,6 +159,68 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         return positions.remove(index);
     }
 
+    /**
+     * Removes the {@link #getPositions() positions} at the given indices in a single pass
+     * by compacting the remaining positions in place.
+     *
+     * @param indices the indices of the positions to remove in any order, duplicates are ignored
+     * @return the removed positions in increasing order of their former index
+     */
+    public List<P> remove(int[] indices) {
+        List<P> positions = getPositions();
+        BitSet remove = new BitSet(positions.size());
+        for (int index : indices) {
+            if (index < 0 || index >= positions.size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + positions.size());
+            remove.set(index);
+        }
+
+        List<P> removed = new ArrayList<>(remove.cardinality());
+        int first = remove.nextSetBit(0);
+        if (first < 0)
+            return removed;
+
+        int write = first;
+        for (int read = first; read < positions.size(); read++) {
+            P position = positions.get(read);
+            if (remove.get(read))
+                removed.add(position);
+            else
+                positions.set(write++, position);
+        }
+        positions.subList(write, positions.size()).clear();
+        return removed;
+    }
+
+    /**
+     * Inserts the given positions in a single pass so that they end up at the given indices,
+     * which reverts a {@link #remove(int[])}.
+     *
+     * @param indices the distinct and increasing indices the positions have after the insertion
+     * @param positionsToAdd the positions to insert in the order of the indices
+     */
+    public void add(int[] indices, List<P> positionsToAdd) {
+        if (indices.length != positionsToAdd.size())
+            throw new IllegalArgumentException("Got " + indices.length + " indices for " + positionsToAdd.size() + " positions");
+        if (indices.length == 0)
+            return;
+
+        List<P> positions = getPositions();
+        int read = positions.size() - 1;
+        int size = positions.size() + positionsToAdd.size();
+        if (indices[indices.length - 1] >= size)
+            throw new IndexOutOfBoundsException("Index: " + indices[indices.length - 1] + ", Size: " + size);
+        positions.addAll(Collections.<P>nCopies(positionsToAdd.size(), null));
+
+        int next = indices.length - 1;
+        for (int write = size - 1; next >= 0; write--) {
+            if (write == indices[next])
+                positions.set(write, positionsToAdd.get(next--));
+            else
+                positions.set(write, positions.get(read--));
+        }
+    }
+
     /**
      * Removes duplicate adjacent {@link #getPositions() positions} from this route, leaving
      * only distinct neighbours
@@ -496,10 +557,7 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public void sort(Comparator<P> comparator) {
-        List<P> positions = getPositions();
-        P[] sorted = (P[]) positions.toArray(new BaseNavigationPosition[0]);
-        Arrays.sort(sorted, comparator);
-        order(asList(sorted));
+        permute(createSortPermutation(comparator));
     }
 
     public void order(List<P> positions) {
@@ -510,12 +568,7 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public void revert() {
-        List<P> positions = getPositions();
-        List<P> reverted = new ArrayList<>();
-        for (P position : positions) {
-            reverted.add(0, position);
-        }
-        order(reverted);
+        permute(createRevertPermutation());
 
         String routeName = getName();
         if (!routeName.endsWith(REVERSE_ROUTE_NAME_POSTFIX))
@@ -525,6 +578,148 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         setName(routeName);
     }
 
+    /**
+     * Reorders the {@link #getPositions() positions} in a single pass.
+     *
+     * @param permutation the former index of the position for each new index
+     */
+    public void permute(int[] permutation) {
+        List<P> positions = getPositions();
+        if (permutation.length != positions.size())
+            throw new IllegalArgumentException("Permutation length " + permutation.length +
+                    " does not match position count " + positions.size());
+
+        Object[] previous = positions.toArray();
+        for (int i = 0; i < permutation.length; i++) {
+            if (permutation[i] != i)
+                positions.set(i, (P) previous[permutation[i]]);
+        }
+    }
+
+    public static int[] invert(int[] permutation) {
+        int[] result = new int[permutation.length];
+        for (int i = 0; i < permutation.length; i++)
+            result[permutation[i]] = i;
+        return result;
+    }
+
+    private static int[] createIdentity(int count) {
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++)
+            result[i] = i;
+        return result;
+    }
+
+    private static int[] sortedCopy(int[] indices) {
+        int[] result = Arrays.copyOf(indices, indices.length);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static void swap(int[] permutation, int first, int second) {
+        int temp = permutation[first];
+        permutation[first] = permutation[second];
+        permutation[second] = temp;
+    }
+
+    public int[] createSortPermutation(final Comparator<P> comparator) {
+        final List<P> positions = getPositions();
+        Integer[] indices = new Integer[positions.size()];
+        for (int i = 0; i < indices.length; i++)
+            indices[i] = i;
+        Arrays.sort(indices, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                return comparator.compare(positions.get(i1), positions.get(i2));
+            }
+        });
+
+        int[] result = new int[indices.length];
+        for (int i = 0; i < result.length; i++)
+            result[i] = indices[i];
+        return result;
+    }
+
+    public int[] createRevertPermutation() {
+        int count = getPositionCount();
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++)
+            result[i] = count - 1 - i;
+        return result;
+    }
+
+    /**
+     * @param indices the indices of the positions to move to the top in any order
+     * @return a permutation that moves the positions at the given indices to the top
+     * in their order and keeps the order of the other positions
+     */
+    public int[] createTopPermutation(int[] indices) {
+        int count = getPositionCount();
+        int[] sorted = sortedCopy(indices);
+        int[] result = new int[count];
+        BitSet moved = new BitSet(count);
+        int index = 0;
+        for (int i : sorted) {
+            if (!moved.get(i)) {
+                moved.set(i);
+                result[index++] = i;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (!moved.get(i))
+                result[index++] = i;
+        }
+        return result;
+    }
+
+    /**
+     * @param indices the indices of the positions to move to the bottom in any order
+     * @return a permutation that moves the positions at the given indices to the bottom
+     * in their order and keeps the order of the other positions
+     */
+    public int[] createBottomPermutation(int[] indices) {
+        int count = getPositionCount();
+        int[] sorted = sortedCopy(indices);
+        int[] result = new int[count];
+        BitSet moved = new BitSet(count);
+        for (int i : sorted)
+            moved.set(i);
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            if (!moved.get(i))
+                result[index++] = i;
+        }
+        for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1))
+            result[index++] = i;
+        return result;
+    }
+
+    /**
+     * @param indices the indices of the positions to move upwards in any order
+     * @param delta the number of positions to move upwards
+     * @return a permutation that swaps each position at the given indices in increasing
+     * order with the position delta positions before
+     */
+    public int[] createUpPermutation(int[] indices, int delta) {
+        int[] result = createIdentity(getPositionCount());
+        for (int index : sortedCopy(indices))
+            swap(result, index, index - delta);
+        return result;
+    }
+
+    /**
+     * @param indices the indices of the positions to move downwards in any order
+     * @param delta the number of positions to move downwards
+     * @return a permutation that swaps each position at the given indices in decreasing
+     * order with the position delta positions after
+     */
+    public int[] createDownPermutation(int[] indices, int delta) {
+        int[] result = createIdentity(getPositionCount());
+        int[] sorted = sortedCopy(indices);
+        for (int i = sorted.length - 1; i >= 0; i--)
+            swap(result, sorted[i], sorted[i] + delta);
+        return result;
+    }
+
     public abstract P createPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description);
 
     protected abstract BcrRoute asBcrFormat(BcrFormat format);
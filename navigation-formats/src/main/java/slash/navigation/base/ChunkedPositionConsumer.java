@@ -0,0 +1,75 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.navigation.base.PositionStreamingFormat.PositionConsumer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link PositionConsumer} that collects the positions of a route and publishes them
+ * in chunks to the {@link ParserContext} while the route is still being read.
+ *
+ * @author Christian Pesch
+ */
+
+public class ChunkedPositionConsumer<P extends BaseNavigationPosition> implements PositionConsumer<P> {
+    static final int CHUNK_SIZE = 10000;
+
+    private final ParserContext context;
+    private final List<P> positions = new ArrayList<>();
+    private int publishedCount;
+
+    public ChunkedPositionConsumer(ParserContext context) {
+        this.context = context;
+    }
+
+    public void accept(P position) throws IOException {
+        positions.add(position);
+        if (positions.size() - publishedCount >= CHUNK_SIZE)
+            publish();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void publish() throws IOException {
+        if (context.isCancelled())
+            throw new InterruptedIOException("Reading cancelled after " + positions.size() + " positions");
+
+        if (publishedCount < positions.size()) {
+            context.appendPositions(positions.subList(publishedCount, positions.size()));
+            publishedCount = positions.size();
+        }
+    }
+
+    /**
+     * Publishes the remaining positions.
+     *
+     * @return all positions read
+     * @throws IOException if reading has been cancelled
+     */
+    public List<P> finish() throws IOException {
+        publish();
+        return positions;
+    }
+}
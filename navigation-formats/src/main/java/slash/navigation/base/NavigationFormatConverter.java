@@ -23,19 +23,43 @@ import slash.navigation.babel.BabelFormat;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
 import static slash.common.io.Transfer.trim;
 
 /**
  * Converts between different {@link NavigationFormat}.
  *
+ * The as...() conversion method for a pair of source class and target format is
+ * looked up once and cached as a {@link MethodHandle}.
+ *
  * @author Christian Pesch
  */
 
 public class NavigationFormatConverter {
+    private static final ClassValue<String> ROUTE_METHOD_NAMES = new ClassValue<String>() {
+        protected String computeValue(Class<?> formatClass) {
+            return "as" + getFormatName(formatClass);
+        }
+    };
+    private static final ClassValue<String> POSITION_METHOD_NAMES = new ClassValue<String>() {
+        protected String computeValue(Class<?> formatClass) {
+            return "as" + removeDigits(getFormatName(formatClass).replace("Format", "Position"));
+        }
+    };
+    private static final ClassValue<Map<String, MethodHandle>> CONVERTERS = new ClassValue<Map<String, MethodHandle>>() {
+        protected Map<String, MethodHandle> computeValue(Class<?> sourceClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private static String removeDigits(String string) {
         StringBuilder buffer = new StringBuilder(string);
         for (int i = 0; i < buffer.length(); i++) {
@@ -48,51 +72,69 @@ public class NavigationFormatConverter {
         return buffer.toString();
     }
 
-    private static String getFormatName(NavigationFormat format) {
-        Class<? extends NavigationFormat> formatClass = format.getClass();
+    private static String getFormatName(Class<?> formatClass) {
         String formatName = formatClass.getSimpleName();
         if (trim(formatName) == null && formatClass.getSuperclass() != null)
             formatName = formatClass.getSuperclass().getSimpleName();
         // shortcut to prevent lots of as... methods
-        if (format instanceof BabelFormat)
+        if (BabelFormat.class.isAssignableFrom(formatClass))
             formatName = "Gpx10Format";
-        if (format instanceof GarbleNavigationFormat)
+        if (GarbleNavigationFormat.class.isAssignableFrom(formatClass))
             formatName = formatName.substring("Garble".length());
-        formatName = formatName.replaceAll("LittleEndian", "");
+        formatName = formatName.replace("LittleEndian", "");
         return formatName;
     }
 
-    /*package local for tests*/static BaseNavigationPosition asFormat(NavigationPosition position, NavigationFormat format) throws IOException {
-        BaseNavigationPosition result;
-        String formatName = getFormatName(format);
-        formatName = formatName.replace("Format", "Position");
-        formatName = removeDigits(formatName);
+    private static MethodHandle getConverter(Class<?> sourceClass, String methodName) throws IOException {
+        Map<String, MethodHandle> converters = CONVERTERS.get(sourceClass);
+        MethodHandle converter = converters.get(methodName);
+        if (converter == null) {
+            try {
+                converter = lookup().unreflect(sourceClass.getMethod(methodName)).asType(methodType(Object.class, Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IOException("Cannot call " + methodName + "() on " + sourceClass.getName(), e);
+            }
+            converters.put(methodName, converter);
+        }
+        return converter;
+    }
+
+    private static Object convert(MethodHandle converter, Object source, String methodName) throws IOException {
         try {
-            Method method = position.getClass().getMethod("as" + formatName);
-            result = (BaseNavigationPosition) method.invoke(position);
+            return converter.invokeExact(source);
         } catch (Exception e) {
-            throw new IOException("Cannot call as" + formatName + "() on " + position, e);
+            throw new IOException("Cannot call " + methodName + "() on " + source, e);
+        } catch (Throwable t) {
+            // errors like OutOfMemoryError are no conversion failures
+            if (t instanceof Error)
+                throw (Error) t;
+            throw new UndeclaredThrowableException(t);
         }
-        return result;
+    }
+
+    /*package local for tests*/static BaseNavigationPosition asFormat(NavigationPosition position, NavigationFormat format) throws IOException {
+        String methodName = POSITION_METHOD_NAMES.get(format.getClass());
+        return (BaseNavigationPosition) convert(getConverter(position.getClass(), methodName), position, methodName);
     }
 
     @SuppressWarnings("unchecked")
     public static BaseRoute<BaseNavigationPosition, BaseNavigationFormat> asFormat(BaseRoute route, NavigationFormat format) throws IOException {
-        BaseRoute<BaseNavigationPosition, BaseNavigationFormat> result;
-        String formatName = getFormatName(format);
-        try {
-            Method method = route.getClass().getMethod("as" + formatName);
-            result = (BaseRoute<BaseNavigationPosition, BaseNavigationFormat>) method.invoke(route);
-        } catch (Exception e) {
-            throw new IOException("Cannot call as" + formatName + "() on " + route, e);
-        }
-        return result;
+        String methodName = ROUTE_METHOD_NAMES.get(format.getClass());
+        return (BaseRoute<BaseNavigationPosition, BaseNavigationFormat>) convert(getConverter(route.getClass(), methodName), route, methodName);
     }
 
     public static List<BaseNavigationPosition> convertPositions(List<NavigationPosition> positions, NavigationFormat format) throws IOException {
+        String methodName = POSITION_METHOD_NAMES.get(format.getClass());
         List<BaseNavigationPosition> result = new ArrayList<>(positions.size());
+        Class<?> positionClass = null;
+        MethodHandle converter = null;
         for (NavigationPosition position : positions) {
-            result.add(asFormat(position, format));
+            // lists usually consist of positions of a single class
+            if (position.getClass() != positionClass) {
+                positionClass = position.getClass();
+                converter = getConverter(positionClass, methodName);
+            }
+            result.add((BaseNavigationPosition) convert(converter, position, methodName));
         }
         return result;
     }
@@ -20,10 +20,13 @@
 
 package slash.navigation.base;
 
+import slash.common.io.CountingInputStream;
 import slash.common.io.NotClosingUnderlyingInputStream;
+import slash.common.metrics.Timer;
 import slash.common.type.CompactCalendar;
 import slash.navigation.babel.BabelFormat;
 import slash.navigation.bcr.BcrFormat;
+import slash.navigation.common.NavigationPosition;
 import slash.navigation.copilot.CoPilotFormat;
 import slash.navigation.gpx.Gpx11Format;
 import slash.navigation.gpx.GpxFormat;
@@ -36,20 +39,35 @@ import slash.navigation.tcx.TcxFormat;
 import slash.navigation.url.GoogleMapsUrlFormat;
 import slash.navigation.url.KurvigerUrlFormat;
 import slash.navigation.url.MotoPlanerUrlFormat;
+import slash.navigation.zip.ZipFormat;
 
 import java.io.*;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static java.io.File.separatorChar;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static slash.common.helpers.ThreadHelper.createFixedThreadPool;
+import static slash.common.io.Files.getExtension;
 import static slash.common.io.Transfer.ceiling;
+import static slash.common.metrics.Metrics.counter;
+import static slash.common.metrics.Metrics.timer;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromCalendar;
 import static slash.navigation.base.NavigationFormatConverter.asFormat;
@@ -71,6 +89,7 @@ public class NavigationFormatParser {
     private static final int READ_BUFFER_SIZE = 1024 * 1024;
     private final NavigationFormatRegistry navigationFormatRegistry;
     private final List<NavigationFormatParserListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
 
     public NavigationFormatParser(NavigationFormatRegistry navigationFormatRegistry) {
         this.navigationFormatRegistry = navigationFormatRegistry;
@@ -94,6 +113,30 @@ public class NavigationFormatParser {
         }
     }
 
+    private void notifyPositionsRead(List<BaseNavigationPosition> positions) {
+        for (NavigationFormatParserListener listener : listeners) {
+            listener.positionsRead(positions);
+        }
+    }
+
+    private void notifyProgress(long bytesRead, long totalBytes) {
+        for (NavigationFormatParserListener listener : listeners) {
+            listener.progress(bytesRead, totalBytes);
+        }
+    }
+
+    /**
+     * Cancels reading as soon as the current format checks for cancellation. Formats which publish
+     * their positions in chunks check before each chunk, all others are not tried anymore.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
     private List<Integer> getPositionCounts(List<BaseRoute> routes) {
         List<Integer> positionCounts = new ArrayList<>();
         for (BaseRoute route : routes)
@@ -110,9 +153,15 @@ public class NavigationFormatParser {
 
         try {
             for (NavigationFormat<BaseRoute> format : formats) {
+                if (isCancelled()) {
+                    log.info("Cancelled reading before trying " + format);
+                    break;
+                }
                 notifyReading(format);
 
                 log.fine(format("Trying to read with %s", format));
+                counter("format.detect.attempts").increment();
+                long start = nanoTime();
                 try {
                     format.read(buffer, context);
 
@@ -120,14 +169,22 @@ public class NavigationFormatParser {
                     if (firstSuccessfulFormat == null)
                         firstSuccessfulFormat = format;
                 } catch (Exception e) {
+                    if (isCancelled()) {
+                        log.info(format("Cancelled reading with %s", format));
+                        break;
+                    }
+                    counter("format.detect.errors").increment();
                     log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e));
                     // e.printStackTrace();
                 }
 
+                long elapsed = nanoTime() - start;
                 if (context.getRoutes().size() > routeCountBefore) {
+                    timer("format.read." + format.getName()).update(elapsed, NANOSECONDS);
                     context.addFormat(format);
                     break;
                 }
+                timer("format.detect.misses").update(elapsed, NANOSECONDS);
 
                 try {
                     buffer.reset();
@@ -140,11 +197,14 @@ public class NavigationFormatParser {
             buffer.close();
         }
 
-        if (context.getRoutes().size() == 0 && context.getFormats().size() == 0 && firstSuccessfulFormat != null)
+        if (context.getRoutes().size() == 0 && context.getFormats().size() == 0 && firstSuccessfulFormat != null && !isCancelled())
             context.addFormat(firstSuccessfulFormat);
     }
 
     public ParserResult read(File source, List<NavigationFormat> formats) throws IOException {
+        if (isZipArchive(source))
+            return read(singletonList(source), formats);
+
         log.info("Reading '" + source.getAbsolutePath() + "' by " + formats.size() + " formats");
         try (InputStream inputStream = new FileInputStream(source)) {
             return read(inputStream, (int) source.length(), extractStartDate(source), source, formats);
@@ -155,6 +215,148 @@ public class NavigationFormatParser {
         return read(source, getNavigationFormatRegistry().getReadFormats());
     }
 
+    /**
+     * Reads the source and publishes the positions to the {@link NavigationFormatParserListener}s
+     * in chunks while reading continues. Large sources in a format that is capable of streaming
+     * positions are detected from their first lines and read without buffering the whole source.
+     *
+     * @param source the file to read
+     * @param formats the formats to try
+     * @return the result which is unsuccessful if reading has been {@link #cancel() cancelled}
+     * @throws IOException if the source cannot be read
+     */
+    public ParserResult readProgressively(File source, List<NavigationFormat> formats) throws IOException {
+        if (isZipArchive(source))
+            return read(singletonList(source), formats);
+
+        // a separate parser since the listeners are not interested in the detection
+        PositionStreamingFormat streamingFormat = new StreamingConverter(new NavigationFormatParser(getNavigationFormatRegistry())).detectStreamingFormat(source);
+        List<NavigationFormat> readFormats = streamingFormat != null ? singletonList((NavigationFormat) streamingFormat) : formats;
+        int readBufferSize = streamingFormat != null ? READ_BUFFER_SIZE : (int) source.length();
+        log.info("Reading '" + source.getAbsolutePath() + "' progressively by " + readFormats.size() + " formats");
+
+        long totalBytes = source.length();
+        try (CountingInputStream inputStream = new CountingInputStream(new FileInputStream(source))) {
+            ParserResult result = read(inputStream, readBufferSize, extractStartDate(source), source, readFormats, inputStream, totalBytes);
+            notifyProgress(inputStream.getCount(), totalBytes);
+            return result;
+        }
+    }
+
+    private static boolean isZipArchive(File file) {
+        return ".zip".equalsIgnoreCase(getExtension(file));
+    }
+
+    /**
+     * Reads the sources and the entries of ZIP archives among them concurrently and
+     * merges the routes in the order of the sources and the entries.
+     *
+     * @param sources the files to read
+     * @param formats the formats to try for the files, the entries of ZIP archives are tried
+     *                with the formats preferred by their extension
+     * @return the merged result which is unsuccessful if no source could be read
+     * @throws IOException if a source cannot be read
+     */
+    public ParserResult read(List<File> sources, List<NavigationFormat> formats) throws IOException {
+        List<List<Callable<ParserContext<BaseRoute>>>> readersPerSource = new ArrayList<>();
+        List<ZipFile> zipFiles = new ArrayList<>();
+        try {
+            int readerCount = 0;
+            for (File source : sources) {
+                List<Callable<ParserContext<BaseRoute>>> readers = new ArrayList<>();
+                if (isZipArchive(source)) {
+                    ZipFile zipFile = new ZipFile(source);
+                    zipFiles.add(zipFile);
+                    addEntryReaders(zipFile, extractStartDate(source), readers);
+                } else
+                    readers.add(createFileReader(source, formats));
+                readersPerSource.add(readers);
+                readerCount += readers.size();
+            }
+
+            int threadCount = min(Runtime.getRuntime().availableProcessors(), readerCount);
+            log.info("Reading " + sources.size() + " sources with " + readerCount + " readers by " + threadCount + " threads");
+            ParserContext<BaseRoute> merged = new InternalParserContext<>(null, null);
+            if (threadCount > 0) {
+                ExecutorService executor = createFixedThreadPool("NavigationFormatParser", threadCount);
+                try {
+                    List<List<Future<ParserContext<BaseRoute>>>> futuresPerSource = new ArrayList<>();
+                    for (List<Callable<ParserContext<BaseRoute>>> readers : readersPerSource) {
+                        List<Future<ParserContext<BaseRoute>>> futures = new ArrayList<>();
+                        for (Callable<ParserContext<BaseRoute>> reader : readers)
+                            futures.add(executor.submit(reader));
+                        futuresPerSource.add(futures);
+                    }
+
+                    // merge in the order of the sources and entries regardless of the order of completion
+                    for (int i = 0; i < sources.size(); i++) {
+                        int routeCountBefore = merged.getRoutes().size();
+                        for (Future<ParserContext<BaseRoute>> future : futuresPerSource.get(i))
+                            merge(future.get(), merged);
+                        // like reading the archive with the ZipFormat
+                        if (isZipArchive(sources.get(i)) && merged.getRoutes().size() > routeCountBefore)
+                            merged.addFormat(new ZipFormat());
+                    }
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Interrupted while reading " + sources);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    throw new IOException("Cannot read " + sources + ": " + cause, cause);
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+            return createResult(merged);
+        } finally {
+            for (ZipFile zipFile : zipFiles)
+                zipFile.close();
+        }
+    }
+
+    private void addEntryReaders(final ZipFile zipFile, final CompactCalendar startDate,
+                                 List<Callable<ParserContext<BaseRoute>>> readers) {
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory())
+                continue;
+
+            readers.add(() -> {
+                ParserContext<BaseRoute> context = new InternalParserContext<>(null, startDate);
+                if (isCancelled())
+                    return context;
+
+                int readBufferSize = entry.getSize() >= 0 ? (int) entry.getSize() : READ_BUFFER_SIZE;
+                List<NavigationFormat> formats = getNavigationFormatRegistry().getReadFormatsPreferredByExtension(getExtension(entry.getName()));
+                try {
+                    readContext(zipFile.getInputStream(entry), readBufferSize, formats, context);
+                } catch (IOException e) {
+                    log.fine("Error reading invalid zip entry " + entry.getName() + " from " + zipFile.getName() + ": " + e);
+                }
+                return context;
+            });
+        }
+    }
+
+    private Callable<ParserContext<BaseRoute>> createFileReader(final File source, final List<NavigationFormat> formats) {
+        return () -> {
+            ParserContext<BaseRoute> context = new InternalParserContext<>(source, extractStartDate(source));
+            if (!isCancelled())
+                readContext(new FileInputStream(source), (int) source.length(), formats, context);
+            return context;
+        };
+    }
+
+    private void merge(ParserContext<BaseRoute> source, ParserContext<BaseRoute> target) {
+        target.appendRoutes(source.getRoutes());
+        List<NavigationFormat<BaseRoute>> formats = source.getFormats();
+        // formats are prepended, thus the format of the last source is preferred like when reading sequentially
+        for (int i = formats.size() - 1; i >= 0; i--)
+            target.addFormat(formats.get(i));
+    }
+
     private NavigationFormat determineFormat(List<BaseRoute> routes, NavigationFormat preferredFormat) {
         NavigationFormat result = preferredFormat;
         for (BaseRoute route : routes) {
@@ -192,6 +394,9 @@ public class NavigationFormatParser {
 
     @SuppressWarnings("unchecked")
     private ParserResult createResult(ParserContext<BaseRoute> context) throws IOException {
+        if (isCancelled())
+            return new ParserResult(null);
+
         List<BaseRoute> source = context.getRoutes();
         // if (source != null && source.size() > 0) {
         if (source != null && context.getFormats().size() > 0) {
@@ -208,8 +413,31 @@ public class NavigationFormatParser {
     }
 
     private class InternalParserContext<R extends BaseRoute> extends ParserContextImpl<R> {
-        InternalParserContext(File file, CompactCalendar startDate) {
+        private final CountingInputStream counter;
+        private final long totalBytes;
+        private NetworkLinkResolver networkLinkResolver;
+
+        InternalParserContext(File file, CompactCalendar startDate, CountingInputStream counter, long totalBytes) {
             super(file, startDate);
+            this.counter = counter;
+            this.totalBytes = totalBytes;
+        }
+
+        InternalParserContext(File file, CompactCalendar startDate) {
+            this(file, startDate, null, -1);
+        }
+
+        public void appendPositions(List<? extends BaseNavigationPosition> positions) {
+            if (listeners.isEmpty())
+                return;
+
+            notifyPositionsRead(new ArrayList<BaseNavigationPosition>(positions));
+            if (counter != null)
+                notifyProgress(counter.getCount(), totalBytes);
+        }
+
+        public boolean isCancelled() {
+            return NavigationFormatParser.this.isCancelled();
         }
 
         public void parse(InputStream inputStream, CompactCalendar startDate, String preferredExtension) throws IOException {
@@ -218,30 +446,44 @@ public class NavigationFormatParser {
         }
 
         public void parse(String urlString) throws IOException {
+            parse(singletonList(urlString));
+        }
+
+        public void parse(List<String> urlStrings) throws IOException {
+            List<String> urls = new ArrayList<>(urlStrings.size());
             // replace CWD with current working directory for easier testing
-            urlString = urlString.replace("CWD", new File(".").getCanonicalPath()).replace(separatorChar, '/');
-            URL url = new URL(urlString);
-            int readBufferSize = getSize(url);
-            log.info("Reading '" + url + "' with a buffer of " + readBufferSize + " bytes");
-            NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(openStream(url)));
-            buffer.mark(readBufferSize + 1);
-            try {
-                CompactCalendar startDate = extractStartDate(url);
-                internalSetStartDate(startDate);
+            String currentWorkingDirectory = new File(".").getCanonicalPath();
+            for (String urlString : urlStrings)
+                urls.add(urlString.replace("CWD", currentWorkingDirectory).replace(separatorChar, '/'));
+
+            if (networkLinkResolver == null)
+                networkLinkResolver = new NetworkLinkResolver();
+            networkLinkResolver.resolve(urls, document -> {
+                if (isCancelled())
+                    return;
+
+                URL url = new URL(document.getUrl());
+                log.info("Reading '" + url + "' with " + document.getBytes().length + " bytes");
+                internalSetStartDate(extractStartDate(url));
+                NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(new ByteArrayInputStream(document.getBytes())));
+                buffer.mark(document.getBytes().length + 1);
                 internalRead(buffer, getNavigationFormatRegistry().getReadFormats(), this);
-            } finally {
-                buffer.closeUnderlyingInputStream();
-            }
+            });
         }
     }
 
     private ParserResult read(InputStream source, int readBufferSize, CompactCalendar startDate, File file,
                               List<NavigationFormat> formats) throws IOException {
+        return read(source, readBufferSize, startDate, file, formats, null, -1);
+    }
+
+    private ParserResult read(InputStream source, int readBufferSize, CompactCalendar startDate, File file,
+                              List<NavigationFormat> formats, CountingInputStream counter, long totalBytes) throws IOException {
         log.fine("Reading '" + source + "' with a buffer of " + readBufferSize + " bytes by " + formats.size() + " formats");
         NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(source));
         buffer.mark(readBufferSize + 1);
         try {
-            ParserContext<BaseRoute> context = new InternalParserContext<>(file, startDate);
+            ParserContext<BaseRoute> context = new InternalParserContext<>(file, startDate, counter, totalBytes);
             internalRead(buffer, formats, context);
             return createResult(context);
         } finally {
@@ -249,6 +491,17 @@ public class NavigationFormatParser {
         }
     }
 
+    private void readContext(InputStream source, int readBufferSize, List<NavigationFormat> formats,
+                             ParserContext<BaseRoute> context) throws IOException {
+        NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(source));
+        buffer.mark(readBufferSize + 1);
+        try {
+            internalRead(buffer, formats, context);
+        } finally {
+            buffer.closeUnderlyingInputStream();
+        }
+    }
+
     public ParserResult read(String source) throws IOException {
         return read(new ByteArrayInputStream(source.getBytes()));
     }
@@ -272,7 +525,7 @@ public class NavigationFormatParser {
         }
     }
 
-    private CompactCalendar extractStartDate(File file) {
+    static CompactCalendar extractStartDate(File file) {
         Calendar startDate = Calendar.getInstance(UTC);
         startDate.setTimeInMillis(file.lastModified());
         return fromCalendar(startDate);
@@ -375,7 +628,9 @@ public class NavigationFormatParser {
             OutputStream target = targets[i];
             int endIndex = min(startIndex + writeInOneChunk, positionsToWrite);
             renameRoute(route, routeToWrite, startIndex, endIndex, i, targets);
-            format.write(routeToWrite, target, startIndex, endIndex);
+            try (Timer.Context ignored = timer("format.write." + format.getName()).time()) {
+                format.write(routeToWrite, target, startIndex, endIndex);
+            }
             log.info("Wrote position list from " + startIndex + " to " + endIndex);
             startIndex += writeInOneChunk;
         }
@@ -427,16 +682,23 @@ public class NavigationFormatParser {
             parserCallback.process(routeToWrite, format);
     }
 
+    static boolean isRenamingFragments(NavigationFormat sourceFormat, NavigationFormat targetFormat) {
+        return sourceFormat instanceof TomTomRouteFormat || sourceFormat instanceof SimpleFormat ||
+                sourceFormat instanceof GpxFormat && targetFormat instanceof BcrFormat;
+    }
+
+    static String createFragmentName(List<? extends NavigationPosition> positions, int trackIndex, int trackCount) {
+        String name = createRouteName(positions);
+        if (trackCount > 1)
+            name = "Track" + (trackIndex + 1) + ": " + name;
+        return name;
+    }
+
     @SuppressWarnings("unchecked")
     private void renameRoute(BaseRoute route, BaseRoute routeToWrite, int startIndex, int endIndex, int trackIndex, OutputStream... targets) {
         // gives splitted TomTomRoute and SimpleRoute routes a more useful name for the fragment
-        if (route.getFormat() instanceof TomTomRouteFormat || route.getFormat() instanceof SimpleFormat ||
-                route.getFormat() instanceof GpxFormat && routeToWrite.getFormat() instanceof BcrFormat) {
-            String name = createRouteName(routeToWrite.getPositions().subList(startIndex, endIndex));
-            if (targets.length > 1)
-                name = "Track" + (trackIndex + 1) + ": " + name;
-            routeToWrite.setName(name);
-        }
+        if (isRenamingFragments(route.getFormat(), routeToWrite.getFormat()))
+            routeToWrite.setName(createFragmentName(routeToWrite.getPositions().subList(startIndex, endIndex), trackIndex, targets.length));
     }
 
     private void postProcessRoute(BaseRoute routeToWrite, NavigationFormat format, boolean duplicateFirstPosition) {
@@ -459,7 +721,8 @@ public class NavigationFormatParser {
             postProcessRoute(routeToWrite, format, false);
         }
 
-        try (OutputStream outputStream = new FileOutputStream(target)) {
+        try (OutputStream outputStream = new FileOutputStream(target);
+             Timer.Context ignored = timer("format.write." + format.getName()).time()) {
             format.write(routesToWrite, outputStream);
             log.info("Wrote '" + target.getAbsolutePath() + "'");
         }
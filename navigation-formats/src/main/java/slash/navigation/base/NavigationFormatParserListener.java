@@ -20,6 +20,8 @@
 
 package slash.navigation.base;
 
+import java.util.List;
+
 /**
  * Interface for events from a {@link NavigationFormatParser}
  *
@@ -27,5 +29,21 @@ package slash.navigation.base;
  */
 
 public interface NavigationFormatParserListener {
+    /**
+     * Called before the parser tries to read with the given format. Positions announced
+     * by {@link #positionsRead(List)} for a previous format are to be discarded.
+     */
     void reading(NavigationFormat<BaseRoute> format);
+
+    /**
+     * Called with the next chunk of positions read by the current format while parsing continues.
+     */
+    default void positionsRead(List<BaseNavigationPosition> positions) {
+    }
+
+    /**
+     * Called with the number of bytes read so far and the size of the source or -1 if it is unknown.
+     */
+    default void progress(long bytesRead, long totalBytes) {
+    }
 }
@@ -0,0 +1,321 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.navigation.rest.Get;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static slash.common.helpers.ThreadHelper.createFixedThreadPool;
+import static slash.common.io.Directories.getTemporaryDirectory;
+import static slash.common.io.InputOutput.copyAndClose;
+import static slash.common.io.InputOutput.readBytes;
+import static slash.common.io.InputOutput.readFileToString;
+import static slash.common.type.HexadecimalNumber.encodeBytes;
+
+/**
+ * Resolves the documents referenced by network links: fetches them concurrently with a
+ * bounded pool, caches them in memory and on disk keyed by URL and ETag, skips links
+ * that point back to a document that is being resolved and hands the documents to the
+ * parser in the order of the links.
+ *
+ * @author Christian Pesch
+ */
+
+public class NetworkLinkResolver {
+    private static final Logger log = Logger.getLogger(NetworkLinkResolver.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(NetworkLinkResolver.class);
+    private static final String THREAD_COUNT_PREFERENCE = "networkLinkThreadCount";
+    private static final String MEMORY_CACHE_SIZE_PREFERENCE = "networkLinkMemoryCacheSize";
+    private static final String ETAG_EXTENSION = ".etag";
+
+    private static final Map<String, Document> memoryCache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long memoryCacheSize;
+
+    private final File cacheDirectory;
+    private final Deque<String> resolving = new ArrayDeque<>();
+
+    public NetworkLinkResolver(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public NetworkLinkResolver() {
+        this(new File(getTemporaryDirectory(), "networklinks"));
+    }
+
+    private static int getThreadCount() {
+        return preferences.getInt(THREAD_COUNT_PREFERENCE, 8);
+    }
+
+    private static long getMemoryCacheSize() {
+        return preferences.getLong(MEMORY_CACHE_SIZE_PREFERENCE, 16 * 1024 * 1024);
+    }
+
+    /**
+     * Receives the documents of the network links in the order of the links.
+     */
+    public interface DocumentParser {
+        void parse(Document document) throws IOException;
+    }
+
+    public static class Document {
+        private final String url;
+        private final String tag;
+        private final byte[] bytes;
+
+        Document(String url, String tag, byte[] bytes) {
+            this.url = url;
+            this.tag = tag;
+            this.bytes = bytes;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+
+    public void resolve(String url, DocumentParser parser) throws IOException {
+        enter(url);
+        try {
+            parser.parse(fetch(url));
+        } finally {
+            leave();
+        }
+    }
+
+    public void resolve(List<String> urls, DocumentParser parser) throws IOException {
+        List<String> links = new ArrayList<>();
+        for (String url : urls) {
+            if (resolving.contains(url))
+                log.warning(format("Skipping network link to %s since it forms a cycle", url));
+            else
+                links.add(url);
+        }
+        if (links.size() == 0)
+            return;
+        if (links.size() == 1) {
+            resolve(links.get(0), parser);
+            return;
+        }
+
+        int threadCount = min(getThreadCount(), links.size());
+        log.info(format("Fetching %d network links with %d threads", links.size(), threadCount));
+        ExecutorService executor = createFixedThreadPool("NetworkLinkResolver", threadCount);
+        try {
+            List<Future<Document>> futures = new ArrayList<>(links.size());
+            for (final String url : links)
+                futures.add(executor.submit(() -> fetch(url)));
+
+            for (int i = 0; i < links.size(); i++) {
+                enter(links.get(i));
+                try {
+                    parser.parse(get(futures.get(i)));
+                } finally {
+                    leave();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void enter(String url) {
+        resolving.push(url);
+    }
+
+    private void leave() {
+        resolving.pop();
+    }
+
+    private Document get(Future<Document> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while fetching network link");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException("Cannot fetch network link: " + cause, cause);
+        }
+    }
+
+    Document fetch(String urlString) throws IOException {
+        URL url = new URL(urlString);
+        String protocol = url.getProtocol();
+        if (protocol.equals("http") || protocol.equals("https"))
+            return fetchHttp(urlString);
+        if (protocol.equals("file"))
+            return fetchFile(url);
+
+        try (InputStream inputStream = url.openStream()) {
+            return new Document(urlString, null, readBytes(inputStream));
+        }
+    }
+
+    private Document fetchFile(URL url) throws IOException {
+        File file;
+        try {
+            file = new File(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot determine file from URL: " + e);
+        }
+        String tag = file.lastModified() + "-" + file.length();
+        Document cached = getFromMemory(url.toExternalForm());
+        if (cached != null && tag.equals(cached.getTag()))
+            return cached;
+
+        Document document = new Document(url.toExternalForm(), tag, readBytes(new FileInputStream(file)));
+        putIntoMemory(document);
+        return document;
+    }
+
+    private Document fetchHttp(String url) throws IOException {
+        Document cached = getFromMemory(url);
+        if (cached == null)
+            cached = getFromDisk(url);
+
+        Get get = new Get(url);
+        if (cached != null && cached.getTag() != null)
+            get.setIfNoneMatch(cached.getTag());
+        try {
+            InputStream body = get.executeAsStream();
+            if (cached != null && get.isNotModified()) {
+                log.fine(format("Network link %s is not modified since ETag %s", url, cached.getTag()));
+                putIntoMemory(cached);
+                return cached;
+            }
+            if (!get.isSuccessful() || body == null)
+                throw new IOException(format("Cannot fetch network link %s: status code %d", url, get.getStatusCode()));
+
+            Document document = new Document(url, get.getETag(), readBytes(body));
+            putIntoMemory(document);
+            putOntoDisk(document);
+            return document;
+        } finally {
+            get.release();
+        }
+    }
+
+    private static Document getFromMemory(String url) {
+        synchronized (memoryCache) {
+            return memoryCache.get(url);
+        }
+    }
+
+    private static void putIntoMemory(Document document) {
+        long limit = getMemoryCacheSize();
+        synchronized (memoryCache) {
+            Document previous = memoryCache.put(document.getUrl(), document);
+            if (previous != null)
+                memoryCacheSize -= previous.getBytes().length;
+            memoryCacheSize += document.getBytes().length;
+
+            Iterator<Document> iterator = memoryCache.values().iterator();
+            while (memoryCacheSize > limit && iterator.hasNext()) {
+                Document eldest = iterator.next();
+                if (eldest == document)
+                    break;
+                memoryCacheSize -= eldest.getBytes().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    static void clearMemoryCache() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+            memoryCacheSize = 0;
+        }
+    }
+
+    private File getCacheFile(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return new File(cacheDirectory, encodeBytes(digest.digest(url.getBytes(StandardCharsets.UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-1 available", e);
+        }
+    }
+
+    private Document getFromDisk(String url) {
+        File file = getCacheFile(url);
+        File tagFile = new File(file.getPath() + ETAG_EXTENSION);
+        if (!file.exists() || !tagFile.exists())
+            return null;
+
+        try {
+            return new Document(url, readFileToString(tagFile), readBytes(new FileInputStream(file)));
+        } catch (IOException e) {
+            log.warning(format("Cannot read cached network link %s from %s: %s", url, file, e));
+            return null;
+        }
+    }
+
+    private void putOntoDisk(Document document) {
+        if (document.getTag() == null)
+            return;
+
+        File file = getCacheFile(document.getUrl());
+        File tagFile = new File(file.getPath() + ETAG_EXTENSION);
+        try {
+            if (!cacheDirectory.exists() && !cacheDirectory.mkdirs())
+                throw new IOException("Cannot create directory " + cacheDirectory);
+            copyAndClose(new ByteArrayInputStream(document.getBytes()), new FileOutputStream(file));
+            copyAndClose(new ByteArrayInputStream(document.getTag().getBytes(StandardCharsets.UTF_8)), new FileOutputStream(tagFile));
+        } catch (IOException e) {
+            log.warning(format("Cannot cache network link %s in %s: %s", document.getUrl(), file, e));
+        }
+    }
+}
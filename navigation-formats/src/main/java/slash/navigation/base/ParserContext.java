@@ -41,6 +41,12 @@ public interface ParserContext<R extends BaseRoute> {
 
     List<R> getRoutes();
 
+    /**
+     * Publishes the next chunk of positions of a route that is still being read.
+     */
+    void appendPositions(List<? extends BaseNavigationPosition> positions);
+    boolean isCancelled();
+
     void addFormat(NavigationFormat<R> format);
     List<NavigationFormat<R>> getFormats();
 
@@ -49,4 +55,9 @@ public interface ParserContext<R extends BaseRoute> {
 
     void parse(InputStream inputStream, CompactCalendar startDate, String preferredExtension) throws IOException;
     void parse(String url) throws IOException;
+
+    /**
+     * Parses the documents referenced by the URLs and appends their routes in the order of the URLs.
+     */
+    void parse(List<String> urls) throws IOException;
 }
\ No newline at end of file
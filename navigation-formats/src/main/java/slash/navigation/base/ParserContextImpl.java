@@ -65,6 +65,13 @@ public class ParserContextImpl<R extends BaseRoute> implements ParserContext<R>
         this.routes.clear();
     }
 
+    public void appendPositions(List<? extends BaseNavigationPosition> positions) {
+    }
+
+    public boolean isCancelled() {
+        return false;
+    }
+
     public void addFormat(NavigationFormat<R> format) {
         this.formats.add(0, format);
     }
@@ -97,4 +104,9 @@ public class ParserContextImpl<R extends BaseRoute> implements ParserContext<R>
     public void parse(String url) throws IOException {
         throw new UnsupportedOperationException();
     }
+
+    public void parse(List<String> urls) throws IOException {
+        for (String url : urls)
+            parse(url);
+    }
 }
@@ -0,0 +1,45 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Is implemented by {@link NavigationFormat}s that can read and write their positions
+ * one after another without holding the complete route in memory.
+ *
+ * @author Christian Pesch
+ */
+
+public interface PositionStreamingFormat<P extends BaseNavigationPosition> {
+    boolean isStreamingPositions();
+
+    void readPositions(BufferedReader reader, ParserContext context, PositionConsumer<P> consumer) throws IOException;
+
+    void beginPositions(PrintWriter writer, String name);
+    void appendPosition(P position, PrintWriter writer, int index);
+    void endPositions(PrintWriter writer, int positionCount);
+
+    interface PositionConsumer<P> {
+        void accept(P position) throws IOException;
+    }
+}
@@ -111,14 +111,17 @@ public abstract class RouteComments {
 
     public static void commentPositions(List<? extends NavigationPosition> positions) {
         for (int i = 0; i < positions.size(); i++) {
-            NavigationPosition position = positions.get(i);
-            String original = position.getDescription();
-            String modified = getPositionDescription(position, i);
-            if (original == null || !original.equals(modified))
-                position.setDescription(modified);
+            commentPosition(positions.get(i), i);
         }
     }
 
+    public static void commentPosition(NavigationPosition position, int index) {
+        String original = position.getDescription();
+        String modified = getPositionDescription(position, index);
+        if (original == null || !original.equals(modified))
+            position.setDescription(modified);
+    }
+
     private static String getPositionDescription(NavigationPosition position, int index) {
         if (position.getDescription() == null || "(null)".equals(position.getDescription())) {
             return getPositionDescription(index);
@@ -0,0 +1,513 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.common.type.CompactCalendar;
+import slash.navigation.common.DistanceAndTime;
+import slash.navigation.common.NavigationPosition;
+
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Arrays.copyOf;
+import static slash.common.io.Transfer.isEmpty;
+
+/**
+ * Maintains distance, time, elevation ascend and descend and the minimum and maximum
+ * time of a list of positions incrementally as positions are inserted, updated and
+ * deleted. The segments between subsequent positions are kept in an implicit treap
+ * that answers total and range statistics in O(log n).
+ *
+ * @author Christian Pesch
+ */
+
+public class RouteStatistics {
+    private static final int NONE = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final List<? extends NavigationPosition> positions;
+
+    // tree structure
+    private int[] left = new int[0], right = new int[0], count = new int[0], priority = new int[0];
+    // values of the segment from the previous position to the position of a node
+    private double[] distance = new double[0], elevation = new double[0];
+    private long[] time = new long[0], positionTime = new long[0];
+    // aggregates of the subtree of a node
+    private double[] sumDistance = new double[0], sumAscend = new double[0], sumDescend = new double[0];
+    private long[] sumTime = new long[0], minimumTime = new long[0], maximumTime = new long[0];
+
+    private int root = NONE, free = NONE, capacity = 0, used = 0;
+    private int splitLeft, splitRight;
+    private int seed = 0x2545F491;
+
+    public RouteStatistics(List<? extends NavigationPosition> positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Summarizes the statistics of a range of positions.
+     */
+    public static class Summary {
+        public static final Summary EMPTY = new Summary(0.0, 0L, 0.0, 0.0, null, null);
+
+        private final double distance;
+        private final long time;
+        private final double elevationAscend, elevationDescend;
+        private final Long minimumTime, maximumTime;
+
+        Summary(double distance, long time, double elevationAscend, double elevationDescend,
+                Long minimumTime, Long maximumTime) {
+            this.distance = distance;
+            this.time = time;
+            this.elevationAscend = elevationAscend;
+            this.elevationDescend = elevationDescend;
+            this.minimumTime = minimumTime;
+            this.maximumTime = maximumTime;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+
+        /**
+         * @return the sum of the positive times between subsequent positions in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public double getElevationAscend() {
+            return elevationAscend;
+        }
+
+        public double getElevationDescend() {
+            return elevationDescend;
+        }
+
+        public Long getMinimumTime() {
+            return minimumTime;
+        }
+
+        public Long getMaximumTime() {
+            return maximumTime;
+        }
+
+        /**
+         * @return the larger of the summed up time and the time between the first and the last timestamp
+         */
+        public long getDuration() {
+            long maxMinusMin = minimumTime != null ? maximumTime - minimumTime : 0;
+            return max(maxMinusMin, time);
+        }
+
+        public DistanceAndTime toDistanceAndTime() {
+            return new DistanceAndTime(distance, getDuration());
+        }
+
+        public String toString() {
+            return getClass().getSimpleName() + "[distance=" + distance + ", time=" + time +
+                    ", elevationAscend=" + elevationAscend + ", elevationDescend=" + elevationDescend +
+                    ", minimumTime=" + minimumTime + ", maximumTime=" + maximumTime + "]";
+        }
+    }
+
+    public synchronized int size() {
+        return count(root);
+    }
+
+    /**
+     * Recalculates all segments from the positions.
+     */
+    public synchronized void rebuild() {
+        root = NONE;
+        free = NONE;
+        used = 0;
+        int size = positions.size();
+        ensureCapacity(size);
+
+        // build a cartesian tree of the nodes in list order with a stack
+        int[] stack = new int[64];
+        int top = 0;
+        for (int i = 0; i < size; i++) {
+            int node = allocate();
+            setValues(node, i);
+            int last = NONE;
+            while (top > 0 && priority[stack[top - 1]] < priority[node]) {
+                last = stack[--top];
+                pull(last);
+            }
+            left[node] = last;
+            if (top > 0)
+                right[stack[top - 1]] = node;
+            if (top == stack.length)
+                stack = copyOf(stack, stack.length * 2);
+            stack[top++] = node;
+        }
+        while (top > 0)
+            pull(stack[--top]);
+        root = size > 0 ? stack[0] : NONE;
+    }
+
+    /**
+     * Adds the segments for the positions that have been inserted from firstIndex to lastIndex.
+     */
+    public synchronized void insert(int firstIndex, int lastIndex) {
+        int insertCount = lastIndex - firstIndex + 1;
+        if (insertCount <= 0)
+            return;
+        if (insertCount > count(root) / 4) {
+            rebuild();
+            return;
+        }
+
+        split(root, firstIndex);
+        int before = splitLeft, after = splitRight;
+        int inserted = NONE;
+        for (int i = 0; i < insertCount; i++)
+            inserted = merge(inserted, allocate());
+        root = merge(merge(before, inserted), after);
+        // the segment of the position following the inserted ones changes, too
+        refreshRange(firstIndex, lastIndex + 1);
+    }
+
+    /**
+     * Removes the segments for the positions that have been deleted from firstIndex to lastIndex.
+     */
+    public synchronized void delete(int firstIndex, int lastIndex) {
+        int deleteCount = min(lastIndex, count(root) - 1) - firstIndex + 1;
+        if (deleteCount <= 0)
+            return;
+
+        split(root, firstIndex);
+        int before = splitLeft;
+        split(splitRight, deleteCount);
+        release(splitLeft);
+        root = merge(before, splitRight);
+        // the position following the deleted ones gets a new predecessor
+        refreshRange(firstIndex, firstIndex);
+    }
+
+    /**
+     * Recalculates the segments for the positions that have been updated from firstIndex to lastIndex.
+     */
+    public synchronized void update(int firstIndex, int lastIndex) {
+        if (lastIndex - firstIndex + 1 > count(root) / 2) {
+            rebuild();
+            return;
+        }
+        // the segment of the position following the updated ones changes, too
+        refreshRange(firstIndex, lastIndex + 1);
+    }
+
+    public synchronized Summary getTotal() {
+        return getRange(0, count(root) - 1);
+    }
+
+    /**
+     * @return the statistics of the positions from firstIndex to lastIndex inclusive
+     */
+    public synchronized Summary getRange(int firstIndex, int lastIndex) {
+        firstIndex = max(firstIndex, 0);
+        lastIndex = min(lastIndex, count(root) - 1);
+        if (firstIndex > lastIndex)
+            return Summary.EMPTY;
+
+        Accumulator accumulator = new Accumulator();
+        accumulateRange(accumulator, firstIndex, lastIndex);
+        return accumulator.toSummary();
+    }
+
+    /**
+     * @return the statistics of the selected positions where distance, time and elevation
+     * are summed up within each contiguous run of selected positions
+     */
+    public synchronized Summary getSelection(int[] selectedIndices) {
+        Accumulator accumulator = new Accumulator();
+        int size = count(root);
+        int i = 0;
+        while (i < selectedIndices.length) {
+            int first = selectedIndices[i], last = first;
+            while (i + 1 < selectedIndices.length && selectedIndices[i + 1] == last + 1)
+                last = selectedIndices[++i];
+            i++;
+            first = max(first, 0);
+            last = min(last, size - 1);
+            if (first <= last)
+                accumulateRange(accumulator, first, last);
+        }
+        return accumulator.toSummary();
+    }
+
+    private void accumulateRange(Accumulator accumulator, int firstIndex, int lastIndex) {
+        // the segment of the first position leads to a position outside of the range
+        if (firstIndex < lastIndex)
+            accumulate(root, 0, firstIndex + 1, lastIndex, accumulator);
+        accumulator.addTime(positionTime[find(firstIndex)]);
+    }
+
+    private class Accumulator {
+        private double distance, elevationAscend, elevationDescend;
+        private long time;
+        private long minimum = Long.MAX_VALUE, maximum = Long.MIN_VALUE;
+
+        void addNode(int node) {
+            distance += sumDistance[node];
+            time += sumTime[node];
+            elevationAscend += sumAscend[node];
+            elevationDescend += sumDescend[node];
+            addTimes(minimumTime[node], maximumTime[node]);
+        }
+
+        void addSegment(int node) {
+            distance += RouteStatistics.this.distance[node];
+            time += RouteStatistics.this.time[node];
+            double delta = elevation[node];
+            if (delta > 0)
+                elevationAscend += delta;
+            else
+                elevationDescend -= delta;
+            addTime(positionTime[node]);
+        }
+
+        void addTime(long time) {
+            addTimes(time, time);
+        }
+
+        private void addTimes(long minimumTime, long maximumTime) {
+            if (minimumTime == NO_TIME)
+                return;
+            minimum = min(minimum, minimumTime);
+            maximum = max(maximum, maximumTime);
+        }
+
+        Summary toSummary() {
+            boolean hasTime = minimum != Long.MAX_VALUE;
+            return new Summary(distance, time, elevationAscend, elevationDescend,
+                    hasTime ? minimum : null, hasTime ? maximum : null);
+        }
+    }
+
+    private void accumulate(int node, int offset, int firstIndex, int lastIndex, Accumulator accumulator) {
+        if (node == NONE)
+            return;
+        int start = offset, end = offset + count[node] - 1;
+        if (lastIndex < start || firstIndex > end)
+            return;
+        if (firstIndex <= start && end <= lastIndex) {
+            accumulator.addNode(node);
+            return;
+        }
+
+        int index = offset + count(left[node]);
+        accumulate(left[node], offset, firstIndex, lastIndex, accumulator);
+        if (firstIndex <= index && index <= lastIndex)
+            accumulator.addSegment(node);
+        accumulate(right[node], index + 1, firstIndex, lastIndex, accumulator);
+    }
+
+    private int find(int index) {
+        int node = root;
+        while (node != NONE) {
+            int leftCount = count(left[node]);
+            if (index < leftCount)
+                node = left[node];
+            else if (index == leftCount)
+                return node;
+            else {
+                index -= leftCount + 1;
+                node = right[node];
+            }
+        }
+        throw new IllegalArgumentException("Index " + index + " out of range");
+    }
+
+    private void refreshRange(int firstIndex, int lastIndex) {
+        lastIndex = min(lastIndex, count(root) - 1);
+        if (firstIndex > lastIndex)
+            return;
+
+        split(root, firstIndex);
+        int before = splitLeft;
+        split(splitRight, lastIndex - firstIndex + 1);
+        int after = splitRight;
+        int range = splitLeft;
+        refreshSubtree(range, firstIndex);
+        root = merge(merge(before, range), after);
+    }
+
+    private void refreshSubtree(int node, int offset) {
+        if (node == NONE)
+            return;
+        int index = offset + count(left[node]);
+        refreshSubtree(left[node], offset);
+        setValues(node, index);
+        refreshSubtree(right[node], index + 1);
+        pull(node);
+    }
+
+    private void setValues(int node, int index) {
+        NavigationPosition next = positions.get(index);
+        CompactCalendar calendar = next.getTime();
+        positionTime[node] = calendar != null ? calendar.getTimeInMillis() : NO_TIME;
+
+        if (index == 0) {
+            distance[node] = 0.0;
+            time[node] = 0;
+            elevation[node] = 0.0;
+            return;
+        }
+
+        NavigationPosition previous = positions.get(index - 1);
+        Double segmentDistance = previous.calculateDistance(next);
+        distance[node] = !isEmpty(segmentDistance) ? segmentDistance : 0.0;
+        Long segmentTime = previous.calculateTime(next);
+        time[node] = segmentTime != null && segmentTime > 0 ? segmentTime : 0;
+        Double segmentElevation = previous.calculateElevation(next);
+        elevation[node] = segmentElevation != null ? segmentElevation : 0.0;
+    }
+
+    // implicit treap
+
+    private int count(int node) {
+        return node != NONE ? count[node] : 0;
+    }
+
+    private void pull(int node) {
+        int l = left[node], r = right[node];
+        double delta = elevation[node];
+        count[node] = 1 + count(l) + count(r);
+        sumDistance[node] = distance[node];
+        sumTime[node] = time[node];
+        sumAscend[node] = delta > 0 ? delta : 0.0;
+        sumDescend[node] = delta < 0 ? -delta : 0.0;
+        minimumTime[node] = positionTime[node];
+        maximumTime[node] = positionTime[node];
+        if (l != NONE)
+            add(node, l);
+        if (r != NONE)
+            add(node, r);
+    }
+
+    private void add(int node, int child) {
+        sumDistance[node] += sumDistance[child];
+        sumTime[node] += sumTime[child];
+        sumAscend[node] += sumAscend[child];
+        sumDescend[node] += sumDescend[child];
+        long childMinimum = minimumTime[child];
+        if (childMinimum != NO_TIME) {
+            if (minimumTime[node] == NO_TIME || childMinimum < minimumTime[node])
+                minimumTime[node] = childMinimum;
+            if (maximumTime[node] == NO_TIME || maximumTime[child] > maximumTime[node])
+                maximumTime[node] = maximumTime[child];
+        }
+    }
+
+    private void split(int node, int leftCount) {
+        if (node == NONE) {
+            splitLeft = splitRight = NONE;
+            return;
+        }
+        if (count(left[node]) < leftCount) {
+            split(right[node], leftCount - count(left[node]) - 1);
+            right[node] = splitLeft;
+            pull(node);
+            splitLeft = node;
+        } else {
+            split(left[node], leftCount);
+            left[node] = splitRight;
+            pull(node);
+            splitRight = node;
+        }
+    }
+
+    private int merge(int first, int second) {
+        if (first == NONE)
+            return second;
+        if (second == NONE)
+            return first;
+        if (priority[first] > priority[second]) {
+            right[first] = merge(right[first], second);
+            pull(first);
+            return first;
+        } else {
+            left[second] = merge(first, left[second]);
+            pull(second);
+            return second;
+        }
+    }
+
+    private int nextPriority() {
+        // xorshift
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private int allocate() {
+        int node;
+        if (free != NONE) {
+            node = free;
+            free = left[node];
+        } else {
+            ensureCapacity(used + 1);
+            node = used++;
+        }
+        left[node] = right[node] = NONE;
+        priority[node] = nextPriority();
+        distance[node] = elevation[node] = 0.0;
+        time[node] = 0;
+        positionTime[node] = NO_TIME;
+        pull(node);
+        return node;
+    }
+
+    private void release(int node) {
+        if (node == NONE)
+            return;
+        release(left[node]);
+        release(right[node]);
+        left[node] = free;
+        free = node;
+    }
+
+    private void ensureCapacity(int minimum) {
+        if (minimum <= capacity)
+            return;
+        int newCapacity = max(minimum, max(16, capacity + (capacity >> 1)));
+        left = copyOf(left, newCapacity);
+        right = copyOf(right, newCapacity);
+        count = copyOf(count, newCapacity);
+        priority = copyOf(priority, newCapacity);
+        distance = copyOf(distance, newCapacity);
+        elevation = copyOf(elevation, newCapacity);
+        time = copyOf(time, newCapacity);
+        positionTime = copyOf(positionTime, newCapacity);
+        sumDistance = copyOf(sumDistance, newCapacity);
+        sumAscend = copyOf(sumAscend, newCapacity);
+        sumDescend = copyOf(sumDescend, newCapacity);
+        sumTime = copyOf(sumTime, newCapacity);
+        minimumTime = copyOf(minimumTime, newCapacity);
+        maximumTime = copyOf(maximumTime, newCapacity);
+        capacity = newCapacity;
+    }
+}
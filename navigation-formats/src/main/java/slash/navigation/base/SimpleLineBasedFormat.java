@@ -34,7 +34,7 @@ import static slash.navigation.base.RouteCharacteristics.Waypoints;
  * @author Christian Pesch
  */
 
-public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends SimpleFormat<R> {
+public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends SimpleFormat<R> implements PositionStreamingFormat<Wgs84Position> {
 
     public int getMaximumPositionCount() {
         return UNLIMITED_MAXIMUM_POSITION_COUNT;
@@ -45,9 +45,20 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
         return (R)new Wgs84Route(this, characteristics, positions);
     }
 
+    public boolean isStreamingPositions() {
+        return true;
+    }
+
     public void read(BufferedReader reader, String encoding, ParserContext<R> context) throws IOException {
-        List<Wgs84Position> positions = new ArrayList<>();
+        ChunkedPositionConsumer<Wgs84Position> consumer = new ChunkedPositionConsumer<>(context);
+        readPositions(reader, context, consumer);
+        List<Wgs84Position> positions = consumer.finish();
+
+        if (positions.size() > 0)
+            context.appendRoute(createRoute(getRouteCharacteristics(), positions));
+    }
 
+    public void readPositions(BufferedReader reader, ParserContext context, PositionConsumer<Wgs84Position> consumer) throws IOException {
         int lineCount = 0;
         while (true) {
             String line = reader.readLine();
@@ -59,16 +70,13 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
             if (isValidLine(line)) {
                 if (isPosition(line)) {
                     Wgs84Position position = parsePosition(line, context);
-                    positions.add(position);
+                    consumer.accept(position);
                 }
             } else {
                 if (lineCount++ > getGarbleCount())
                     throw new IOException(format("Too much garble for %s: %d > %d lines", getName(), lineCount, getGarbleCount()));
             }
         }
-
-        if (positions.size() > 0)
-            context.appendRoute(createRoute(getRouteCharacteristics(), positions));
     }
 
     protected int getGarbleCount() {
@@ -97,6 +105,18 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
         writeFooter(writer, endIndex - startIndex);
     }
 
+    public void beginPositions(PrintWriter writer, String name) {
+        writeHeader(writer, createRoute(getRouteCharacteristics(), name, new ArrayList<Wgs84Position>()));
+    }
+
+    public void appendPosition(Wgs84Position position, PrintWriter writer, int index) {
+        writePosition(position, writer, index, index == 0);
+    }
+
+    public void endPositions(PrintWriter writer, int positionCount) {
+        writeFooter(writer, positionCount);
+    }
+
     protected void writeHeader(PrintWriter writer, R route) {
     }
 
@@ -0,0 +1,280 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import slash.navigation.common.NavigationPosition;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+import static java.io.File.createTempFile;
+import static java.lang.String.format;
+import static slash.common.helpers.ThreadHelper.createSingleThreadExecutor;
+import static slash.common.io.Files.createTargetFiles;
+import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
+import static slash.navigation.base.NavigationFormatConverter.asFormat;
+import static slash.navigation.base.NavigationFormatParser.createFragmentName;
+import static slash.navigation.base.NavigationFormatParser.extractStartDate;
+import static slash.navigation.base.NavigationFormatParser.isRenamingFragments;
+import static slash.navigation.base.RouteComments.commentPosition;
+import static slash.navigation.base.RouteComments.createRouteName;
+
+/**
+ * Converts between {@link PositionStreamingFormat}s by passing the positions from a reader
+ * to a writer thread through a bounded queue, which needs constant memory.
+ *
+ * @author Christian Pesch
+ */
+
+public class StreamingConverter {
+    private static final Logger log = Logger.getLogger(StreamingConverter.class.getName());
+    private static final int DETECTION_BUFFER_SIZE = 64 * 1024;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final Object END_OF_POSITIONS = new Object();
+
+    private final NavigationFormatParser parser;
+
+    public StreamingConverter(NavigationFormatParser parser) {
+        this.parser = parser;
+    }
+
+    public static boolean isStreamingPositions(NavigationFormat format) {
+        return format instanceof PositionStreamingFormat && ((PositionStreamingFormat) format).isStreamingPositions();
+    }
+
+    /**
+     * Detects the format of the source from its first lines.
+     *
+     * @param source the file to detect the format of
+     * @return the format if it is capable of streaming and the source is too large to
+     * be detected from its first lines, <code>null</code> otherwise
+     * @throws IOException if the source cannot be read
+     */
+    public PositionStreamingFormat detectStreamingFormat(File source) throws IOException {
+        if (source.length() <= DETECTION_BUFFER_SIZE)
+            return null;
+
+        byte[] buffer = new byte[DETECTION_BUFFER_SIZE];
+        int length = 0;
+        try (InputStream inputStream = new FileInputStream(source)) {
+            while (length < buffer.length) {
+                int read = inputStream.read(buffer, length, buffer.length - length);
+                if (read == -1)
+                    break;
+                length += read;
+            }
+        }
+        // cut off the last and probably incomplete line
+        while (length > 0 && buffer[length - 1] != '\n')
+            length--;
+        if (length == 0)
+            return null;
+
+        ParserResult result = parser.read(new ByteArrayInputStream(buffer, 0, length));
+        if (!result.isSuccessful() || !isStreamingPositions(result.getFormat()))
+            return null;
+        return (PositionStreamingFormat) result.getFormat();
+    }
+
+    private static BufferedReader createReader(File source) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(source), ISO_LATIN1_ENCODING));
+    }
+
+    private static ParserContext createContext(File source) {
+        return new ParserContextImpl(source, extractStartDate(source));
+    }
+
+    private static BaseNavigationPosition prepare(NavigationPosition position, NavigationFormat format, int index) throws IOException {
+        // comments after reading and after converting like NavigationFormatParser#read and #write
+        commentPosition(position, index);
+        BaseNavigationPosition result = asFormat(position, format);
+        commentPosition(result, index);
+        return result;
+    }
+
+    /**
+     * Reads the source once to check that the source format accepts all of it, not only the
+     * lines it was detected from, and to name the files like NavigationFormatParser#write.
+     *
+     * @return the names of the files to write or <code>null</code> if the source format rejects the source
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> createFragmentNames(File source, PositionStreamingFormat sourceFormat, final NavigationFormat targetFormat) throws IOException {
+        final int maximumPositionCount = targetFormat.getMaximumPositionCount();
+        // the first and the last position of each file
+        final List<NavigationPosition> firstAndLast = new ArrayList<>();
+        PositionStreamingFormat.PositionConsumer<NavigationPosition> consumer = new PositionStreamingFormat.PositionConsumer<NavigationPosition>() {
+            private int count = 0;
+
+            public void accept(NavigationPosition position) throws IOException {
+                BaseNavigationPosition prepared = prepare(position, targetFormat, count);
+                if (count % maximumPositionCount == 0)
+                    firstAndLast.add(prepared);
+                else
+                    firstAndLast.remove(firstAndLast.size() - 1);
+                firstAndLast.add(prepared);
+                count++;
+            }
+        };
+
+        try (BufferedReader reader = createReader(source)) {
+            sourceFormat.readPositions(reader, createContext(source), consumer);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warning(format("Cannot stream '%s' with %s: %s", source.getAbsolutePath(), ((NavigationFormat) sourceFormat).getName(), e));
+            return null;
+        }
+
+        int fileCount = firstAndLast.size() / 2;
+        List<String> names = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            if (isRenamingFragments((NavigationFormat) sourceFormat, targetFormat))
+                names.add(createFragmentName(firstAndLast.subList(i * 2, i * 2 + 2), i, fileCount));
+            else
+                names.add(createRouteName(firstAndLast));
+        }
+        return names;
+    }
+
+    /**
+     * Converts the source to the target format and splits the target into several files
+     * if the {@link NavigationFormat#getMaximumPositionCount() maximum position count} is reached.
+     * The positions are commented and the files are named like NavigationFormatParser#write does.
+     *
+     * @param source the file to read
+     * @param sourceFormat the format to read the source with
+     * @param targetFormat the format to write
+     * @param target the pattern for the files to write
+     * @return the written files or <code>null</code> if the source format rejects the source
+     * beyond the lines it was detected from and the source has to be read completely
+     * @throws IOException if the source cannot be read or a target cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public File[] convert(final File source, final PositionStreamingFormat sourceFormat,
+                          PositionStreamingFormat targetFormat, File target) throws IOException {
+        NavigationFormat navigationFormat = (NavigationFormat) targetFormat;
+        int maximumPositionCount = navigationFormat.getMaximumPositionCount();
+        List<String> names = createFragmentNames(source, sourceFormat, navigationFormat);
+        if (names == null)
+            return null;
+
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ExecutorService executor = createSingleThreadExecutor("StreamingConverter");
+        Future<Integer> reading = executor.submit(new Callable<Integer>() {
+            private int count = 0;
+
+            public Integer call() throws Exception {
+                try (BufferedReader reader = createReader(source)) {
+                    sourceFormat.readPositions(reader, createContext(source), position -> {
+                        try {
+                            queue.put(position);
+                            count++;
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException("Interrupted while reading " + source);
+                        }
+                    });
+                } finally {
+                    queue.put(END_OF_POSITIONS);
+                }
+                return count;
+            }
+        });
+
+        List<File> parts = new ArrayList<>();
+        PrintWriter writer = null;
+        int index = 0, count = 0;
+        boolean successful = false;
+        try {
+            while (true) {
+                Object next = queue.take();
+                if (next == END_OF_POSITIONS)
+                    break;
+
+                if (writer == null || index == maximumPositionCount) {
+                    if (writer != null)
+                        close(targetFormat, writer, index);
+                    File part = createTempFile(target.getName(), ".part", target.getAbsoluteFile().getParentFile());
+                    parts.add(part);
+                    writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(part), ISO_LATIN1_ENCODING));
+                    targetFormat.beginPositions(writer, names.get(parts.size() - 1));
+                    index = 0;
+                }
+
+                BaseNavigationPosition position = prepare((NavigationPosition) next, navigationFormat, count++);
+                targetFormat.appendPosition(position, writer, index++);
+            }
+            if (writer != null) {
+                close(targetFormat, writer, index);
+                writer = null;
+            }
+
+            reading.get();
+            File[] targets = rename(parts, target, navigationFormat);
+            log.info(format("Converted %d positions from '%s' to %d files", count, source.getAbsolutePath(), targets.length));
+            successful = true;
+            return targets;
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while writing " + target);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException("Cannot read " + source + ": " + cause, cause);
+        } finally {
+            if (writer != null)
+                writer.close();
+            if (!successful) {
+                reading.cancel(true);
+                for (File part : parts)
+                    delete(part);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private void close(PositionStreamingFormat format, PrintWriter writer, int positionCount) throws IOException {
+        format.endPositions(writer, positionCount);
+        writer.close();
+        if (writer.checkError())
+            throw new IOException("Cannot write positions");
+    }
+
+    private File[] rename(List<File> parts, File target, NavigationFormat format) throws IOException {
+        File[] targets = createTargetFiles(target, parts.size(), format.getExtension(), format.getMaximumFileNameLength());
+        for (File file : targets) {
+            if (file.exists())
+                throw new IOException("Target '" + file.getAbsolutePath() + "' already exists");
+        }
+        for (int i = 0; i < targets.length; i++) {
+            if (!parts.get(i).renameTo(targets[i]))
+                throw new IOException("Cannot rename " + parts.get(i) + " to " + targets[i]);
+        }
+        return targets;
+    }
+
+    private void delete(File file) {
+        if (file.exists() && !file.delete())
+            log.warning("Cannot delete part file " + file);
+    }
+}
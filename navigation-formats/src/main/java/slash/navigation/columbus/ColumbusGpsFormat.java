@@ -21,6 +21,7 @@ package slash.navigation.columbus;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.PrintWriter;
@@ -30,7 +31,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.trim;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.parseDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.WaypointType.*;
@@ -131,13 +131,13 @@ public abstract class ColumbusGpsFormat extends SimpleLineBasedFormat<SimpleRout
     protected String formatDate(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DATE_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DATE_FORMAT);
     }
 
     protected String formatTime(CompactCalendar time) {
         if (time == null)
             return "";
-        return createDateFormat(TIME_FORMAT).format(time.getTime());
+        return DateTimeCodec.format(time, TIME_FORMAT);
     }
 
     private WaypointType extractWaypointType(Wgs84Position position) {
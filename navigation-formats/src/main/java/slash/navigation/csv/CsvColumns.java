@@ -0,0 +1,92 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columns of a CSV file which are shared by all its {@link CsvPosition}s
+ * and the index of the column for each {@link ColumnType}.
+ *
+ * @author Christian Pesch
+ */
+
+class CsvColumns {
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final int[] typeIndices = new int[ColumnType.values().length];
+
+    CsvColumns(List<String> names) {
+        for (String name : names)
+            addName(name);
+        updateTypeIndices();
+    }
+
+    CsvColumns() {
+        this(new ArrayList<>());
+    }
+
+    private void addName(String name) {
+        indices.put(name, names.size());
+        names.add(name);
+    }
+
+    private void updateTypeIndices() {
+        Arrays.fill(typeIndices, -1);
+        for (ColumnType type : ColumnType.values()) {
+            Integer index = indices.get(type.name());
+            for (int i = 0; index == null && i < type.getAlternativeNames().size(); i++)
+                index = indices.get(type.getAlternativeNames().get(i));
+            if (index != null)
+                typeIndices[type.ordinal()] = index;
+        }
+    }
+
+    List<String> getNames() {
+        return names;
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    int getIndex(String name) {
+        Integer index = indices.get(name);
+        return index != null ? index : -1;
+    }
+
+    int getIndex(ColumnType type) {
+        return typeIndices[type.ordinal()];
+    }
+
+    int addColumn(ColumnType type) {
+        int index = getIndex(type.name());
+        if (index == -1) {
+            index = names.size();
+            addName(type.name());
+            updateTypeIndices();
+        }
+        return index;
+    }
+}
@@ -30,10 +30,21 @@ import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.util.*;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 
+import static com.fasterxml.jackson.dataformat.csv.CsvParser.Feature.SKIP_EMPTY_LINES;
+import static com.fasterxml.jackson.dataformat.csv.CsvParser.Feature.WRAP_AS_ARRAY;
+import static java.lang.Math.max;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.CodingErrorAction.REPORT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.sort;
 import static slash.common.io.Transfer.*;
@@ -46,6 +57,8 @@ import static slash.common.io.Transfer.*;
 
 public abstract class CsvFormat extends BaseNavigationFormat<CsvRoute> {
     private static final Logger log = Logger.getLogger(CsvFormat.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(CsvFormat.class);
+    private static final String ENCODING_DETECTION_PREFIX_PREFERENCE = "encodingDetectionPrefix";
 
     public String getExtension() {
         return ".csv";
@@ -70,14 +83,47 @@ public abstract class CsvFormat extends BaseNavigationFormat<CsvRoute> {
 
     protected abstract char getColumnSeparator();
 
+    private static int getEncodingDetectionPrefixPreference() {
+        return preferences.getInt(ENCODING_DETECTION_PREFIX_PREFERENCE, 64 * 1024);
+    }
+
     public void read(InputStream source, ParserContext<CsvRoute> context) throws IOException {
+        String encoding = detectEncoding(source, getEncodingDetectionPrefixPreference());
+        if (!read(source, encoding, context))
+            throw new IllegalArgumentException(format("Format %s cannot find positions; exiting", getName()));
+    }
+
+    /**
+     * Decides between UTF-8 and ISO-Latin-1 from a prefix of the source, which is reset afterwards.
+     */
+    static String detectEncoding(InputStream source, int prefixSize) throws IOException {
         // +1 since CsvDecoder is reading until the buffer is completely processed plus one to allow for #reset()
-        source.mark(source.available() + 1);
-        if(!read(source, UTF8_ENCODING, context)) {
+        // of the whole source by the NavigationFormatParser if no positions are found
+        source.mark(max(prefixSize, source.available()) + 1);
+        byte[] prefix = new byte[prefixSize];
+        int length = 0;
+        try {
+            int read;
+            while (length < prefixSize && (read = source.read(prefix, length, prefixSize - length)) != -1)
+                length += read;
+        } finally {
             source.reset();
+        }
+        return isValidUtf8(prefix, length, length == prefixSize) ? UTF8_ENCODING : ISO_LATIN1_ENCODING;
+    }
 
-            if(!read(source, ISO_LATIN1_ENCODING, context))
-                throw new IllegalArgumentException(format("Format %s cannot find positions; exiting", getName()));
+    private static boolean isValidUtf8(byte[] bytes, int length, boolean truncated) {
+        CharsetDecoder decoder = UTF_8.newDecoder().onMalformedInput(REPORT).onUnmappableCharacter(REPORT);
+        ByteBuffer input = ByteBuffer.wrap(bytes, 0, length);
+        CharBuffer output = CharBuffer.allocate(1024);
+        while (true) {
+            CoderResult result = decoder.decode(input, output, true);
+            // a multi-byte sequence that is cut off at the end of the prefix is no error
+            if (result.isError())
+                return truncated && result.isMalformed() && input.position() + result.length() == length;
+            if (result.isUnderflow())
+                return true;
+            output.clear();
         }
     }
 
@@ -89,31 +135,24 @@ public abstract class CsvFormat extends BaseNavigationFormat<CsvRoute> {
         }
     }
 
-    private boolean containsGarbage(Map<String, String> map) {
-        for (String key : map.keySet()) {
-            if (isIsoLatin1ButReadWithUtf8(key))
-                return true;
-            String value = map.get(key);
-            if (isIsoLatin1ButReadWithUtf8(value))
-                return true;
-        }
-        return false;
-    }
-
     protected boolean read(Reader reader, ParserContext<CsvRoute> context) throws IOException {
+        long start = currentTimeMillis();
         List<CsvPosition> positions = new ArrayList<>();
+        int rows = 0;
 
-        CsvSchema schema = CsvSchema.emptySchema().withHeader().withColumnSeparator(getColumnSeparator());
-        ObjectReader objectReader = new CsvMapper().readerFor(LinkedHashMap.class).with(schema);
+        CsvSchema schema = CsvSchema.emptySchema().withColumnSeparator(getColumnSeparator());
+        ObjectReader objectReader = new CsvMapper().readerFor(String[].class).with(schema).
+                with(WRAP_AS_ARRAY).with(SKIP_EMPTY_LINES);
         try {
-            MappingIterator<LinkedHashMap<String, String>> iterator = objectReader.readValues(reader);
+            MappingIterator<String[]> iterator = objectReader.readValues(reader);
+            if (!iterator.hasNext())
+                return false;
+            // the header row is mapped once to the columns shared by all positions
+            CsvColumns columns = new CsvColumns(asList(iterator.next()));
+
             while (iterator.hasNext()) {
-                LinkedHashMap<String, String> rowAsMap = iterator.next();
-                if (containsGarbage(rowAsMap)) {
-                    log.warning(format("Found garbage in '%s'", rowAsMap));
-                    return false;
-                }
-                CsvPosition position = new CsvPosition(rowAsMap);
+                CsvPosition position = new CsvPosition(columns, iterator.next());
+                rows++;
 
                 // skip positions without any reasonable data to make format less greedy
                 if(position.getLongitude() == null && position.getLatitude() == null && position.getDescription() == null)
@@ -126,6 +165,10 @@ public abstract class CsvFormat extends BaseNavigationFormat<CsvRoute> {
             reader.close();
         }
 
+        long milliseconds = currentTimeMillis() - start;
+        log.info(format("Read %d positions from %d rows in %d milliseconds (%d rows per second)",
+                positions.size(), rows, milliseconds, milliseconds > 0 ? rows * 1000L / milliseconds : rows));
+
         if (positions.size() > 0) {
             context.appendRoute(new CsvRoute(this, null, positions));
             return true;
@@ -133,29 +176,37 @@ public abstract class CsvFormat extends BaseNavigationFormat<CsvRoute> {
             return false;
     }
 
-    private Set<String> collectKeys(List<CsvPosition> positions) {
+    private List<String> collectNames(List<CsvPosition> positions) {
         Set<String> result = new HashSet<>();
+        Set<CsvColumns> visited = new HashSet<>();
         for (CsvPosition position : positions) {
-            Set<String> keys = position.getRowAsMap().keySet();
-            result.addAll(keys);
+            CsvColumns columns = position.getColumns();
+            if (visited.add(columns))
+                result.addAll(columns.getNames());
         }
         String[] array = result.toArray(new String[0]);
         sort(array);
-        return new LinkedHashSet<>(asList(array));
+        return asList(array);
     }
 
     public void write(CsvRoute route, OutputStream target, int startIndex, int endIndex) throws IOException {
         List<CsvPosition> positions = route.getPositions();
 
+        List<String> names = collectNames(positions);
         CsvSchema.Builder builder = new CsvSchema.Builder();
-        for (String key : collectKeys(positions))
-            builder = builder.addColumn(key);
+        for (String name : names)
+            builder = builder.addColumn(name);
 
         CsvSchema schema = builder.build().withHeader().withColumnSeparator(getColumnSeparator());
         try(SequenceWriter writer = new CsvMapper().writer(schema).writeValues(target)) {
+            String[] row = new String[names.size()];
             for (int i = startIndex; i < endIndex; i++) {
                 CsvPosition position = positions.get(i);
-                writer.write(position.getRowAsMap());
+                for (int j = 0; j < row.length; j++) {
+                    String value = position.getValue(names.get(j));
+                    row[j] = value != null ? value : "";
+                }
+                writer.write(row);
             }
         }
     }
@@ -20,20 +20,17 @@
 package slash.navigation.csv;
 
 import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.base.BaseNavigationPosition;
 import slash.navigation.base.ExtendedSensorNavigationPosition;
 import slash.navigation.gpx.GpxPosition;
 
-import java.util.Calendar;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.Map;
 
 import static slash.common.io.Transfer.formatDoubleAsString;
 import static slash.common.io.Transfer.parseDouble;
-import static slash.common.type.CompactCalendar.createDateFormat;
-import static slash.common.type.CompactCalendar.fromCalendar;
 import static slash.common.type.CompactCalendar.parseDate;
-import static slash.common.type.ISO8601.parseDate;
 import static slash.navigation.base.ExtendedSensorNavigationPosition.transferExtendedSensorData;
 import static slash.navigation.csv.ColumnType.*;
 
@@ -45,14 +42,20 @@ public class CsvPosition extends BaseNavigationPosition implements ExtendedSenso
     private static final String DATE_AND_TIME_FORMAT = "dd.MM.yy HH:mm:ss";
     private static final String DATE_AND_TIME_WITHOUT_SECONDS_FORMAT = "dd.MM.yy HH:mm";
 
-    private Map<String, String> rowAsMap;
+    private CsvColumns columns;
+    private String[] values;
+
+    CsvPosition(CsvColumns columns, String[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
 
     public CsvPosition(Map<String, String> rowAsMap) {
-        this.rowAsMap = rowAsMap;
+        this(new CsvColumns(new ArrayList<>(rowAsMap.keySet())), rowAsMap.values().toArray(new String[0]));
     }
 
     public CsvPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
-        this(new LinkedHashMap<>());
+        this(new CsvColumns(), new String[0]);
         setLongitude(longitude);
         setLatitude(latitude);
         setElevation(elevation);
@@ -61,21 +64,18 @@ public class CsvPosition extends BaseNavigationPosition implements ExtendedSenso
         setDescription(description);
     }
 
-    Map<String, String> getRowAsMap() {
-        return rowAsMap;
+    CsvColumns getColumns() {
+        return columns;
+    }
+
+    String getValue(String name) {
+        int index = columns.getIndex(name);
+        return index != -1 && index < values.length ? values[index] : null;
     }
 
     private String getValueAsString(ColumnType type) {
-        String value = rowAsMap.get(type.name());
-        if (value != null)
-            return value;
-
-        for (String alternativeName : type.getAlternativeNames()) {
-            value = rowAsMap.get(alternativeName);
-            if (value != null)
-                return value;
-        }
-        return null;
+        int index = columns.getIndex(type);
+        return index != -1 && index < values.length ? values[index] : null;
     }
 
     private Double getValueAsDouble(ColumnType type) {
@@ -88,16 +88,21 @@ public class CsvPosition extends BaseNavigationPosition implements ExtendedSenso
         CompactCalendar calendar = parseDate(value, DATE_AND_TIME_FORMAT);
         if (calendar == null)
             calendar = parseDate(value, DATE_AND_TIME_WITHOUT_SECONDS_FORMAT);
-        if (calendar == null) {
-            Calendar date = parseDate(value);
-            if (date != null)
-                calendar = fromCalendar(date);
-        }
+        if (calendar == null)
+            calendar = DateTimeCodec.parseISO8601(value);
         return calendar;
     }
 
     private void setValueAsString(ColumnType type, String value) {
-        rowAsMap.put(type.name(), value);
+        int index = columns.getIndex(type);
+        if (index == -1)
+            index = columns.addColumn(type);
+        if (index >= values.length) {
+            String[] grown = new String[columns.size()];
+            System.arraycopy(values, 0, grown, 0, values.length);
+            values = grown;
+        }
+        values[index] = value;
     }
 
     private void setValueAsDouble(ColumnType type, Double value) {
@@ -105,7 +110,7 @@ public class CsvPosition extends BaseNavigationPosition implements ExtendedSenso
     }
 
     private void setValueAsTime(ColumnType type, CompactCalendar calendar) {
-        String value = calendar != null ? createDateFormat(DATE_AND_TIME_FORMAT).format(calendar.getTime().getTime()) : null;
+        String value = calendar != null ? DateTimeCodec.format(calendar, DATE_AND_TIME_FORMAT) : null;
         setValueAsString(type, value);
     }
 
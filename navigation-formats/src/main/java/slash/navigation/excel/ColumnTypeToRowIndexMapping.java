@@ -20,6 +20,7 @@
 package slash.navigation.excel;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,15 +48,28 @@ class ColumnTypeToRowIndexMapping {
     }
 
     private Map<Integer, ColumnType> mapping = new LinkedHashMap<>();
+    private Map<Integer, String> names = new HashMap<>();
 
     public void add(int index, ColumnType columnType) {
         mapping.put(index, columnType);
     }
 
+    public void add(int index, ColumnType columnType, String name) {
+        add(index, columnType);
+        names.put(index, name);
+    }
+
     public List<Integer> getIndices() {
         return new ArrayList<>(mapping.keySet());
     }
 
+    public int getColumnCount() {
+        int count = 0;
+        for (Integer index : mapping.keySet())
+            count = Math.max(count, index + 1);
+        return count;
+    }
+
     public Integer getIndex(ColumnType type) {
         for(Integer index : mapping.keySet()) {
            ColumnType found = mapping.get(index);
@@ -68,4 +82,9 @@ class ColumnTypeToRowIndexMapping {
     public ColumnType getColumnType(Integer index) {
         return mapping.get(index);
     }
+
+    public String getName(Integer index) {
+        String name = names.get(index);
+        return name != null ? name : getColumnType(index).name();
+    }
 }
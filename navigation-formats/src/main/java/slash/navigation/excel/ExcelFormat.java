@@ -64,6 +64,10 @@ public abstract class ExcelFormat extends BaseNavigationFormat<ExcelRoute> imple
         return new ExcelRoute(this, createSheet(name), DEFAULT, (List<ExcelPosition>) positions);
     }
 
+    /**
+     * Creates the sheet for a new route or returns <code>null</code> if the
+     * routes of this format are not backed by a workbook but written streaming.
+     */
     abstract Sheet createSheet(String name);
 
     void parseWorkbook(Workbook workbook, ParserContext<ExcelRoute> context) {
@@ -94,16 +98,24 @@ public abstract class ExcelFormat extends BaseNavigationFormat<ExcelRoute> imple
     }
 
     private ColumnTypeToRowIndexMapping parseHeader(Row row) {
-        ColumnTypeToRowIndexMapping result = new ColumnTypeToRowIndexMapping();
+        List<String> names = new ArrayList<>();
         for (int i = 0, c = row.getLastCellNum(); i < c; i++) {
             Cell cell = row.getCell(i);
             // empty cell
-            if(cell == null)
+            names.add(cell != null ? cell.getStringCellValue() : null);
+        }
+        return parseHeader(names);
+    }
+
+    ColumnTypeToRowIndexMapping parseHeader(List<String> names) {
+        ColumnTypeToRowIndexMapping result = new ColumnTypeToRowIndexMapping();
+        for (int i = 0, c = names.size(); i < c; i++) {
+            String name = names.get(i);
+            if (name == null)
                 continue;
-            String cellValue = cell.getStringCellValue();
-            ColumnType columnType = parseColumnType(cellValue);
-            log.info(format("Column %d with name '%s' is identified as %s", i, cellValue, columnType));
-            result.add(i, columnType);
+            ColumnType columnType = parseColumnType(name);
+            log.info(format("Column %d with name '%s' is identified as %s", i, name, columnType));
+            result.add(i, columnType, name);
         }
         return result;
     }
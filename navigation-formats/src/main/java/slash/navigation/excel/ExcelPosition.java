@@ -19,7 +19,6 @@
 */
 package slash.navigation.excel;
 
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.BaseNavigationPosition;
@@ -27,7 +26,10 @@ import slash.navigation.base.ExtendedSensorNavigationPosition;
 import slash.navigation.csv.CsvPosition;
 import slash.navigation.gpx.GpxPosition;
 
+import static java.lang.Math.max;
 import static org.apache.poi.ss.usermodel.CellType.NUMERIC;
+import static org.apache.poi.ss.usermodel.CellType.STRING;
+import static org.apache.poi.ss.usermodel.DateUtil.getJavaDate;
 import static slash.common.io.Transfer.toDouble;
 import static slash.common.type.CompactCalendar.fromDate;
 import static slash.navigation.base.ExtendedSensorNavigationPosition.transferExtendedSensorData;
@@ -36,21 +38,28 @@ import static slash.navigation.excel.ColumnTypeToRowIndexMapping.DEFAULT;
 
 /**
  * A position from Excel 97-2008 (.xls) and Excel 2008 (.xlsx) files.
+ *
+ * A position is either backed by the {@link Row} of a workbook or, if it is read
+ * or written streaming, holds the values of its cells without a workbook.
  */
 
 public class ExcelPosition extends BaseNavigationPosition implements ExtendedSensorNavigationPosition {
     private ColumnTypeToRowIndexMapping mapping = DEFAULT;
     private Row row;
+    private Object[] values;
 
     public ExcelPosition(Row row, ColumnTypeToRowIndexMapping mapping) {
         this.row = row;
         this.mapping = mapping;
     }
 
+    ExcelPosition(Object[] values, ColumnTypeToRowIndexMapping mapping) {
+        this.values = values;
+        this.mapping = mapping;
+    }
+
     public ExcelPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
-        Workbook workbook = new HSSFWorkbook();
-        Sheet sheet = workbook.createSheet("new sheet");
-        this.row = sheet.createRow(0);
+        this.values = new Object[mapping.getColumnCount()];
         setLongitude(longitude);
         setLatitude(latitude);
         setElevation(elevation);
@@ -63,17 +72,135 @@ public class ExcelPosition extends BaseNavigationPosition implements ExtendedSen
         return row;
     }
 
+    /**
+     * Copies the cells of this position to the given row of the same sheet and removes
+     * its previous row, since the rows of a sheet cannot be renumbered in place.
+     */
+    void moveTo(Row target) {
+        for (Cell cell : row) {
+            Cell copy = target.createCell(cell.getColumnIndex(), cell.getCellType());
+            copy.setCellStyle(cell.getCellStyle());
+            switch (cell.getCellType()) {
+                case NUMERIC:
+                    copy.setCellValue(cell.getNumericCellValue());
+                    break;
+                case STRING:
+                    copy.setCellValue(cell.getStringCellValue());
+                    break;
+                case BOOLEAN:
+                    copy.setCellValue(cell.getBooleanCellValue());
+                    break;
+                case FORMULA:
+                    copy.setCellFormula(cell.getCellFormula());
+                    break;
+                default:
+                    break;
+            }
+        }
+        removeRow();
+        row = target;
+    }
+
+    /**
+     * Keeps the values of the cells of this position and removes its row from the sheet.
+     */
+    void detach() {
+        Object[] detached = new Object[max(row.getLastCellNum(), mapping.getColumnCount())];
+        Integer timeIndex = mapping.getIndex(Time);
+        for (int i = 0; i < detached.length; i++)
+            detached[i] = timeIndex != null && timeIndex == i ? getCellAsTime(Time) : getValue(i);
+        removeRow();
+        row = null;
+        values = detached;
+    }
+
+    /**
+     * Writes the values of a detached position to the given row and keeps it backed by the row.
+     */
+    void attach(Row target) {
+        row = target;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof CompactCalendar)
+                setCellAsTime(Time, (CompactCalendar) value);
+            else if (value instanceof Double)
+                row.createCell(i, NUMERIC).setCellValue((Double) value);
+            else if (value instanceof String)
+                row.createCell(i, STRING).setCellValue((String) value);
+        }
+        values = null;
+    }
+
+    private void removeRow() {
+        Sheet sheet = row.getSheet();
+        if (sheet.getRow(row.getRowNum()) == row)
+            sheet.removeRow(row);
+    }
+
+    ColumnTypeToRowIndexMapping getMapping() {
+        return mapping;
+    }
+
     private Cell getCell(ColumnType type) {
         Integer index = mapping.getIndex(type);
         return index != null ? row.getCell(index) : null;
     }
 
+    /**
+     * Returns the value of the given column as a {@link Double}, a {@link String},
+     * a {@link CompactCalendar} or <code>null</code> regardless how the position is backed.
+     */
+    Object getValue(ColumnType type) {
+        Integer index = mapping.getIndex(type);
+        return index != null ? getValue(index) : null;
+    }
+
+    Object getValue(int index) {
+        if (row == null)
+            return index < values.length ? values[index] : null;
+
+        Cell cell = row.getCell(index);
+        if (cell == null)
+            return null;
+        CellType cellType = cell.getCellType();
+        if (cellType.equals(NUMERIC))
+            return cell.getNumericCellValue();
+        if (cellType.equals(STRING))
+            return cell.getStringCellValue();
+        return null;
+    }
+
+    private void setValue(ColumnType type, Object value) {
+        Integer index = mapping.getIndex(type);
+        if (index == null) {
+            // create a new column for the not yet represented column type
+            index = mapping.getColumnCount();
+            mapping.add(index, type);
+        }
+        if (index >= values.length) {
+            Object[] grown = new Object[max(index + 1, mapping.getColumnCount())];
+            System.arraycopy(values, 0, grown, 0, values.length);
+            values = grown;
+        }
+        values[index] = value;
+    }
+
     private Double getCellAsDouble(ColumnType type) {
+        if (row == null) {
+            Object value = getValue(type);
+            return value instanceof Double ? (Double) value : null;
+        }
+
         Cell cell = getCell(type);
         return cell != null ? cell.getNumericCellValue() : null;
     }
 
     private String getCellAsString(ColumnType type) {
+        if (row == null) {
+            Object value = getValue(type);
+            return value instanceof Double ? Double.toString((Double) value) : value instanceof String ? (String) value : null;
+        }
+
         Cell cell = getCell(type);
         if(cell == null)
             return null;
@@ -82,6 +209,11 @@ public class ExcelPosition extends BaseNavigationPosition implements ExtendedSen
     }
 
     private CompactCalendar getCellAsTime(ColumnType type) {
+        if (row == null) {
+            Object value = getValue(type);
+            return value instanceof Double ? fromDate(getJavaDate((Double) value)) : value instanceof CompactCalendar ? (CompactCalendar) value : null;
+        }
+
         Cell cell = getCell(type);
         return cell != null ? fromDate(cell.getDateCellValue()) : null;
     }
@@ -110,18 +242,33 @@ public class ExcelPosition extends BaseNavigationPosition implements ExtendedSen
     }
 
     private void setCellAsDouble(ColumnType type, Double value) {
+        if (row == null) {
+            setValue(type, value);
+            return;
+        }
+
         Cell cell = getOrCreateCell(type);
         if (cell != null)
             cell.setCellValue(toDouble(value));
     }
 
     private void setCellAsString(ColumnType type, String value) {
+        if (row == null) {
+            setValue(type, value);
+            return;
+        }
+
         Cell cell = getOrCreateCell(type);
         if (cell != null)
             cell.setCellValue(value);
     }
 
     private void setCellAsTime(ColumnType type, CompactCalendar value) {
+        if (row == null) {
+            setValue(type, value);
+            return;
+        }
+
         Cell cell = getOrCreateCell(type);
         if (cell != null) {
             if (value != null)
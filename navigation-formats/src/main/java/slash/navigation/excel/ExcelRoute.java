@@ -63,11 +63,15 @@ import static slash.navigation.excel.ColumnTypeToRowIndexMapping.DEFAULT;
 /**
  * An Excel route.
  *
+ * A route is either backed by the {@link Sheet} of a workbook or, if it is read
+ * or written streaming, by its positions only.
+ *
  * @author Christian Pesch
  */
 
 public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     private Sheet sheet;
+    private String name;
     private ColumnTypeToRowIndexMapping mapping = DEFAULT;
     private List<ExcelPosition> positions;
 
@@ -78,9 +82,17 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
         this.positions = positions;
     }
 
+    ExcelRoute(ExcelFormat format, String name, ColumnTypeToRowIndexMapping mapping, List<ExcelPosition> positions) {
+        this(format, (Sheet) null, mapping, positions);
+        this.name = name;
+    }
+
     public ExcelRoute(ExcelFormat format, String name, List<ExcelPosition> positions) {
         this(format, format.createSheet(name), DEFAULT, positions);
-        populateHeader(sheet.createRow(0));
+        if (sheet != null)
+            populateHeader(sheet.createRow(0));
+        else
+            this.name = name;
     }
 
     private void populateHeader(Row row) {
@@ -92,11 +104,16 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public String getName() {
-        String name = sheet.getSheetName();
+        String name = sheet != null ? sheet.getSheetName() : this.name;
         return name != null ? name : createRouteName(getPositions());
     }
 
     public void setName(String name) {
+        if (sheet == null) {
+            this.name = name;
+            return;
+        }
+
         Workbook workbook = sheet.getWorkbook();
         workbook.setSheetName(workbook.getSheetIndex(sheet), name);
     }
@@ -114,7 +131,11 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     Workbook getWorkbook() {
-        return sheet.getWorkbook();
+        return sheet != null ? sheet.getWorkbook() : null;
+    }
+
+    ColumnTypeToRowIndexMapping getMapping() {
+        return mapping;
     }
 
     private int shiftRowToTheEnd(int index) {
@@ -130,6 +151,11 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public void top(int index, int topOffset) {
+        if (sheet == null) {
+            super.top(index, topOffset);
+            return;
+        }
+
         // shift index row to the end
         int rowForIndex = shiftRowToTheEnd(index);
 
@@ -143,6 +169,11 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public void bottom(int index, int bottomOffset) {
+        if (sheet == null) {
+            super.bottom(index, bottomOffset);
+            return;
+        }
+
         // shift index row to the end
         int lastRowNum = sheet.getLastRowNum();
         int rowForIndex = shiftRowToTheEnd(index);
@@ -157,6 +188,11 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public void move(int firstIndex, int secondIndex) {
+        if (sheet == null) {
+            super.move(firstIndex, secondIndex);
+            return;
+        }
+
         // shift secondIndex row to the end
         shiftRowToTheEnd(secondIndex);
 
@@ -172,6 +208,11 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public void add(int index, ExcelPosition position) {
+        if (sheet == null) {
+            positions.add(index, position);
+            return;
+        }
+
         // shift all rows from index one position down
         int rowForIndex = index < getPositionCount() ? getPosition(index).getRow().getRowNum() : position.getRow().getRowNum();
         sheet.shiftRows(rowForIndex, sheet.getLastRowNum(), 1);
@@ -184,6 +225,9 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
     }
 
     public ExcelPosition remove(int index) {
+        if (sheet == null)
+            return super.remove(index);
+
         // shift all rows one forward to index
         int rowForIndex = getPosition(index).getRow().getRowNum() + 1;
         int lastRowNum = sheet.getLastRowNum();
@@ -197,8 +241,73 @@ public class ExcelRoute extends BaseRoute<ExcelPosition, ExcelFormat> {
         return super.remove(index);
     }
 
+    private int getRowNumber(int index) {
+        // the first row is the header
+        return index + 1;
+    }
+
+    public List<ExcelPosition> remove(int[] indices) {
+        List<ExcelPosition> removed = super.remove(indices);
+        if (sheet == null)
+            return removed;
+
+        // keep the values of the removed positions for a later add
+        for (ExcelPosition position : removed)
+            position.detach();
+
+        // the remaining rows only move up, thus their new rows are free
+        for (int i = 0; i < getPositionCount(); i++) {
+            ExcelPosition position = getPosition(i);
+            if (position.getRow().getRowNum() != getRowNumber(i))
+                position.moveTo(sheet.createRow(getRowNumber(i)));
+        }
+        return removed;
+    }
+
+    public void add(int[] indices, List<ExcelPosition> positionsToAdd) {
+        if (sheet != null) {
+            for (ExcelPosition position : positionsToAdd) {
+                if (position.getRow() != null)
+                    position.detach();
+            }
+        }
+
+        super.add(indices, positionsToAdd);
+        if (sheet == null)
+            return;
+
+        // the existing rows only move down, thus their new rows are free from the end
+        for (int i = getPositionCount() - 1; i >= 0; i--) {
+            ExcelPosition position = getPosition(i);
+            if (position.getRow() == null)
+                position.attach(sheet.createRow(getRowNumber(i)));
+            else if (position.getRow().getRowNum() != getRowNumber(i))
+                position.moveTo(sheet.createRow(getRowNumber(i)));
+        }
+    }
+
+    public void permute(int[] permutation) {
+        super.permute(permutation);
+        if (sheet == null)
+            return;
+
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < getPositionCount(); i++) {
+            if (getPosition(i).getRow().getRowNum() != getRowNumber(i))
+                indices.add(i);
+        }
+
+        // rows cannot be swapped in place, thus the moved positions are parked behind the last row first
+        int parkingRowNumber = sheet.getLastRowNum() + 1;
+        for (Integer index : indices)
+            getPosition(index).moveTo(sheet.createRow(parkingRowNumber++));
+        for (Integer index : indices)
+            getPosition(index).moveTo(sheet.createRow(getRowNumber(index)));
+    }
+
     public ExcelPosition createPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
-        ExcelPosition position = new ExcelPosition(sheet.createRow(sheet.getLastRowNum() + 1), mapping);
+        ExcelPosition position = sheet != null ? new ExcelPosition(sheet.createRow(sheet.getLastRowNum() + 1), mapping) :
+                new ExcelPosition(new Object[mapping.getColumnCount()], mapping);
         position.setLongitude(longitude);
         position.setLatitude(latitude);
         position.setElevation(elevation);
@@ -0,0 +1,144 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.excel;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+
+/**
+ * Maps the rows of a worksheet of an Excel 2008 (.xlsx) file to {@link ExcelPosition}s
+ * while it is parsed with SAX instead of building the workbook in memory.
+ *
+ * @author Christian Pesch
+ */
+
+class ExcelSheetHandler extends DefaultHandler {
+    private final ExcelFormat format;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final List<ExcelPosition> positions = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private ColumnTypeToRowIndexMapping mapping;
+    private List<String> header;
+    private Object[] values;
+    private int columnCount, column = -1;
+    private String cellType;
+    private boolean collecting;
+
+    ExcelSheetHandler(ExcelFormat format, ReadOnlySharedStringsTable sharedStrings) {
+        this.format = format;
+        this.sharedStrings = sharedStrings;
+    }
+
+    ColumnTypeToRowIndexMapping getMapping() {
+        return mapping;
+    }
+
+    List<ExcelPosition> getPositions() {
+        return positions;
+    }
+
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row":
+                if (mapping == null)
+                    header = new ArrayList<>();
+                values = null;
+                column = -1;
+                break;
+            case "c":
+                String reference = attributes.getValue("r");
+                column = reference != null ? parseColumn(reference) : column + 1;
+                cellType = attributes.getValue("t");
+                break;
+            case "v":
+            case "is":
+                text.setLength(0);
+                collecting = true;
+                break;
+        }
+    }
+
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v":
+                collecting = false;
+                setValue(parseValue(text.toString()));
+                break;
+            case "is":
+                collecting = false;
+                setValue(text.toString());
+                break;
+            case "row":
+                if (mapping == null) {
+                    mapping = format.parseHeader(header);
+                    columnCount = mapping.getColumnCount();
+                } else if (values != null)
+                    positions.add(new ExcelPosition(values, mapping));
+                break;
+        }
+    }
+
+    public void characters(char[] ch, int start, int length) {
+        if (collecting)
+            text.append(ch, start, length);
+    }
+
+    private Object parseValue(String value) {
+        if (cellType == null || cellType.equals("n"))
+            return parseDouble(value);
+        if (cellType.equals("s"))
+            return sharedStrings.getItemAt(parseInt(value)).getString();
+        return value;
+    }
+
+    private void setValue(Object value) {
+        if (mapping == null) {
+            while (header.size() <= column)
+                header.add(null);
+            header.set(column, value instanceof Double ? Double.toString((Double) value) : (String) value);
+            return;
+        }
+
+        // only the values of mapped columns are kept
+        if (column >= columnCount)
+            return;
+        if (values == null)
+            values = new Object[columnCount];
+        values[column] = value;
+    }
+
+    private static int parseColumn(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z')
+                break;
+            column = column * 26 + c - 'A' + 1;
+        }
+        return column - 1;
+    }
+}
@@ -19,26 +19,66 @@
 */
 package slash.navigation.excel;
 
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
 
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 
+import static java.io.File.createTempFile;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.singletonList;
 import static org.apache.poi.ss.util.WorkbookUtil.createSafeSheetName;
+import static slash.common.io.Directories.getTemporaryDirectory;
+import static slash.common.io.InputOutput.copyAndClose;
+import static slash.navigation.excel.ColumnType.Time;
+import static slash.navigation.excel.ColumnType.Unsupported;
 
 /**
  * Reads Microsoft Excel 2008 (.xlsx) files.
  *
+ * Small files are read into a {@link XSSFWorkbook} to keep their formatting when written back,
+ * large files are parsed streaming. New routes and streamed routes are written with a
+ * {@link SXSSFWorkbook} which keeps only a window of rows in memory.
+ *
  * @author Christian Pesch
  */
 
 public class MicrosoftExcel2008Format extends ExcelFormat {
+    private static final Logger log = Logger.getLogger(MicrosoftExcel2008Format.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(MicrosoftExcel2008Format.class);
+    private static final String STREAMING_READ_THRESHOLD_PREFERENCE = "streamingReadThreshold";
+    private static final String STREAMING_ROW_WINDOW_PREFERENCE = "streamingRowWindow";
+
     static {
         ZipSecureFile.setMinInflateRatio(0.001);
     }
@@ -51,19 +91,104 @@ public class MicrosoftExcel2008Format extends ExcelFormat {
         return ".xlsx";
     }
 
+    private static int getStreamingReadThresholdPreference() {
+        return preferences.getInt(STREAMING_READ_THRESHOLD_PREFERENCE, 1024 * 1024);
+    }
+
+    private static int getStreamingRowWindowPreference() {
+        return preferences.getInt(STREAMING_ROW_WINDOW_PREFERENCE, 100);
+    }
+
     Sheet createSheet(String name) {
-        Workbook workbook = new XSSFWorkbook();
-        return workbook.createSheet(createSafeSheetName(name));
+        // new routes are not backed by a workbook and written streaming
+        return null;
     }
 
     public void read(InputStream source, ParserContext<ExcelRoute> context) throws IOException {
-        Workbook workbook = new XSSFWorkbook(source);
+        read(source, context, getStreamingReadThresholdPreference());
+    }
+
+    void read(InputStream source, ParserContext<ExcelRoute> context, int streamingReadThreshold) throws IOException {
+        // the file is not known for entries of archives and streams from URLs
+        File file = context.getFile();
+        if (file != null && file.length() > streamingReadThreshold) {
+            readStreaming(file, context);
+            return;
+        }
+
+        byte[] prefix = readPrefix(source, streamingReadThreshold + 1);
+        if (prefix.length > streamingReadThreshold) {
+            File temp = createTempFile("excel", getExtension(), getTemporaryDirectory());
+            try {
+                copyAndClose(new SequenceInputStream(new ByteArrayInputStream(prefix), source), new FileOutputStream(temp));
+                readStreaming(temp, context);
+            } finally {
+                if (temp.exists() && !temp.delete())
+                    log.warning("Cannot delete temporary file " + temp);
+            }
+            return;
+        }
+
+        Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(prefix));
         parseWorkbook(workbook, context);
         // do not close Workbook since this would close the underlying OPCPackage which has to be open to write later
     }
 
+    private static byte[] readPrefix(InputStream source, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        int count = 0;
+        while (count < length) {
+            int read = source.read(buffer, count, length - count);
+            if (read < 0)
+                break;
+            count += read;
+        }
+        return count < length ? Arrays.copyOf(buffer, count) : buffer;
+    }
+
+    private void readStreaming(File file, ParserContext<ExcelRoute> context) throws IOException {
+        OPCPackage opcPackage;
+        try {
+            // opening a file reads the zip entries on demand instead of buffering the whole package
+            opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Cannot open " + getName() + ": " + e.getMessage(), e);
+        }
+
+        try {
+            XSSFReader reader = new XSSFReader(opcPackage);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                long start = currentTimeMillis();
+                try (InputStream sheet = sheets.next()) {
+                    ExcelSheetHandler handler = new ExcelSheetHandler(this, sharedStrings);
+                    XMLReader xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(handler);
+                    xmlReader.parse(new InputSource(sheet));
+
+                    List<ExcelPosition> positions = handler.getPositions();
+                    log.info(format("Parsed sheet '%s' with %d rows streaming in %d milliseconds",
+                            sheets.getSheetName(), positions.size(), currentTimeMillis() - start));
+                    if (positions.size() > 0)
+                        context.appendRoute(new ExcelRoute(this, sheets.getSheetName(), handler.getMapping(), positions));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Cannot parse " + getName() + ": " + e.getMessage(), e);
+        } finally {
+            // the package is only read, never saved, and releases the file
+            opcPackage.revert();
+        }
+    }
+
     public void write(ExcelRoute route, OutputStream target, int startIndex, int endIndex) throws IOException {
         Workbook workbook = route.getWorkbook();
+        if (workbook == null) {
+            writeStreaming(singletonList(route), target, startIndex, endIndex);
+            return;
+        }
+
         try {
             workbook.write(target);
         }
@@ -78,6 +203,10 @@ public class MicrosoftExcel2008Format extends ExcelFormat {
             return;
 
         Workbook workbook = routes.get(0).getWorkbook();
+        if (workbook == null) {
+            writeStreaming(routes, target, 0, -1);
+            return;
+        }
         if(!(workbook instanceof XSSFWorkbook))
             throw new IllegalArgumentException("Workbook " + workbook + " is not XSSFWorkbook");
 
@@ -89,4 +218,64 @@ public class MicrosoftExcel2008Format extends ExcelFormat {
             target.close();
         }
     }
+
+    private void writeStreaming(List<ExcelRoute> routes, OutputStream target, int startIndex, int endIndex) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(getStreamingRowWindowPreference());
+        try {
+            CellStyle timeStyle = workbook.createCellStyle();
+            timeStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("m/d/yy h:mm"));
+
+            for (ExcelRoute route : routes) {
+                Sheet sheet = workbook.createSheet(createUniqueSheetName(workbook, route.getName()));
+                ColumnTypeToRowIndexMapping mapping = route.getMapping();
+                List<Integer> indices = mapping.getIndices();
+
+                Row header = sheet.createRow(0);
+                for (Integer index : indices)
+                    header.createCell(index).setCellValue(mapping.getName(index));
+
+                int end = endIndex < 0 ? route.getPositionCount() : endIndex;
+                for (int i = startIndex; i < end; i++) {
+                    ExcelPosition position = route.getPosition(i);
+                    Row row = sheet.createRow(i - startIndex + 1);
+                    for (Integer index : indices) {
+                        ColumnType columnType = mapping.getColumnType(index);
+                        // unsupported columns are only known by their index in the mapping of their position
+                        Object value = position.getMapping() == mapping ? position.getValue(index) :
+                                columnType.equals(Unsupported) ? null : position.getValue(columnType);
+                        if (value != null)
+                            setCellValue(row.createCell(index), value, columnType.equals(Time) ? timeStyle : null);
+                    }
+                }
+            }
+
+            workbook.write(target);
+        } finally {
+            workbook.dispose();
+            target.flush();
+            target.close();
+        }
+    }
+
+    private static String createUniqueSheetName(Workbook workbook, String name) {
+        String safeName = createSafeSheetName(name);
+        String result = safeName;
+        for (int i = 2; workbook.getSheet(result) != null; i++) {
+            String suffix = " (" + i + ")";
+            // sheet names are limited to 31 characters
+            result = safeName.substring(0, min(safeName.length(), 31 - suffix.length())) + suffix;
+        }
+        return result;
+    }
+
+    private static void setCellValue(Cell cell, Object value, CellStyle style) {
+        if (value instanceof Double)
+            cell.setCellValue((Double) value);
+        else if (value instanceof CompactCalendar)
+            cell.setCellValue(((CompactCalendar) value).getTime());
+        else
+            cell.setCellValue(value.toString());
+        if (style != null)
+            cell.setCellStyle(style);
+    }
 }
@@ -160,6 +160,7 @@ public class GpxRoute extends BaseRoute<GpxPosition, GpxFormat> {
         for (GpxPosition position : getPositions()) {
             ExcelPosition excelPosition = route.createPosition(position.getLongitude(), position.getLatitude(), position.getElevation(), position.getSpeed(), position.getTime(), position.getDescription());
             transferExtendedSensorData(position, excelPosition);
+            excelPositions.add(excelPosition);
         }
         return route;
     }
@@ -22,6 +22,7 @@ package slash.navigation.itn;
 
 import slash.common.io.Transfer;
 import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.base.TextNavigationFormat;
@@ -38,7 +39,6 @@ import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 import static slash.common.io.Transfer.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteComments.TRIPMASTER_DATE;
@@ -180,7 +180,7 @@ public abstract class TomTomRouteFormat extends TextNavigationFormat<TomTomRoute
         }
         buffer.append(position.getDescription());
         if (position.hasTime()) {
-            buffer.append(" : ").append(createDateFormat(TRIPMASTER_DATE).format(position.getTime().getTime()));
+            buffer.append(" : ").append(DateTimeCodec.format(position.getTime(), TRIPMASTER_DATE));
             buffer.append(" - ").append(position.getElevation() != null ? position.getElevation() : 0).append(" m");
             buffer.append(" - ").append(position.getSpeed() != null ? position.getSpeed() : 0).append(" Km/h");
             buffer.append(" - ").append(position.getHeading() != null ? position.getHeading() : 0).append(" deg");
@@ -195,7 +195,7 @@ public abstract class TomTomRouteFormat extends TextNavigationFormat<TomTomRoute
         StringBuilder buffer = new StringBuilder();
         buffer.append(position.getDescription());
         if (position.hasTime()) {
-            buffer.append(" : ").append(createDateFormat(TRIPMASTER_TIME).format(position.getTime().getTime()));
+            buffer.append(" : ").append(DateTimeCodec.format(position.getTime(), TRIPMASTER_TIME));
             buffer.append(" - ").append(position.getElevation() != null ? position.getElevation() : 0).append(" m");
             buffer.append(" - ").append(position.getSpeed() != null ? position.getSpeed() : 0).append(" Km/h");
             buffer.append(" - ").append(position.getHeading() != null ? position.getHeading() : 0).append(" deg");
@@ -23,7 +23,6 @@ package slash.navigation.kml;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
-import slash.navigation.common.NavigationPosition;
 import slash.navigation.kml.binding20.*;
 
 import javax.xml.bind.JAXBElement;
@@ -40,7 +39,6 @@ import static slash.common.type.ISO8601.formatDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.common.PositionParser.parsePosition;
-import static slash.navigation.common.PositionParser.parsePositions;
 import static slash.navigation.kml.KmlUtil.marshal20;
 import static slash.navigation.kml.KmlUtil.unmarshal20;
 
@@ -208,18 +206,15 @@ public class Kml20Format extends KmlFormat {
     }
 
     private void extractWayPointsAndTracksFromNetworkLinks(List<NetworkLink> networkLinks, ParserContext<KmlRoute> context) throws IOException {
+        List<String> urls = new ArrayList<>();
         for (NetworkLink networkLink : networkLinks) {
-            String url = networkLink.getUrl().getHref();
-            context.parse(url);
+            urls.add(networkLink.getUrl().getHref());
         }
+        context.parse(urls);
     }
 
     private List<KmlPosition> extractPositions(LineString lineString) {
-        List<KmlPosition> result = new ArrayList<>();
-        for (NavigationPosition position : parsePositions(lineString.getCoordinates())) {
-            result.add(asKmlPosition(position));
-        }
-        return result;
+        return asKmlPositions(lineString.getCoordinates());
     }
 
     private List<KmlPosition> extractPositions(List<Object> elements) {
@@ -279,11 +274,7 @@ public class Kml20Format extends KmlFormat {
         placemarkList.add(multiGeometry);
         LineString lineString = objectFactory.createLineString();
         multiGeometry.getExtrudeOrTessellateOrAltitudeMode().add(lineString);
-        StringBuilder coordinates = new StringBuilder();
-        for (KmlPosition position : route.getPositions()) {
-            coordinates.append(createCoordinates(position, false)).append(" ");
-        }
-        lineString.setCoordinates(coordinates.toString());
+        lineString.setCoordinates(createCoordinates(route.getPositions()));
         return placemark;
     }
 
@@ -296,11 +287,7 @@ public class Kml20Format extends KmlFormat {
         placemarkList.add(objectFactory.createStyleUrl("#" + TRACK_LINE_STYLE));
         LineString lineString = objectFactory.createLineString();
         placemarkList.add(lineString);
-        StringBuilder coordinates = new StringBuilder();
-        for (KmlPosition position : route.getPositions()) {
-            coordinates.append(createCoordinates(position, false)).append(" ");
-        }
-        lineString.setCoordinates(coordinates.toString());
+        lineString.setCoordinates(createCoordinates(route.getPositions()));
         return placemark;
     }
 
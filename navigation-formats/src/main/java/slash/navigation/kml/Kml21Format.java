@@ -151,13 +151,14 @@ public class Kml21Format extends KmlFormat {
     }
 
     private void extractWayPointsAndTracksFromNetworkLinks(List<JAXBElement<NetworkLinkType>> networkLinkTypes, ParserContext<KmlRoute> context) throws IOException {
+        List<String> urls = new ArrayList<>();
         for (JAXBElement<NetworkLinkType> networkLinkType : networkLinkTypes) {
             LinkType linkType = networkLinkType.getValue().getUrl();
             if (linkType != null) {
-                String url = linkType.getHref();
-                context.parse(url);
+                urls.add(linkType.getHref());
             }
         }
+        context.parse(urls);
     }
 
     private List<KmlPosition> extractPositions(JAXBElement<? extends GeometryType> geometryType) {
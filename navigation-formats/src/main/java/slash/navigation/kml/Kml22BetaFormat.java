@@ -152,11 +152,11 @@ public class Kml22BetaFormat extends KmlFormat {
     }
 
     private void extractWayPointsAndTracksFromNetworkLinks(List<JAXBElement<NetworkLinkType>> networkLinkTypes, ParserContext<KmlRoute> context) throws IOException {
+        List<String> urls = new ArrayList<>();
         for (JAXBElement<NetworkLinkType> networkLinkType : networkLinkTypes) {
             Link link = networkLinkType.getValue().getLink();
             if (link != null) {
-                String url = link.getHref();
-                context.parse(url);
+                urls.add(link.getHref());
             }
 
             List<JAXBElement<?>> rest = networkLinkType.getValue().getRest();
@@ -164,11 +164,11 @@ public class Kml22BetaFormat extends KmlFormat {
                 Object rValue = r.getValue();
                 if (rValue instanceof LinkType) {
                     LinkType linkType = (LinkType) rValue;
-                    String url = linkType.getHref();
-                    context.parse(url);
+                    urls.add(linkType.getHref());
                 }
             }
         }
+        context.parse(urls);
     }
 
     private List<KmlPosition> extractPositions(JAXBElement<? extends AbstractGeometryType> geometryType) {
@@ -48,7 +48,8 @@ import static slash.common.type.ISO8601.formatDate;
 import static slash.navigation.base.RouteCharacteristics.*;
 import static slash.navigation.common.Bearing.EARTH_RADIUS;
 import static slash.navigation.common.NavigationConversion.formatPositionAsString;
-import static slash.navigation.common.PositionParser.parseExtensionPositions;
+import static slash.navigation.common.CoordinatesScanner.asDouble;
+import static slash.navigation.common.CoordinatesScanner.scanExtensionPositions;
 import static slash.navigation.kml.KmlUtil.marshal22;
 import static slash.navigation.kml.KmlUtil.unmarshal22;
 import static slash.navigation.kml.binding22.UnitsEnumType.FRACTION;
@@ -194,11 +195,11 @@ public class Kml22Format extends KmlFormat {
     }
 
     private void extractWayPointsAndTracksFromNetworkLinks(List<JAXBElement<NetworkLinkType>> networkLinkTypes, ParserContext<KmlRoute> context) throws IOException {
+        List<String> urls = new ArrayList<>();
         for (JAXBElement<NetworkLinkType> networkLinkType : networkLinkTypes) {
             Link link = networkLinkType.getValue().getLink();
             if (link != null) {
-                String url = link.getHref();
-                context.parse(url);
+                urls.add(link.getHref());
             }
 
             List<JAXBElement<?>> rest = networkLinkType.getValue().getRest();
@@ -206,19 +207,18 @@ public class Kml22Format extends KmlFormat {
                 Object rValue = r.getValue();
                 if (rValue instanceof LinkType) {
                     LinkType linkType = (LinkType) rValue;
-                    String url = linkType.getHref();
-                    context.parse(url);
+                    urls.add(linkType.getHref());
                 }
             }
         }
+        context.parse(urls);
     }
 
     private List<KmlPosition> asExtendedKmlPositions(List<String> strings) {
-        List<KmlPosition> result = new ArrayList<>();
+        final List<KmlPosition> result = new ArrayList<>(strings.size());
         for (String string : strings) {
-            for (NavigationPosition position : parseExtensionPositions(string)) {
-                result.add(asKmlPosition(position));
-            }
+            scanExtensionPositions(string, (longitude, latitude, elevation) ->
+                    result.add(new KmlPosition(asDouble(longitude), asDouble(latitude), asDouble(elevation), null, null, null)));
         }
         return result;
     }
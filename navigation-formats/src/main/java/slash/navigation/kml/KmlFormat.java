@@ -21,10 +21,11 @@
 package slash.navigation.kml;
 
 import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.base.RouteCharacteristics;
+import slash.navigation.common.CoordinatesWriter;
 import slash.navigation.common.NavigationPosition;
 
-import java.text.ParseException;
 import java.util.*;
 import java.util.prefs.Preferences;
 import java.util.regex.Matcher;
@@ -35,11 +36,10 @@ import static slash.common.io.Transfer.parseDouble;
 import static slash.common.io.Transfer.trim;
 import static slash.common.type.CompactCalendar.*;
 import static slash.common.type.HexadecimalNumber.decodeBytes;
-import static slash.common.type.ISO8601.parseDate;
+import static slash.common.type.DateTimeCodec.parseISO8601;
 import static slash.navigation.base.RouteCharacteristics.*;
-import static slash.navigation.common.NavigationConversion.formatElevationAsString;
-import static slash.navigation.common.NavigationConversion.formatPositionAsString;
-import static slash.navigation.common.PositionParser.parsePositions;
+import static slash.navigation.common.CoordinatesScanner.asDouble;
+import static slash.navigation.common.CoordinatesScanner.scanPositions;
 
 /**
  * The base of all Google Earth formats.
@@ -86,9 +86,13 @@ public abstract class KmlFormat extends BaseKmlFormat {
             // to make sure the numbers are separated if they were already parsed by the XML parse
             buffer.append(' ');
         }
-        List<KmlPosition> result = new ArrayList<>();
-        for (NavigationPosition position : parsePositions(buffer.toString()))
-            result.add(asKmlPosition(position));
+        return asKmlPositions(buffer);
+    }
+
+    protected List<KmlPosition> asKmlPositions(CharSequence coordinates) {
+        final List<KmlPosition> result = new ArrayList<>();
+        scanPositions(coordinates, (longitude, latitude, elevation) ->
+                result.add(new KmlPosition(asDouble(longitude), asDouble(latitude), asDouble(elevation), null, null, null)));
         return result;
     }
 
@@ -121,9 +125,18 @@ public abstract class KmlFormat extends BaseKmlFormat {
     }
 
     protected String createCoordinates(KmlPosition position, boolean separateWithSpace) {
-        return formatPositionAsString(position.getLongitude()) + (separateWithSpace ? " " : ",") +
-                formatPositionAsString(position.getLatitude()) + (separateWithSpace ? " " : ",") +
-                formatElevationAsString(position.getElevation());
+        return new CoordinatesWriter().format(position.getLongitude(), position.getLatitude(),
+                position.getElevation(), separateWithSpace ? ' ' : ',');
+    }
+
+    protected String createCoordinates(List<KmlPosition> positions) {
+        CoordinatesWriter writer = new CoordinatesWriter();
+        StringBuilder buffer = new StringBuilder(positions.size() * 32);
+        for (KmlPosition position : positions) {
+            writer.append(buffer, position.getLongitude(), position.getLatitude(), position.getElevation(), ',');
+            buffer.append(' ');
+        }
+        return buffer.toString();
     }
 
     protected RouteCharacteristics parseCharacteristics(String nameToParse, RouteCharacteristics fallback) {
@@ -142,14 +155,8 @@ public abstract class KmlFormat extends BaseKmlFormat {
     }
 
     protected CompactCalendar parseTime(String time) {
-        if (time != null) {
-            Calendar calendar = parseDate(time);
-            if (calendar != null) {
-                calendar.setTimeZone(UTC);
-                return fromCalendar(calendar);
-            }
-        }
-        return null;
+        CompactCalendar calendar = parseISO8601(time);
+        return calendar != null ? fromMillis(calendar.getTimeInMillis()) : null;
     }
 
     protected void enrichPosition(KmlPosition position, CompactCalendar time, String name, String description, CompactCalendar startDate) {
@@ -188,43 +195,35 @@ public abstract class KmlFormat extends BaseKmlFormat {
             Matcher tavelLogMatcher = TAVELLOG_DATE_PATTERN.matcher(description);
             if (tavelLogMatcher.matches()) {
                 String timeString = tavelLogMatcher.group(1);
-                try {
-                    Date parsed = createDateFormat(TAVELLOG_DATE).parse(timeString);
-                    position.setTime(fromDate(parsed));
-                } catch (ParseException e) {
-                    // intentionally left empty;
+                CompactCalendar time = DateTimeCodec.parse(timeString, TAVELLOG_DATE);
+                if (time != null) {
+                    position.setTime(time);
                 }
             }
             Matcher navigonMatcher = NAVIGON6310_TIME_AND_ELEVATION_PATTERN.matcher(description);
             if (navigonMatcher.matches()) {
                 String timeString = navigonMatcher.group(1);
-                try {
-                    Date parsed = createDateFormat(NAVIGON6310_TIME).parse(timeString);
-                    position.setTime(fromDate(parsed));
+                CompactCalendar time = DateTimeCodec.parse(timeString, NAVIGON6310_TIME);
+                if (time != null) {
+                    position.setTime(time);
                     position.setStartDate(startDate);
-                } catch (ParseException e) {
-                    // intentionally left empty;
                 }
             }
             Matcher bt747Matcher = BT747_TIME_AND_ELEVATION_PATTERN.matcher(description);
             if (bt747Matcher.matches()) {
                 String timeString = bt747Matcher.group(1);
-                try {
-                    Date parsed = createDateFormat(BT747_DATE).parse(timeString);
-                    position.setTime(fromDate(parsed));
-                } catch (ParseException e) {
-                    // intentionally left empty;
+                CompactCalendar time = DateTimeCodec.parse(timeString, BT747_DATE);
+                if (time != null) {
+                    position.setTime(time);
                 }
             }
             Matcher qstarzMatcher = QSTARTZ_DATE_AND_SPEED_PATTERN.matcher(description);
             if (qstarzMatcher.matches()) {
                 String dateString = qstarzMatcher.group(1);
                 String timeString = qstarzMatcher.group(2);
-                try {
-                    Date parsed = createDateFormat(TAVELLOG_DATE).parse(dateString + " " + timeString);
-                    position.setTime(fromDate(parsed));
-                } catch (ParseException e) {
-                    // intentionally left empty;
+                CompactCalendar time = DateTimeCodec.parse(dateString + " " + timeString, TAVELLOG_DATE);
+                if (time != null) {
+                    position.setTime(time);
                 }
             }
         }
@@ -22,6 +22,7 @@ package slash.navigation.mm;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.PrintWriter;
@@ -31,7 +32,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.parseDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 
@@ -103,7 +103,7 @@ public class MagicMaps2GoFormat extends SimpleLineBasedFormat<SimpleRoute> {
         String latitude = formatDoubleAsString(position.getLatitude(), 7);
         String longitude = formatDoubleAsString(position.getLongitude(), 7);
         String elevation = formatDoubleAsString(position.getElevation(), 7);
-        String dateAndTime = position.hasTime() ? createDateFormat(DATE_AND_TIME_FORMAT).format(position.getTime().getTime()) : "00.00.00 00:00:=00";
+        String dateAndTime = position.hasTime() ? DateTimeCodec.format(position.getTime(), DATE_AND_TIME_FORMAT) : "00.00.00 00:00:=00";
         writer.println(latitude + SEPARATOR + longitude + SEPARATOR + elevation + SEPARATOR + dateAndTime);
     }
 }
\ No newline at end of file
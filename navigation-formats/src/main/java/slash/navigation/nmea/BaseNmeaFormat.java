@@ -21,7 +21,10 @@
 package slash.navigation.nmea;
 
 import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
+import slash.navigation.base.ChunkedPositionConsumer;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.PositionStreamingFormat;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.base.SimpleFormat;
 
@@ -30,15 +33,10 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
-import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 import static java.util.Locale.US;
@@ -47,6 +45,7 @@ import static slash.common.io.Transfer.trim;
 import static slash.common.type.CompactCalendar.*;
 import static slash.common.type.HexadecimalNumber.decodeBytes;
 import static slash.common.type.HexadecimalNumber.encodeByte;
+import static slash.navigation.nmea.NmeaDateTimeParser.NOT_PARSEABLE;
 import static slash.navigation.base.RouteCharacteristics.Track;
 
 /**
@@ -55,7 +54,7 @@ import static slash.navigation.base.RouteCharacteristics.Track;
  * @author Christian Pesch
  */
 
-public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
+public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> implements PositionStreamingFormat<NmeaPosition> {
     private static final Preferences preferences = Preferences.userNodeForPackage(BaseNmeaFormat.class);
     protected final Logger log;
 
@@ -63,28 +62,24 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     static final String BEGIN_OF_LINE = "^\\$G[NP]";
     static final String END_OF_LINE = "\\*[0-9A-Fa-f][0-9A-Fa-f]$";
 
-    private static final Pattern LINE_PATTERN = Pattern.compile("(^@.*|^\\$.*|" + BEGIN_OF_LINE + ".*" + END_OF_LINE + ")");
-
     private static final String DATE_AND_PRECISE_TIME_FORMAT = "ddMMyy HHmmss.SSS";
     private static final String PRECISE_DATE_AND_TIME_FORMAT = "ddMMyyyy HHmmss";
     private static final String DATE_AND_TIME_FORMAT = "ddMMyy HHmmss";
     private static final String DATE_FORMAT = "ddMMyy";
     private static final String PRECISE_TIME_FORMAT = "HHmmss.SSS";
     private static final String TIME_FORMAT = "HHmmss";
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    static {
-        int maximumFractionDigits = preferences.getInt("positionMaximumFractionDigits", 4);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(4);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(5);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(4);
+    // number formats are not thread-safe and formats are written in parallel by the batch converter
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(() -> createPositionNumberFormat(5));
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(() -> createPositionNumberFormat(4));
+
+    private static NumberFormat createPositionNumberFormat(int integerDigits) {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(US);
+        numberFormat.setGroupingUsed(false);
+        numberFormat.setMinimumFractionDigits(4);
+        numberFormat.setMaximumFractionDigits(preferences.getInt("positionMaximumFractionDigits", 4));
+        numberFormat.setMinimumIntegerDigits(integerDigits);
+        numberFormat.setMaximumIntegerDigits(integerDigits);
+        return numberFormat;
     }
 
     public BaseNmeaFormat() {
@@ -103,9 +98,20 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         return Track;
     }
 
+    public boolean isStreamingPositions() {
+        return true;
+    }
+
     public void read(BufferedReader reader, String encoding, ParserContext<NmeaRoute> context) throws IOException {
-        List<NmeaPosition> positions = new ArrayList<>();
+        ChunkedPositionConsumer<NmeaPosition> consumer = new ChunkedPositionConsumer<>(context);
+        readPositions(reader, context, consumer);
+        List<NmeaPosition> positions = consumer.finish();
+
+        if (positions.size() > 0)
+            context.appendRoute(createRoute(getCharacteristics(), null, positions));
+    }
 
+    public void readPositions(BufferedReader reader, ParserContext context, PositionConsumer<NmeaPosition> consumer) throws IOException {
         CompactCalendar startDate = context.getStartDate();
         CompactCalendar originalStartDate = startDate;
         int lineCount = 0;
@@ -127,7 +133,9 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
                         position.setStartDate(startDate);
 
                     if (haveDifferentLongitudeAndLatitude(previous, position) || haveDifferentTime(previous, position) && !validStartDate) {
-                        positions.add(position);
+                        // the previous position is complete since no more sentences are merged into it
+                        if (previous != null)
+                            consumer.accept(previous);
                         previous = position;
                     } else if (previous != null) {
                         mergePositions(previous, position, originalStartDate);
@@ -142,8 +150,8 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
             }
         }
 
-        if (positions.size() > 0)
-            context.appendRoute(createRoute(getCharacteristics(), null, positions));
+        if (previous != null)
+            consumer.accept(previous);
     }
 
     boolean haveDifferentLongitudeAndLatitude(NmeaPosition predecessor, NmeaPosition successor) {
@@ -202,8 +210,20 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     }
 
     protected boolean isValidLine(String line) {
-        Matcher matcher = LINE_PATTERN.matcher(line);
-        return matcher.matches();
+        if (line.length() == 0)
+            return false;
+        char first = line.charAt(0);
+        if (first != '@' && first != '$')
+            return false;
+        for (int i = 1; i < line.length(); i++) {
+            if (isLineTerminator(line.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
     private byte computeChecksum(String line) {
@@ -227,6 +247,24 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         return true;
     }
 
+    boolean hasValidChecksum(NmeaTokenizer tokenizer) {
+        if (!tokenizer.isChecksumValid()) {
+            String line = tokenizer.getLine();
+            log.severe("Checksum of '" + line + "' is invalid. Expected '" + encodeByte((byte) tokenizer.getChecksum()) +
+                    "' but found '" + line.substring(line.length() - 2) + "'");
+            return preferences.getBoolean("ignoreInvalidChecksum", false);
+        }
+        return true;
+    }
+
+    boolean hasValidFix(NmeaTokenizer tokenizer, int field, char valueThatIndicatesNoFix) {
+        if (tokenizer.isEqual(field, valueThatIndicatesNoFix)) {
+            log.severe("Fix for '" + tokenizer.getLine() + "' is invalid. Contains '" + valueThatIndicatesNoFix + "'");
+            return preferences.getBoolean("ignoreInvalidFix", false);
+        }
+        return true;
+    }
+
     protected boolean hasValidFix(String line, String field, String valueThatIndicatesNoFix) {
         if (field != null && field.equals(valueThatIndicatesNoFix)) {
             log.severe("Fix for '" + line + "' is invalid. Contains '" + valueThatIndicatesNoFix + "'");
@@ -243,14 +281,10 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         time = trim(time);
         if (time == null)
             return null;
-        // 130441.89
-        try {
-            Date parsed = createDateFormat(PRECISE_TIME_FORMAT).parse(time);
-            return fromDate(parsed);
-        } catch (ParseException e) {
-            // intentionally left empty
-        }
-        // 130441
+        long millis = NmeaDateTimeParser.parseTime(time);
+        if (millis != NOT_PARSEABLE)
+            return fromMillis(millis);
+        // reports that neither 130441.89 nor 130441 could be parsed
         return parseDate(time, TIME_FORMAT);
     }
 
@@ -259,24 +293,22 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
         date = trim(date);
         if (date == null)
             return parseTime(time);
+        long millis = NmeaDateTimeParser.parseDateAndTime(date, time);
+        if (millis != NOT_PARSEABLE)
+            return fromMillis(millis);
+
         // workaround for broken CoPilot on Samsung Galaxy S5
         if(date.length() == 5)
             date = "0" + date;
         String dateAndTime = date + " " + time;
         // date: 160607 time: 130441.89
-        try {
-            Date parsed = createDateFormat(DATE_AND_PRECISE_TIME_FORMAT).parse(dateAndTime);
-            return fromDate(parsed);
-        } catch (ParseException e) {
-            // intentionally left empty
-        }
+        CompactCalendar parsed = DateTimeCodec.parse(dateAndTime, DATE_AND_PRECISE_TIME_FORMAT);
+        if (parsed != null)
+            return parsed;
         // date: 160607 time: 130441
-        try {
-            Date parsed = createDateFormat(DATE_AND_TIME_FORMAT).parse(dateAndTime);
-            return fromDate(parsed);
-        } catch (ParseException e) {
-            // intentionally left empty
-        }
+        parsed = DateTimeCodec.parse(dateAndTime, DATE_AND_TIME_FORMAT);
+        if (parsed != null)
+            return parsed;
         // date: 16062007 time: 130441
         return parseDate(dateAndTime, PRECISE_DATE_AND_TIME_FORMAT);
     }
@@ -285,25 +317,25 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     protected String formatTime(CompactCalendar time) {
         if (time == null)
             return "";
-        return createDateFormat(PRECISE_TIME_FORMAT).format(time.getTime());
+        return DateTimeCodec.format(time, PRECISE_TIME_FORMAT);
     }
 
     protected String formatDate(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DATE_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DATE_FORMAT);
     }
 
     protected String formatLongitude(Double longitude) {
         if (longitude == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(longitude);
+        return LONGITUDE_NUMBER_FORMAT.get().format(longitude);
     }
 
     protected String formatLatitude(Double latitude) {
         if (latitude == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(latitude);
+        return LATITUDE_NUMBER_FORMAT.get().format(latitude);
     }
 
     protected void writeSentence(PrintWriter writer, String sentence) {
@@ -313,6 +345,18 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
 
     protected abstract void writePosition(NmeaPosition position, PrintWriter writer);
 
+    public void beginPositions(PrintWriter writer, String name) {
+        writeHeader(writer);
+    }
+
+    public void appendPosition(NmeaPosition position, PrintWriter writer, int index) {
+        writePosition(position, writer);
+    }
+
+    public void endPositions(PrintWriter writer, int positionCount) {
+        writeFooter(writer);
+    }
+
     protected void writeHeader(PrintWriter writer) {
     }
 
@@ -49,21 +49,18 @@ import static slash.navigation.base.RouteCharacteristics.Route;
 public class MagellanRouteFormat extends BaseNmeaFormat {
     private static final Preferences preferences = Preferences.userNodeForPackage(MagellanRouteFormat.class);
 
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-
-    static {
-        int maximumFractionDigits = preferences.getInt("magellanPositionMaximumFractionDigits", 5);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(5);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(4);
+    // number formats are not thread-safe and formats are written in parallel by the batch converter
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(() -> createPositionNumberFormat(5));
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(() -> createPositionNumberFormat(4));
+
+    private static NumberFormat createPositionNumberFormat(int integerDigits) {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(Locale.US);
+        numberFormat.setGroupingUsed(false);
+        numberFormat.setMinimumFractionDigits(5);
+        numberFormat.setMaximumFractionDigits(preferences.getInt("magellanPositionMaximumFractionDigits", 5));
+        numberFormat.setMinimumIntegerDigits(integerDigits);
+        numberFormat.setMaximumIntegerDigits(integerDigits);
+        return numberFormat;
     }
 
     private static final String HEADER_LINE = "$PMGNFMT,%RTE,NUM_MSG,ID,FLAG,NUM,NAME,WPT_NAME1,ICON1,WPT_NAME2,ICON2,CHKSUM ?%WPL,LAT,HEMI,LON,HEMI,ALT,UNIT,NAME,MSG,ICON,CHKSUM,%META,ASCII";
@@ -95,6 +92,11 @@ public class MagellanRouteFormat extends BaseNmeaFormat {
         return preferences.getInt("maximumMagellanRoutePositionCount", 49);
     }
 
+    public boolean isStreamingPositions() {
+        // writes route sentences that refer to all positions
+        return false;
+    }
+
     @SuppressWarnings({"unchecked"})
     public <P extends NavigationPosition> NmeaRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
         return new NmeaRoute(this, characteristics, (List<NmeaPosition>) positions);
@@ -124,13 +126,13 @@ public class MagellanRouteFormat extends BaseNmeaFormat {
     protected String formatLongitude(Double longitude) {
         if (longitude == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(longitude);
+        return LONGITUDE_NUMBER_FORMAT.get().format(longitude);
     }
 
     protected String formatLatitude(Double latitude) {
         if (latitude == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(latitude);
+        return LATITUDE_NUMBER_FORMAT.get().format(latitude);
     }
 
     String formatRouteName(String name) {
@@ -0,0 +1,136 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import slash.common.type.DateTimeCodec;
+
+import static slash.common.type.DateTimeCodec.parseMillis;
+import static slash.common.type.DateTimeCodec.toMillis;
+import static slash.common.type.DateTimeCodec.toMillisWithTwoDigitYear;
+
+/**
+ * Parses the NMEA date formats ddMMyy and ddMMyyyy and the time formats HHmmss and
+ * HHmmss.SSS arithmetically with the same lenient results as a {@link java.text.SimpleDateFormat}.
+ * Times of other lengths are left to the {@link DateTimeCodec}.
+ *
+ * @author Christian Pesch
+ */
+
+class NmeaDateTimeParser {
+    static final long NOT_PARSEABLE = DateTimeCodec.NOT_PARSEABLE;
+    private static final String PRECISE_TIME_FORMAT = "HHmmss.SSS";
+    private static final String TIME_FORMAT = "HHmmss";
+
+    private NmeaDateTimeParser() {
+    }
+
+    /**
+     * Parses HHmmss and HHmmss.SSS, where the fraction is taken as milliseconds like
+     * SimpleDateFormat does, i.e. 130441.89 is 13:04:41 and 89 milliseconds.
+     */
+    static long parseTime(CharSequence string, int start, int end) {
+        while (start < end && string.charAt(start) <= ' ')
+            start++;
+        while (end > start && string.charAt(end - 1) <= ' ')
+            end--;
+        long millis = parseFixedWidthTime(string, start, end);
+        if (millis != NOT_PARSEABLE || start == end)
+            return millis;
+
+        // like 13044 or 130441. which SimpleDateFormat accepts, too
+        String time = string.subSequence(start, end).toString();
+        millis = parseMillis(time, PRECISE_TIME_FORMAT);
+        return millis != NOT_PARSEABLE ? millis : parseMillis(time, TIME_FORMAT);
+    }
+
+    private static long parseFixedWidthTime(CharSequence string, int start, int end) {
+        if (end - start < 6)
+            return NOT_PARSEABLE;
+
+        int hours = parseDigits(string, start, start + 2);
+        int minutes = parseDigits(string, start + 2, start + 4);
+        int seconds = parseDigits(string, start + 4, start + 6);
+        if (hours < 0 || minutes < 0 || seconds < 0)
+            return NOT_PARSEABLE;
+
+        int milliseconds = 0;
+        if (end - start > 6) {
+            if (string.charAt(start + 6) != '.' || end - start == 7 || end - start > 16)
+                return NOT_PARSEABLE;
+            milliseconds = parseDigits(string, start + 7, end);
+            if (milliseconds < 0)
+                return NOT_PARSEABLE;
+        }
+        return hours * 3600000L + minutes * 60000L + seconds * 1000L + milliseconds;
+    }
+
+    static long parseTime(String time) {
+        return time != null ? parseTime(time, 0, time.length()) : NOT_PARSEABLE;
+    }
+
+    /**
+     * Parses ddMMyy and ddMMyyyy followed by a time, where two digit years are
+     * resolved within the century window SimpleDateFormat uses.
+     */
+    static long parseDateAndTime(CharSequence date, int dateStart, int dateEnd, long timeMillis) {
+        if (timeMillis == NOT_PARSEABLE)
+            return NOT_PARSEABLE;
+        while (dateStart < dateEnd && date.charAt(dateStart) <= ' ')
+            dateStart++;
+        while (dateEnd > dateStart && date.charAt(dateEnd - 1) <= ' ')
+            dateEnd--;
+
+        int length = dateEnd - dateStart;
+        int day, month, year;
+        // workaround for broken CoPilot on Samsung Galaxy S5
+        if (length == 5) {
+            day = parseDigits(date, dateStart, dateStart + 1);
+            month = parseDigits(date, dateStart + 1, dateStart + 3);
+            year = parseDigits(date, dateStart + 3, dateEnd);
+        } else if (length == 6 || length == 8) {
+            day = parseDigits(date, dateStart, dateStart + 2);
+            month = parseDigits(date, dateStart + 2, dateStart + 4);
+            year = parseDigits(date, dateStart + 4, dateEnd);
+        } else
+            return NOT_PARSEABLE;
+        if (day < 0 || month < 0 || year < 0)
+            return NOT_PARSEABLE;
+
+        return length != 8 ? toMillisWithTwoDigitYear(year, month, day, timeMillis) : toMillis(year, month, day, timeMillis);
+    }
+
+    static long parseDateAndTime(String date, String time) {
+        if (date == null)
+            return NOT_PARSEABLE;
+        return parseDateAndTime(date, 0, date.length(), parseTime(time));
+    }
+
+    private static int parseDigits(CharSequence string, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9')
+                return -1;
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -21,6 +21,7 @@
 package slash.navigation.nmea;
 
 import slash.common.type.CompactCalendar;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.common.ValueAndOrientation;
@@ -30,12 +31,12 @@ import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.List;
 import java.util.prefs.Preferences;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.util.Locale.US;
 import static slash.common.io.Transfer.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.nmea.NmeaDateTimeParser.NOT_PARSEABLE;
+import static slash.navigation.nmea.NmeaTokenizer.*;
 import static slash.navigation.common.UnitConversion.kiloMeterToNauticMiles;
 import static slash.navigation.common.UnitConversion.nauticMilesToKiloMeter;
 
@@ -50,340 +51,338 @@ import static slash.navigation.common.UnitConversion.nauticMilesToKiloMeter;
 public class NmeaFormat extends BaseNmeaFormat {
     private static final Preferences preferences = Preferences.userNodeForPackage(NmeaFormat.class);
 
-    private static final NumberFormat ALTITUDE_AND_SPEED_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    static {
-        int maximumFractionDigits = preferences.getInt("altitudeSpeedMaximumFractionDigits", 1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setGroupingUsed(false);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMinimumFractionDigits(1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMinimumIntegerDigits(1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMaximumIntegerDigits(6);
-    }
+    private static final ThreadLocal<NumberFormat> ALTITUDE_AND_SPEED_NUMBER_FORMAT = ThreadLocal.withInitial(() -> {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(US);
+        numberFormat.setGroupingUsed(false);
+        numberFormat.setMinimumFractionDigits(1);
+        numberFormat.setMaximumFractionDigits(preferences.getInt("altitudeSpeedMaximumFractionDigits", 1));
+        numberFormat.setMinimumIntegerDigits(1);
+        numberFormat.setMaximumIntegerDigits(6);
+        return numberFormat;
+    });
 
     private static final String DAY_FORMAT = "dd";
     private static final String MONTH_FORMAT = "MM";
     private static final String YEAR_FORMAT = "yyyy";
 
+    private static final ThreadLocal<NmeaTokenizer> tokenizers = ThreadLocal.withInitial(NmeaTokenizer::new);
+
+    public String getExtension() {
+        return ".nmea";
+    }
+
+    public String getName() {
+        return "NMEA 0183 Sentences (*" + getExtension() + ")";
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public <P extends NavigationPosition> NmeaRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
+        return new NmeaRoute(this, characteristics, (List<NmeaPosition>) positions);
+    }
+
+    private NmeaTokenizer tokenize(String line) {
+        NmeaTokenizer tokenizer = tokenizers.get();
+        return tokenizer.tokenize(line) ? tokenizer : null;
+    }
+
+    private static boolean isPosition(NmeaTokenizer tokenizer, int latitude) {
+        return tokenizer.consistsOf(latitude, COORDINATE, false) && tokenizer.isOneOf(latitude + 1, "NS") &&
+                tokenizer.consistsOf(latitude + 2, COORDINATE, false) && tokenizer.isOneOf(latitude + 3, "WE");
+    }
+
+    private static boolean consistOf(NmeaTokenizer tokenizer, int from, int to, String allowed) {
+        for (int i = from; i <= to; i++) {
+            if (!tokenizer.consistsOf(i, allowed, true))
+                return false;
+        }
+        return true;
+    }
+
     // $GPRMC,180114,A,4808.9490,N,00928.9610,E,000.0,000.0,160607,,   ,A*76
     // $GPRMC,140403.000,A,4837.5194,N,00903.4022,E,15.00,0.00,260707,,  *3E
     // $GPRMC,172103.38,V,4424.5358,N,06812.3754,W,0.000,0.000,101010,0,W,N*3A
     // $GNRMC,162622.00,A,4857.29112,N,00850.57680,E,0.813,251.19,160217,,,D,V*0D
-    private static final Pattern RMC_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "RMC" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +     // UTC Time
-                    "[AV]" + SEPARATOR +            // Status, A=active, V=void
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([EW])" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +     // Speed over ground, knots
-                    "([\\d\\.]*)" + SEPARATOR +     // Course over ground, degrees
-                    "(\\d*)" + SEPARATOR +          // Date, ddmmyy
-                    "[\\d\\.]*" + SEPARATOR +
-                    "[\\d\\.]*" + SEPARATOR + "?" + // Magnetic variation
-                    "[ADEW]?" + SEPARATOR + "?" +   // E=East, W=West
-                    "([ADEMNSV])?" +                // Signal integrity, N=not valid
-                    END_OF_LINE);
+    private static boolean isRMC(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("RMC") && tokenizer.hasChecksum() && tokenizer.getFieldCount() >= 12 &&
+                tokenizer.consistsOf(1, DECIMAL, true) &&       // UTC Time
+                tokenizer.isOneOf(2, "AV") &&                    // Status, A=active, V=void
+                isPosition(tokenizer, 3) &&
+                tokenizer.consistsOf(7, DECIMAL, true) &&       // Speed over ground, knots
+                tokenizer.consistsOf(8, DECIMAL, true) &&       // Course over ground, degrees
+                tokenizer.consistsOf(9, DIGITS, true) &&        // Date, ddmmyy
+                getRMCSignalIntegrity(tokenizer) != 0;
+    }
+
+    /**
+     * Matches ,[\d.]*,[\d.]*,?[ADEW]?,?([ADEMNSV])? after the date
+     *
+     * @return the signal integrity, ' ' if there is none or 0 if the remainder doesn't match
+     */
+    private static char getRMCSignalIntegrity(NmeaTokenizer tokenizer) {
+        String line = tokenizer.getLine();
+        int index = tokenizer.getEnd(9), end = tokenizer.getBodyEnd();
+        // magnetic variation
+        for (int separator = 0; separator < 2; separator++) {
+            if (index >= end || line.charAt(index) != ',')
+                return 0;
+            index++;
+            while (index < end && DECIMAL.indexOf(line.charAt(index)) != -1)
+                index++;
+        }
+        if (index < end && line.charAt(index) == ',')
+            index++;
+        // E=East, W=West
+        if (index < end && "ADEW".indexOf(line.charAt(index)) != -1)
+            index++;
+        if (index < end && line.charAt(index) == ',')
+            index++;
+        // Signal integrity, N=not valid
+        char signalIntegrity = ' ';
+        if (index < end && "ADEMNSV".indexOf(line.charAt(index)) != -1)
+            signalIntegrity = line.charAt(index++);
+        return index == end ? signalIntegrity : 0;
+    }
 
     // $GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D
     // $GPGGA,162611,3554.2367,N,10619.4966,W,1,03,06.7,02300.3,M,-022.4,M,,*7F
     // $GPGGA,132713,5509.7861,N,00140.5854,W,1,07,1.0,98.9,M,,M,,*7d
     // $GPGGA,171247,4737.266541,N,00814.066563,E,1,,,416,M,,,*00
-    private static final Pattern GGA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GGA" + SEPARATOR + "([\\d\\.]*)" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "([\\d+])" + SEPARATOR +         // Fix quality, 0=invalid
-                    "([\\d]*)" + SEPARATOR +         // Number of satellites in view, 00 - 12
-                    "[\\d\\.]*" + SEPARATOR +
-                    "(-?[\\d\\.]*)" + SEPARATOR +    // Antenna Altitude above/below mean-sea-level (geoid)
-                    "M" + SEPARATOR +
-                    "[-?\\d\\.]*" + SEPARATOR +
-                    "M?" + SEPARATOR +
-                    ".*" + SEPARATOR + "?" +
-                    ".*" +                           // Differential reference station ID, 0000-1023
-                    END_OF_LINE);
+    private static boolean isGGA(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("GGA") && tokenizer.hasChecksum() && tokenizer.getFieldCount() >= 14 &&
+                tokenizer.consistsOf(1, DECIMAL, true) &&       // UTC Time
+                isPosition(tokenizer, 2) &&
+                tokenizer.isOneOf(6, DIGITS + "+") &&           // Fix quality, 0=invalid
+                tokenizer.consistsOf(7, DIGITS, true) &&        // Number of satellites in view, 00 - 12
+                tokenizer.consistsOf(8, DECIMAL, true) &&
+                isAltitude(tokenizer, 9) &&                     // Antenna Altitude above/below mean-sea-level (geoid)
+                tokenizer.isEqual(10, 'M') &&
+                tokenizer.consistsOf(11, DECIMAL + "-?", true) &&
+                (tokenizer.getLength(12) == 0 || tokenizer.isEqual(12, 'M'));
+    }
+
+    private static boolean isAltitude(NmeaTokenizer tokenizer, int field) {
+        int length = tokenizer.getLength(field);
+        if (length > 0 && tokenizer.charAt(field, 0) == '-') {
+            for (int i = 1; i < length; i++) {
+                if (DECIMAL.indexOf(tokenizer.charAt(field, i)) == -1)
+                    return false;
+            }
+            return true;
+        }
+        return tokenizer.consistsOf(field, DECIMAL, true);
+    }
 
     // $GPGLL,4916.45,N,12311.12,W,220433.11,A*6D
-    private static final Pattern GLL_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GLL" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "([\\d\\.]+)" + SEPARATOR +      // UTC Time
-                    "([AVP])" +                      // Status
-                    ".*" +
-                    END_OF_LINE);
+    private static boolean isGLL(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("GLL") && tokenizer.hasChecksum() && tokenizer.getFieldCount() >= 7 &&
+                isPosition(tokenizer, 1) &&
+                tokenizer.consistsOf(5, DECIMAL, false) &&      // UTC Time
+                tokenizer.getLength(6) > 0 && "AVP".indexOf(tokenizer.charAt(6, 0)) != -1; // Status
+    }
 
     // $GNGNS,184113.00,5215.46773,N,01021.80963,E,AAAN,17,0.73,73.9,45.8,,,V*21
-    private static final Pattern GNS_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GNS" + SEPARATOR +
-                    "([\\d\\.]+)" + SEPARATOR +     // UTC Time
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "([NADPRFEMS]+)" + SEPARATOR +  // Mode indicator, N=no fix
-                    "(\\d*)" + SEPARATOR +          // Number of SVs in use, range 00?99
-                    "([\\d\\.]*)" + SEPARATOR +     // HDOP
-                    "([\\d\\.]*)" + SEPARATOR +     // Orthometric height in meters
-                    "[\\d\\.]*" + SEPARATOR +       // Geoidal separation in meters
-                    "\\d*" + SEPARATOR +            // Age of differential data
-                    "\\d*" + SEPARATOR +            // Reference station ID
-                    ".*" +
-                    END_OF_LINE);
-
+    private static boolean isGNS(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("GNS") && tokenizer.hasChecksum() && tokenizer.getFieldCount() >= 14 &&
+                tokenizer.consistsOf(1, DECIMAL, false) &&      // UTC Time
+                isPosition(tokenizer, 2) &&
+                tokenizer.consistsOf(6, "NADPRFEMS", false) &&  // Mode indicator, N=no fix
+                tokenizer.consistsOf(7, DIGITS, true) &&        // Number of SVs in use, range 00?99
+                tokenizer.consistsOf(8, DECIMAL, true) &&       // HDOP
+                tokenizer.consistsOf(9, DECIMAL, true) &&       // Orthometric height in meters
+                tokenizer.consistsOf(10, DECIMAL, true) &&      // Geoidal separation in meters
+                tokenizer.consistsOf(11, DIGITS, true) &&       // Age of differential data
+                tokenizer.consistsOf(12, DIGITS, true);         // Reference station ID
+    }
 
     // $GPWPL,5334.169,N,01001.920,E,STATN1*22
     // $GPWPL,3018.000,S,15309.000,E,Coffs Harbor (Sidney)
-    private static final Pattern WPL_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "WPL" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([NS])" + SEPARATOR +
-                    "([\\s\\d\\.]+)" + SEPARATOR + "([WE])" + SEPARATOR +
-                    "([^\\*]*)" +
-                    "(\\*[0-9A-Fa-f][0-9A-Fa-f])?$");
+    private static boolean isWPL(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("WPL") && tokenizer.getFieldCount() >= 6 && !tokenizer.hasAsteriskInBody() &&
+                isPosition(tokenizer, 1);
+    }
 
     // $GPZDA,032910.542,07,08,2004,00,00*48
     // $GNZDA,184113.00,23,02,2017,00,00*71
-    private static final Pattern ZDA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "ZDA" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR + // UTC Time
-                    "(\\d*)" + SEPARATOR +      // day
-                    "(\\d*)" + SEPARATOR +      // month
-                    "(\\d*)" + SEPARATOR +      // year
-                    "\\d*" + SEPARATOR +
-                    "\\d*" +
-                    END_OF_LINE);
+    private static boolean isZDA(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("ZDA") && tokenizer.hasChecksum() && tokenizer.getFieldCount() == 7 &&
+                tokenizer.consistsOf(1, DECIMAL, true) &&       // UTC Time
+                consistOf(tokenizer, 2, 6, DIGITS);             // day, month, year
+    }
 
     // $GPVTG,0.00,T,,M,1.531,N,2.835,K,A*37
     // $GPVTG,138.7,T,,M,014.2,N,026.3,K,A*00
     // $GNVTG,251.19,T,,M,0.813,N,1.506,K,D*20
-    private static final Pattern VTG_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "VTG" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +   // true course
-                    "T" + SEPARATOR +
-                    "[\\d\\.]*" + SEPARATOR +     // magnetic course
-                    "M" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +
-                    "N" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +
-                    "K" + SEPARATOR +
-                    "([ADEN])" +                  // Mode indicator, N=not valid
-                    END_OF_LINE);
-
-    // $GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3F
-    private static final Pattern GSA_PATTERN = Pattern.
-            compile(BEGIN_OF_LINE + "GSA" + SEPARATOR +
-                    "[AM]" + SEPARATOR +
-                    "([123])" + SEPARATOR +      // Fix, 1=Fix not available
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "\\d*" + SEPARATOR +
-                    "([\\d\\.]*)" + SEPARATOR +  // PDOP
-                    "([\\d\\.]*)" + SEPARATOR +  // HDOP
-                    "([\\d\\.]*)" +              // VDOP
-                    END_OF_LINE);
-
-    public String getExtension() {
-        return ".nmea";
+    private static boolean isVTG(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("VTG") && tokenizer.hasChecksum() && tokenizer.getFieldCount() == 10 &&
+                tokenizer.consistsOf(1, DECIMAL, true) &&       // true course
+                tokenizer.isEqual(2, 'T') &&
+                tokenizer.consistsOf(3, DECIMAL, true) &&       // magnetic course
+                tokenizer.isEqual(4, 'M') &&
+                tokenizer.consistsOf(5, DECIMAL, true) &&
+                tokenizer.isEqual(6, 'N') &&
+                tokenizer.consistsOf(7, DECIMAL, true) &&
+                tokenizer.isEqual(8, 'K') &&
+                tokenizer.isOneOf(9, "ADEN");                   // Mode indicator, N=not valid
     }
 
-    public String getName() {
-        return "NMEA 0183 Sentences (*" + getExtension() + ")";
-    }
-
-    @SuppressWarnings({"unchecked"})
-    public <P extends NavigationPosition> NmeaRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
-        return new NmeaRoute(this, characteristics, (List<NmeaPosition>) positions);
+    // $GPGSA,A,3,,,,15,17,18,23,,,,,,4.7,4.4,1.5*3F
+    private static boolean isGSA(NmeaTokenizer tokenizer) {
+        return tokenizer.isSentence("GSA") && tokenizer.hasChecksum() && tokenizer.getFieldCount() == 18 &&
+                tokenizer.isOneOf(1, "AM") &&
+                tokenizer.isOneOf(2, "123") &&                  // Fix, 1=Fix not available
+                consistOf(tokenizer, 3, 14, DIGITS) &&
+                consistOf(tokenizer, 15, 17, DECIMAL);          // PDOP, HDOP, VDOP
     }
 
     protected boolean isPosition(String line) {
-        Matcher rmcMatcher = RMC_PATTERN.matcher(line);
-        if (rmcMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, rmcMatcher.group(9), "N");
+        NmeaTokenizer tokenizer = tokenize(line);
+        if (tokenizer == null)
+            return false;
 
-        Matcher ggaMatcher = GGA_PATTERN.matcher(line);
-        if (ggaMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, ggaMatcher.group(6), "0");
+        if (isRMC(tokenizer))
+            return hasValidChecksum(tokenizer) && (getRMCSignalIntegrity(tokenizer) != 'N' || hasValidFix(line, "N", "N"));
 
-        Matcher gllMatcher = GLL_PATTERN.matcher(line);
-        if (gllMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, gllMatcher.group(6), "V");
+        if (isGGA(tokenizer))
+            return hasValidChecksum(tokenizer) && hasValidFix(tokenizer, 6, '0');
 
-        Matcher gnsMatcher = GNS_PATTERN.matcher(line);
-        if (gnsMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, gnsMatcher.group(6), "X");
+        if (isGLL(tokenizer))
+            return hasValidChecksum(tokenizer) && (tokenizer.charAt(6, 0) != 'V' || hasValidFix(line, "V", "V"));
 
-        Matcher wplMatcher = WPL_PATTERN.matcher(line);
-        if (wplMatcher.matches())
-            return wplMatcher.group(6) == null || hasValidChecksum(line);
+        if (isGNS(tokenizer))
+            return hasValidChecksum(tokenizer) && hasValidFix(tokenizer, 6, 'X');
 
-        Matcher zdaMatcher = ZDA_PATTERN.matcher(line);
-        if (zdaMatcher.matches())
-            return hasValidChecksum(line);
+        if (isWPL(tokenizer))
+            return !tokenizer.hasChecksum() || hasValidChecksum(tokenizer);
 
-        Matcher vtgMatcher = VTG_PATTERN.matcher(line);
-        if (vtgMatcher.matches())
-            return hasValidChecksum(line) && hasValidFix(line, vtgMatcher.group(4), "N");
+        if (isZDA(tokenizer))
+            return hasValidChecksum(tokenizer);
 
-        Matcher gsaMatcher = GSA_PATTERN.matcher(line);
-        return gsaMatcher.matches() && hasValidChecksum(line) && hasValidFix(line, gsaMatcher.group(1), "1");
+        if (isVTG(tokenizer))
+            return hasValidChecksum(tokenizer) && hasValidFix(tokenizer, 9, 'N');
+
+        return isGSA(tokenizer) && hasValidChecksum(tokenizer) && hasValidFix(tokenizer, 2, '1');
     }
 
     protected NmeaPosition parsePosition(String line) {
-        Matcher rmcMatcher = RMC_PATTERN.matcher(line);
-        if (rmcMatcher.matches()) {
-            String time = rmcMatcher.group(1);
-            String latitude = rmcMatcher.group(2);
-            String northOrSouth = rmcMatcher.group(3);
-            String longitude = rmcMatcher.group(4);
-            String westOrEast = rmcMatcher.group(5);
-            Double speed = null;
-            String speedStr = rmcMatcher.group(6);
-            if (speedStr != null) {
-                Double miles = parseDouble(speedStr);
-                if (miles != null)
-                    speed = nauticMilesToKiloMeter(miles);
+        NmeaTokenizer tokenizer = tokenize(line);
+        if (tokenizer != null) {
+            if (isRMC(tokenizer)) {
+                Double speed = tokenizer.getDouble(7);
+                if (speed != null)
+                    speed = nauticMilesToKiloMeter(speed);
+                return new NmeaPosition(tokenizer.getDouble(5), tokenizer.getOrientation(6), tokenizer.getDouble(3), tokenizer.getOrientation(4),
+                        null, speed, tokenizer.getDouble(8), parseDateAndTime(tokenizer, 9, 1), null);
             }
-            Double heading = parseDouble(rmcMatcher.group(7));
-            String date = rmcMatcher.group(8);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    null, speed, heading, parseDateAndTime(date, time), null);
-        }
 
-        Matcher ggaMatcher = GGA_PATTERN.matcher(line);
-        if (ggaMatcher.matches()) {
-            String time = ggaMatcher.group(1);
-            String latitude = ggaMatcher.group(2);
-            String northOrSouth = ggaMatcher.group(3);
-            String longitude = ggaMatcher.group(4);
-            String westOrEast = ggaMatcher.group(5);
-            String satellites = ggaMatcher.group(7);
-            String altitude = ggaMatcher.group(8);
-            NmeaPosition position = new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    parseDouble(altitude), null, null, parseTime(time), null);
-            position.setSatellites(parseInteger(satellites));
-            return position;
-        }
+            if (isGGA(tokenizer)) {
+                NmeaPosition position = new NmeaPosition(tokenizer.getDouble(4), tokenizer.getOrientation(5), tokenizer.getDouble(2), tokenizer.getOrientation(3),
+                        tokenizer.getDouble(9), null, null, parseTime(tokenizer, 1), null);
+                position.setSatellites(tokenizer.getInteger(7));
+                return position;
+            }
 
-        Matcher gllMatcher = GLL_PATTERN.matcher(line);
-        if (gllMatcher.matches()) {
-            String latitude = gllMatcher.group(1);
-            String northOrSouth = gllMatcher.group(2);
-            String longitude = gllMatcher.group(3);
-            String westOrEast = gllMatcher.group(4);
-            String time = gllMatcher.group(5);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    null, null, null, parseTime(time), null);
-        }
+            if (isGLL(tokenizer)) {
+                return new NmeaPosition(tokenizer.getDouble(3), tokenizer.getOrientation(4), tokenizer.getDouble(1), tokenizer.getOrientation(2),
+                        null, null, null, parseTime(tokenizer, 5), null);
+            }
 
-        Matcher gnsMatcher = GNS_PATTERN.matcher(line);
-        if (gnsMatcher.matches()) {
-            String time = gnsMatcher.group(1);
-            String latitude = gnsMatcher.group(2);
-            String northOrSouth = gnsMatcher.group(3);
-            String longitude = gnsMatcher.group(4);
-            String westOrEast = gnsMatcher.group(5);
-            String svs = gnsMatcher.group(7);
-            String hdop = gnsMatcher.group(8);
-            String orthometricHeight = gnsMatcher.group(9);
-            NmeaPosition position = new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    parseDouble(orthometricHeight), null, null, parseTime(time), null);
-            position.setHdop(parseDouble(hdop));
-            position.setSatellites(parseInt(svs));
-            return position;
-        }
+            if (isGNS(tokenizer)) {
+                NmeaPosition position = new NmeaPosition(tokenizer.getDouble(4), tokenizer.getOrientation(5), tokenizer.getDouble(2), tokenizer.getOrientation(3),
+                        tokenizer.getDouble(9), null, null, parseTime(tokenizer, 1), null);
+                position.setHdop(tokenizer.getDouble(8));
+                Integer svs = tokenizer.getInteger(7);
+                position.setSatellites(svs != null ? svs : -1);
+                return position;
+            }
 
-        Matcher wplMatcher = WPL_PATTERN.matcher(line);
-        if (wplMatcher.matches()) {
-            String latitude = wplMatcher.group(1);
-            String northOrSouth = wplMatcher.group(2);
-            String longitude = wplMatcher.group(3);
-            String westOrEast = wplMatcher.group(4);
-            String description = wplMatcher.group(5);
-            return new NmeaPosition(parseDouble(longitude), westOrEast, parseDouble(latitude), northOrSouth,
-                    null, null, null, null, trim(description));
-        }
+            if (isWPL(tokenizer)) {
+                return new NmeaPosition(tokenizer.getDouble(3), tokenizer.getOrientation(4), tokenizer.getDouble(1), tokenizer.getOrientation(2),
+                        null, null, null, null, tokenizer.getRemainder(5));
+            }
 
-        Matcher zdaMatcher = ZDA_PATTERN.matcher(line);
-        if (zdaMatcher.matches()) {
-            String time = zdaMatcher.group(1);
-            String day = trim(zdaMatcher.group(2));
-            String month = trim(zdaMatcher.group(3));
-            String year = trim(zdaMatcher.group(4));
-            String date = (day != null ? day : "") + (month != null ? month : "") + (year != null ? year : "");
-            return new NmeaPosition(null, null, null, null, null, null, null, parseDateAndTime(date, time), null);
-        }
+            if (isZDA(tokenizer)) {
+                String day = tokenizer.getString(2);
+                String month = tokenizer.getString(3);
+                String year = tokenizer.getString(4);
+                String date = (day != null ? day : "") + (month != null ? month : "") + (year != null ? year : "");
+                return new NmeaPosition(null, null, null, null, null, null, null, parseDateAndTime(date, tokenizer.getString(1)), null);
+            }
 
-        Matcher vtgMatcher = VTG_PATTERN.matcher(line);
-        if (vtgMatcher.matches()) {
-            Double heading = parseDouble(vtgMatcher.group(1));
-            boolean miles = false;
-            String speedStr = trim(vtgMatcher.group(3));
-            if (speedStr == null) {
-                speedStr = trim(vtgMatcher.group(2));
-                miles = true;
+            if (isVTG(tokenizer)) {
+                Double heading = tokenizer.getDouble(1);
+                Double speed = tokenizer.getDouble(7);
+                if (speed == null) {
+                    speed = tokenizer.getDouble(5);
+                    if (speed != null)
+                        speed = nauticMilesToKiloMeter(speed);
+                }
+                return new NmeaPosition(null, null, null, null, null, speed, heading, null, null);
             }
-            Double speed = parseDouble(speedStr);
-            if (miles && speed != null)
-                speed = nauticMilesToKiloMeter(speed);
-            return new NmeaPosition(null, null, null, null, null, speed, heading, null, null);
-        }
 
-        Matcher gsaMatcher = GSA_PATTERN.matcher(line);
-        if (gsaMatcher.matches()) {
-            String pdop = gsaMatcher.group(2);
-            String hdop = gsaMatcher.group(3);
-            String vdop = gsaMatcher.group(4);
-            NmeaPosition position = new NmeaPosition(null, null, null, null, null, null, null, null, null);
-            position.setPdop(parseDouble(pdop));
-            position.setHdop(parseDouble(hdop));
-            position.setVdop(parseDouble(vdop));
-            return position;
+            if (isGSA(tokenizer)) {
+                NmeaPosition position = new NmeaPosition(null, null, null, null, null, null, null, null, null);
+                position.setPdop(tokenizer.getDouble(15));
+                position.setHdop(tokenizer.getDouble(16));
+                position.setVdop(tokenizer.getDouble(17));
+                return position;
+            }
         }
 
         throw new IllegalArgumentException("'" + line + "' does not match");
     }
 
+    private CompactCalendar parseTime(NmeaTokenizer tokenizer, int field) {
+        long millis = NmeaDateTimeParser.parseTime(tokenizer.getLine(), tokenizer.getStart(field), tokenizer.getEnd(field));
+        if (millis != NOT_PARSEABLE)
+            return fromMillis(millis);
+        return parseTime(tokenizer.getString(field));
+    }
+
+    private CompactCalendar parseDateAndTime(NmeaTokenizer tokenizer, int dateField, int timeField) {
+        String line = tokenizer.getLine();
+        if (tokenizer.getString(dateField) != null) {
+            long millis = NmeaDateTimeParser.parseDateAndTime(line, tokenizer.getStart(dateField), tokenizer.getEnd(dateField),
+                    NmeaDateTimeParser.parseTime(line, tokenizer.getStart(timeField), tokenizer.getEnd(timeField)));
+            if (millis != NOT_PARSEABLE)
+                return fromMillis(millis);
+        }
+        return parseDateAndTime(tokenizer.getString(dateField), tokenizer.getString(timeField));
+    }
 
     private String formatDay(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DAY_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DAY_FORMAT);
     }
 
     private String formatMonth(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(MONTH_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, MONTH_FORMAT);
     }
 
     private String formatYear(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(YEAR_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, YEAR_FORMAT);
     }
 
     private String formatAltitude(Double altitude) {
         if (altitude == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(altitude);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(altitude);
     }
 
     private String formatSpeed(Double speed) {
         if (speed == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(speed);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(speed);
     }
 
     private String formatAccuracy(Double accuracy) {
         if (accuracy == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(accuracy);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(accuracy);
     }
 
     protected void writePosition(NmeaPosition position, PrintWriter writer) {
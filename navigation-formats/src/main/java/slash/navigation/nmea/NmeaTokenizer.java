@@ -0,0 +1,268 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import static slash.common.io.Transfer.parseDouble;
+import static slash.common.io.Transfer.parseInteger;
+
+/**
+ * Splits a NMEA sentence into fields and computes its checksum in a single pass
+ * over the line without regular expressions and substrings.
+ *
+ * @author Christian Pesch
+ */
+
+class NmeaTokenizer {
+    static final String DIGITS = "0123456789";
+    static final String DECIMAL = DIGITS + ".";
+    static final String COORDINATE = DECIMAL + " \t\n\u000B\f\r";
+    // up to 15 significant digits the mantissa and up to 10^22 the powers of ten are exact doubles
+    private static final int MAXIMUM_EXACT_DIGITS = 15;
+    private static final int MAXIMUM_EXACT_POWER = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAXIMUM_EXACT_POWER + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+    }
+
+    private String line;
+    private int[] starts = new int[32], ends = new int[32];
+    private int fieldCount, bodyEnd, checksum, expectedChecksum;
+    private boolean sentence, hasChecksum, hasAsteriskInBody;
+
+    boolean tokenize(String line) {
+        if (line == this.line)
+            return sentence;
+        this.line = line;
+        this.fieldCount = 0;
+
+        int length = line.length();
+        sentence = length > 1 && line.charAt(0) == '$';
+        if (!sentence)
+            return false;
+
+        hasChecksum = length > 3 && line.charAt(length - 3) == '*' &&
+                hexValue(line.charAt(length - 2)) >= 0 && hexValue(line.charAt(length - 1)) >= 0;
+        bodyEnd = hasChecksum ? length - 3 : length;
+        expectedChecksum = hasChecksum ? hexValue(line.charAt(length - 2)) << 4 | hexValue(line.charAt(length - 1)) : -1;
+
+        int xor = 0, start = 1;
+        hasAsteriskInBody = false;
+        for (int i = 1; i < bodyEnd; i++) {
+            char c = line.charAt(i);
+            xor ^= c;
+            if (c == ',') {
+                addField(start, i);
+                start = i + 1;
+            } else if (c == '*')
+                hasAsteriskInBody = true;
+        }
+        addField(start, bodyEnd);
+        checksum = xor & 0xFF;
+        return true;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            int[] newStarts = new int[fieldCount * 2];
+            System.arraycopy(starts, 0, newStarts, 0, fieldCount);
+            starts = newStarts;
+            int[] newEnds = new int[fieldCount * 2];
+            System.arraycopy(ends, 0, newEnds, 0, fieldCount);
+            ends = newEnds;
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        return -1;
+    }
+
+    String getLine() {
+        return line;
+    }
+
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    int getStart(int field) {
+        return starts[field];
+    }
+
+    int getEnd(int field) {
+        return ends[field];
+    }
+
+    int getBodyEnd() {
+        return bodyEnd;
+    }
+
+    boolean hasChecksum() {
+        return hasChecksum;
+    }
+
+    boolean hasAsteriskInBody() {
+        return hasAsteriskInBody;
+    }
+
+    boolean isChecksumValid() {
+        return hasChecksum && checksum == expectedChecksum;
+    }
+
+    int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Checks for sentences like $GPRMC or $GNRMC
+     */
+    boolean isSentence(String type) {
+        if (!sentence || fieldCount == 0 || ends[0] - starts[0] != 2 + type.length())
+            return false;
+        int start = starts[0];
+        char system = line.charAt(start + 1);
+        return line.charAt(start) == 'G' && (system == 'N' || system == 'P') &&
+                line.regionMatches(start + 2, type, 0, type.length());
+    }
+
+    int getLength(int field) {
+        return ends[field] - starts[field];
+    }
+
+    char charAt(int field, int index) {
+        return line.charAt(starts[field] + index);
+    }
+
+    boolean consistsOf(int field, String allowed, boolean allowEmpty) {
+        int start = starts[field], end = ends[field];
+        if (start == end)
+            return allowEmpty;
+        for (int i = start; i < end; i++) {
+            if (allowed.indexOf(line.charAt(i)) == -1)
+                return false;
+        }
+        return true;
+    }
+
+    boolean isOneOf(int field, String allowed) {
+        return getLength(field) == 1 && allowed.indexOf(charAt(field, 0)) != -1;
+    }
+
+    boolean isEqual(int field, char expected) {
+        return getLength(field) == 1 && charAt(field, 0) == expected;
+    }
+
+    String getString(int field) {
+        return getString(starts[field], ends[field]);
+    }
+
+    String getRemainder(int field) {
+        return getString(starts[field], bodyEnd);
+    }
+
+    private String getString(int start, int end) {
+        while (start < end && line.charAt(start) <= ' ')
+            start++;
+        while (end > start && line.charAt(end - 1) <= ' ')
+            end--;
+        return start < end ? line.substring(start, end) : null;
+    }
+
+    String getOrientation(int field) {
+        if (getLength(field) == 1) {
+            switch (charAt(field, 0)) {
+                case 'N':
+                    return "N";
+                case 'S':
+                    return "S";
+                case 'E':
+                    return "E";
+                case 'W':
+                    return "W";
+            }
+        }
+        return getString(field);
+    }
+
+    Double getDouble(int field) {
+        int start = starts[field], end = ends[field];
+        while (start < end && line.charAt(start) <= ' ')
+            start++;
+        while (end > start && line.charAt(end - 1) <= ' ')
+            end--;
+        if (start == end)
+            return null;
+
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean anyDigit = false, fraction = false;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0 && ++digits > MAXIMUM_EXACT_DIGITS)
+                    return parseDouble(line.substring(start, end));
+                if (fraction)
+                    fractionDigits++;
+            } else if (c == '.' && !fraction)
+                fraction = true;
+            else
+                return parseDouble(line.substring(start, end));
+        }
+        if (!anyDigit || fractionDigits > MAXIMUM_EXACT_POWER)
+            return parseDouble(line.substring(start, end));
+        // both values are exact, thus the division is correctly rounded like Double.parseDouble()
+        return mantissa / POWERS_OF_TEN[fractionDigits];
+    }
+
+    Integer getInteger(int field) {
+        int start = starts[field], end = ends[field];
+        while (start < end && line.charAt(start) <= ' ')
+            start++;
+        while (end > start && line.charAt(end - 1) <= ' ')
+            end--;
+        if (start == end)
+            return null;
+        if (end - start > 9)
+            return parseInteger(line.substring(start, end));
+
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9')
+                return parseInteger(line.substring(start, end));
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
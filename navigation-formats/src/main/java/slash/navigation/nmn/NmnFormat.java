@@ -48,6 +48,11 @@ public abstract class NmnFormat extends SimpleLineBasedFormat<NmnRoute> {
         return ".rte";
     }
 
+    public boolean isStreamingPositions() {
+        // duplicate positions are removed before writing
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     public <P extends NavigationPosition> NmnRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
         return new NmnRoute(this, characteristics, null, (List<NmnPosition>) positions);
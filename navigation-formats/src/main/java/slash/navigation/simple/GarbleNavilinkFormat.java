@@ -21,6 +21,7 @@
 
 package slash.navigation.simple;
 
+import slash.common.type.DateTimeCodec;
 import slash.navigation.base.*;
 
 import java.io.IOException;
@@ -31,7 +32,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static java.lang.System.currentTimeMillis;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.navigation.base.RouteCharacteristics.Track;
 
 /**
@@ -140,7 +140,7 @@ public class GarbleNavilinkFormat extends NavilinkFormat implements GarbleNaviga
 
             if ((activeRoute == null || isTrackStart(sbpRecordByteBuffer)) && position != null) {
                 activeRoute = createRoute(Track,
-                        createDateFormat(TRACK_NAME_DATE_FORMAT).format(position.getTime().getTime()),
+                        DateTimeCodec.format(position.getTime(), TRACK_NAME_DATE_FORMAT),
                         new ArrayList<BaseNavigationPosition>());
                 result.add(activeRoute);
             }
@@ -65,7 +65,10 @@ public class GoRiderGpsFormat extends SimpleLineBasedFormat<SimpleRoute> {
 
     @SuppressWarnings("unchecked")
     public <P extends NavigationPosition> SimpleRoute createRoute(RouteCharacteristics characteristics, String name, List<P> positions) {
-        return new Wgs84Route(this, characteristics, (List<Wgs84Position>) positions);
+        SimpleRoute route = new Wgs84Route(this, characteristics, (List<Wgs84Position>) positions);
+        // the name is written to the header
+        route.setName(name);
+        return route;
     }
 
     protected RouteCharacteristics getRouteCharacteristics() {
@@ -22,6 +22,7 @@ package slash.navigation.simple;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.PrintWriter;
@@ -35,7 +36,6 @@ import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.parseDouble;
 import static slash.common.io.Transfer.trim;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.parseDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.common.NavigationConversion.formatElevationAsString;
@@ -60,19 +60,17 @@ public class HaicomLoggerFormat extends SimpleLineBasedFormat<SimpleRoute> {
     private static final String DATE_AND_TIME_FORMAT = "yy/MM/dd HH:mm:ss";
     private static final String DATE_FORMAT = "yy/MM/dd";
     private static final String TIME_FORMAT = "HH:mm:ss";
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
+    // number formats are not thread-safe and formats are written in parallel by the batch converter
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(HaicomLoggerFormat::createPositionNumberFormat);
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = ThreadLocal.withInitial(HaicomLoggerFormat::createPositionNumberFormat);
 
-    static {
-        int maximumFractionDigits = preferences.getInt("haicomPositionMaximumFractionDigits", 5);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(1);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(1);
+    private static NumberFormat createPositionNumberFormat() {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(Locale.US);
+        numberFormat.setGroupingUsed(false);
+        numberFormat.setMinimumFractionDigits(5);
+        numberFormat.setMaximumFractionDigits(preferences.getInt("haicomPositionMaximumFractionDigits", 5));
+        numberFormat.setMinimumIntegerDigits(1);
+        return numberFormat;
     }
 
     private static final Pattern LINE_PATTERN = Pattern.
@@ -153,25 +151,25 @@ public class HaicomLoggerFormat extends SimpleLineBasedFormat<SimpleRoute> {
     private String formatLongitude(Double aDouble) {
         if (aDouble == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(aDouble);
+        return LONGITUDE_NUMBER_FORMAT.get().format(aDouble);
     }
 
     private String formatLatitude(Double aDouble) {
         if (aDouble == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(aDouble);
+        return LATITUDE_NUMBER_FORMAT.get().format(aDouble);
     }
 
     private String formatTime(CompactCalendar time) {
         if (time == null)
             return "";
-        return createDateFormat(TIME_FORMAT).format(time.getTime());
+        return DateTimeCodec.format(time, TIME_FORMAT);
     }
 
     private String formatDate(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DATE_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DATE_FORMAT);
     }
 
     protected void writeHeader(PrintWriter writer, SimpleRoute route) {
@@ -22,6 +22,7 @@ package slash.navigation.simple;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.PrintWriter;
@@ -31,7 +32,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static slash.common.io.Transfer.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.parseDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.common.NavigationConversion.*;
@@ -145,16 +145,17 @@ public class Iblue747Format extends SimpleLineBasedFormat<SimpleRoute> {
     private String formatTime(CompactCalendar time) {
         if (time == null)
             return "";
-        return createDateFormat(TIME_FORMAT).format(time.getTime());
+        return DateTimeCodec.format(time, TIME_FORMAT);
     }
 
     private String formatDate(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DATE_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DATE_FORMAT);
     }
 
-    private Wgs84Position previousPosition;
+    // a format instance may write several files in parallel
+    private final ThreadLocal<Wgs84Position> previousPosition = new ThreadLocal<>();
 
     protected void writePosition(Wgs84Position position, PrintWriter writer, int index, boolean firstPosition) {
         String date = formatDate(position.getTime());
@@ -167,10 +168,9 @@ public class Iblue747Format extends SimpleLineBasedFormat<SimpleRoute> {
         String speed = position.getSpeed() != null ? formatSpeedAsString(position.getSpeed()) : "0.0";
         String heading = position.getHeading() != null ? formatHeadingAsString(position.getHeading()) : "0.0";
 
-        if (firstPosition)
-            previousPosition = null;
-        String distance = previousPosition != null ? formatElevationAsString(position.calculateDistance(previousPosition)) : "0.0";
-        previousPosition = position;
+        Wgs84Position previous = firstPosition ? null : previousPosition.get();
+        String distance = previous != null ? formatElevationAsString(position.calculateDistance(previous)) : "0.0";
+        previousPosition.set(position);
 
         writer.println(Integer.toString(index + 1) + SEPARATOR + "T" + SEPARATOR +
                 date + SEPARATOR + time + SEPARATOR + "SPS" + SEPARATOR +
@@ -23,6 +23,7 @@ package slash.navigation.simple;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.BufferedReader;
@@ -37,7 +38,6 @@ import java.util.List;
 
 import static java.lang.Long.parseLong;
 import static java.util.Calendar.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.fromCalendar;
 import static slash.navigation.base.RouteCharacteristics.Track;
 
@@ -218,7 +218,7 @@ public class NavilinkFormat extends SimpleFormat<Wgs84Route> {
                 Wgs84Position position = decodePosition(sbpRecordByteBuffer);
                 if ((activeRoute == null) || (isTrackStart(sbpRecordByteBuffer))) {
                     activeRoute = createRoute(Track,
-                            createDateFormat(TRACK_NAME_DATE_FORMAT).format(position.getTime().getTime()),
+                            DateTimeCodec.format(position.getTime(), TRACK_NAME_DATE_FORMAT),
                             new ArrayList<BaseNavigationPosition>());
                     context.appendRoute(activeRoute);
                 }
@@ -67,6 +67,11 @@ public class OpelNaviFormat extends SimpleLineBasedFormat<SimpleRoute> {
         return "Opel Navi 600/900 (*" + getExtension() + ")";
     }
 
+    public boolean isStreamingPositions() {
+        // requires UTF-8 encoding
+        return false;
+    }
+
     public void read(InputStream source, ParserContext<SimpleRoute> context) throws IOException {
         read(source, UTF8_ENCODING, context);
     }
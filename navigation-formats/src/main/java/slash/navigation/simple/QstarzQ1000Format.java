@@ -22,6 +22,7 @@ package slash.navigation.simple;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.PrintWriter;
@@ -32,7 +33,6 @@ import java.util.regex.Pattern;
 
 import static java.lang.Math.abs;
 import static slash.common.io.Transfer.*;
-import static slash.common.type.CompactCalendar.createDateFormat;
 import static slash.common.type.CompactCalendar.parseDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.common.NavigationConversion.*;
@@ -149,16 +149,17 @@ public class QstarzQ1000Format extends SimpleLineBasedFormat<SimpleRoute> {
     private String formatTime(CompactCalendar time) {
         if (time == null)
             return "";
-        return createDateFormat(TIME_FORMAT).format(time.getTime());
+        return DateTimeCodec.format(time, TIME_FORMAT);
     }
 
     private String formatDate(CompactCalendar date) {
         if (date == null)
             return "";
-        return createDateFormat(DATE_FORMAT).format(date.getTime());
+        return DateTimeCodec.format(date, DATE_FORMAT);
     }
 
-    private Wgs84Position previousPosition;
+    // a format instance may write several files in parallel
+    private final ThreadLocal<Wgs84Position> previousPosition = new ThreadLocal<>();
 
     protected void writePosition(Wgs84Position position, PrintWriter writer, int index, boolean firstPosition) {
         String date = formatDate(position.getTime());
@@ -172,10 +173,9 @@ public class QstarzQ1000Format extends SimpleLineBasedFormat<SimpleRoute> {
         String hdop = position.getHdop() != null ? formatAccuracyAsString(position.getHdop()) : "0.0";
         String satellites = position.getSatellites() != null ? formatIntAsString(position.getSatellites()) : "0";
 
-        if (firstPosition)
-            previousPosition = null;
-        String distance = previousPosition != null ? formatElevationAsString(position.calculateDistance(previousPosition)) : "0.0";
-        previousPosition = position;
+        Wgs84Position previous = firstPosition ? null : previousPosition.get();
+        String distance = previous != null ? formatElevationAsString(position.calculateDistance(previous)) : "0.0";
+        previousPosition.set(position);
 
         writer.println(Integer.toString(index + 1) + SEPARATOR + "T" + SEPARATOR +
                 date + SEPARATOR + time + SEPARATOR + "SPS" + SEPARATOR +
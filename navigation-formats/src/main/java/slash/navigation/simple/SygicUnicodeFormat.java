@@ -48,6 +48,11 @@ public class SygicUnicodeFormat extends SygicFormat {
         return "Sygic POI Unicode (*" + getExtension() + ")";
     }
 
+    public boolean isStreamingPositions() {
+        // requires UTF-16 encoding
+        return false;
+    }
+
     public void read(InputStream source, ParserContext<SimpleRoute> context) throws IOException {
         read(source, UTF16_ENCODING, context);
     }
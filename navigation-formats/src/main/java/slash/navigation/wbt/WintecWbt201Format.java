@@ -21,6 +21,7 @@
 package slash.navigation.wbt;
 
 import slash.navigation.base.*;
+import slash.common.type.DateTimeCodec;
 import slash.navigation.common.NavigationPosition;
 
 import java.io.*;
@@ -171,7 +172,7 @@ public abstract class WintecWbt201Format extends SimpleFormat<Wgs84Route> {
 
                 // trackname = time of first point
                 NavigationPosition newPoint = createWaypoint(time, latitude, longitude, altitude, 0, true);
-                track.setName(createDateFormat(TRACK_NAME_DATE_FORMAT).format(newPoint.getTime().getTime()));
+                track.setName(DateTimeCodec.format(newPoint.getTime(), TRACK_NAME_DATE_FORMAT));
             }
 
             if ((trackFlag & 2) == 2) {
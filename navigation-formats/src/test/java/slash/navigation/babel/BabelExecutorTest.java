@@ -0,0 +1,117 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.babel;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.system.Platform.isWindows;
+import static slash.navigation.babel.BabelExecutor.createContentKey;
+
+public class BabelExecutorTest {
+    private final BabelExecutor executor = new BabelExecutor(2);
+
+    @Test
+    public void testContentKey() throws IOException {
+        assertEquals(createContentKey("gpx", "abc".getBytes()), createContentKey("gpx", "abc".getBytes()));
+        assertNotEquals(createContentKey("gpx", "abc".getBytes()), createContentKey("kml", "abc".getBytes()));
+        assertNotEquals(createContentKey("gpx", "abc".getBytes()), createContentKey("gpx", "abd".getBytes()));
+    }
+
+    @Test
+    public void testUnreadable() throws IOException {
+        String key = createContentKey("mapsource", "content".getBytes());
+        assertFalse(executor.isUnreadable(key));
+        executor.setUnreadable(key);
+        assertTrue(executor.isUnreadable(key));
+        assertFalse(executor.isUnreadable(createContentKey("pcx", "content".getBytes())));
+    }
+
+    private static List<String> sleepCommand(int seconds) {
+        return isWindows() ? asList("ping", "-n", Integer.toString(seconds + 1), "127.0.0.1") :
+                asList("sleep", Integer.toString(seconds));
+    }
+
+    @Test
+    public void testTimeoutDestroysProcess() throws IOException {
+        List<String> command = sleepCommand(60);
+        BabelExecutor.Invocation invocation = executor.execute(command.get(0), command, null, 500);
+        assertTrue(invocation.isTimedOut());
+        assertFalse(invocation.isSuccessful());
+        assertTrue(invocation.getExecutionMillis() < 30000);
+    }
+
+    @Test
+    public void testProcessWithinTimeout() throws IOException {
+        List<String> command = sleepCommand(0);
+        BabelExecutor.Invocation invocation = executor.execute(command.get(0), command, null, 30000);
+        assertFalse(invocation.isTimedOut());
+        assertTrue(invocation.isSuccessful());
+    }
+
+    @Test
+    public void testMaximumConcurrentProcesses() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximumRunning = new AtomicInteger();
+        final BabelExecutor limited = new BabelExecutor(2) {
+            Invocation run(String babel, List<String> args, byte[] input, int timeout) throws IOException {
+                maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return super.run(babel, args, input, timeout);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+
+        final List<String> command = sleepCommand(1);
+        ExecutorService callers = newFixedThreadPool(6);
+        try {
+            List<Future<BabelExecutor.Invocation>> invocations = new ArrayList<>();
+            for (int i = 0; i < 6; i++)
+                invocations.add(callers.submit(() -> limited.execute(command.get(0), command, null, 30000)));
+
+            int waited = 0;
+            for (Future<BabelExecutor.Invocation> invocation : invocations) {
+                assertTrue(invocation.get().isSuccessful());
+                if (invocation.get().getWaitMillis() > 500)
+                    waited++;
+            }
+            assertEquals(2, maximumRunning.get());
+            assertTrue(waited >= 4);
+            assertEquals(6, limited.getInvocationCount());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
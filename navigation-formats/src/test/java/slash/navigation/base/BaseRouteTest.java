@@ -0,0 +1,137 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.bcr.BcrPosition;
+import slash.navigation.bcr.BcrRoute;
+import slash.navigation.bcr.MTP0607Format;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BaseRouteTest {
+    private BcrRoute route = new BcrRoute(new MTP0607Format(), "r", null, new ArrayList<>());
+
+    private List<BcrPosition> createPositions(int count) {
+        List<BcrPosition> positions = route.getPositions();
+        for (int i = 0; i < count; i++) {
+            positions.add(new BcrPosition(i, i, i, "Position " + i));
+        }
+        return new ArrayList<>(positions);
+    }
+
+    @Test
+    public void testRemoveIndices() {
+        List<BcrPosition> original = createPositions(10);
+
+        List<BcrPosition> removed = route.remove(new int[]{7, 0, 3, 4, 7, 9});
+
+        assertEquals(asList(original.get(0), original.get(3), original.get(4), original.get(7), original.get(9)), removed);
+        assertEquals(asList(original.get(1), original.get(2), original.get(5), original.get(6), original.get(8)), route.getPositions());
+    }
+
+    @Test
+    public void testRemoveNoIndices() {
+        List<BcrPosition> original = createPositions(3);
+
+        assertEquals(0, route.remove(new int[0]).size());
+        assertEquals(original, route.getPositions());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRemoveIndexOutOfBounds() {
+        createPositions(3);
+        route.remove(new int[]{1, 3});
+    }
+
+    @Test
+    public void testAddIndicesRevertsRemove() {
+        List<BcrPosition> original = createPositions(10);
+        int[] indices = new int[]{0, 3, 4, 7, 9};
+
+        List<BcrPosition> removed = route.remove(indices);
+        route.add(indices, removed);
+
+        assertEquals(original.size(), route.getPositionCount());
+        for (int i = 0; i < original.size(); i++)
+            assertSame(original.get(i), route.getPosition(i));
+    }
+
+    private List<BcrPosition> copy() {
+        return new ArrayList<>(route.getPositions());
+    }
+
+    @Test
+    public void testTopPermutationMatchesMovingEachPosition() {
+        createPositions(10);
+        int[] indices = new int[]{7, 2, 5};
+
+        List<BcrPosition> expected = copy();
+        BcrRoute moved = new BcrRoute(new MTP0607Format(), "m", null, expected);
+        moved.top(2, 0);
+        moved.top(5, 1);
+        moved.top(7, 2);
+
+        route.permute(route.createTopPermutation(indices));
+        assertEquals(expected, route.getPositions());
+    }
+
+    @Test
+    public void testBottomPermutationMatchesMovingEachPosition() {
+        createPositions(10);
+
+        List<BcrPosition> expected = copy();
+        BcrRoute moved = new BcrRoute(new MTP0607Format(), "m", null, expected);
+        moved.bottom(7, 0);
+        moved.bottom(5, 1);
+        moved.bottom(2, 2);
+
+        route.permute(route.createBottomPermutation(new int[]{2, 7, 5}));
+        assertEquals(expected, route.getPositions());
+    }
+
+    @Test
+    public void testUpAndDownPermutation() {
+        List<BcrPosition> original = createPositions(6);
+
+        route.permute(route.createUpPermutation(new int[]{3, 2}, 1));
+        assertEquals(asList(original.get(0), original.get(2), original.get(3), original.get(1), original.get(4), original.get(5)), route.getPositions());
+
+        route.permute(route.createDownPermutation(new int[]{1, 2}, 1));
+        assertEquals(original, route.getPositions());
+    }
+
+    @Test
+    public void testInvertPermutation() {
+        List<BcrPosition> original = createPositions(8);
+        int[] permutation = route.createRevertPermutation();
+
+        route.permute(permutation);
+        assertSame(original.get(7), route.getPosition(0));
+
+        route.permute(BaseRoute.invert(permutation));
+        assertEquals(original, route.getPositions());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.bcr.BcrPosition;
+import slash.navigation.bcr.BcrRoute;
+import slash.navigation.bcr.MTP0607Format;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.gpx.Gpx10Format;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.gpx.GpxRoute;
+import slash.navigation.kml.Kml22Format;
+import slash.navigation.kml.KmlPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static slash.navigation.base.NavigationFormatConverter.asFormat;
+import static slash.navigation.base.NavigationFormatConverter.convertPositions;
+
+public class NavigationFormatConverterTest {
+    private BcrPosition a = new BcrPosition(1, 2, 3, "a");
+    private BcrPosition b = new BcrPosition(4, 5, 6, "b");
+
+    @Test
+    public void testConvertPosition() throws IOException {
+        BaseNavigationPosition position = asFormat(a, new Gpx10Format());
+        assertTrue(position instanceof GpxPosition);
+        assertEquals("a", position.getDescription());
+    }
+
+    @Test
+    public void testConvertPositions() throws IOException {
+        List<NavigationPosition> positions = new ArrayList<>(asList(a, b, new Wgs84Position(7.0, 8.0, null, null, null, "c")));
+        List<BaseNavigationPosition> result = convertPositions(positions, new Kml22Format());
+        assertEquals(3, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertTrue(result.get(i) instanceof KmlPosition);
+            assertEquals(positions.get(i).getDescription(), result.get(i).getDescription());
+        }
+    }
+
+    static class FailingPosition extends BcrPosition {
+        private final RuntimeException exception;
+        private final Error error;
+
+        FailingPosition(RuntimeException exception, Error error) {
+            super(1, 2, 3, "failing");
+            this.exception = exception;
+            this.error = error;
+        }
+
+        public GpxPosition asGpxPosition() {
+            if (error != null)
+                throw error;
+            throw exception;
+        }
+    }
+
+    @Test
+    public void testConvertPositionWrapsException() {
+        IllegalStateException exception = new IllegalStateException("failed");
+        try {
+            asFormat(new FailingPosition(exception, null), new Gpx10Format());
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals(exception, e.getCause());
+        }
+    }
+
+    @Test
+    public void testConvertPositionRethrowsError() throws IOException {
+        AssertionError error = new AssertionError("failed");
+        try {
+            asFormat(new FailingPosition(null, error), new Gpx10Format());
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            assertEquals(error, e);
+        }
+    }
+
+    @Test
+    public void testConvertRoute() throws IOException {
+        BcrRoute route = new BcrRoute(new MTP0607Format(), "r", null, new ArrayList<>(asList(a, b)));
+        BaseRoute result = asFormat(route, new Gpx10Format());
+        assertTrue(result instanceof GpxRoute);
+        assertEquals(2, result.getPositionCount());
+        assertEquals("b", result.getPosition(1).getDescription());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.csv.CsvSemicolonFormat;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static slash.common.TestCase.calendar;
+import static slash.navigation.base.ChunkedPositionConsumer.CHUNK_SIZE;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class NavigationFormatParserTest {
+    private static final int POSITION_COUNT = CHUNK_SIZE * 2 + 500;
+    private final NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        List<NmeaPosition> positions = new ArrayList<>();
+        for (int i = 0; i < POSITION_COUNT; i++)
+            positions.add(new NmeaPosition(10.0 + i * 0.00001, 53.0 + i * 0.00001, 10.0, 5.0,
+                    calendar(2019, 4, 1, i / 3600, i / 60 % 60, i % 60), null));
+        NmeaFormat format = new NmeaFormat();
+        source = createTempFile("progressive", ".nmea");
+        format.write(format.createRoute(Track, null, positions), new FileOutputStream(source), 0, POSITION_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(source.delete());
+    }
+
+    private static class RecordingListener implements NavigationFormatParserListener {
+        private final List<NavigationFormat<BaseRoute>> formats = new ArrayList<>();
+        private final List<Integer> chunkSizes = new ArrayList<>();
+        private long bytesRead, totalBytes;
+
+        public void reading(NavigationFormat<BaseRoute> format) {
+            formats.add(format);
+        }
+
+        public void positionsRead(List<BaseNavigationPosition> positions) {
+            chunkSizes.add(positions.size());
+        }
+
+        public void progress(long bytesRead, long totalBytes) {
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+        }
+    }
+
+    @Test
+    public void testReadProgressively() throws IOException {
+        RecordingListener listener = new RecordingListener();
+        parser.addNavigationFileParserListener(listener);
+
+        ParserResult result = parser.readProgressively(source, parser.getNavigationFormatRegistry().getReadFormats());
+
+        assertTrue(result.isSuccessful());
+        assertEquals(NmeaFormat.class, result.getFormat().getClass());
+        assertEquals(POSITION_COUNT, result.getTheRoute().getPositionCount());
+        assertEquals(1, listener.formats.size());
+        assertEquals(3, listener.chunkSizes.size());
+        assertEquals(CHUNK_SIZE, (int) listener.chunkSizes.get(0));
+        assertEquals(500, (int) listener.chunkSizes.get(2));
+        assertEquals(source.length(), listener.bytesRead);
+        assertEquals(source.length(), listener.totalBytes);
+    }
+
+    @Test
+    public void testReadLargeFileWithFormatAfterCsv() throws IOException {
+        assertTrue(source.length() > 64 * 1024);
+
+        ParserResult result = parser.read(source, asList(new CsvSemicolonFormat(), new NmeaFormat()));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(NmeaFormat.class, result.getFormat().getClass());
+        assertEquals(POSITION_COUNT, result.getTheRoute().getPositionCount());
+    }
+
+    @Test
+    public void testCancelReadProgressively() throws IOException {
+        final List<Integer> chunkSizes = new ArrayList<>();
+        parser.addNavigationFileParserListener(new NavigationFormatParserListener() {
+            public void reading(NavigationFormat<BaseRoute> format) {
+            }
+
+            public void positionsRead(List<BaseNavigationPosition> positions) {
+                chunkSizes.add(positions.size());
+                parser.cancel();
+            }
+        });
+
+        ParserResult result = parser.readProgressively(source, parser.getNavigationFormatRegistry().getReadFormats());
+
+        assertTrue(parser.isCancelled());
+        assertFalse(result.isSuccessful());
+        assertEquals(1, chunkSizes.size());
+    }
+}
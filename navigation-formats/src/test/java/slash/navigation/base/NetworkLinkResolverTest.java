@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static slash.common.io.InputOutput.copyAndClose;
+
+public class NetworkLinkResolverTest {
+    private final NetworkLinkResolver resolver = new NetworkLinkResolver();
+    private final List<File> files = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        NetworkLinkResolver.clearMemoryCache();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : files)
+            assertTrue(file.delete());
+    }
+
+    private String createDocument(String content) throws IOException {
+        File file = createTempFile("networklink", ".txt");
+        files.add(file);
+        write(file, content);
+        return file.toURI().toURL().toExternalForm();
+    }
+
+    private void write(File file, String content) throws IOException {
+        copyAndClose(new ByteArrayInputStream(content.getBytes()), new FileOutputStream(file));
+    }
+
+    @Test
+    public void testResolvesInDocumentOrder() throws IOException {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            urls.add(createDocument("document " + i));
+
+        final List<String> contents = new ArrayList<>();
+        resolver.resolve(urls, document -> contents.add(new String(document.getBytes())));
+
+        assertEquals(50, contents.size());
+        for (int i = 0; i < 50; i++)
+            assertEquals("document " + i, contents.get(i));
+    }
+
+    @Test
+    public void testSkipsCycles() throws IOException {
+        final String first = createDocument("first");
+        final String second = createDocument("second");
+
+        final List<String> contents = new ArrayList<>();
+        resolver.resolve(asList(first, second), new NetworkLinkResolver.DocumentParser() {
+            public void parse(NetworkLinkResolver.Document document) throws IOException {
+                contents.add(new String(document.getBytes()));
+                // every document links to both documents again
+                if (contents.size() < 10)
+                    resolver.resolve(asList(first, second), this);
+            }
+        });
+
+        assertEquals(asList("first", "second", "second", "first"), contents);
+    }
+
+    @Test
+    public void testCachesByTag() throws IOException {
+        String url = createDocument("cached");
+        NetworkLinkResolver.Document first = resolver.fetch(url);
+        assertSame(first, resolver.fetch(url));
+
+        File file = files.get(0);
+        write(file, "modified content");
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        NetworkLinkResolver.Document second = resolver.fetch(url);
+        assertNotSame(first, second);
+        assertEquals("modified content", new String(second.getBytes()));
+    }
+}
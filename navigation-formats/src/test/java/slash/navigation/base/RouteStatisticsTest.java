@@ -0,0 +1,153 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.common.NavigationPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.type.CompactCalendar.fromMillis;
+
+public class RouteStatisticsTest {
+    private final Random random = new Random(42);
+    private final List<Wgs84Position> positions = new ArrayList<>();
+    private final RouteStatistics statistics = new RouteStatistics(positions);
+
+    private Wgs84Position createPosition() {
+        return new Wgs84Position(10.0 + random.nextDouble(), 53.0 + random.nextDouble(),
+                random.nextInt(5) == 0 ? null : random.nextDouble() * 1000.0, null,
+                random.nextInt(5) == 0 ? null : fromMillis(random.nextInt(1000000) * 1000L), null);
+    }
+
+    private RouteStatistics.Summary calculate(int firstIndex, int lastIndex) {
+        double distance = 0.0, ascend = 0.0, descend = 0.0;
+        long time = 0;
+        Long minimum = null, maximum = null;
+        NavigationPosition previous = null;
+        for (int i = firstIndex; i <= lastIndex; i++) {
+            NavigationPosition next = positions.get(i);
+            if (previous != null) {
+                Double segmentDistance = previous.calculateDistance(next);
+                if (segmentDistance != null)
+                    distance += segmentDistance;
+                Long segmentTime = previous.calculateTime(next);
+                if (segmentTime != null && segmentTime > 0)
+                    time += segmentTime;
+                Double elevation = previous.calculateElevation(next);
+                if (elevation != null && elevation > 0)
+                    ascend += elevation;
+                if (elevation != null && elevation < 0)
+                    descend -= elevation;
+            }
+            if (next.hasTime()) {
+                long millis = next.getTime().getTimeInMillis();
+                minimum = minimum == null ? millis : Math.min(minimum, millis);
+                maximum = maximum == null ? millis : Math.max(maximum, millis);
+            }
+            previous = next;
+        }
+        return new RouteStatistics.Summary(distance, time, ascend, descend, minimum, maximum);
+    }
+
+    private void assertSummaryEquals(RouteStatistics.Summary expected, RouteStatistics.Summary actual) {
+        assertEquals(expected.getDistance(), actual.getDistance(), 0.001);
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getElevationAscend(), actual.getElevationAscend(), 0.001);
+        assertEquals(expected.getElevationDescend(), actual.getElevationDescend(), 0.001);
+        assertEquals(expected.getMinimumTime(), actual.getMinimumTime());
+        assertEquals(expected.getMaximumTime(), actual.getMaximumTime());
+    }
+
+    private void assertStatistics() {
+        assertEquals(positions.size(), statistics.size());
+        assertSummaryEquals(calculate(0, positions.size() - 1), statistics.getTotal());
+        for (int i = 0; i < 5 && positions.size() > 0; i++) {
+            int first = random.nextInt(positions.size());
+            int last = first + random.nextInt(positions.size() - first);
+            assertSummaryEquals(calculate(first, last), statistics.getRange(first, last));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        statistics.rebuild();
+        RouteStatistics.Summary total = statistics.getTotal();
+        assertEquals(0.0, total.getDistance(), 0.0);
+        assertNull(total.getMinimumTime());
+        assertEquals(0, total.getDuration());
+    }
+
+    @Test
+    public void testRebuild() {
+        for (int i = 0; i < 1000; i++)
+            positions.add(createPosition());
+        statistics.rebuild();
+        assertStatistics();
+    }
+
+    @Test
+    public void testIncrementalChanges() {
+        for (int i = 0; i < 200; i++)
+            positions.add(createPosition());
+        statistics.rebuild();
+
+        for (int round = 0; round < 300; round++) {
+            int index = random.nextInt(positions.size());
+            switch (random.nextInt(3)) {
+                case 0:
+                    int insertCount = 1 + random.nextInt(5);
+                    for (int i = 0; i < insertCount; i++)
+                        positions.add(index, createPosition());
+                    statistics.insert(index, index + insertCount - 1);
+                    break;
+                case 1:
+                    int deleteCount = 1 + random.nextInt(Math.min(5, positions.size() - index));
+                    for (int i = 0; i < deleteCount; i++)
+                        positions.remove(index);
+                    statistics.delete(index, index + deleteCount - 1);
+                    break;
+                default:
+                    Wgs84Position position = positions.get(index);
+                    position.setElevation(random.nextDouble() * 1000.0);
+                    position.setLongitude(10.0 + random.nextDouble());
+                    statistics.update(index, index);
+            }
+            assertStatistics();
+        }
+    }
+
+    @Test
+    public void testSelection() {
+        for (int i = 0; i < 100; i++)
+            positions.add(createPosition());
+        statistics.rebuild();
+
+        RouteStatistics.Summary first = calculate(10, 20), second = calculate(40, 42);
+        RouteStatistics.Summary selection = statistics.getSelection(new int[]{10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 40, 41, 42});
+        assertEquals(first.getDistance() + second.getDistance(), selection.getDistance(), 0.001);
+        assertEquals(first.getElevationAscend() + second.getElevationAscend(), selection.getElevationAscend(), 0.001);
+    }
+}
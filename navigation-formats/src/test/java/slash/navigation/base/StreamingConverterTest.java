@@ -0,0 +1,177 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+import slash.navigation.nmea.NmeaRoute;
+import slash.navigation.simple.GoRiderGpsFormat;
+import slash.navigation.simple.KompassFormat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.readAllLines;
+import static org.junit.Assert.*;
+import static slash.common.TestCase.calendar;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class StreamingConverterTest {
+    private static final int POSITION_COUNT = 2500;
+    private final NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
+    private final List<File> files = new ArrayList<>();
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        List<NmeaPosition> positions = new ArrayList<>();
+        for (int i = 0; i < POSITION_COUNT; i++)
+            positions.add(new NmeaPosition(10.0 + i * 0.0001, 53.0 + i * 0.0001, 10.0, 5.0,
+                    calendar(2019, 4, 1, 10, i / 60, i % 60), null));
+        NmeaFormat format = new NmeaFormat();
+        NmeaRoute route = format.createRoute(Track, null, positions);
+        source = createFile(".nmea");
+        format.write(route, new FileOutputStream(source), 0, POSITION_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : files)
+            assertTrue(!file.exists() || file.delete());
+    }
+
+    private File createFile(String extension) throws IOException {
+        File file = createTempFile("streaming", extension);
+        files.add(file);
+        return file;
+    }
+
+    @Test
+    public void testDetectStreamingFormat() throws IOException {
+        PositionStreamingFormat format = new StreamingConverter(parser).detectStreamingFormat(source);
+        assertTrue(format instanceof NmeaFormat);
+    }
+
+    @Test
+    public void testConvertLikeNonStreaming() throws IOException {
+        File target = createFile(".nmea");
+        assertTrue(target.delete());
+
+        File[] targets = new StreamingConverter(parser).convert(source, new NmeaFormat(), new NmeaFormat(), target);
+        files.add(targets[0]);
+
+        assertEquals(1, targets.length);
+        ParserResult expected = parser.read(source);
+        ParserResult actual = parser.read(targets[0]);
+        assertEquals(POSITION_COUNT, expected.getTheRoute().getPositionCount());
+        assertEquals(expected.getTheRoute().getPositionCount(), actual.getTheRoute().getPositionCount());
+        for (int i = 0; i < POSITION_COUNT; i += 100) {
+            NavigationPosition expectedPosition = expected.getTheRoute().getPosition(i);
+            NavigationPosition actualPosition = actual.getTheRoute().getPosition(i);
+            assertEquals(expectedPosition.getLongitude(), actualPosition.getLongitude());
+            assertEquals(expectedPosition.getLatitude(), actualPosition.getLatitude());
+            assertEquals(expectedPosition.getTime(), actualPosition.getTime());
+            assertEquals(expectedPosition.getDescription(), actualPosition.getDescription());
+        }
+    }
+
+    @Test
+    public void testConvertCommentsAndNamesLikeNonStreaming() throws IOException {
+        GoRiderGpsFormat targetFormat = new GoRiderGpsFormat() {
+            public int getMaximumPositionCount() {
+                return 1000;
+            }
+        };
+        File target = createFile(".rt");
+        assertTrue(target.delete());
+        File[] targets = new StreamingConverter(parser).convert(source, new NmeaFormat(), targetFormat, target);
+        for (File file : targets)
+            files.add(file);
+
+        File[] expectedTargets = new File[targets.length];
+        for (int i = 0; i < expectedTargets.length; i++)
+            expectedTargets[i] = createFile(".rt");
+        parser.write(parser.read(source).getTheRoute(), targetFormat, false, false, null, expectedTargets);
+
+        assertEquals(3, targets.length);
+        for (int i = 0; i < targets.length; i++) {
+            ParserResult expected = parser.read(expectedTargets[i]);
+            ParserResult actual = parser.read(targets[i]);
+            assertEquals(expected.getTheRoute().getName(), actual.getTheRoute().getName());
+            assertEquals(expected.getTheRoute().getPositionCount(), actual.getTheRoute().getPositionCount());
+            for (int j = 0; j < expected.getTheRoute().getPositionCount(); j++)
+                assertEquals(expected.getTheRoute().getPosition(j).getDescription(), actual.getTheRoute().getPosition(j).getDescription());
+            assertArrayEquals(readAllBytes(expectedTargets[i].toPath()), readAllBytes(targets[i].toPath()));
+        }
+        // the route name is written to the header only
+        assertTrue(readAllLines(targets[0].toPath()).get(0).endsWith("NAME=\"Track1: Position 1 to Position 1000\""));
+        // reading numbers the descriptions of each file from the start
+        assertTrue(readAllLines(targets[2].toPath()).get(1).contains("\"Position 2001\""));
+    }
+
+    @Test
+    public void testConvertRejectsGarbleAfterDetection() throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(source, true))) {
+            writer.println("garble that the detected format does not accept");
+            writer.println("more garble than the detected format accepts");
+        }
+        assertTrue(new StreamingConverter(parser).detectStreamingFormat(source) instanceof NmeaFormat);
+
+        File target = createFile(".nmea");
+        assertTrue(target.delete());
+        assertNull(new StreamingConverter(parser).convert(source, new NmeaFormat(), new NmeaFormat(), target));
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void testConvertSplitsAtMaximumPositionCount() throws IOException {
+        File target = createFile(".csv");
+        assertTrue(target.delete());
+
+        KompassFormat targetFormat = new KompassFormat() {
+            public int getMaximumPositionCount() {
+                return 1000;
+            }
+        };
+        File[] targets = new StreamingConverter(parser).convert(source, new NmeaFormat(), targetFormat, target);
+        for (File file : targets)
+            files.add(file);
+
+        assertEquals(3, targets.length);
+        int positionCount = 0;
+        for (File file : targets) {
+            ParserResult result = parser.read(file);
+            assertTrue(result.isSuccessful());
+            positionCount += result.getTheRoute().getPositionCount();
+        }
+        assertEquals(POSITION_COUNT, positionCount);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.gpx.GpxRoute;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.io.File.createTempFile;
+import static java.lang.Math.cos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.toRadians;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+/**
+ * Generates reproducible tracks of a configurable size that look like recorded
+ * ones: a wandering course with changing speed and elevation, GPS noise and
+ * gaps in the recording. Files are written with the existing writers.
+ *
+ * @author Christian Pesch
+ */
+
+public class TrackGenerator {
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    private final int positionCount;
+    private long seed = 0;
+    private double startLongitude = 9.99, startLatitude = 53.55;
+    private long startTime = 1577836800000L;
+    private long interval = 1000;
+    private double gapProbability = 0.0005;
+    private long gapLength = 5 * 60 * 1000;
+    private double noise = 3.0;
+
+    public TrackGenerator(int positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    public TrackGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public TrackGenerator start(double longitude, double latitude, long time) {
+        this.startLongitude = longitude;
+        this.startLatitude = latitude;
+        this.startTime = time;
+        return this;
+    }
+
+    /**
+     * @param interval the milliseconds between two recorded positions
+     */
+    public TrackGenerator interval(long interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * @param probability the probability that the recording pauses after a position
+     * @param length the milliseconds of a pause
+     */
+    public TrackGenerator gaps(double probability, long length) {
+        this.gapProbability = probability;
+        this.gapLength = length;
+        return this;
+    }
+
+    /**
+     * @param noise the standard deviation of the GPS error in meters
+     */
+    public TrackGenerator noise(double noise) {
+        this.noise = noise;
+        return this;
+    }
+
+    public List<GpxPosition> createPositions() {
+        Random random = new Random(seed);
+        List<GpxPosition> positions = new ArrayList<>(positionCount);
+        double longitude = startLongitude, latitude = startLatitude, elevation = 20.0;
+        double heading = random.nextDouble() * 360.0, speed = 5.0, climb = 0.0;
+        long time = startTime;
+
+        for (int i = 0; i < positionCount; i++) {
+            double metersPerLongitude = METERS_PER_DEGREE * cos(toRadians(latitude));
+            double noisyLongitude = longitude + random.nextGaussian() * noise / metersPerLongitude;
+            double noisyLatitude = latitude + random.nextGaussian() * noise / METERS_PER_DEGREE;
+            double noisyElevation = elevation + random.nextGaussian() * noise * 1.5;
+            positions.add(new GpxPosition(noisyLongitude, noisyLatitude, noisyElevation, speed * 3.6, fromMillis(time), null));
+
+            long delta = interval;
+            if (random.nextDouble() < gapProbability)
+                delta += gapLength;
+            time += delta;
+
+            // the course and the speed change slowly, the climb follows the terrain
+            heading = (heading + random.nextGaussian() * 8.0 + 360.0) % 360.0;
+            speed = min(15.0, max(1.0, speed + random.nextGaussian() * 0.3));
+            climb = min(0.15, max(-0.15, climb + random.nextGaussian() * 0.01));
+            double distance = speed * interval / 1000.0;
+            latitude += cos(toRadians(heading)) * distance / METERS_PER_DEGREE;
+            longitude += sin(toRadians(heading)) * distance / metersPerLongitude;
+            elevation = max(0.0, elevation + climb * distance);
+        }
+        return positions;
+    }
+
+    public GpxRoute createRoute() {
+        return new GpxRoute(new Gpx11Format(), Track, "Track with " + positionCount + " positions", null, createPositions());
+    }
+
+    public File write(NavigationFormat format, File target) throws IOException {
+        new NavigationFormatParser(new NavigationFormatRegistry()).write(createRoute(), format, false, true, null, target);
+        return target;
+    }
+
+    public File writeToTemporaryFile(NavigationFormat format) throws IOException {
+        File target = createTempFile("track-" + positionCount + "-", format.getExtension());
+        target.deleteOnExit();
+        return write(format, target);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.csv.CsvCommaFormat;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.nmea.NmeaFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrackGeneratorTest {
+    @Test
+    public void testCreatesSameTrackForSameSeed() {
+        List<GpxPosition> first = new TrackGenerator(100).seed(7).createPositions();
+        List<GpxPosition> second = new TrackGenerator(100).seed(7).createPositions();
+        assertEquals(100, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getLongitude(), second.get(i).getLongitude());
+            assertEquals(first.get(i).getLatitude(), second.get(i).getLatitude());
+            assertEquals(first.get(i).getTime(), second.get(i).getTime());
+        }
+    }
+
+    @Test
+    public void testCreatesTimeGaps() {
+        List<GpxPosition> positions = new TrackGenerator(1000).interval(2000).gaps(0.1, 60000).createPositions();
+        int gaps = 0;
+        for (int i = 1; i < positions.size(); i++) {
+            long delta = positions.get(i).getTime().getTimeInMillis() - positions.get(i - 1).getTime().getTimeInMillis();
+            if (delta == 62000)
+                gaps++;
+            else
+                assertEquals(2000, delta);
+        }
+        assertTrue(gaps > 50 && gaps < 150);
+    }
+
+    @Test
+    public void testWithoutNoiseAndGaps() {
+        List<GpxPosition> positions = new TrackGenerator(1000).noise(0.0).gaps(0.0, 0).createPositions();
+        for (int i = 1; i < positions.size(); i++) {
+            Double distance = positions.get(i - 1).calculateDistance(positions.get(i));
+            assertTrue(distance > 0.9 && distance < 15.5);
+        }
+    }
+
+    private void checkWriteAndRead(NavigationFormat format) throws IOException {
+        File file = new TrackGenerator(500).writeToTemporaryFile(format);
+        try {
+            ParserResult result = new NavigationFormatParser(new NavigationFormatRegistry()).read(file, singletonList(format));
+            assertTrue(result.isSuccessful());
+            assertEquals(500, result.getTheRoute().getPositionCount());
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testWriteAndReadNmea() throws IOException {
+        checkWriteAndRead(new NmeaFormat());
+    }
+
+    @Test
+    public void testWriteAndReadCsv() throws IOException {
+        checkWriteAndRead(new CsvCommaFormat());
+    }
+}
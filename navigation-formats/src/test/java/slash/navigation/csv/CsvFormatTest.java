@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.csv;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.navigation.csv.CsvFormat.detectEncoding;
+
+public class CsvFormatTest {
+    private static final String CSV = "Breite;L\u00e4nge;H\u00f6he;Unknown;Beschreibung\n" +
+            "50.1;8.2;100;x;F\u00fc\u00dfe\n" +
+            "\n" +
+            "50.3;8.4\n";
+
+    private InputStream stream(String string, java.nio.charset.Charset charset) {
+        return new BufferedInputStream(new ByteArrayInputStream(string.getBytes(charset)));
+    }
+
+    @Test
+    public void testDetectEncoding() throws IOException {
+        assertEquals(UTF8_ENCODING, detectEncoding(stream("plain ascii", UTF_8), 1024));
+        assertEquals(UTF8_ENCODING, detectEncoding(stream("F\u00fc\u00dfe", UTF_8), 1024));
+        assertEquals(ISO_LATIN1_ENCODING, detectEncoding(stream("F\u00fc\u00dfe", ISO_8859_1), 1024));
+        // the prefix ends within the two bytes of the umlaut
+        assertEquals(UTF8_ENCODING, detectEncoding(stream("F\u00fc\u00dfe", UTF_8), 2));
+        // a broken last byte of a short file is no truncated sequence
+        assertEquals(ISO_LATIN1_ENCODING, detectEncoding(stream("F\u00fc", ISO_8859_1), 1024));
+    }
+
+    @Test
+    public void testDetectEncodingResetsSource() throws IOException {
+        InputStream source = stream("F\u00fc\u00dfe", UTF_8);
+        detectEncoding(source, 1024);
+        assertEquals('F', source.read());
+    }
+
+    private void checkRead(java.nio.charset.Charset charset) throws IOException {
+        ParserContext<CsvRoute> context = new ParserContextImpl<>();
+        new CsvSemicolonFormat().read(stream(CSV, charset), context);
+        CsvRoute route = context.getRoutes().get(0);
+        assertEquals(2, route.getPositionCount());
+        CsvPosition first = route.getPosition(0);
+        assertEquals(50.1, first.getLatitude(), 0.0);
+        assertEquals(8.2, first.getLongitude(), 0.0);
+        assertEquals(100.0, first.getElevation(), 0.0);
+        assertEquals("F\u00fc\u00dfe", first.getDescription());
+        CsvPosition second = route.getPosition(1);
+        assertEquals(8.4, second.getLongitude(), 0.0);
+        assertNull(second.getElevation());
+        assertNull(second.getDescription());
+    }
+
+    @Test
+    public void testReadUtf8() throws IOException {
+        checkRead(UTF_8);
+    }
+
+    @Test
+    public void testReadIsoLatin1() throws IOException {
+        checkRead(ISO_8859_1);
+    }
+
+    @Test
+    public void testWriteKeepsUnknownColumns() throws IOException {
+        ParserContext<CsvRoute> context = new ParserContextImpl<>();
+        CsvSemicolonFormat format = new CsvSemicolonFormat();
+        format.read(stream(CSV, UTF_8), context);
+        CsvRoute route = context.getRoutes().get(0);
+        route.getPosition(1).setSpeed(12.0);
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        format.write(route, target, 0, route.getPositionCount());
+        String[] lines = new String(target.toByteArray(), UTF_8).split("\n");
+        assertEquals("Beschreibung;Breite;H\u00f6he;L\u00e4nge;Speed;Unknown", lines[0]);
+        // Jackson quotes values with characters below the column separator
+        assertEquals("F\u00fc\u00dfe;\"50.1\";\"100\";\"8.2\";;x", lines[1]);
+        assertEquals(";\"50.3\";;\"8.4\";\"12.0\";", lines[2]);
+    }
+}
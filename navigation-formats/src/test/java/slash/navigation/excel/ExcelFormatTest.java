@@ -21,8 +21,23 @@ package slash.navigation.excel;
 
 import org.junit.Test;
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+import static java.io.File.createTempFile;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
 import static slash.common.TestCase.calendar;
 
 public class ExcelFormatTest {
@@ -32,4 +47,88 @@ public class ExcelFormatTest {
         ExcelPosition position = new ExcelPosition(1.0, 2.0, 3.0, 4.0, time, "five");
         assertEquals(time, position.getTime());
     }
+
+    private ExcelRoute createRoute(MicrosoftExcel2008Format format, int count) {
+        ExcelRoute route = new ExcelRoute(format, "Track", new ArrayList<>());
+        for (int i = 0; i < count; i++)
+            route.getPositions().add(route.createPosition(10.0 + i, 50.0 + i, 100.0 + i, null,
+                    calendar(2018, 1, 21, 19, 35, i % 60), "Position " + i));
+        return route;
+    }
+
+    private void checkRoute(ExcelRoute route, int count) {
+        assertEquals("Track", route.getName());
+        assertEquals(count, route.getPositionCount());
+        for (int i = 0; i < count; i++) {
+            ExcelPosition position = route.getPosition(i);
+            assertEquals(10.0 + i, position.getLongitude());
+            assertEquals(50.0 + i, position.getLatitude());
+            assertEquals(100.0 + i, position.getElevation());
+            assertNull(position.getSpeed());
+            assertEquals(calendar(2018, 1, 21, 19, 35, i % 60).getTimeInMillis(), position.getTime().getTimeInMillis());
+            assertEquals("Position " + i, position.getDescription());
+        }
+    }
+
+    @Test
+    public void testWriteAndReadStreaming() throws IOException {
+        MicrosoftExcel2008Format format = new MicrosoftExcel2008Format();
+        ExcelRoute route = createRoute(format, 500);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        format.write(route, target, 0, route.getPositionCount());
+
+        ParserContext<ExcelRoute> streaming = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(target.toByteArray()), streaming, 0);
+        assertEquals(1, streaming.getRoutes().size());
+        assertNull(streaming.getRoutes().get(0).getWorkbook());
+        checkRoute(streaming.getRoutes().get(0), 500);
+
+        ParserContext<ExcelRoute> workbook = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(target.toByteArray()), workbook);
+        assertEquals(1, workbook.getRoutes().size());
+        assertNotNull(workbook.getRoutes().get(0).getWorkbook());
+        checkRoute(workbook.getRoutes().get(0), 500);
+    }
+
+    @Test
+    public void testReadStreamingFromFile() throws IOException {
+        MicrosoftExcel2008Format format = new MicrosoftExcel2008Format();
+        ExcelRoute route = createRoute(format, 500);
+        File file = createTempFile("excel", format.getExtension());
+        try {
+            format.write(route, new FileOutputStream(file), 0, route.getPositionCount());
+
+            ParserContext<ExcelRoute> context = new ParserContextImpl<>(file, null);
+            try (InputStream source = new FileInputStream(file)) {
+                format.read(source, context, (int) file.length() - 1);
+            }
+            assertEquals(1, context.getRoutes().size());
+            assertNull(context.getRoutes().get(0).getWorkbook());
+            checkRoute(context.getRoutes().get(0), 500);
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testStreamedRouteIsWrittenAgain() throws IOException {
+        MicrosoftExcel2008Format format = new MicrosoftExcel2008Format();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        format.write(createRoute(format, 3), first, 0, 3);
+
+        ParserContext<ExcelRoute> context = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(first.toByteArray()), context, 0);
+        ExcelRoute route = context.getRoutes().get(0);
+        route.remove(0);
+        route.setName("Track");
+
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        format.write(route, second, 0, route.getPositionCount());
+        context = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(second.toByteArray()), context, 0);
+        ExcelRoute read = context.getRoutes().get(0);
+        assertEquals(2, read.getPositionCount());
+        assertEquals(11.0, read.getPosition(0).getLongitude());
+        assertEquals("Position 2", read.getPosition(1).getDescription());
+    }
 }
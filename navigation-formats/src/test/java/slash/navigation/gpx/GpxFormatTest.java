@@ -21,15 +21,36 @@
 package slash.navigation.gpx;
 
 import org.junit.Test;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.excel.MicrosoftExcel2008Format;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static slash.common.TestCase.assertDoubleEquals;
+import static slash.navigation.base.NavigationFormatConverter.asFormat;
+import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.gpx.GpxFormat.parseHeading;
 import static slash.navigation.gpx.GpxFormat.parseSpeed;
 
 public class GpxFormatTest {
 
+    @Test
+    public void testAsExcelFormat() throws IOException {
+        List<GpxPosition> positions = new ArrayList<>();
+        positions.add(new GpxPosition(10.0, 50.0, 100.0, null, null, "first"));
+        positions.add(new GpxPosition(11.0, 51.0, 101.0, null, null, "second"));
+        GpxRoute route = new GpxRoute(new Gpx11Format(), Track, "Track", null, positions);
+
+        BaseRoute excel = asFormat(route, new MicrosoftExcel2008Format());
+        assertEquals(2, excel.getPositionCount());
+        assertDoubleEquals(11.0, excel.getPosition(1).getLongitude());
+        assertEquals("second", excel.getPosition(1).getDescription());
+    }
+
     @Test
     public void testExtractSpeed() {
         assertDoubleEquals(9.0, parseSpeed("9Km/h"));
@@ -0,0 +1,91 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+
+import static org.junit.Assert.assertEquals;
+import static slash.common.type.CompactCalendar.createDateFormat;
+import static slash.navigation.nmea.NmeaDateTimeParser.NOT_PARSEABLE;
+import static slash.navigation.nmea.NmeaDateTimeParser.parseDateAndTime;
+import static slash.navigation.nmea.NmeaDateTimeParser.parseTime;
+
+public class NmeaDateTimeParserTest {
+    private long parseWithDateFormat(String string, String pattern) throws ParseException {
+        return createDateFormat(pattern).parse(string).getTime();
+    }
+
+    @Test
+    public void testParseTime() throws ParseException {
+        assertEquals(parseWithDateFormat("130441", "HHmmss"), parseTime("130441"));
+        assertEquals(parseWithDateFormat("130441.89", "HHmmss.SSS"), parseTime("130441.89"));
+        assertEquals(parseWithDateFormat("032910.542", "HHmmss.SSS"), parseTime(" 032910.542 "));
+        assertEquals(parseWithDateFormat("184113.00", "HHmmss.SSS"), parseTime("184113.00"));
+        assertEquals(parseWithDateFormat("256199.5", "HHmmss.SSS"), parseTime("256199.5"));
+    }
+
+    @Test
+    public void testParseTimeLenientLikeSimpleDateFormat() throws ParseException {
+        assertEquals(parseWithDateFormat("13044", "HHmmss"), parseTime("13044"));
+        assertEquals(parseWithDateFormat("30441", "HHmmss"), parseTime(" 30441"));
+        assertEquals(parseWithDateFormat("13044.5", "HHmmss.SSS"), parseTime("13044.5"));
+        assertEquals(parseWithDateFormat("130441.", "HHmmss"), parseTime("130441."));
+        assertEquals(parseWithDateFormat("130441,5", "HHmmss"), parseTime("130441,5"));
+        assertEquals(parseWithDateFormat("1304411", "HHmmss"), parseTime("1304411"));
+        assertEquals(parseWithDateFormat("160607 13044", "ddMMyy HHmmss"), parseDateAndTime("160607", "13044"));
+    }
+
+    @Test
+    public void testParseTimeNotParseable() {
+        assertEquals(NOT_PARSEABLE, parseTime((String) null));
+        assertEquals(NOT_PARSEABLE, parseTime(""));
+        assertEquals(NOT_PARSEABLE, parseTime("3044"));
+        assertEquals(NOT_PARSEABLE, parseTime("1304a1"));
+        assertEquals(NOT_PARSEABLE, parseTime("abcdef"));
+    }
+
+    @Test
+    public void testParseDateAndTime() throws ParseException {
+        assertEquals(parseWithDateFormat("160607 130441", "ddMMyy HHmmss"), parseDateAndTime("160607", "130441"));
+        assertEquals(parseWithDateFormat("160217 162622.00", "ddMMyy HHmmss.SSS"), parseDateAndTime("160217", "162622.00"));
+        assertEquals(parseWithDateFormat("070870 032910.542", "ddMMyy HHmmss.SSS"), parseDateAndTime("070870", "032910.542"));
+        assertEquals(parseWithDateFormat("07082004 032910.542", "ddMMyy HHmmss.SSS"), parseDateAndTime("07082004", "032910.542"));
+        assertEquals(parseWithDateFormat("321399 235960", "ddMMyy HHmmss"), parseDateAndTime("321399", "235960"));
+        assertEquals(parseWithDateFormat("000007 000000", "ddMMyy HHmmss"), parseDateAndTime("000007", "000000"));
+    }
+
+    @Test
+    public void testParseDateAndTimeFromBrokenCoPilot() throws ParseException {
+        assertEquals(parseWithDateFormat("010717 130441", "ddMMyy HHmmss"), parseDateAndTime("10717", "130441"));
+    }
+
+    @Test
+    public void testParseDateAndTimeNotParseable() {
+        assertEquals(NOT_PARSEABLE, parseDateAndTime(null, "130441"));
+        assertEquals(NOT_PARSEABLE, parseDateAndTime("160607", null));
+        assertEquals(NOT_PARSEABLE, parseDateAndTime("1606", "130441"));
+        assertEquals(NOT_PARSEABLE, parseDateAndTime("1606070", "130441"));
+        assertEquals(NOT_PARSEABLE, parseDateAndTime("16060x", "130441"));
+        assertEquals(NOT_PARSEABLE, parseDateAndTime("07080004", "130441"));
+    }
+}
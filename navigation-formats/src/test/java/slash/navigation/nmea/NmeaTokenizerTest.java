@@ -0,0 +1,68 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NmeaTokenizerTest {
+    private Double getDouble(String value) {
+        NmeaTokenizer tokenizer = new NmeaTokenizer();
+        tokenizer.tokenize("$GPGGA," + value + ",N");
+        return tokenizer.getDouble(1);
+    }
+
+    private void assertParsedLikeDouble(String value) {
+        assertEquals(value, Double.valueOf(Double.parseDouble(value.trim())), getDouble(value));
+    }
+
+    @Test
+    public void testGetDouble() {
+        assertParsedLikeDouble("4837.4374");
+        assertParsedLikeDouble("00903.7892");
+        assertParsedLikeDouble(" 130441.89 ");
+        assertParsedLikeDouble("0.1");
+        assertParsedLikeDouble("5.");
+        assertParsedLikeDouble("-12.5");
+    }
+
+    @Test
+    public void testGetDoubleWithLongFractions() {
+        assertParsedLikeDouble("4837.43740000000001");
+        assertParsedLikeDouble("123456789012345.6");
+        assertParsedLikeDouble("1234567890.123456789");
+        assertParsedLikeDouble("0.9999999999999999999");
+        assertParsedLikeDouble("0.00000000000000000000000012345");
+        assertParsedLikeDouble("9007199254740993");
+        assertParsedLikeDouble("0.12345678901234567");
+        assertParsedLikeDouble("1.2345678901234567");
+        assertParsedLikeDouble("48.374374012345678");
+        assertParsedLikeDouble("4837.123456789012345678");
+    }
+
+    @Test
+    public void testGetDoubleNotParseable() {
+        assertNull(getDouble(""));
+        assertNull(getDouble("  "));
+    }
+}
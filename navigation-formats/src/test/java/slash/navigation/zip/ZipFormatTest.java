@@ -0,0 +1,135 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.zip;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserResult;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.io.File.createTempFile;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.TestCase.calendar;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class ZipFormatTest {
+    private static final int ENTRY_COUNT = 20;
+    private final NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
+    private final List<File> files = new ArrayList<>();
+    private File archive;
+
+    private byte[] createNmea(int positionCount) throws IOException {
+        List<NmeaPosition> positions = new ArrayList<>();
+        for (int i = 0; i < positionCount; i++)
+            positions.add(new NmeaPosition(10.0 + i * 0.001, 53.0 + i * 0.001, 10.0, 5.0,
+                    calendar(2019, 4, 1, 10, i / 60, i % 60), null));
+        NmeaFormat format = new NmeaFormat();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.write(format.createRoute(Track, null, positions), outputStream, 0, positionCount);
+        return outputStream.toByteArray();
+    }
+
+    private File createFile(String extension) throws IOException {
+        File file = createTempFile("zipformat", extension);
+        files.add(file);
+        return file;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        archive = createFile(".zip");
+        try (ZipOutputStream outputStream = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                outputStream.putNextEntry(new ZipEntry("track" + i + ".nmea"));
+                outputStream.write(createNmea(i + 2));
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : files)
+            assertTrue(file.delete());
+    }
+
+    private List<Integer> getPositionCounts(ParserResult result) {
+        List<Integer> positionCounts = new ArrayList<>();
+        for (BaseRoute route : result.getAllRoutes())
+            positionCounts.add(route.getPositionCount());
+        return positionCounts;
+    }
+
+    @Test
+    public void testReadEntriesInParallelLikeSequentially() throws IOException {
+        ParserResult parallel = parser.read(archive);
+
+        ParserResult sequential;
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            sequential = parser.read(inputStream);
+        }
+
+        assertTrue(parallel.isSuccessful());
+        assertEquals(ENTRY_COUNT, parallel.getAllRoutes().size());
+        assertEquals(getPositionCounts(sequential), getPositionCounts(parallel));
+        assertEquals(sequential.getFormat().getClass(), parallel.getFormat().getClass());
+        for (int i = 0; i < ENTRY_COUNT; i++)
+            assertEquals(i + 2, parallel.getAllRoutes().get(i).getPositionCount());
+    }
+
+    @Test
+    public void testReadFilesAndArchiveInOrder() throws IOException {
+        File first = createFile(".nmea");
+        try (FileOutputStream outputStream = new FileOutputStream(first)) {
+            outputStream.write(createNmea(30));
+        }
+        File last = createFile(".nmea");
+        try (FileOutputStream outputStream = new FileOutputStream(last)) {
+            outputStream.write(createNmea(40));
+        }
+
+        ParserResult result = parser.read(asList(first, archive, last), parser.getNavigationFormatRegistry().getReadFormats());
+
+        List<Integer> positionCounts = getPositionCounts(result);
+        assertEquals(ENTRY_COUNT + 2, positionCounts.size());
+        assertEquals(30, (int) positionCounts.get(0));
+        assertEquals(2, (int) positionCounts.get(1));
+        assertEquals(40, (int) positionCounts.get(ENTRY_COUNT + 1));
+    }
+}
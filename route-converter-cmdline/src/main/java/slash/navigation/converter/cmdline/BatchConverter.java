@@ -0,0 +1,261 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import slash.navigation.base.NavigationFormat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.FileSystems.getDefault;
+import static slash.common.helpers.ThreadHelper.createFixedThreadPool;
+import static slash.common.io.Files.calculateConvertFileName;
+import static slash.common.io.Files.removeExtension;
+import static slash.navigation.converter.cmdline.BatchReport.Status.*;
+
+/**
+ * Converts many source files in parallel to a target directory.
+ *
+ * Sources are files, directories which are searched recursively, glob patterns
+ * like <code>logs/**.nmea</code> or manifest files prefixed with <code>@</code>
+ * that list one source per line.
+ *
+ * @author Christian Pesch
+ */
+
+class BatchConverter {
+    private static final Logger log = Logger.getLogger(BatchConverter.class.getName());
+    private static final String MANIFEST_PREFIX = "@";
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final int MAXIMUM_PART_NUMBER = 9999;
+
+    private final FileConverter converter;
+    private final NavigationFormat format;
+    private final File targetDirectory;
+    private final int threadCount;
+
+    BatchConverter(FileConverter converter, NavigationFormat format, File targetDirectory, int threadCount) {
+        this.converter = converter;
+        this.format = format;
+        this.targetDirectory = targetDirectory;
+        this.threadCount = threadCount;
+    }
+
+    private static class Source {
+        private final File file;
+        private final String relativeName;
+
+        Source(File file, String relativeName) {
+            this.file = file;
+            this.relativeName = relativeName;
+        }
+    }
+
+    List<Source> collectSources(List<String> specifications) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        for (String specification : specifications) {
+            if (specification.startsWith(MANIFEST_PREFIX))
+                collectManifest(new File(specification.substring(MANIFEST_PREFIX.length())), sources);
+            else if (isGlob(specification))
+                collectGlob(specification, sources);
+            else {
+                File file = new File(specification).getAbsoluteFile();
+                if (file.isDirectory())
+                    collectDirectory(file.toPath(), null, sources);
+                else
+                    sources.add(new Source(file, file.getName()));
+            }
+        }
+        return sources;
+    }
+
+    private static boolean isGlob(String specification) {
+        for (char c : GLOB_CHARACTERS.toCharArray()) {
+            if (specification.indexOf(c) != -1)
+                return true;
+        }
+        return false;
+    }
+
+    private void collectManifest(File manifest, List<Source> sources) throws IOException {
+        List<String> specifications = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), StandardCharsets.UTF_8))) {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null)
+                    break;
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#"))
+                    continue;
+                // relative entries are relative to the manifest
+                File file = new File(line);
+                specifications.add(file.isAbsolute() ? line : new File(manifest.getAbsoluteFile().getParentFile(), line).getPath());
+            }
+        }
+        sources.addAll(collectSources(specifications));
+    }
+
+    private void collectGlob(String specification, List<Source> sources) throws IOException {
+        String normalized = specification.replace('\\', '/');
+        int firstGlob = normalized.length();
+        for (char c : GLOB_CHARACTERS.toCharArray()) {
+            int index = normalized.indexOf(c);
+            if (index != -1)
+                firstGlob = Math.min(firstGlob, index);
+        }
+        int separator = normalized.lastIndexOf('/', firstGlob);
+        File directory = new File(separator != -1 ? normalized.substring(0, separator + 1) : ".").getAbsoluteFile();
+        String pattern = normalized.substring(separator + 1);
+        if (!directory.isDirectory())
+            throw new IOException("Directory '" + directory + "' of pattern '" + specification + "' does not exist");
+        collectDirectory(directory.toPath(), getDefault().getPathMatcher("glob:" + pattern), sources);
+    }
+
+    private void collectDirectory(Path directory, PathMatcher matcher, List<Source> sources) throws IOException {
+        try (Stream<Path> paths = java.nio.file.Files.walk(directory)) {
+            paths.filter(path -> java.nio.file.Files.isRegularFile(path))
+                    .filter(path -> matcher == null || matcher.matches(directory.relativize(path)))
+                    .sorted()
+                    .forEach(path -> sources.add(new Source(path.toFile(), directory.relativize(path).toString())));
+        }
+    }
+
+    private File createTarget(Source source) {
+        File target = new File(targetDirectory, removeExtension(source.relativeName) + format.getExtension()).getAbsoluteFile();
+        File parent = target.getParentFile();
+        if (!parent.exists() && !parent.mkdirs() && !parent.exists())
+            log.warning("Cannot create directory " + parent);
+        return target;
+    }
+
+    /**
+     * Finds the files of a previous conversion to the given target. They are named like
+     * {@link slash.common.io.Files#createTargetFiles}: the target, the target shortened to
+     * the maximum file name length of the format or a complete sequence of numbered parts.
+     * The targets of the other sources of the batch are never part of the result.
+     */
+    File[] findExistingTargets(File target, Set<File> batchTargets) {
+        String extension = format.getExtension();
+        int fileNameLength = format.getMaximumFileNameLength();
+        List<File> result = new ArrayList<>();
+        if (target.exists())
+            result.add(target);
+        File shortened = new File(calculateConvertFileName(target, extension, fileNameLength));
+        if (!shortened.equals(target) && shortened.exists() && !batchTargets.contains(shortened))
+            result.add(shortened);
+
+        // the width of the part numbers depends on the number of parts
+        for (int maximum = 9; maximum <= MAXIMUM_PART_NUMBER; maximum = maximum * 10 + 9) {
+            List<File> parts = new ArrayList<>();
+            boolean partOfOtherSource = false;
+            for (int index = 1; index <= maximum; index++) {
+                File part = new File(calculateConvertFileName(target, index, maximum, extension, fileNameLength));
+                if (!part.exists())
+                    break;
+                partOfOtherSource |= batchTargets.contains(part);
+                parts.add(part);
+            }
+            int minimumPartCount = maximum == 9 ? 2 : (maximum + 1) / 10;
+            if (parts.size() >= minimumPartCount && !partOfOtherSource)
+                result.addAll(parts);
+        }
+        return result.toArray(new File[0]);
+    }
+
+    private static boolean isUpToDate(File source, File[] targets) {
+        if (targets.length == 0)
+            return false;
+        for (File target : targets) {
+            if (target.lastModified() < source.lastModified())
+                return false;
+        }
+        return true;
+    }
+
+    private NavigationFormat createFormat() throws ReflectiveOperationException {
+        // formats keep state while writing, thus every conversion gets its own instance
+        return format.getClass().getDeclaredConstructor().newInstance();
+    }
+
+    private void convert(Source source, File target, Set<File> batchTargets, BatchReport report) {
+        long start = currentTimeMillis();
+        try {
+            File[] existing = findExistingTargets(target, batchTargets);
+            if (isUpToDate(source.file, existing)) {
+                report.add(source.file, Skipped, existing, currentTimeMillis() - start, "Targets are newer than source");
+                return;
+            }
+            for (File file : existing) {
+                if (!file.delete())
+                    throw new IOException("Cannot delete outdated target '" + file.getAbsolutePath() + "'");
+            }
+
+            File[] targets = converter.convert(source.file, createFormat(), target);
+            report.add(source.file, Converted, targets, currentTimeMillis() - start, null);
+        } catch (Exception e) {
+            log.severe(format("Could not convert '%s': %s", source.file.getAbsolutePath(), e));
+            report.add(source.file, Failed, null, currentTimeMillis() - start, e.getMessage());
+        }
+    }
+
+    void convert(List<String> specifications, final BatchReport report) throws IOException {
+        // sources that would be written to the same target are converted only once
+        Map<File, Source> targetToSource = new LinkedHashMap<>();
+        for (Source source : collectSources(specifications)) {
+            File target = createTarget(source);
+            if (!targetToSource.containsKey(target))
+                targetToSource.put(target, source);
+            else
+                log.warning(format("Ignoring '%s' since it would be written to '%s', too", source.file.getAbsolutePath(), target.getAbsolutePath()));
+        }
+        log.info(format("Converting %d files with %d threads to '%s'", targetToSource.size(), threadCount, targetDirectory.getAbsolutePath()));
+
+        long start = currentTimeMillis();
+        ExecutorService executor = createFixedThreadPool("BatchConverter", threadCount);
+        try {
+            for (final Map.Entry<File, Source> entry : targetToSource.entrySet())
+                executor.execute(() -> convert(entry.getValue(), entry.getKey(), targetToSource.keySet(), report));
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info(format("Converted %d, skipped %d and failed %d files in %d seconds", report.getConvertedCount(),
+                report.getSkippedCount(), report.getFailedCount(), (currentTimeMillis() - start) / 1000));
+    }
+}
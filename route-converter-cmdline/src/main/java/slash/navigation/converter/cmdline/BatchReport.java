@@ -0,0 +1,101 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the result of each conversion of the batch mode as a line of comma separated values.
+ *
+ * @author Christian Pesch
+ */
+
+class BatchReport implements Closeable {
+    enum Status {Converted, Skipped, Failed}
+
+    private static final String SEPARATOR = ",";
+    private static final String QUOTE = "\"";
+
+    private final PrintWriter writer;
+    private int converted, skipped, failed;
+
+    BatchReport(File file) throws IOException {
+        this.writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        writer.println("source,status,targets,milliseconds,message");
+        writer.flush();
+    }
+
+    BatchReport() {
+        this.writer = null;
+    }
+
+    synchronized void add(File source, Status status, File[] targets, long milliseconds, String message) {
+        switch (status) {
+            case Converted:
+                converted++;
+                break;
+            case Skipped:
+                skipped++;
+                break;
+            case Failed:
+                failed++;
+                break;
+        }
+
+        if (writer == null)
+            return;
+        StringBuilder buffer = new StringBuilder();
+        if (targets != null) {
+            for (File target : targets) {
+                if (buffer.length() > 0)
+                    buffer.append(File.pathSeparator);
+                buffer.append(target.getAbsolutePath());
+            }
+        }
+        writer.println(quote(source.getAbsolutePath()) + SEPARATOR + status + SEPARATOR + quote(buffer.toString()) +
+                SEPARATOR + milliseconds + SEPARATOR + quote(message));
+        // keep the report of the files converted so far if the process is killed
+        writer.flush();
+    }
+
+    private static String quote(String string) {
+        if (string == null)
+            return "";
+        return QUOTE + string.replace(QUOTE, QUOTE + QUOTE) + QUOTE;
+    }
+
+    synchronized int getConvertedCount() {
+        return converted;
+    }
+
+    synchronized int getSkippedCount() {
+        return skipped;
+    }
+
+    synchronized int getFailedCount() {
+        return failed;
+    }
+
+    public void close() {
+        if (writer != null)
+            writer.close();
+    }
+}
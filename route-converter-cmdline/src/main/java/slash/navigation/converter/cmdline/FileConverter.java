@@ -0,0 +1,97 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import slash.navigation.base.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import static slash.common.io.Files.createTargetFiles;
+import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWriteFor;
+import static slash.navigation.base.StreamingConverter.isStreamingPositions;
+
+/**
+ * Converts a source file to a target format.
+ *
+ * @author Christian Pesch
+ */
+
+class FileConverter {
+    private static final Logger log = Logger.getLogger(FileConverter.class.getName());
+    static final int SOURCE_NOT_READABLE = 20;
+    static final int TARGET_EXISTS = 13;
+
+    private final NavigationFormatRegistry registry;
+
+    FileConverter(NavigationFormatRegistry registry) {
+        this.registry = registry;
+    }
+
+    File[] convert(File source, NavigationFormat format, File target) throws IOException {
+        NavigationFormatParser parser = new NavigationFormatParser(registry);
+        if (isStreamingPositions(format)) {
+            StreamingConverter converter = new StreamingConverter(parser);
+            PositionStreamingFormat sourceFormat = converter.detectStreamingFormat(source);
+            if (sourceFormat != null) {
+                log.info("Streaming positions from " + ((NavigationFormat) sourceFormat).getName() + " to " + format.getName());
+                File[] targets = converter.convert(source, sourceFormat, (PositionStreamingFormat) format, target);
+                if (targets != null) {
+                    if (targets.length == 0)
+                        throw new ConversionException("Could not read positions from source '" + source.getAbsolutePath() + "'", SOURCE_NOT_READABLE);
+                    return targets;
+                }
+                log.info("Reading " + source.getAbsolutePath() + " completely since streaming failed");
+            }
+        }
+
+        ParserResult result = parser.read(source);
+        if (!result.isSuccessful())
+            throw new ConversionException("Could not read source '" + source.getAbsolutePath() + "'", SOURCE_NOT_READABLE);
+
+        if (format.isSupportsMultipleRoutes()) {
+            parser.write(result.getAllRoutes(), (MultipleRoutesFormat) format, target);
+            return new File[]{target};
+        } else {
+            int fileCount = getNumberOfFilesToWriteFor(result.getTheRoute(), format, false);
+            File[] targets = createTargetFiles(target, fileCount, format.getExtension(), format.getMaximumFileNameLength());
+            for (File t : targets) {
+                if (t.exists())
+                    throw new ConversionException("Target '" + t.getAbsolutePath() + "' already exists", TARGET_EXISTS);
+            }
+            parser.write(result.getTheRoute(), format, false, false, null, targets);
+            return targets;
+        }
+    }
+
+    static class ConversionException extends IOException {
+        private final int exitCode;
+
+        ConversionException(String message, int exitCode) {
+            super(message);
+            this.exitCode = exitCode;
+        }
+
+        int getExitCode() {
+            return exitCode;
+        }
+    }
+}
@@ -20,8 +20,10 @@
 
 package slash.navigation.converter.cmdline;
 
+import slash.common.metrics.Metrics;
 import slash.common.system.Version;
 import slash.navigation.base.*;
+import slash.navigation.converter.cmdline.FileConverter.ConversionException;
 
 import java.io.File;
 import java.io.IOException;
@@ -31,10 +33,12 @@ import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 import static java.lang.System.exit;
+import static java.util.Arrays.asList;
+import static slash.common.helpers.JAXBHelper.preWarmRecentContexts;
 import static slash.common.io.Files.*;
 import static slash.common.system.Platform.*;
 import static slash.common.system.Version.parseVersionFromManifest;
-import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWriteFor;
+import static slash.navigation.converter.cmdline.FileConverter.SOURCE_NOT_READABLE;
 
 /**
  * A simple command line user interface for the route conversion.
@@ -44,6 +48,9 @@ import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWri
 
 public class RouteConverterCmdLine {
     private static final Logger log = Logger.getLogger(RouteConverterCmdLine.class.getName());
+    private static final String BATCH_ARGUMENT = "-batch";
+    private static final String THREADS_ARGUMENT = "-threads";
+    private static final String REPORT_ARGUMENT = "-report";
     private NavigationFormatRegistry registry = new CmdLineNavigationFormatRegistry();
 
     private void initializeLogging() {
@@ -74,9 +81,11 @@ public class RouteConverterCmdLine {
         Version version = parseVersionFromManifest();
         log.info("Started RouteConverter " + version.getVersion() + " from " + version.getDate() +
                 " on " + getJava() + " and " + getPlatform() + " with " + getMaximumMemory() + " MByte heap");
+        if (args.length > 0 && args[0].equals(BATCH_ARGUMENT))
+            return runBatch(args);
+
         if (args.length != 3) {
-            log.info("Usage: java -jar RouteConverterCmdLine.jar <source file> <target format> <target file>");
-            logFormatNames(false);
+            logUsage();
             return 5;
         }
 
@@ -101,7 +110,12 @@ public class RouteConverterCmdLine {
         }
 
         try {
-            convert(source, format, target);
+            new FileConverter(new NavigationFormatRegistry()).convert(source, format, target);
+        } catch (ConversionException e) {
+            log.severe(e.getMessage() + "; stopping.");
+            if (e.getExitCode() == SOURCE_NOT_READABLE)
+                logFormatNames(true);
+            return e.getExitCode();
         } catch (IOException e) {
             log.severe("Error while converting: " + e);
             return 25;
@@ -110,27 +124,63 @@ public class RouteConverterCmdLine {
         return 0;
     }
 
-    private void convert(File source, NavigationFormat format, File target) throws IOException {
-        NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
-        ParserResult result = parser.read(source);
-        if (!result.isSuccessful()) {
-            log.severe("Could not read source '" + source.getAbsolutePath() + "'");
-            logFormatNames(true);
-            exit(20);
-        }
+    private void logUsage() {
+        log.info("Usage: java -jar RouteConverterCmdLine.jar <source file> <target format> <target file>");
+        log.info("   or: java -jar RouteConverterCmdLine.jar " + BATCH_ARGUMENT + " [" + THREADS_ARGUMENT + " <count>] [" +
+                REPORT_ARGUMENT + " <report file>] <target format> <target directory> <source file|directory|glob|@manifest>...");
+        logFormatNames(false);
+    }
 
-        if (format.isSupportsMultipleRoutes()) {
-            parser.write(result.getAllRoutes(), (MultipleRoutesFormat) format, target);
-        } else {
-            int fileCount = getNumberOfFilesToWriteFor(result.getTheRoute(), format, false);
-            File[] targets = createTargetFiles(target, fileCount, format.getExtension(), format.getMaximumFileNameLength());
-            for (File t : targets) {
-                if (t.exists()) {
-                    log.severe("Target '" + t.getAbsolutePath() + "' already exists; stopping.");
-                    exit(13);
+    private int runBatch(String[] args) {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        File reportFile = null;
+        int index = 1;
+        while (index < args.length && args[index].startsWith("-")) {
+            if (args[index].equals(THREADS_ARGUMENT) && index + 1 < args.length) {
+                try {
+                    threadCount = Integer.parseInt(args[index + 1]);
+                } catch (NumberFormatException e) {
+                    log.severe("Thread count '" + args[index + 1] + "' is not a number; stopping.");
+                    return 5;
                 }
+            } else if (args[index].equals(REPORT_ARGUMENT) && index + 1 < args.length)
+                reportFile = absolutize(new File(args[index + 1]));
+            else {
+                logUsage();
+                return 5;
             }
-            parser.write(result.getTheRoute(), format, false, false, null, targets);
+            index += 2;
+        }
+        if (args.length - index < 3 || threadCount < 1) {
+            logUsage();
+            return 5;
+        }
+
+        BaseNavigationFormat format = findFormat(args[index]);
+        if (format == null) {
+            log.severe("Format '" + args[index] + "' does not exist; stopping.");
+            logFormatNames(false);
+            return 15;
+        }
+
+        File targetDirectory = absolutize(new File(args[index + 1]));
+        if (!targetDirectory.isDirectory() && !targetDirectory.mkdirs()) {
+            log.severe("Target directory '" + targetDirectory.getAbsolutePath() + "' cannot be created; stopping.");
+            return 20;
+        }
+
+        // the JAXB contexts are created once and shared by all conversions
+        preWarmRecentContexts();
+        FileConverter converter = new FileConverter(new NavigationFormatRegistry());
+        BatchConverter batchConverter = new BatchConverter(converter, format, targetDirectory, threadCount);
+        List<String> sources = asList(args).subList(index + 2, args.length);
+        try (BatchReport report = reportFile != null ? new BatchReport(reportFile) : new BatchReport()) {
+            batchConverter.convert(sources, report);
+            Metrics.getInstance().logMetrics();
+            return report.getFailedCount() > 0 ? 30 : 0;
+        } catch (IOException e) {
+            log.severe("Error while converting: " + e);
+            return 25;
         }
     }
 
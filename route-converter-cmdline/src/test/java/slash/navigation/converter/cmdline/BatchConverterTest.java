@@ -0,0 +1,178 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.itn.TomTom8RouteFormat;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+import slash.navigation.simple.Iblue747Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.io.File.createTempFile;
+import static java.lang.String.format;
+import static java.nio.file.Files.readAllBytes;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static slash.common.io.Files.recursiveDelete;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class BatchConverterTest {
+    private static final int FILE_COUNT = 8;
+    private File directory, sources;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = createTempFile("batchconverter", "");
+        assertTrue(directory.delete());
+        sources = new File(directory, "sources");
+        assertTrue(sources.mkdirs());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        recursiveDelete(directory);
+    }
+
+    private void writeNmeaFile(File file, int seed) throws IOException {
+        NmeaFormat format = new NmeaFormat();
+        List<NmeaPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 250; i++)
+            positions.add(new NmeaPosition(10.0 + seed + i * 0.001234567, 50.0 + seed + i * 0.000987654,
+                    100.0 + i * 0.37, 12.5 + i % 7, fromMillis(1500000000000L + seed * 86400000L + i * 1000L), null));
+        new NavigationFormatParser(new NavigationFormatRegistry()).write(format.createRoute(Track, "Track " + seed, positions), format, file);
+    }
+
+    private void writeNmeaFiles() throws IOException {
+        for (int i = 0; i < FILE_COUNT; i++)
+            writeNmeaFile(new File(sources, "track" + i + ".nmea"), i);
+    }
+
+    private BatchReport convert(NavigationFormat format, File target, int threadCount) throws IOException {
+        BatchConverter converter = new BatchConverter(new FileConverter(new NavigationFormatRegistry()), format, target, threadCount);
+        BatchReport report = new BatchReport();
+        converter.convert(singletonList(sources.getPath()), report);
+        return report;
+    }
+
+    private File convert(NavigationFormat format, String targetName, int threadCount) throws IOException {
+        File target = new File(directory, targetName);
+        BatchReport report = convert(format, target, threadCount);
+        assertEquals(FILE_COUNT, report.getConvertedCount());
+        assertEquals(0, report.getFailedCount());
+        return target;
+    }
+
+    private File createFile(String name) throws IOException {
+        File file = new File(directory, name).getAbsoluteFile();
+        assertTrue(file.createNewFile());
+        return file;
+    }
+
+    private File[] findExistingTargets(File target, File... targets) {
+        BatchConverter converter = new BatchConverter(new FileConverter(new NavigationFormatRegistry()), new NmeaFormat(), directory, 1);
+        Set<File> batchTargets = new HashSet<>(asList(targets));
+        batchTargets.add(target);
+        return converter.findExistingTargets(target, batchTargets);
+    }
+
+    private void checkParallelEqualsSequential(NavigationFormat format) throws IOException {
+        writeNmeaFiles();
+        File sequential = convert(format, "sequential", 1);
+        File parallel = convert(format, "parallel", 4);
+
+        for (int i = 0; i < FILE_COUNT; i++) {
+            String name = "track" + i + format.getExtension();
+            assertArrayEquals(name, readAllBytes(new File(sequential, name).toPath()), readAllBytes(new File(parallel, name).toPath()));
+        }
+    }
+
+    @Test
+    public void testConvertNmeaInParallel() throws IOException {
+        checkParallelEqualsSequential(new NmeaFormat());
+    }
+
+    @Test
+    public void testConvertIblue747InParallel() throws IOException {
+        checkParallelEqualsSequential(new Iblue747Format());
+    }
+
+    @Test
+    public void testFindExistingTargetsIgnoresTargetsOfOtherSources() throws IOException {
+        File track = createFile("track.nmea");
+        File track1 = createFile("track1.nmea");
+        File track2 = createFile("track2.nmea");
+        assertArrayEquals(new File[]{track}, findExistingTargets(track, track1, track2));
+        assertArrayEquals(new File[]{track1}, findExistingTargets(track1, track, track2));
+    }
+
+    @Test
+    public void testFindExistingTargetsFindsNumberedParts() throws IOException {
+        File track = new File(directory, "track.nmea").getAbsoluteFile();
+        File track1 = createFile("track1.nmea");
+        assertArrayEquals(new File[0], findExistingTargets(track));
+        File track2 = createFile("track2.nmea");
+        File track3 = createFile("track3.nmea");
+        createFile("track5.nmea");
+        createFile("tracks.nmea");
+        assertArrayEquals(new File[]{track1, track2, track3}, findExistingTargets(track));
+    }
+
+    @Test
+    public void testFindExistingTargetsFindsNumberedPartsWithTwoDigits() throws IOException {
+        File track = new File(directory, "track.nmea").getAbsoluteFile();
+        List<File> parts = new ArrayList<>();
+        for (int i = 1; i <= 12; i++)
+            parts.add(createFile(format("track%02d.nmea", i)));
+        assertArrayEquals(parts.toArray(), findExistingTargets(track));
+    }
+
+    @Test
+    public void testSkipsUpToDateShortenedTargets() throws IOException {
+        for (int i = 0; i < 2; i++)
+            writeNmeaFile(new File(sources, "track " + i + " with a very long name.nmea"), i);
+        File target = new File(directory, "target");
+        TomTom8RouteFormat format = new TomTom8RouteFormat();
+
+        BatchReport first = convert(format, target, 2);
+        assertEquals(2, first.getConvertedCount());
+        assertEquals(0, first.getFailedCount());
+        // 250 positions are split into parts with names shortened to 18 characters
+        assertTrue(new File(target, "track 0 with a ve1.itn").exists());
+
+        BatchReport second = convert(format, target, 2);
+        assertEquals(0, second.getConvertedCount());
+        assertEquals(2, second.getSkippedCount());
+        assertEquals(0, second.getFailedCount());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllLines;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.converter.cmdline.BatchReport.Status.*;
+
+public class BatchReportTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = createTempFile("batchreport", ".csv");
+    }
+
+    @After
+    public void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    @Test
+    public void testWritesHeaderAndLines() throws IOException {
+        File source = new File("source.nmea").getAbsoluteFile();
+        File first = new File("first.gpx").getAbsoluteFile();
+        File second = new File("second.gpx").getAbsoluteFile();
+        try (BatchReport report = new BatchReport(file)) {
+            report.add(source, Converted, new File[]{first, second}, 42, null);
+            report.add(source, Failed, null, 7, "Could not read \"source\"");
+        }
+
+        List<String> lines = readAllLines(file.toPath(), UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals("source,status,targets,milliseconds,message", lines.get(0));
+        assertEquals("\"" + source.getAbsolutePath() + "\",Converted,\"" + first.getAbsolutePath() + File.pathSeparator +
+                second.getAbsolutePath() + "\",42,", lines.get(1));
+        assertEquals("\"" + source.getAbsolutePath() + "\",Failed,\"\",7,\"Could not read \"\"source\"\"\"", lines.get(2));
+    }
+
+    @Test
+    public void testCounts() {
+        File source = new File("source.nmea");
+        BatchReport report = new BatchReport();
+        report.add(source, Converted, new File[0], 1, null);
+        report.add(source, Converted, new File[0], 1, null);
+        report.add(source, Skipped, new File[0], 1, null);
+        report.add(source, Failed, null, 1, "failed");
+        report.close();
+        assertEquals(2, report.getConvertedCount());
+        assertEquals(1, report.getSkippedCount());
+        assertEquals(1, report.getFailedCount());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.cmdline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserResult;
+import slash.navigation.itn.TomTom8RouteFormat;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.*;
+import static slash.common.io.Files.recursiveDelete;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.converter.cmdline.FileConverter.TARGET_EXISTS;
+
+public class FileConverterTest {
+    private final NavigationFormatRegistry registry = new NavigationFormatRegistry();
+    private final FileConverter converter = new FileConverter(registry);
+    private File directory, source;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = createTempFile("fileconverter", "");
+        assertTrue(directory.delete());
+        assertTrue(directory.mkdirs());
+        source = new File(directory, "source.nmea");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        recursiveDelete(directory);
+    }
+
+    private void writeNmeaFile(int positionCount) throws IOException {
+        NmeaFormat format = new NmeaFormat();
+        List<NmeaPosition> positions = new ArrayList<>();
+        for (int i = 0; i < positionCount; i++)
+            positions.add(new NmeaPosition(10.0 + i * 0.001, 50.0 + i * 0.001, 100.0, 12.5,
+                    fromMillis(1500000000000L + i * 1000L), null));
+        new NavigationFormatParser(registry).write(format.createRoute(Track, "Track", positions), format, source);
+    }
+
+    private int countPositions(File[] targets) throws IOException {
+        int count = 0;
+        for (File target : targets) {
+            ParserResult result = new NavigationFormatParser(registry).read(target);
+            assertTrue(result.isSuccessful());
+            count += result.getTheRoute().getPositionCount();
+        }
+        return count;
+    }
+
+    @Test
+    public void testConvertStreaming() throws IOException {
+        writeNmeaFile(10);
+        File[] targets = converter.convert(source, new NmeaFormat(), new File(directory, "target.nmea"));
+        assertEquals(1, targets.length);
+        assertTrue(targets[0].exists());
+        assertEquals(10, countPositions(targets));
+    }
+
+    @Test
+    public void testConvertSplitsIntoParts() throws IOException {
+        writeNmeaFile(100);
+        File[] targets = converter.convert(source, new TomTom8RouteFormat(), new File(directory, "target.itn"));
+        assertEquals(3, targets.length);
+        assertEquals(new File(directory, "target1.itn").getAbsoluteFile(), targets[0]);
+        assertEquals(100, countPositions(targets));
+    }
+
+    @Test
+    public void testConvertReadsCompletelyIfStreamingFails() throws IOException {
+        writeNmeaFile(2000);
+        assertTrue(source.length() > 64 * 1024);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(source, true))) {
+            writer.println("garble after the lines the format is detected from");
+            writer.println("more garble than the detected format accepts");
+        }
+
+        File[] targets = converter.convert(source, new NmeaFormat(), new File(directory, "target.nmea"));
+        assertEquals(1, targets.length);
+        assertEquals(2000, countPositions(targets));
+    }
+
+    @Test
+    public void testConvertFailsIfTargetExists() throws IOException {
+        writeNmeaFile(10);
+        File target = new File(directory, "target.itn");
+        converter.convert(source, new TomTom8RouteFormat(), target);
+        try {
+            converter.convert(source, new TomTom8RouteFormat(), target);
+            fail("ConversionException expected");
+        } catch (FileConverter.ConversionException e) {
+            assertEquals(TARGET_EXISTS, e.getExitCode());
+        }
+    }
+}
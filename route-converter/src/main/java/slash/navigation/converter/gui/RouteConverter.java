@@ -23,6 +23,7 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import slash.common.helpers.APIKeyRegistry;
 import slash.common.log.LoggingHelper;
+import slash.common.metrics.Metrics;
 import slash.common.system.Version;
 import slash.navigation.babel.BabelException;
 import slash.navigation.base.NavigationFormatRegistry;
@@ -90,6 +91,7 @@ import static javax.swing.KeyStroke.getKeyStroke;
 import static javax.swing.SwingUtilities.invokeLater;
 import static slash.common.helpers.ExceptionHelper.getLocalizedMessage;
 import static slash.common.helpers.ExceptionHelper.printStackTrace;
+import static slash.common.helpers.JAXBHelper.preWarmContexts;
 import static slash.common.helpers.LocaleHelper.*;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Files.*;
@@ -222,6 +224,7 @@ public abstract class RouteConverter extends SingleFrameApplication {
     protected void startup() {
         initializeLogging();
         checkJavaPrequisites();
+        preWarmContexts();
         checkForGoogleMapsAPIKey();
         show();
         checkForMissingTranslator();
@@ -266,6 +269,7 @@ public abstract class RouteConverter extends SingleFrameApplication {
         loggingHelper.logToFileAndConsole();
         log.info("Started " + getTitle() + " for " + parseVersionFromManifest().getOperationSystem() + " with locale " + Locale.getDefault() +
                 " on " + getJava() + " and " + getPlatform() + " with " + getMaximumMemory() + " MByte heap");
+        Metrics.getInstance().startLogging();
     }
 
     private List<String> getLanguagesWithActiveTranslators() {
@@ -477,6 +481,7 @@ public abstract class RouteConverter extends SingleFrameApplication {
         getDataSourceManager().dispose();
         getDownloadManager().saveQueue();
         getTileServerMapManager().dispose();
+        Metrics.getInstance().stopLogging();
         super.shutdown();
 
         log.info("Shutdown " + getTitle() + " for " + parseVersionFromManifest().getOperationSystem() + " with locale " + Locale.getDefault() +
@@ -20,6 +20,7 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.common.metrics.Timer;
 import slash.navigation.common.LongitudeAndLatitude;
 import slash.navigation.elevation.ElevationService;
 
@@ -30,6 +31,8 @@ import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
 import static java.lang.String.format;
+import static slash.common.metrics.Metrics.counter;
+import static slash.common.metrics.Metrics.timer;
 import static slash.navigation.common.NavigationConversion.formatElevation;
 
 /**
@@ -92,7 +95,12 @@ public class ElevationServiceFacade {
     }
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
-        Double elevation = getElevationService().getElevationFor(longitude, latitude);
+        ElevationService service = getElevationService();
+        Double elevation;
+        try (Timer.Context ignored = timer("elevation." + service.getName()).time()) {
+            elevation = service.getElevationFor(longitude, latitude);
+        }
+        counter("elevation." + service.getName() + (elevation != null ? ".hits" : ".misses")).increment();
         return elevation != null ? formatElevation(elevation).doubleValue() : null;
     }
 
@@ -48,6 +48,7 @@ import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
 import static javax.swing.JOptionPane.showMessageDialog;
 import static javax.swing.SwingUtilities.invokeLater;
@@ -57,6 +58,7 @@ import static slash.common.helpers.ExceptionHelper.printStackTrace;
 import static slash.common.helpers.ThreadHelper.createSingleThreadExecutor;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Files.collectFiles;
+import static slash.common.metrics.Metrics.timer;
 import static slash.common.type.CompactCalendar.fromMillis;
 import static slash.navigation.base.WaypointType.Photo;
 import static slash.navigation.converter.gui.helpers.TagStrategy.Create_Tagged_Photo_In_Subdirectory;
@@ -238,6 +240,7 @@ public class GeoTagger {
             return new PhotoPosition(NotTaggable, fromMillis(file.lastModified()), "No Metadata found", file);
         } finally {
             long end = currentTimeMillis();
+            timer("photos.extractMetadata").update(end - start, MILLISECONDS);
             log.info("Extracting metadata from " + file + " took " + (end - start) + " milliseconds");
         }
     }
@@ -358,6 +361,7 @@ public class GeoTagger {
 
         } finally {
             long end = currentTimeMillis();
+            timer("photos.updateMetadata").update(end - start, MILLISECONDS);
             log.info("Updating metadata of " + target + " took " + (end - start) + " milliseconds");
         }
     }
@@ -20,6 +20,7 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.common.metrics.Timer;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.geocoding.GeocodingService;
 
@@ -31,6 +32,8 @@ import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
 import static java.lang.String.format;
+import static slash.common.metrics.Metrics.counter;
+import static slash.common.metrics.Metrics.timer;
 
 /**
  * Helps to convert addresses into geographic coordinates.
@@ -91,12 +94,28 @@ public class GeocodingServiceFacade {
         preferences.put(GEOCODING_SERVICE, service.getName());
     }
 
+    private void countLookup(GeocodingService service, boolean hit) {
+        counter("geocoding." + service.getName() + (hit ? ".hits" : ".misses")).increment();
+    }
+
     public List<NavigationPosition> getPositionsFor(String address) throws IOException, ServiceUnavailableException {
-        return getGeocodingService().getPositionsFor(address);
+        GeocodingService service = getGeocodingService();
+        List<NavigationPosition> positions;
+        try (Timer.Context ignored = timer("geocoding." + service.getName()).time()) {
+            positions = service.getPositionsFor(address);
+        }
+        countLookup(service, positions != null && positions.size() > 0);
+        return positions;
     }
 
     public String getAddressFor(NavigationPosition position) throws IOException, ServiceUnavailableException {
-        return getGeocodingService().getAddressFor(position);
+        GeocodingService service = getGeocodingService();
+        String address;
+        try (Timer.Context ignored = timer("geocoding." + service.getName()).time()) {
+            address = service.getAddressFor(position);
+        }
+        countLookup(service, address != null);
+        return address;
     }
 
     public NavigationPosition getPositionFor(String address) throws IOException, ServiceUnavailableException {
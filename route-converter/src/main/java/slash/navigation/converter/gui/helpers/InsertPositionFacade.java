@@ -64,7 +64,7 @@ public class InsertPositionFacade {
 
         RoutingService service = r.getRoutingServiceFacade().getRoutingService();
         if (service instanceof GoogleDirections) {
-            ((GoogleDirections) service).insertAllWaypoints(selectedRows);
+            r.getRoutingServiceFacade().insertAllWaypoints((GoogleDirections) service, selectedRows);
         } else
             insertWithRoutingService(service, selectedRows);
     }
@@ -76,7 +76,7 @@ public class InsertPositionFacade {
 
         RoutingService service = r.getRoutingServiceFacade().getRoutingService();
         if (service instanceof GoogleDirections) {
-            ((GoogleDirections) service).insertOnlyTurnpoints(selectedRows);
+            r.getRoutingServiceFacade().insertOnlyTurnpoints((GoogleDirections) service, selectedRows);
         } else
             throw new UnsupportedOperationException();
     }
@@ -121,13 +121,14 @@ public class InsertPositionFacade {
     private List<Integer> insertPositions(RoutingService routingService, DownloadFuture future, TravelMode travelMode, List<NavigationPosition> selectedPositions) throws InterruptedException, InvocationTargetException {
         PositionsModel positionsModel = RouteConverter.getInstance().getConvertPanel().getPositionsModel();
 
+        RoutingServiceFacade routingServiceFacade = RouteConverter.getInstance().getRoutingServiceFacade();
         List<Integer> insertedPositions = new ArrayList<>();
         for (int i = 0; i < selectedPositions.size(); i++) {
             // skip the very last position without successor
             if (i == positionsModel.getRowCount() - 1 || i == selectedPositions.size() - 1)
                 continue;
 
-            RoutingResult result = routingService.getRouteBetween(selectedPositions.get(i), selectedPositions.get(i + 1), travelMode);
+            RoutingResult result = routingServiceFacade.getRouteBetween(routingService, selectedPositions.get(i), selectedPositions.get(i + 1), travelMode);
             if (result.getValidity().equals(Valid)) {
                 final List<BaseNavigationPosition> positions = new ArrayList<>();
                 for (NavigationPosition position : result.getPositions()) {
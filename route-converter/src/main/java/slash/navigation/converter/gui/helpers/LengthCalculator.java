@@ -20,8 +20,8 @@
 
 package slash.navigation.converter.gui.helpers;
 
-import slash.common.type.CompactCalendar;
 import slash.navigation.base.RouteCharacteristics;
+import slash.navigation.base.RouteStatistics;
 import slash.navigation.common.DistanceAndTime;
 import slash.navigation.common.DistanceAndTimeAggregator;
 import slash.navigation.common.NavigationPosition;
@@ -29,22 +29,23 @@ import slash.navigation.converter.gui.models.CharacteristicsModel;
 import slash.navigation.converter.gui.models.PositionsModel;
 
 import javax.swing.event.ListDataEvent;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
-import static java.lang.Math.max;
 import static java.lang.System.currentTimeMillis;
 import static javax.swing.event.TableModelEvent.ALL_COLUMNS;
+import static javax.swing.event.TableModelEvent.DELETE;
+import static javax.swing.event.TableModelEvent.INSERT;
 import static javax.swing.event.TableModelEvent.UPDATE;
 import static slash.common.helpers.ThreadHelper.safeJoin;
-import static slash.common.io.Transfer.isEmpty;
 import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.common.DistanceAndTime.ZERO;
-import static slash.navigation.converter.gui.models.PositionColumns.LATITUDE_COLUMN_INDEX;
-import static slash.navigation.converter.gui.models.PositionColumns.LONGITUDE_COLUMN_INDEX;
+import static slash.navigation.converter.gui.models.PositionColumns.*;
 import static slash.navigation.gui.events.IgnoreEvent.isIgnoreEvent;
 import static slash.navigation.gui.helpers.JTableHelper.isFirstToLastRow;
 
@@ -58,9 +59,10 @@ public class LengthCalculator {
     private static final Logger log = Logger.getLogger(LengthCalculator.class.getName());
 
     private PositionsModel positionsModel;
+    private RouteStatistics statistics;
     private Thread lengthCalculator;
     private final Object notificationMutex = new Object();
-    private boolean running = true, recalculate;
+    private boolean running = true, recalculate, recalculating, valid;
 
     public LengthCalculator() {
         initialize();
@@ -72,6 +74,15 @@ public class LengthCalculator {
 
     public void initialize(PositionsModel positionsModel, CharacteristicsModel characteristicsModel) {
         this.positionsModel = positionsModel;
+        this.statistics = new RouteStatistics(new AbstractList<NavigationPosition>() {
+            public NavigationPosition get(int index) {
+                return getPositionsModel().getPosition(index);
+            }
+
+            public int size() {
+                return getPositionsModel().getRowCount();
+            }
+        });
 
         positionsModel.addTableModelListener(e -> {
             // ignored updates on columns not relevant for length calculation
@@ -79,12 +90,21 @@ public class LengthCalculator {
                     !isFirstToLastRow(e) &&
                     !(e.getColumn() == LONGITUDE_COLUMN_INDEX ||
                             e.getColumn() == LATITUDE_COLUMN_INDEX ||
+                            e.getColumn() == ELEVATION_COLUMN_INDEX ||
+                            e.getColumn() == DATE_TIME_COLUMN_INDEX ||
+                            e.getColumn() == DATE_COLUMN_INDEX ||
+                            e.getColumn() == TIME_COLUMN_INDEX ||
                             e.getColumn() == ALL_COLUMNS))
                 return;
-            if (getPositionsModel().isContinousRange())
+            if (getPositionsModel().isContinousRange()) {
+                invalidate();
                 return;
+            }
 
-            calculateDistance();
+            if (isFirstToLastRow(e))
+                calculateDistance();
+            else
+                updateDistance(e.getType(), e.getFirstRow(), e.getLastRow());
         });
 
         characteristicsModel.addListDataListener(new AbstractListDataListener() {
@@ -113,60 +133,109 @@ public class LengthCalculator {
         }
     }
 
+    private void fireCalculatedStatistics(RouteStatistics.Summary summary) {
+        DistanceAndTime distanceAndTime = summary.toDistanceAndTime();
+        for (LengthCalculatorListener listener : lengthCalculatorListeners) {
+            listener.calculatedDistanceAndTime(distanceAndTime);
+            listener.calculatedStatistics(summary);
+        }
+    }
+
     public void calculateDistanceFromRouting(Map<Integer, DistanceAndTime> indexToDistanceAndTime) {
         fireCalculatedDistance(DistanceAndTimeAggregator.max(indexToDistanceAndTime));
     }
 
+    /**
+     * @return the statistics of the positions from firstIndex to lastIndex or
+     * <code>null</code> if the statistics are not available for the route
+     */
+    public RouteStatistics.Summary getStatistics(int firstIndex, int lastIndex) {
+        synchronized (notificationMutex) {
+            if (!valid)
+                return null;
+        }
+        return statistics.getRange(firstIndex, lastIndex);
+    }
+
+    /**
+     * @return the statistics of the selected positions or
+     * <code>null</code> if the statistics are not available for the route
+     */
+    public RouteStatistics.Summary getStatistics(int[] selectedRows) {
+        synchronized (notificationMutex) {
+            if (!valid)
+                return null;
+        }
+        return statistics.getSelection(selectedRows);
+    }
+
+    private void invalidate() {
+        synchronized (notificationMutex) {
+            valid = false;
+        }
+    }
 
     private void calculateDistance() {
         if (getCharacteristics().equals(Waypoints)) {
+            invalidate();
             fireCalculatedDistance(ZERO);
             return;
         }
-        if (getCharacteristics().equals(Route))
+        if (getCharacteristics().equals(Route)) {
+            invalidate();
             return;
+        }
 
         synchronized (notificationMutex) {
+            valid = false;
             recalculate = true;
             notificationMutex.notifyAll();
         }
     }
 
-    private void recalculateDistance() {
-        fireCalculatedDistance(ZERO);
+    private void updateDistance(int type, int firstRow, int lastRow) {
+        if (!getCharacteristics().equals(Track)) {
+            calculateDistance();
+            return;
+        }
 
-        double aggregatedDistance = 0.0;
-        long aggregatedTime = 0;
-        CompactCalendar minimumTime = null, maximumTime = null;
-        NavigationPosition previous = null;
-        for (int i = 0; i < positionsModel.getRowCount(); i++) {
-            NavigationPosition next = positionsModel.getPosition(i);
-            if (previous != null) {
-                Double distance = previous.calculateDistance(next);
-                if (!isEmpty(distance))
-                    aggregatedDistance += distance;
-                Long time = previous.calculateTime(next);
-                if (time != null && time > 0)
-                    aggregatedTime += time;
+        synchronized (notificationMutex) {
+            // a complete recalculation is pending or running and sees the change, too
+            if (!valid || recalculate || recalculating) {
+                valid = false;
+                recalculate = true;
+                notificationMutex.notifyAll();
+                return;
             }
 
-            CompactCalendar time = next.getTime();
-            if (time != null) {
-                if (minimumTime == null || time.before(minimumTime))
-                    minimumTime = time;
-                if (maximumTime == null || time.after(maximumTime))
-                    maximumTime = time;
+            switch (type) {
+                case INSERT:
+                    statistics.insert(firstRow, lastRow);
+                    break;
+                case DELETE:
+                    statistics.delete(firstRow, lastRow);
+                    break;
+                default:
+                    statistics.update(firstRow, lastRow);
             }
+        }
+        fireCalculatedStatistics(statistics.getTotal());
+    }
 
-            if (i > 0 && i % 100 == 0)
-                fireCalculatedDistance(new DistanceAndTime(aggregatedDistance, aggregatedTime > 0 ? aggregatedTime : 0));
+    private void recalculateDistance() {
+        fireCalculatedDistance(ZERO);
 
-            previous = next;
-        }
+        long start = currentTimeMillis();
+        statistics.rebuild();
+        RouteStatistics.Summary total = statistics.getTotal();
+        log.fine("Recalculated statistics for " + statistics.size() + " positions in " + (currentTimeMillis() - start) + " ms");
 
-        long summedUp = aggregatedTime > 0 ? aggregatedTime : 0;
-        long maxMinusMin = minimumTime != null ? (maximumTime.getTimeInMillis() - minimumTime.getTimeInMillis()) : 0;
-        fireCalculatedDistance(new DistanceAndTime(aggregatedDistance, max(maxMinusMin, summedUp)));
+        synchronized (notificationMutex) {
+            recalculating = false;
+            // only valid if there was no change while recalculating
+            valid = !recalculate;
+        }
+        fireCalculatedStatistics(total);
     }
 
     private void initialize() {
@@ -184,6 +253,7 @@ public class LengthCalculator {
                     if (!recalculate)
                         continue;
                     recalculate = false;
+                    recalculating = true;
                 }
                 recalculateDistance();
             }
@@ -20,6 +20,7 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.navigation.base.RouteStatistics;
 import slash.navigation.common.DistanceAndTime;
 
 /**
@@ -30,4 +31,10 @@ import slash.navigation.common.DistanceAndTime;
 
 public interface LengthCalculatorListener {
     void calculatedDistanceAndTime(DistanceAndTime distanceAndTime);
+
+    /**
+     * Receives distance, time and elevation of the complete track.
+     */
+    default void calculatedStatistics(RouteStatistics.Summary summary) {
+    }
 }
@@ -20,11 +20,13 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.RouteConverter;
 import slash.navigation.converter.gui.models.FixMapModeModel;
 import slash.navigation.maps.tileserver.TileServerMapManager;
 import slash.navigation.mapview.MapView;
 import slash.navigation.mapview.MapViewCallback;
+import slash.navigation.routing.RoutingResult;
 import slash.navigation.routing.RoutingService;
 import slash.navigation.routing.TravelMode;
 
@@ -59,6 +61,10 @@ public abstract class MapViewCallbackImpl implements MapViewCallback {
         return RouteConverter.getInstance().getRoutingServiceFacade().getRoutingService();
     }
 
+    public RoutingResult getRouteBetween(RoutingService service, NavigationPosition from, NavigationPosition to, TravelMode travelMode) {
+        return RouteConverter.getInstance().getRoutingServiceFacade().getRouteBetween(service, from, to, travelMode);
+    }
+
     public TravelMode getTravelMode() {
         return RouteConverter.getInstance().getRoutingServiceFacade().getTravelMode();
     }
@@ -20,6 +20,9 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.common.metrics.Timer;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.routing.RoutingResult;
 import slash.navigation.routing.RoutingService;
 import slash.navigation.routing.RoutingServiceListener;
 import slash.navigation.routing.TravelMode;
@@ -31,6 +34,7 @@ import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
 import static java.lang.String.format;
+import static slash.common.metrics.Metrics.timer;
 
 /**
  * Helps to route between positions.
@@ -95,6 +99,24 @@ public class RoutingServiceFacade {
         firePreferencesChanged();
     }
 
+    public RoutingResult getRouteBetween(RoutingService service, NavigationPosition from, NavigationPosition to, TravelMode travelMode) {
+        try (Timer.Context ignored = timer("routing." + service.getName()).time()) {
+            return service.getRouteBetween(from, to, travelMode);
+        }
+    }
+
+    public void insertAllWaypoints(GoogleDirections service, int[] selectedRows) {
+        try (Timer.Context ignored = timer("routing." + service.getName()).time()) {
+            service.insertAllWaypoints(selectedRows);
+        }
+    }
+
+    public void insertOnlyTurnpoints(GoogleDirections service, int[] selectedRows) {
+        try (Timer.Context ignored = timer("routing." + service.getName()).time()) {
+            service.insertOnlyTurnpoints(selectedRows);
+        }
+    }
+
     public TravelMode getTravelMode() {
         RoutingService service = getRoutingService();
         TravelMode preferredTravelMode = service.getPreferredTravelMode();
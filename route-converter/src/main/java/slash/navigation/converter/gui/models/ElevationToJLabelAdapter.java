@@ -21,11 +21,17 @@
 package slash.navigation.converter.gui.models;
 
 import slash.navigation.base.BaseRoute;
+import slash.navigation.base.RouteStatistics;
+import slash.navigation.common.DistanceAndTime;
+import slash.navigation.converter.gui.helpers.LengthCalculator;
+import slash.navigation.converter.gui.helpers.LengthCalculatorListener;
 
 import javax.swing.*;
 import javax.swing.event.TableModelEvent;
 
+import static javax.swing.SwingUtilities.invokeLater;
 import static javax.swing.event.TableModelEvent.UPDATE;
+import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.converter.gui.helpers.PositionHelper.formatElevation;
 import static slash.navigation.converter.gui.models.PositionColumns.ELEVATION_COLUMN_INDEX;
 import static slash.navigation.gui.helpers.JTableHelper.isFirstToLastRow;
@@ -42,10 +48,20 @@ public class ElevationToJLabelAdapter extends PositionsModelToDocumentAdapter {
     private final JLabel labelDescend;
 
     public ElevationToJLabelAdapter(PositionsModel positionsModel,
+                                    LengthCalculator lengthCalculator,
                                     JLabel labelAscend, JLabel labelDescend) {
         super(positionsModel);
         this.labelAscend = labelAscend;
         this.labelDescend = labelDescend;
+
+        lengthCalculator.addLengthCalculatorListener(new LengthCalculatorListener() {
+            public void calculatedDistanceAndTime(DistanceAndTime distanceAndTime) {
+            }
+
+            public void calculatedStatistics(RouteStatistics.Summary summary) {
+                invokeLater(() -> updateLabel(summary.getElevationAscend(), summary.getElevationDescend()));
+            }
+        });
         initialize();
     }
 
@@ -72,6 +88,9 @@ public class ElevationToJLabelAdapter extends PositionsModelToDocumentAdapter {
             return;
 
         BaseRoute route = getDelegate().getRoute();
+        // the statistics of tracks are maintained by the LengthCalculator
+        if (route != null && route.getCharacteristics() == Track)
+            return;
         if (route != null) {
             updateLabel(route.getElevationAscend(0, route.getPositionCount() - 1),
                         route.getElevationDescend(0, route.getPositionCount() - 1));
@@ -159,6 +159,10 @@ public class FilteringPositionsModel<E extends NavigationPosition> extends Filte
         return getDelegate().isContinousRange();
     }
 
+    public boolean isBulkChange() {
+        return getDelegate().isBulkChange();
+    }
+
     public void fireTableRowsUpdated(int firstIndex, int lastIndex, int columnIndex) {
         getDelegate().fireTableRowsUpdated(firstIndex, lastIndex, columnIndex);
     }
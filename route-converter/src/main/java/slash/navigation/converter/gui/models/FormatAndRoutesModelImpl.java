@@ -31,6 +31,7 @@ import java.util.List;
 import static slash.navigation.converter.gui.models.PositionColumns.DISTANCE_COLUMN_INDEX;
 import static slash.navigation.gui.events.IgnoreEvent.IGNORE;
 import static slash.navigation.gui.events.IgnoreEvent.isIgnoreEvent;
+import static slash.navigation.converter.gui.models.PositionsModelImpl.isBulkChange;
 import static slash.navigation.gui.helpers.JTableHelper.isFirstToLastRow;
 
 /**
@@ -52,7 +53,7 @@ public class FormatAndRoutesModelImpl extends AbstractListModel implements Forma
         positionsModel.addTableModelListener(new TableModelListener() {
             public void tableChanged(TableModelEvent e) {
                 // ignore events following setSelectedRoute()
-                if (isFirstToLastRow(e))
+                if (isFirstToLastRow(e) && !isBulkChange(e))
                     return;
                 // ignore distance column updates from the overlay position model
                 if (e.getColumn() == DISTANCE_COLUMN_INDEX)
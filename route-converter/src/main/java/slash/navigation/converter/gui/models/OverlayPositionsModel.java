@@ -23,10 +23,12 @@ import slash.common.type.CompactCalendar;
 import slash.navigation.base.BaseNavigationFormat;
 import slash.navigation.base.BaseNavigationPosition;
 import slash.navigation.base.BaseRoute;
+import slash.navigation.base.RouteStatistics;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.common.BoundingBox;
 import slash.navigation.common.DistanceAndTime;
 import slash.navigation.common.NavigationPosition;
+import slash.navigation.converter.gui.helpers.LengthCalculator;
 
 import javax.swing.*;
 import javax.swing.event.ListDataEvent;
@@ -58,6 +60,7 @@ public class OverlayPositionsModel implements PositionsModel {
     private final Map<Integer, ImageAndFile> indexToImageAndFile = new HashMap<>();
     private final Map<Integer, DistanceAndTime> indexToDistanceAndTime = new HashMap<>();
     private double[] distancesFromStart;
+    private LengthCalculator lengthCalculator;
 
     public OverlayPositionsModel(PositionsModel delegate) {
         this.delegate = delegate;
@@ -91,6 +94,20 @@ public class OverlayPositionsModel implements PositionsModel {
         });
     }
 
+    /**
+     * Answers distance and elevation of tracks from the statistics of the given calculator
+     * instead of scanning the positions.
+     */
+    public void setLengthCalculator(LengthCalculator lengthCalculator) {
+        this.lengthCalculator = lengthCalculator;
+    }
+
+    private RouteStatistics.Summary getStatisticsFromStart(int rowIndex) {
+        if (lengthCalculator == null || !getRoute().getCharacteristics().equals(Track))
+            return null;
+        return lengthCalculator.getStatistics(0, rowIndex);
+    }
+
     private void clearOverlay() {
         indexToDistanceAndTime.clear();
         distancesFromStart = null;
@@ -139,6 +156,10 @@ public class OverlayPositionsModel implements PositionsModel {
         return delegate.isContinousRange();
     }
 
+    public boolean isBulkChange() {
+        return delegate.isBulkChange();
+    }
+
     // PositionsModel
 
     public BaseRoute getRoute() {
@@ -175,6 +196,12 @@ public class OverlayPositionsModel implements PositionsModel {
     }
 
     private double[] getTrackDistancesFromStart(int startIndex, int endIndex) {
+        if (startIndex == endIndex) {
+            RouteStatistics.Summary summary = getStatisticsFromStart(startIndex);
+            if (summary != null)
+                return new double[]{summary.getDistance()};
+        }
+
         if (distancesFromStart == null)
             distancesFromStart = getRoute().getDistancesFromStart(0, getRoute().getPositionCount() - 1);
 
@@ -201,7 +228,7 @@ public class OverlayPositionsModel implements PositionsModel {
 
     public double[] getDistancesFromStart(int[] indices) {
         if (getRoute().getCharacteristics().equals(Track)) {
-            return getRoute().getDistancesFromStart(indices);
+            return getTrackDistancesFromStart(indices);
         }
 
         if (getRoute().getCharacteristics().equals(Route)) {
@@ -210,6 +237,19 @@ public class OverlayPositionsModel implements PositionsModel {
         return null;
     }
 
+    private double[] getTrackDistancesFromStart(int[] indices) {
+        double[] result = new double[indices.length];
+        Arrays.sort(indices);
+
+        for (int i = 0; i < indices.length; i++) {
+            RouteStatistics.Summary summary = getStatisticsFromStart(indices[i]);
+            if (summary == null)
+                return getRoute().getDistancesFromStart(indices);
+            result[i] = summary.getDistance();
+        }
+        return result;
+    }
+
     private double[] getRouteDistancesFromStart(int[] indices) {
         double[] result = new double[indices.length];
         Arrays.sort(indices);
@@ -346,9 +386,9 @@ public class OverlayPositionsModel implements PositionsModel {
             case DISTANCE_DIFFERENCE_COLUMN_INDEX:
                 return getDistanceDifference(rowIndex);
             case ELEVATION_ASCEND_COLUMN_INDEX:
-                return getRoute().getElevationAscend(0, rowIndex);
+                return getElevationAscend(rowIndex);
             case ELEVATION_DESCEND_COLUMN_INDEX:
-                return getRoute().getElevationDescend(0, rowIndex);
+                return getElevationDescend(rowIndex);
             case ELEVATION_DIFFERENCE_COLUMN_INDEX:
                 return getRoute().getElevationDifference(rowIndex);
         }
@@ -379,6 +419,16 @@ public class OverlayPositionsModel implements PositionsModel {
         return distancesFromStart != null ? distancesFromStart[0] : null;
     }
 
+    private double getElevationAscend(int rowIndex) {
+        RouteStatistics.Summary summary = getStatisticsFromStart(rowIndex);
+        return summary != null ? summary.getElevationAscend() : getRoute().getElevationAscend(0, rowIndex);
+    }
+
+    private double getElevationDescend(int rowIndex) {
+        RouteStatistics.Summary summary = getStatisticsFromStart(rowIndex);
+        return summary != null ? summary.getElevationDescend() : getRoute().getElevationDescend(0, rowIndex);
+    }
+
     private Double getDistanceDifference(int rowIndex) {
         if(getRoute().getCharacteristics().equals(Track)) {
             return getRoute().getDistanceDifference(rowIndex);
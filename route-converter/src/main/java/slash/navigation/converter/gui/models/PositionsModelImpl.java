@@ -29,9 +29,6 @@ import slash.navigation.common.NavigationPosition;
 import slash.navigation.common.UnitSystem;
 import slash.navigation.converter.gui.RouteConverter;
 import slash.navigation.converter.gui.helpers.PositionHelper;
-import slash.navigation.gui.events.ContinousRange;
-import slash.navigation.gui.events.Range;
-import slash.navigation.gui.events.RangeOperation;
 
 import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
@@ -55,6 +52,8 @@ import static slash.navigation.base.NavigationFormatConverter.convertPositions;
 import static slash.navigation.common.UnitConversion.*;
 import static slash.navigation.converter.gui.helpers.PositionHelper.*;
 import static slash.navigation.converter.gui.models.PositionColumns.*;
+import static slash.navigation.gui.events.Range.asDistinctIncreasing;
+import static slash.navigation.gui.events.Range.isContinuous;
 
 /**
  * Implements the {@link PositionsModel} for the positions of a {@link BaseRoute}.
@@ -399,28 +398,33 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         remove(rowIndices, true);
     }
 
-    public void remove(int[] rows, final boolean fireEvent) {
-        new ContinousRange(rows, new RangeOperation() {
-            public void performOnIndex(int index) {
-                getRoute().remove(index);
-            }
-
-            public void performOnRange(int firstIndex, int lastIndex) {
-                if (fireEvent)
-                    fireTableRowsDeleted(firstIndex, lastIndex);
-            }
+    @SuppressWarnings("unchecked")
+    public List<NavigationPosition> remove(int[] rows, boolean fireEvent) {
+        int[] distinctRows = asDistinctIncreasing(rows);
+        List<NavigationPosition> removed = getRoute().remove(distinctRows);
+        if (fireEvent && distinctRows.length > 0) {
+            if (isContinuous(distinctRows))
+                fireTableRowsDeleted(distinctRows[0], distinctRows[distinctRows.length - 1]);
+            else
+                fireTableRowsChangedInBulk();
+        }
+        return removed;
+    }
 
-            public boolean isInterrupted() {
-                return false;
-            }
-        }).performMonotonicallyDecreasing();
+    @SuppressWarnings("unchecked")
+    public void add(int[] rows, List<NavigationPosition> positions, boolean fireEvent) {
+        getRoute().add(rows, positions);
+        if (fireEvent && rows.length > 0) {
+            if (isContinuous(rows))
+                fireTableRowsInserted(rows[0], rows[rows.length - 1]);
+            else
+                fireTableRowsChangedInBulk();
+        }
     }
 
     @SuppressWarnings("unchecked")
     public void sort(Comparator<NavigationPosition> comparator) {
-        getRoute().sort(comparator);
-        // since fireTableDataChanged(); is ignored in FormatAndRoutesModel#setModified(true) logic
-        fireTableRowsUpdated(0, MAX_VALUE);
+        permute(getRoute().createSortPermutation(comparator));
     }
 
     @SuppressWarnings("unchecked")
@@ -436,58 +440,40 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         fireTableRowsUpdated(0, MAX_VALUE);
     }
 
-    public void top(int[] rowIndices) {
-        Arrays.sort(rowIndices);
+    /**
+     * Reorders the positions in a single pass and notifies with a single event for the
+     * range of rows that changed.
+     *
+     * @param permutation the former row for each new row
+     */
+    public void permute(int[] permutation) {
+        int first = 0;
+        while (first < permutation.length && permutation[first] == first)
+            first++;
+        if (first == permutation.length)
+            return;
+        int last = permutation.length - 1;
+        while (permutation[last] == last)
+            last--;
 
-        for (int i = 0; i < rowIndices.length; i++) {
-            getRoute().top(rowIndices[i], i);
-        }
-        fireTableRowsUpdated(0, rowIndices[rowIndices.length - 1]);
+        getRoute().permute(permutation);
+        fireTableRowsUpdated(first, last);
     }
 
-    public void topDown(int[] rows) {
-        int[] reverted = Range.revert(rows);
-
-        for (int i = 0; i < reverted.length; i++) {
-            getRoute().move(reverted.length - i - 1, reverted[i]);
-        }
-        fireTableRowsUpdated(0, reverted[0]);
+    public void top(int[] rowIndices) {
+        permute(getRoute().createTopPermutation(rowIndices));
     }
 
     public void up(int[] rowIndices, int delta) {
-        Arrays.sort(rowIndices);
-
-        for (int row : rowIndices) {
-            getRoute().move(row, row - delta);
-            fireTableRowsUpdated(row - delta, row);
-        }
+        permute(getRoute().createUpPermutation(rowIndices, delta));
     }
 
     public void down(int[] rowIndices, int delta) {
-        int[] reverted = Range.revert(rowIndices);
-
-        for (int row : reverted) {
-            getRoute().move(row, row + delta);
-            fireTableRowsUpdated(row, row + delta);
-        }
+        permute(getRoute().createDownPermutation(rowIndices, delta));
     }
 
     public void bottom(int[] rowIndices) {
-        int[] reverted = Range.revert(rowIndices);
-
-        for (int i = 0; i < reverted.length; i++) {
-            getRoute().bottom(reverted[i], i);
-            fireTableRowsUpdated(reverted[i], getRowCount() - 1 - i);
-        }
-    }
-
-    public void bottomUp(int[] rows) {
-        Arrays.sort(rows);
-
-        for (int i = 0; i < rows.length; i++) {
-            getRoute().move(getRowCount() - rows.length + i, rows[i]);
-        }
-        fireTableRowsUpdated(rows[0], getRowCount() - 1);
+        permute(getRoute().createBottomPermutation(rowIndices));
     }
 
     private TableModelEvent currentEvent;
@@ -512,6 +498,28 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         }
     }
 
+    /**
+     * Notifies that rows have been removed or inserted at scattered indices with a
+     * single event that asks the listeners to update all rows.
+     */
+    public void fireTableRowsChangedInBulk() {
+        fireTableChanged(new BulkTableModelEvent(this));
+    }
+
+    public boolean isBulkChange() {
+        return isBulkChange(currentEvent);
+    }
+
+    static boolean isBulkChange(TableModelEvent e) {
+        return e instanceof BulkTableModelEvent;
+    }
+
+    private static class BulkTableModelEvent extends TableModelEvent {
+        BulkTableModelEvent(TableModel source) {
+            super(source, 0, MAX_VALUE, ALL_COLUMNS, UPDATE);
+        }
+    }
+
     public void fireTableRowsUpdated(int firstIndex, int lastIndex, int columnIndex) {
         fireTableChanged(new TableModelEvent(this, firstIndex, lastIndex, columnIndex, UPDATE));
     }
@@ -69,6 +69,7 @@ import javax.swing.filechooser.FileFilter;
 import java.awt.*;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -100,12 +101,15 @@ import static slash.common.helpers.ExceptionHelper.printStackTrace;
 import static slash.common.helpers.PreferencesHelper.count;
 import static slash.common.helpers.ThreadHelper.createSingleThreadExecutor;
 import static slash.common.io.Files.*;
+import static slash.common.io.Transfer.formatDuration;
 import static slash.feature.client.Feature.hasFeature;
 import static slash.navigation.base.NavigationFormatConverter.convertRoute;
 import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWriteFor;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.converter.gui.dnd.PositionSelection.POSITION_FLAVOR;
+import static slash.navigation.converter.gui.helpers.PositionHelper.formatDistance;
+import static slash.navigation.converter.gui.helpers.PositionHelper.formatElevation;
 import static slash.navigation.converter.gui.models.LocalActionConstants.POSITIONS;
 import static slash.navigation.converter.gui.models.PositionColumns.PHOTO_COLUMN_INDEX;
 import static slash.navigation.gui.events.Range.allButEveryNthAndFirstAndLast;
@@ -139,6 +143,7 @@ public class ConvertPanel implements PanelInTab {
     private RecentUrlsModel recentUrlsModel = new RecentUrlsModel();
     private RecentFormatsModel recentFormatsModel;
     private FormatAndRoutesModel formatAndRoutesModel;
+    private UndoPositionsModel undoPositionsModel;
     private OverlayPositionsModel positionsModel;
     private PositionsSelectionModel positionsSelectionModel;
     private CharacteristicsModel characteristicsModel;
@@ -181,7 +186,8 @@ public class ConvertPanel implements PanelInTab {
         undoManager.addChangeListener(e -> handleUndoUpdate());
 
         characteristicsModel = new CharacteristicsModel();
-        positionsModel = new OverlayPositionsModel(new UndoPositionsModel(undoManager), characteristicsModel);
+        undoPositionsModel = new UndoPositionsModel(undoManager);
+        positionsModel = new OverlayPositionsModel(undoPositionsModel, characteristicsModel);
         formatAndRoutesModel = new UndoFormatAndRoutesModel(undoManager, new FormatAndRoutesModelImpl(positionsModel, characteristicsModel));
         positionsSelectionModel = (selectedPositions, replaceSelection) -> {
             if (replaceSelection) {
@@ -208,12 +214,13 @@ public class ConvertPanel implements PanelInTab {
 
         lengthCalculator = new LengthCalculator();
         lengthCalculator.initialize(positionsModel, characteristicsModel);
+        positionsModel.setLengthCalculator(lengthCalculator);
 
         new FormatToJLabelAdapter(formatAndRoutesModel, labelFormat);
         new PositionListsToJLabelAdapter(formatAndRoutesModel, labelPositionLists);
         new PositionsCountToJLabelAdapter(positionsModel, labelPositions);
         new LengthToJLabelAdapter(positionsModel, lengthCalculator, labelLength, labelDuration);
-        new ElevationToJLabelAdapter(positionsModel, labelOverallAscend, labelOverallDescend);
+        new ElevationToJLabelAdapter(positionsModel, lengthCalculator, labelOverallAscend, labelOverallDescend);
 
         formatAndRoutesModel.addListDataListener(new AbstractListDataListener() {
             public void process(ListDataEvent e) {
@@ -512,7 +519,7 @@ public class ConvertPanel implements PanelInTab {
         startWaitCursor(r.getFrame().getRootPane());
         openExecutor.execute(() -> {
             NavigationFormatParser parser = new NavigationFormatParser(getNavigationFormatRegistry());
-            NavigationFormatParserListener listener = format -> invokeLater(() -> formatAndRoutesModel.setFormat(format));
+            NavigationFormatParserListener listener = new OpenPositionListListener(parser, url);
             parser.addNavigationFileParserListener(listener);
 
             try {
@@ -522,8 +529,11 @@ public class ConvertPanel implements PanelInTab {
                     urlModel.clear();
                 });
 
-                final ParserResult result = parser.read(url, formats);
-                if (result.isSuccessful()) {
+                File file = toFile(url);
+                final ParserResult result = file != null ? parser.readProgressively(file, formats) : parser.read(url, formats);
+                if (parser.isCancelled()) {
+                    log.info("Cancelled opening: " + path);
+                } else if (result.isSuccessful()) {
                     log.info("Opened: " + path);
                     final NavigationFormat format = result.getFormat();
                     countRead(format);
@@ -564,6 +574,58 @@ public class ConvertPanel implements PanelInTab {
         });
     }
 
+    /**
+     * Shows the positions of the position list which is opened while they are read.
+     */
+    private class OpenPositionListListener implements NavigationFormatParserListener {
+        private final NavigationFormatParser parser;
+        private final String name;
+        private final Action cancelAction = new AbstractAction() {
+            public void actionPerformed(ActionEvent e) {
+                parser.cancel();
+            }
+        };
+        private volatile NavigationFormat<BaseRoute> format;
+        private volatile int positionCount;
+        // accessed from the event dispatch thread only
+        private boolean showingPositions;
+
+        OpenPositionListListener(NavigationFormatParser parser, URL url) {
+            this.parser = parser;
+            this.name = removeExtension(new File(url.getPath()).getName());
+        }
+
+        public void reading(NavigationFormat<BaseRoute> format) {
+            this.format = format;
+            this.positionCount = 0;
+            invokeLater(() -> {
+                formatAndRoutesModel.setFormat(format);
+                showingPositions = false;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        public void positionsRead(List<BaseNavigationPosition> positions) {
+            final NavigationFormat<BaseRoute> currentFormat = format;
+            positionCount += positions.size();
+            invokeLater(() -> {
+                if (!showingPositions) {
+                    BaseRoute route = currentFormat.createRoute(Track, name, new ArrayList<>(positions));
+                    formatAndRoutesModel.setRoutes(new FormatAndRoutes(currentFormat, route));
+                    showingPositions = true;
+                } else
+                    undoPositionsModel.append(positions);
+            });
+        }
+
+        public void progress(long bytesRead, long totalBytes) {
+            if (totalBytes <= 0 || positionCount == 0)
+                return;
+            Application.getInstance().getContext().getNotificationManager().showNotification(MessageFormat.format(
+                    RouteConverter.getBundle().getString("reading-progress"), positionCount, bytesRead * 100 / totalBytes), cancelAction);
+        }
+    }
+
     private void appendPositionList(final int row, final List<URL> urls) {
         final RouteConverter r = RouteConverter.getInstance();
         openExecutor.execute(() -> {
@@ -970,6 +1032,18 @@ public class ConvertPanel implements PanelInTab {
 
         if (r.isConvertPanelSelected())
             r.selectPositionsInMap(selectedRows);
+        handleSelectionStatistics(selectedRows);
+    }
+
+    private void handleSelectionStatistics(int[] selectedRows) {
+        RouteStatistics.Summary summary = selectedRows.length > 1 ? lengthCalculator.getStatistics(selectedRows) : null;
+        String toolTip = summary != null ? MessageFormat.format(RouteConverter.getBundle().getString("selected-positions-statistics"),
+                formatDistance(summary.getDistance()), formatDuration(summary.getDuration()),
+                formatElevation(summary.getElevationAscend()), formatElevation(summary.getElevationDescend())) : null;
+        labelLength.setToolTipText(toolTip);
+        labelDuration.setToolTipText(toolTip);
+        labelOverallAscend.setToolTipText(toolTip);
+        labelOverallDescend.setToolTipText(toolTip);
     }
 
     private void handleColumnVisibilityUpdate(PositionTableColumn column) {
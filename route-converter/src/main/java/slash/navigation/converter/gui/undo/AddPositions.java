@@ -23,6 +23,8 @@ package slash.navigation.converter.gui.undo;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.models.PositionsModel;
 
+import slash.navigation.gui.undo.SizedUndoableEdit;
+
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
@@ -35,7 +37,7 @@ import java.util.List;
  * @author Christian Pesch
  */
 
-class AddPositions extends AbstractUndoableEdit {
+class AddPositions extends AbstractUndoableEdit implements SizedUndoableEdit {
     private UndoPositionsModel positionsModel;
     private int row;
     private List<NavigationPosition> positions;
@@ -46,6 +48,10 @@ class AddPositions extends AbstractUndoableEdit {
         this.positions = positions;
     }
 
+    public long getSize() {
+        return UndoPositionsModel.estimateSize(positions);
+    }
+
     public String getUndoPresentationName() {
         return "add-position-undo";
     }
@@ -21,6 +21,7 @@
 package slash.navigation.converter.gui.undo;
 
 import slash.navigation.converter.gui.models.PositionsModel;
+import slash.navigation.gui.undo.SizedUndoableEdit;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -34,7 +35,7 @@ import javax.swing.undo.UndoableEdit;
  * @author Christian Pesch
  */
 
-class BottomPositions extends AbstractUndoableEdit {
+class BottomPositions extends AbstractUndoableEdit implements SizedUndoableEdit {
     private UndoPositionsModel positionsModel;
     private int[] rows;
 
@@ -43,6 +44,10 @@ class BottomPositions extends AbstractUndoableEdit {
         this.rows = rows;
     }
 
+    public long getSize() {
+        return UndoPositionsModel.estimateSize(rows);
+    }
+
     public String getUndoPresentationName() {
         return "bottom-position-undo";
     }
@@ -20,31 +20,33 @@
 
 package slash.navigation.converter.gui.undo;
 
-import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.models.PositionsModel;
+import slash.navigation.gui.undo.SizedUndoableEdit;
+import slash.navigation.gui.undo.SpillableIntArray;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoableEdit;
-import java.util.Comparator;
-import java.util.List;
 
 /**
  * Acts as a {@link UndoableEdit} for sorting the positions of a {@link PositionsModel}.
+ * Stores the permutation of the sort instead of the positions.
  *
  * @author Christian Pesch
  */
 
-class SortPositions extends AbstractUndoableEdit {
+class SortPositions extends AbstractUndoableEdit implements SizedUndoableEdit {
     private UndoPositionsModel positionsModel;
-    private Comparator<NavigationPosition> comparator;
-    private List<NavigationPosition> positions;
+    private SpillableIntArray permutation;
 
-    public SortPositions(UndoPositionsModel positionsModel, Comparator<NavigationPosition> comparator, List<NavigationPosition> positions) {
+    public SortPositions(UndoPositionsModel positionsModel, int[] permutation) {
         this.positionsModel = positionsModel;
-        this.comparator = comparator;
-        this.positions = positions;
+        this.permutation = new SpillableIntArray(permutation);
+    }
+
+    public long getSize() {
+        return permutation.getSize();
     }
 
     public String getUndoPresentationName() {
@@ -57,11 +59,16 @@ class SortPositions extends AbstractUndoableEdit {
 
     public void undo() throws CannotUndoException {
         super.undo();
-        positionsModel.order(positions);
+        positionsModel.unpermute(permutation.get());
     }
 
     public void redo() throws CannotRedoException {
         super.redo();
-        positionsModel.sort(comparator, false);
+        positionsModel.permute(permutation.get());
+    }
+
+    public void die() {
+        super.die();
+        permutation.discard();
     }
 }
\ No newline at end of file
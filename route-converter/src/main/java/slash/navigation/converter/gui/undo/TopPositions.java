@@ -21,6 +21,7 @@
 package slash.navigation.converter.gui.undo;
 
 import slash.navigation.converter.gui.models.PositionsModel;
+import slash.navigation.gui.undo.SizedUndoableEdit;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -33,7 +34,7 @@ import javax.swing.undo.UndoableEdit;
  * @author Christian Pesch
  */
 
-class TopPositions extends AbstractUndoableEdit {
+class TopPositions extends AbstractUndoableEdit implements SizedUndoableEdit {
     private UndoPositionsModel positionsModel;
     private int[] rows;
 
@@ -42,6 +43,10 @@ class TopPositions extends AbstractUndoableEdit {
         this.rows = rows;
     }
 
+    public long getSize() {
+        return UndoPositionsModel.estimateSize(rows);
+    }
+
     public String getUndoPresentationName() {
         return "top-position-undo";
     }
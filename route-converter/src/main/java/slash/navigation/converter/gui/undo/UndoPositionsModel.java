@@ -29,9 +29,7 @@ import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.models.PositionColumnValues;
 import slash.navigation.converter.gui.models.PositionsModel;
 import slash.navigation.converter.gui.models.PositionsModelImpl;
-import slash.navigation.gui.events.ContinousRange;
 import slash.navigation.gui.events.Range;
-import slash.navigation.gui.events.RangeOperation;
 import slash.navigation.gui.undo.UndoManager;
 
 import javax.swing.event.TableModelListener;
@@ -40,9 +38,10 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
-import static java.lang.Integer.MAX_VALUE;
 import static java.util.Collections.singletonList;
+import static slash.navigation.base.BaseRoute.invert;
 import static slash.common.io.Transfer.trim;
+import static slash.navigation.gui.events.Range.asDistinctIncreasing;
 
 /**
  * Implements a undo/redo-supporting {@link PositionsModel} for the positions of a {@link BaseRoute}.
@@ -51,6 +50,10 @@ import static slash.common.io.Transfer.trim;
  */
 
 public class UndoPositionsModel implements PositionsModel {
+    // a rough estimate of a position with its time and description
+    private static final long ESTIMATED_POSITION_SIZE = 200;
+    private static final long ESTIMATED_EDIT_SIZE = 32;
+
     private final PositionsModelImpl delegate = new PositionsModelImpl();
     private final UndoManager undoManager;
 
@@ -116,12 +119,14 @@ public class UndoPositionsModel implements PositionsModel {
         delegate.removeTableModelListener(l);
     }
 
-    private static final int CONTINOUS_RANGE_FINAL_EVENT = -2;
-
     public boolean isContinousRange() {
         return delegate.isContinousRange();
     }
 
+    public boolean isBulkChange() {
+        return delegate.isBulkChange();
+    }
+
     public void fireTableRowsUpdated(int firstIndex, int lastIndex, int columnIndex) {
         delegate.fireTableRowsUpdated(firstIndex, lastIndex, columnIndex);
     }
@@ -205,6 +210,13 @@ public class UndoPositionsModel implements PositionsModel {
         add(rowIndex, new ArrayList<>(positions), true, true);
     }
 
+    /**
+     * Appends positions of a position list that is still being read without tracking them for undo.
+     */
+    public void append(List<BaseNavigationPosition> positions) {
+        add(getRowCount(), new ArrayList<NavigationPosition>(positions), true, false);
+    }
+
     @SuppressWarnings("unchecked")
     void add(int row, List<NavigationPosition> positions, boolean fireEvent, boolean trackUndo) {
         for (int i = positions.size() - 1; i >= 0; i--) {
@@ -222,14 +234,7 @@ public class UndoPositionsModel implements PositionsModel {
     }
 
     public void remove(int[] rowIndices) {
-        // speed up deletion of positions in large tracks
-        if (rowIndices.length > 1000) {
-            int rowCountBeforeRemoval = getRowCount() - 1;
-            remove(rowIndices, false, true);
-            delegate.fireTableRowsDeletedInContinousRange(0, rowCountBeforeRemoval);
-            delegate.fireTableRowsInserted(0, getRowCount() - 1);
-        } else
-            remove(rowIndices, true, true);
+        remove(rowIndices, true, true);
     }
 
     void remove(int from, int to, boolean fireEvent, boolean trackUndo) {
@@ -237,50 +242,43 @@ public class UndoPositionsModel implements PositionsModel {
         remove(rows, fireEvent, trackUndo);
     }
 
-    void remove(int[] rows, final boolean fireEvent, final boolean trackUndo) {
-        final RemovePositions edit = new RemovePositions(this);
-
-        new ContinousRange(rows, new RangeOperation() {
-            private List<NavigationPosition> removed = new ArrayList<>();
-
-            public void performOnIndex(int index) {
-                removed.add(0, getRoute().remove(index));
-            }
-
-            public void performOnRange(int firstIndex, int lastIndex) {
-                if (fireEvent)
-                    delegate.fireTableRowsDeletedInContinousRange(firstIndex, lastIndex);
-                if (trackUndo)
-                    edit.add(firstIndex, removed);
-                removed = new ArrayList<>();
-            }
-
-            public boolean isInterrupted() {
-                return false;
-            }
-        }).performMonotonicallyDecreasing();
-
-        if (fireEvent)
-            fireTableRowsUpdated(0, MAX_VALUE, CONTINOUS_RANGE_FINAL_EVENT);
+    void remove(int[] rows, boolean fireEvent, boolean trackUndo) {
+        int[] removedRows = asDistinctIncreasing(rows);
+        List<NavigationPosition> removed = delegate.remove(removedRows, fireEvent);
         if (trackUndo)
-            undoManager.addEdit(edit);
+            undoManager.addEdit(new RemovePositions(this, removedRows, removed));
+    }
+
+    void add(int[] rows, List<NavigationPosition> positions, boolean fireEvent) {
+        delegate.add(rows, positions, fireEvent);
     }
 
     public void sort(Comparator<NavigationPosition> comparator) {
         sort(comparator, true);
     }
 
+    @SuppressWarnings("unchecked")
     void sort(Comparator<NavigationPosition> comparator, boolean trackUndo) {
-        @SuppressWarnings("unchecked")
-        List<NavigationPosition> original = getRoute().getPositions();
-        List<NavigationPosition> positions = new ArrayList<>(original);
-        delegate.sort(comparator);
+        int[] permutation = getRoute().createSortPermutation(comparator);
+        permute(permutation);
         if (trackUndo)
-            undoManager.addEdit(new SortPositions(this, comparator, positions));
+            undoManager.addEdit(new SortPositions(this, permutation));
+    }
+
+    void permute(int[] permutation) {
+        delegate.permute(permutation);
+    }
+
+    void unpermute(int[] permutation) {
+        delegate.permute(invert(permutation));
+    }
+
+    static long estimateSize(int[] rows) {
+        return ESTIMATED_EDIT_SIZE + (long) rows.length * 4;
     }
 
-    public void order(List<NavigationPosition> positions) {
-        delegate.order(positions);
+    static long estimateSize(List<?> positions) {
+        return ESTIMATED_EDIT_SIZE + positions.size() * ESTIMATED_POSITION_SIZE;
     }
 
     public void revert() {
@@ -304,7 +302,7 @@ public class UndoPositionsModel implements PositionsModel {
     }
 
     void topDown(int[] rows) {
-        delegate.topDown(rows);
+        unpermute(getRoute().createTopPermutation(rows));
     }
 
     public void up(int[] rowIndices, int delta) {
@@ -338,6 +336,6 @@ public class UndoPositionsModel implements PositionsModel {
     }
 
     void bottomUp(int[] rows) {
-        delegate.bottomUp(rows);
+        unpermute(getRoute().createBottomPermutation(rows));
     }
 }
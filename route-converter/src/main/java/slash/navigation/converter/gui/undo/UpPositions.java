@@ -22,6 +22,7 @@ package slash.navigation.converter.gui.undo;
 
 import slash.navigation.converter.gui.models.PositionsModel;
 import slash.navigation.gui.events.Range;
+import slash.navigation.gui.undo.SizedUndoableEdit;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -34,7 +35,7 @@ import javax.swing.undo.UndoableEdit;
  * @author Christian Pesch
  */
 
-class UpPositions extends AbstractUndoableEdit {
+class UpPositions extends AbstractUndoableEdit implements SizedUndoableEdit {
     private UndoPositionsModel positionsModel;
     private int[] rows;
     private int delta;
@@ -45,6 +46,10 @@ class UpPositions extends AbstractUndoableEdit {
         this.delta = delta;
     }
 
+    public long getSize() {
+        return UndoPositionsModel.estimateSize(rows);
+    }
+
     public String getUndoPresentationName() {
         return "up-position-undo";
     }
@@ -0,0 +1,260 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.models;
+
+import slash.common.filtering.FilterPredicate;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.RouteStatistics;
+import slash.navigation.common.DistanceAndTime;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.converter.gui.helpers.LengthCalculator;
+import slash.navigation.converter.gui.helpers.LengthCalculatorListener;
+import slash.navigation.converter.gui.undo.UndoPositionsModel;
+import slash.navigation.gui.undo.UndoManager;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static slash.common.type.CompactCalendar.fromMillis;
+
+/**
+ * Drives the models behind the positions table of the convert panel without a user
+ * interface: an {@link UndoPositionsModel} wrapped by an {@link OverlayPositionsModel},
+ * a {@link FilteringPositionsModel} and a {@link LengthCalculator} listening to it.
+ *
+ * A session performs a reproducible, random sequence of edits and records the latency
+ * of every operation and the time until the length calculator delivered the statistics
+ * for it.
+ *
+ * @author Christian Pesch
+ */
+
+public class EditSessionHarness {
+    private static final Logger log = Logger.getLogger(EditSessionHarness.class.getName());
+    private static final long STATISTICS_TIMEOUT = MILLISECONDS.toNanos(30000);
+    private static final int VISIBLE_ROWS = 50;
+
+    enum Operation {
+        ADD(20), REMOVE(15), REMOVE_SCATTERED(5), TOP(5), UP(10), DOWN(10), BOTTOM(5),
+        SORT(2), REVERT(3), UNDO(15), REDO(10), DISTANCES(20);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final UndoManager undoManager = new UndoManager();
+    private final CharacteristicsModel characteristicsModel = new CharacteristicsModel();
+    private final OverlayPositionsModel positionsModel = new OverlayPositionsModel(new UndoPositionsModel(undoManager), characteristicsModel);
+    private final FilteringPositionsModel<NavigationPosition> filteringModel;
+    private final LengthCalculator lengthCalculator = new LengthCalculator();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final Random random;
+    private final Object statisticsMutex = new Object();
+    private long statisticsCount;
+    private int tableEventCount;
+
+    @SuppressWarnings("unchecked")
+    public EditSessionHarness(BaseRoute route, long seed) {
+        this.random = new Random(seed);
+        filteringModel = new FilteringPositionsModel<>(positionsModel, new FilterPredicate<NavigationPosition>() {
+            public String getName() {
+                return "Faster than 20 Km/h";
+            }
+
+            public boolean shouldInclude(NavigationPosition position) {
+                return position.getSpeed() != null && position.getSpeed() > 20.0;
+            }
+        });
+        positionsModel.addTableModelListener(e -> tableEventCount++);
+        lengthCalculator.initialize(positionsModel, characteristicsModel);
+        positionsModel.setLengthCalculator(lengthCalculator);
+        lengthCalculator.addLengthCalculatorListener(new LengthCalculatorListener() {
+            public void calculatedDistanceAndTime(DistanceAndTime distanceAndTime) {
+            }
+
+            public void calculatedStatistics(RouteStatistics.Summary summary) {
+                synchronized (statisticsMutex) {
+                    statisticsCount++;
+                    statisticsMutex.notifyAll();
+                }
+            }
+        });
+
+        long start = nanoTime();
+        long count = getStatisticsCount();
+        positionsModel.setRoute(route);
+        characteristicsModel.setRoute(route);
+        recorder.record("set route", nanoTime() - start);
+        awaitStatistics("set route", start, count);
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    public PositionsModel getPositionsModel() {
+        return positionsModel;
+    }
+
+    public FilteringPositionsModel<NavigationPosition> getFilteringModel() {
+        return filteringModel;
+    }
+
+    public void dispose() {
+        lengthCalculator.dispose();
+    }
+
+    private long getStatisticsCount() {
+        synchronized (statisticsMutex) {
+            return statisticsCount;
+        }
+    }
+
+    private void awaitStatistics(String operation, long start, long countBefore) {
+        synchronized (statisticsMutex) {
+            while (statisticsCount == countBefore) {
+                long remaining = STATISTICS_TIMEOUT - (nanoTime() - start);
+                if (remaining <= 0) {
+                    log.warning("No statistics after " + operation);
+                    return;
+                }
+                try {
+                    NANOSECONDS.timedWait(statisticsMutex, remaining);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+        recorder.record(operation + " statistics", nanoTime() - start);
+    }
+
+    private Operation nextOperation() {
+        int total = 0;
+        for (Operation operation : Operation.values())
+            total += operation.weight;
+        int value = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            value -= operation.weight;
+            if (value < 0)
+                return operation;
+        }
+        throw new IllegalStateException();
+    }
+
+    private int[] selectRows(int maximumCount) {
+        int rowCount = positionsModel.getRowCount();
+        int first = random.nextInt(rowCount);
+        int count = 1 + random.nextInt(min(maximumCount, rowCount - first));
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++)
+            rows[i] = first + i;
+        return rows;
+    }
+
+    private int[] selectScatteredRows(int count) {
+        int rowCount = positionsModel.getRowCount();
+        int[] rows = new int[min(count, rowCount)];
+        int step = rowCount / rows.length;
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = i * step;
+        return rows;
+    }
+
+    private boolean perform(Operation operation) {
+        int rowCount = positionsModel.getRowCount();
+        if (rowCount < 2 && operation != Operation.UNDO && operation != Operation.REDO)
+            return false;
+
+        switch (operation) {
+            case ADD:
+                NavigationPosition position = positionsModel.getPosition(random.nextInt(rowCount));
+                positionsModel.add(random.nextInt(rowCount + 1), position.getLongitude(), position.getLatitude(),
+                        position.getElevation(), position.getSpeed(), fromMillis(position.getTime().getTimeInMillis()), "Added");
+                return true;
+            case REMOVE:
+                positionsModel.remove(selectRows(min(100, rowCount - 1)));
+                return true;
+            case REMOVE_SCATTERED:
+                if (rowCount < 200)
+                    return false;
+                positionsModel.remove(selectScatteredRows(100));
+                return true;
+            case TOP:
+                positionsModel.top(selectRows(10));
+                return true;
+            case UP:
+                positionsModel.up(selectRows(10), 1 + random.nextInt(10));
+                return true;
+            case DOWN:
+                positionsModel.down(selectRows(10), 1 + random.nextInt(10));
+                return true;
+            case BOTTOM:
+                positionsModel.bottom(selectRows(10));
+                return true;
+            case SORT:
+                positionsModel.sort(Comparator.comparingDouble(NavigationPosition::getLongitude));
+                return true;
+            case REVERT:
+                positionsModel.revert();
+                return true;
+            case UNDO:
+                if (!undoManager.canUndo())
+                    return false;
+                undoManager.undo();
+                return true;
+            case REDO:
+                if (!undoManager.canRedo())
+                    return false;
+                undoManager.redo();
+                return true;
+            case DISTANCES:
+                int first = random.nextInt(rowCount);
+                positionsModel.getDistancesFromStart(first, min(rowCount - 1, first + VISIBLE_ROWS - 1));
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    public void run(int operationCount) {
+        for (int i = 0; i < operationCount; i++) {
+            Operation operation = nextOperation();
+            String name = operation.name().toLowerCase().replace('_', ' ');
+            long count = getStatisticsCount();
+            int tableEventsBefore = tableEventCount;
+            long start = nanoTime();
+            if (!perform(operation))
+                continue;
+            recorder.record(name, nanoTime() - start);
+            // operations that change nothing, like sorting a sorted track, fire no event
+            if (tableEventCount != tableEventsBefore)
+                awaitStatistics(name, start, count);
+        }
+    }
+}
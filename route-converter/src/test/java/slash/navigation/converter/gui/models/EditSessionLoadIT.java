@@ -0,0 +1,75 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.models;
+
+import org.junit.Test;
+import slash.navigation.base.TrackGenerator;
+
+import java.util.logging.Logger;
+
+import static java.lang.Integer.getInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs edit sessions on generated tracks and logs the latency percentiles per operation.
+ * The track size and the length of the session are set with the system properties
+ * <code>loadtest.positions</code> and <code>loadtest.operations</code>.
+ *
+ * @author Christian Pesch
+ */
+
+public class EditSessionLoadIT {
+    private static final Logger log = Logger.getLogger(EditSessionLoadIT.class.getName());
+
+    private LatencyRecorder runSession(int positionCount, int operationCount) {
+        EditSessionHarness harness = new EditSessionHarness(new TrackGenerator(positionCount).seed(positionCount).createRoute(), positionCount);
+        try {
+            harness.run(operationCount);
+
+            PositionsModel positionsModel = harness.getPositionsModel();
+            FilteringPositionsModel filteringModel = harness.getFilteringModel();
+            int filtered = 0;
+            for (int i = 0; i < positionsModel.getRowCount(); i++) {
+                Double speed = positionsModel.getPosition(i).getSpeed();
+                if (speed != null && speed > 20.0)
+                    filtered++;
+            }
+            assertEquals(filtered, filteringModel.getRowCount());
+        } finally {
+            harness.dispose();
+        }
+
+        LatencyRecorder recorder = harness.getRecorder();
+        log.info("Edit session with " + operationCount + " operations on " + positionCount + " positions:");
+        for (String line : recorder.report())
+            log.info(line);
+        return recorder;
+    }
+
+    @Test
+    public void testEditSession() {
+        LatencyRecorder recorder = runSession(getInteger("loadtest.positions", 100000), getInteger("loadtest.operations", 500));
+        assertTrue(recorder.getCount("add") > 0);
+        assertTrue(recorder.getCount("undo") > 0);
+        assertTrue(recorder.getCount("remove statistics") > 0);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Records the latencies of named operations and reports their percentiles.
+ *
+ * @author Christian Pesch
+ */
+
+public class LatencyRecorder {
+    private final Map<String, Samples> operationToSamples = new LinkedHashMap<>();
+
+    private static class Samples {
+        private long[] nanos = new long[64];
+        private int count;
+
+        void add(long value) {
+            if (count == nanos.length)
+                nanos = copyOf(nanos, count * 2);
+            nanos[count++] = value;
+        }
+
+        long[] sorted() {
+            long[] result = copyOf(nanos, count);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    public synchronized void record(String operation, long nanos) {
+        operationToSamples.computeIfAbsent(operation, k -> new Samples()).add(nanos);
+    }
+
+    public synchronized List<String> getOperations() {
+        return new ArrayList<>(operationToSamples.keySet());
+    }
+
+    public synchronized int getCount(String operation) {
+        Samples samples = operationToSamples.get(operation);
+        return samples != null ? samples.count : 0;
+    }
+
+    /**
+     * @param operation the name of the operation
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in nanoseconds that the given percentile of the operations did not exceed
+     */
+    public synchronized long getPercentile(String operation, double percentile) {
+        Samples samples = operationToSamples.get(operation);
+        if (samples == null || samples.count == 0)
+            throw new IllegalArgumentException("No samples for " + operation);
+        long[] sorted = samples.sorted();
+        int rank = (int) ceil(percentile / 100.0 * sorted.length);
+        return sorted[max(0, min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    public synchronized List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add(format("%-30s %7s %10s %10s %10s %10s", "operation", "count", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (String operation : operationToSamples.keySet()) {
+            lines.add(format("%-30s %7d %10.3f %10.3f %10.3f %10.3f", operation, getCount(operation),
+                    toMillis(getPercentile(operation, 50)), toMillis(getPercentile(operation, 90)),
+                    toMillis(getPercentile(operation, 99)), toMillis(getPercentile(operation, 100))));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.gui.models;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.RouteStatistics;
+import slash.navigation.base.TrackGenerator;
+import slash.navigation.common.DistanceAndTime;
+import slash.navigation.converter.gui.helpers.LengthCalculator;
+import slash.navigation.converter.gui.helpers.LengthCalculatorListener;
+
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.converter.gui.models.PositionColumns.*;
+
+public class OverlayPositionsModelTest {
+    private static final double DELTA = 0.000001;
+
+    private final CharacteristicsModel characteristicsModel = new CharacteristicsModel();
+    private final OverlayPositionsModel positionsModel = new OverlayPositionsModel(new PositionsModelImpl(), characteristicsModel);
+    private final LengthCalculator lengthCalculator = new LengthCalculator();
+    private final Semaphore statistics = new Semaphore(0);
+    private BaseRoute route;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        lengthCalculator.initialize(positionsModel, characteristicsModel);
+        lengthCalculator.addLengthCalculatorListener(new LengthCalculatorListener() {
+            public void calculatedDistanceAndTime(DistanceAndTime distanceAndTime) {
+            }
+
+            public void calculatedStatistics(RouteStatistics.Summary summary) {
+                statistics.release();
+            }
+        });
+        positionsModel.setLengthCalculator(lengthCalculator);
+
+        route = new TrackGenerator(500).seed(43).createRoute();
+        positionsModel.setRoute(route);
+        characteristicsModel.setRoute(route);
+        awaitStatistics();
+    }
+
+    @After
+    public void tearDown() {
+        lengthCalculator.dispose();
+    }
+
+    private void awaitStatistics() throws InterruptedException {
+        // a change while recalculating notifies statistics that are not valid yet
+        do {
+            assertTrue(statistics.tryAcquire(30, SECONDS));
+            statistics.drainPermits();
+        } while (lengthCalculator.getStatistics(0, route.getPositionCount() - 1) == null);
+    }
+
+    private void assertStatisticsFromStart() {
+        assertNotNull(lengthCalculator.getStatistics(0, route.getPositionCount() - 1));
+        for (int row = 0; row < route.getPositionCount(); row += 7) {
+            assertEquals(route.getElevationAscend(0, row), (Double) positionsModel.getValueAt(row, ELEVATION_ASCEND_COLUMN_INDEX), DELTA);
+            assertEquals(route.getElevationDescend(0, row), (Double) positionsModel.getValueAt(row, ELEVATION_DESCEND_COLUMN_INDEX), DELTA);
+            assertEquals(route.getDistance(0, row), (Double) positionsModel.getValueAt(row, DISTANCE_COLUMN_INDEX), DELTA);
+        }
+
+        int[] indices = new int[]{route.getPositionCount() - 1, 3, route.getPositionCount() / 2, 0};
+        assertArrayEquals(route.getDistancesFromStart(indices.clone()), positionsModel.getDistancesFromStart(indices), DELTA);
+    }
+
+    @Test
+    public void testStatisticsFromStart() {
+        assertStatisticsFromStart();
+    }
+
+    @Test
+    public void testStatisticsFromStartAfterEdit() throws InterruptedException {
+        route.getPosition(100).setElevation(1234.0);
+        positionsModel.fireTableRowsUpdated(100, 100, ELEVATION_COLUMN_INDEX);
+        awaitStatistics();
+        assertStatisticsFromStart();
+
+        positionsModel.remove(new int[]{10, 11, 12});
+        awaitStatistics();
+        assertStatisticsFromStart();
+    }
+}
@@ -25,11 +25,27 @@ import slash.navigation.base.BaseRoute;
 import slash.navigation.bcr.BcrPosition;
 import slash.navigation.bcr.BcrRoute;
 import slash.navigation.bcr.MTP0607Format;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.excel.ExcelPosition;
+import slash.navigation.excel.ExcelRoute;
+import slash.navigation.excel.MicrosoftExcel97Format;
 
+import javax.swing.event.TableModelEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.gui.helpers.JTableHelper.isFirstToLastRow;
+import static slash.navigation.converter.gui.models.PositionsModelImpl.isBulkChange;
 
 public class PositionsModelTest {
     PositionsModelImpl model = new PositionsModelImpl();
@@ -82,4 +98,103 @@ public class PositionsModelTest {
         assertEquals("a", model.getPosition(0).getDescription());
         assertEquals("e", model.getPosition(1).getDescription());
     }
+
+    @Test
+    public void testRemoveScatteredRowsFiresSingleEvent() {
+        initialize();
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+
+        List<NavigationPosition> removed = model.remove(new int[]{3, 0, 3}, true);
+
+        assertEquals(asList(a, d), removed);
+        assertEquals(3, model.getRowCount());
+        assertEquals("b", model.getPosition(0).getDescription());
+        assertEquals("e", model.getPosition(2).getDescription());
+        assertEquals(1, events.size());
+        assertTrue(isBulkChange(events.get(0)));
+
+        model.add(new int[]{0, 3}, removed, true);
+        assertEquals(5, model.getRowCount());
+        assertEquals("a", model.getPosition(0).getDescription());
+        assertEquals("d", model.getPosition(3).getDescription());
+    }
+
+    @Test
+    public void testListenersTellBulkChangesFromLoading() {
+        initialize();
+        List<Boolean> bulkChanges = new ArrayList<>();
+        List<Boolean> loadings = new ArrayList<>();
+        model.addTableModelListener(event -> {
+            bulkChanges.add(model.isBulkChange());
+            // the condition the map views center, zoom and prefetch on
+            loadings.add(isFirstToLastRow(event) && !model.isBulkChange());
+        });
+
+        model.remove(new int[]{0, 3}, true);
+        model.remove(new int[]{0, 1}, true);
+        model.setRoute(route);
+        model.revert();
+
+        assertEquals(asList(true, false, false, false), bulkChanges);
+        assertEquals(asList(false, false, true, true), loadings);
+        assertFalse(model.isBulkChange());
+    }
+
+    private ExcelRoute createExcelRoute(MicrosoftExcel97Format format) {
+        ExcelRoute route = new ExcelRoute(format, "Sheet", new ArrayList<ExcelPosition>());
+        for (String description : asList("a", "b", "c", "d", "e"))
+            route.getPositions().add(route.createPosition(1.0, 2.0, 3.0, null, null, description));
+        return route;
+    }
+
+    private ExcelRoute writeAndRead(MicrosoftExcel97Format format, ExcelRoute route) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        format.write(route, target, 0, route.getPositionCount());
+        ParserContext<ExcelRoute> context = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(target.toByteArray()), context);
+        return context.getRoutes().get(0);
+    }
+
+    private void assertDescriptions(ExcelRoute route, String... descriptions) {
+        assertEquals(descriptions.length, route.getPositionCount());
+        for (int i = 0; i < descriptions.length; i++)
+            assertEquals(descriptions[i], route.getPosition(i).getDescription());
+    }
+
+    @Test
+    public void testRemoveAndAddWithArrayFromSheet() throws IOException {
+        MicrosoftExcel97Format format = new MicrosoftExcel97Format();
+        ExcelRoute route = createExcelRoute(format);
+        model.setRoute(route);
+
+        List<NavigationPosition> removed = model.remove(new int[]{3, 0, 1}, true);
+        assertEquals(3, removed.size());
+        assertDescriptions(writeAndRead(format, route), "c", "e");
+
+        model.add(new int[]{0, 1, 3}, removed, true);
+        assertDescriptions(writeAndRead(format, route), "a", "b", "c", "d", "e");
+    }
+
+    @Test
+    public void testPermuteFromSheet() throws IOException {
+        MicrosoftExcel97Format format = new MicrosoftExcel97Format();
+        ExcelRoute route = createExcelRoute(format);
+        model.setRoute(route);
+
+        model.top(new int[]{2, 4});
+        assertDescriptions(writeAndRead(format, route), "c", "e", "a", "b", "d");
+
+        model.down(new int[]{0}, 2);
+        assertDescriptions(writeAndRead(format, route), "a", "e", "c", "b", "d");
+
+        model.bottom(new int[]{1});
+        assertDescriptions(writeAndRead(format, route), "a", "c", "b", "d", "e");
+
+        model.revert();
+        assertDescriptions(writeAndRead(format, route), "e", "d", "b", "c", "a");
+
+        model.sort(comparing(NavigationPosition::getDescription));
+        assertDescriptions(writeAndRead(format, route), "a", "b", "c", "d", "e");
+    }
 }
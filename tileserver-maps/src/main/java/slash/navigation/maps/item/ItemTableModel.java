@@ -109,6 +109,20 @@ public class ItemTableModel<T extends Item> extends AbstractTableModel {
             updateItem(item);
     }
 
+    public void addOrUpdateItems(List<T> items) {
+        int firstInserted = this.items.size();
+        for (T item : items) {
+            int index = getIndex(item);
+            if (index == -1)
+                this.items.add(item);
+            else
+                updateItem(item);
+        }
+        int lastInserted = this.items.size() - 1;
+        if (lastInserted >= firstInserted)
+            fireTableRowsInserted(firstInserted, lastInserted);
+    }
+
     public void removeItem(T item) {
         final int index = getIndex(item);
         if (index == -1)